@@ -8,6 +8,7 @@ import at.ac.tuwien.infosys.www.pixy.conversion.cfgnodes.AbstractCfgNode;
 import at.ac.tuwien.infosys.www.pixy.conversion.cfgnodes.CallUnknownFunction;
 
 import java.util.*;
+import java.util.concurrent.*;
 
 /**
  * If you want to create a new vulnerability analysis:
@@ -38,6 +39,15 @@ public abstract class AbstractVulnerabilityAnalysis {
         this.vulnerabilityAnalysisInformation = MyOptions.getVulnerabilityAnalysisInformation(this.getClass().getName());
     }
 
+    /**
+     * Returns the directory for the graphs and reports of the current run.
+     *
+     * @return the output directory
+     */
+    protected String getOutputPath() {
+        return this.dependencyAnalysis.getRunContext().getOutputPath();
+    }
+
     /**
      * Detects vulnerabilities and returns a list with the line numbers of the detected vulnerabilities.
      *
@@ -73,6 +83,79 @@ public abstract class AbstractVulnerabilityAnalysis {
         return sinks;
     }
 
+    /**
+     * Returns the dependency graphs for the given sinks: one list of graphs per sink, in the order of the sinks.
+     *
+     * @param sinks
+     *
+     * @return
+     */
+    protected List<List<DependencyGraph>> getDependencyGraphsForSinks(List<Sink> sinks) {
+        List<Callable<List<DependencyGraph>>> tasks = new ArrayList<>(sinks.size());
+        for (final Sink sink : sinks) {
+            tasks.add(new Callable<List<DependencyGraph>>() {
+                public List<DependencyGraph> call() {
+                    return dependencyAnalysis.getDependencyGraphsForSink(sink);
+                }
+            });
+        }
+
+        return invokeAll(tasks);
+    }
+
+    /**
+     * Runs the given tasks and returns their results in the order of the tasks.
+     *
+     * If more than one detection thread is configured (see MyOptions.detectionThreads), the tasks are distributed
+     * among a thread pool; else, they are run one after the other by the calling thread. Running detection tasks
+     * concurrently is fine since the results of the taint analysis are only read after its fixpoint was reached.
+     * The state that the tasks do share is thread-safe: the intern tables of dependency labels and sets, and the ids
+     * of automaton states; the Dumper keeps no state between calls.
+     *
+     * @param tasks
+     *
+     * @return
+     */
+    protected static <T> List<T> invokeAll(List<? extends Callable<T>> tasks) {
+        List<T> results = new ArrayList<>(tasks.size());
+
+        if (MyOptions.detectionThreads <= 1 || tasks.size() <= 1) {
+            for (Callable<T> task : tasks) {
+                try {
+                    results.add(task.call());
+                } catch (RuntimeException e) {
+                    throw e;
+                } catch (Exception e) {
+                    throw new RuntimeException(e);
+                }
+            }
+            return results;
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(MyOptions.detectionThreads, tasks.size()));
+        try {
+            for (Future<T> future : executor.invokeAll(tasks)) {
+                results.add(future.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            // rethrow what went wrong inside the task
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new RuntimeException(cause);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        return results;
+    }
+
     protected boolean isStrongSanitation(String opName) {
         return this.vulnerabilityAnalysisInformation.getFunctionModels().getF_strongSanit().contains(opName);
     }
@@ -242,23 +325,52 @@ public abstract class AbstractVulnerabilityAnalysis {
     protected DependencyGraph getRelevantSubgraph(DependencyGraph dependencyGraph) {
         // start with a one-element graph
         DependencyGraph relevant = new DependencyGraph(dependencyGraph.getRootNode());
-        this.getRelevantHelper(relevant.getRootNode(), relevant, dependencyGraph);
-        return relevant;
-    }
 
-    protected void getRelevantHelper(AbstractNode node, DependencyGraph relevant, DependencyGraph orig) {
-        if (node instanceof NormalNode) {
-            for (AbstractNode successor : orig.getSuccessors(node)) {
-                // if this node has already been added to the relevant graph...
-                if (relevant.containsNode(successor)) {
-                    relevant.addEdge(node, successor);
-                    continue;
-                }
+        // depth-first, with an explicit stack instead of recursion: the original graph
+        // can be as deep as the program is long
+        Deque<Iterator<AbstractNode>> successorStack = new ArrayDeque<>();
+        Deque<AbstractNode> nodeStack = new ArrayDeque<>();
+        nodeStack.push(relevant.getRootNode());
+        successorStack.push(this.getRelevantSuccessors(relevant.getRootNode(), relevant, dependencyGraph).iterator());
+        while (!nodeStack.isEmpty()) {
+            Iterator<AbstractNode> successors = successorStack.peek();
+            if (!successors.hasNext()) {
+                nodeStack.pop();
+                successorStack.pop();
+                continue;
+            }
+            AbstractNode node = nodeStack.peek();
+            AbstractNode successor = successors.next();
 
-                relevant.addNode(successor);
+            // if this node has already been added to the relevant graph...
+            if (relevant.containsNode(successor)) {
                 relevant.addEdge(node, successor);
-                getRelevantHelper(successor, relevant, orig);
+                continue;
             }
+
+            relevant.addNode(successor);
+            relevant.addEdge(node, successor);
+            nodeStack.push(successor);
+            successorStack.push(this.getRelevantSuccessors(successor, relevant, dependencyGraph).iterator());
+        }
+
+        return relevant;
+    }
+
+    /**
+     * Returns those successors of the given node in the original graph that are relevant,
+     * in their original order. Leaves that replace the successors of sanitization or unmodeled
+     * functions are added to the relevant graph right away.
+     *
+     * @param node
+     * @param relevant
+     * @param orig
+     *
+     * @return
+     */
+    protected List<AbstractNode> getRelevantSuccessors(AbstractNode node, DependencyGraph relevant, DependencyGraph orig) {
+        if (node instanceof NormalNode) {
+            return orig.getSuccessors(node);
         } else if (node instanceof BuiltinFunctionNode) {
             BuiltinFunctionNode builtinFunctionNode = (BuiltinFunctionNode) node;
             String opName = builtinFunctionNode.getName();
@@ -296,7 +408,7 @@ public abstract class AbstractVulnerabilityAnalysis {
 
                 // WEAK SANITIZATION FUNCTIONS ************************
             } else if (isWeakSanitation(opName, multiList)) {
-                multiDependencyRelevant(builtinFunctionNode, relevant, orig, multiList, false);
+                return multiDependencyRelevant(builtinFunctionNode, relevant, orig, multiList, false);
 
                 // EVIL FUNCTIONS ***************************************
             } else if (isEvil(opName)) {
@@ -310,11 +422,11 @@ public abstract class AbstractVulnerabilityAnalysis {
                 // TODO: generic value flows should better be modeled during
                 // depgraph construction, and not here
             } else if (isMultiDependencyOperation(opName, multiList)) {
-                multiDependencyRelevant(builtinFunctionNode, relevant, orig, multiList, false);
+                return multiDependencyRelevant(builtinFunctionNode, relevant, orig, multiList, false);
 
                 // INVERSE MULTI-OR-DEPENDENCY **************************
             } else if (isInverseMultiDependencyOperation(opName, multiList)) {
-                multiDependencyRelevant(builtinFunctionNode, relevant, orig, multiList, true);
+                return multiDependencyRelevant(builtinFunctionNode, relevant, orig, multiList, true);
 
                 // CATCH-ALL ********************************************
             } else {
@@ -324,31 +436,36 @@ public abstract class AbstractVulnerabilityAnalysis {
                 relevant.addEdge(builtinFunctionNode, uninitNode);
                 // end of recursion
             }
+            return Collections.emptyList();
         } else if (node instanceof UninitializedNode) {
             // end of recursion: this is always a leaf node
+            return Collections.emptyList();
         } else {
             throw new RuntimeException("SNH: " + node.getClass());
         }
     }
 
     /**
-     * Helper function for multi-dependency builtin functions (in relevant subgraph construction).
+     * Helper function for multi-dependency builtin functions (in relevant subgraph construction):
+     * returns the successors that the function depends on.
      *
      * @param builtinFunctionNode
      * @param relevant
      * @param orig
      * @param indices
      * @param inverse
+     *
+     * @return
      */
-    protected void multiDependencyRelevant(
+    protected List<AbstractNode> multiDependencyRelevant(
         BuiltinFunctionNode builtinFunctionNode, DependencyGraph relevant, DependencyGraph orig, List<Integer> indices,
         boolean inverse
     ) {
         List<AbstractNode> successors = orig.getSuccessors(builtinFunctionNode);
         Set<Integer> indexSet = new HashSet<>(indices);
+        List<AbstractNode> dependencies = new ArrayList<>();
 
         int count = -1;
-        boolean created = false;
         for (AbstractNode successor : successors) {
             count++;
 
@@ -363,24 +480,18 @@ public abstract class AbstractVulnerabilityAnalysis {
                 }
             }
 
-            created = true;
-
-            if (relevant.containsNode(successor)) {
-                relevant.addEdge(builtinFunctionNode, successor);
-                continue;
-            }
-            relevant.addNode(successor);
-            relevant.addEdge(builtinFunctionNode, successor);
-            this.getRelevantHelper(successor, relevant, orig);
+            dependencies.add(successor);
         }
 
-        if (!created) {
+        if (dependencies.isEmpty()) {
             // if no successors have been created: make a harmless one
             AbstractNode sanitNode = new NormalNode(
                 new Literal("<no-dep>"), builtinFunctionNode.getCfgNode());
             relevant.addNode(sanitNode);
             relevant.addEdge(builtinFunctionNode, sanitNode);
         }
+
+        return dependencies;
     }
 
     /**
@@ -451,4 +562,25 @@ public abstract class AbstractVulnerabilityAnalysis {
 
         return retMe;
     }
+
+    /**
+     * Outcome of checking a single dependency graph for vulnerabilities.
+     *
+     * Since the graphs may be checked concurrently, the output is buffered here and printed in sink order afterwards.
+     */
+    protected static class DetectionResult {
+        /** the report that is to be printed to the console */
+        final StringBuilder output = new StringBuilder();
+
+        /** sink-to-graph mapping and quick report for the web interface */
+        final StringBuilder sink2Graph = new StringBuilder();
+        final StringBuilder quickReport = new StringBuilder();
+
+        /** line number of the detected vulnerability, or -1 if the graph is not vulnerable */
+        int vulnerabilityLineNumber = -1;
+
+        boolean isVulnerable() {
+            return this.vulnerabilityLineNumber != -1;
+        }
+    }
 }
\ No newline at end of file
@@ -3,6 +3,7 @@ package at.ac.tuwien.infosys.www.pixy;
 import at.ac.tuwien.infosys.www.phpparser.ParseTree;
 import at.ac.tuwien.infosys.www.pixy.analysis.alias.AliasAnalysis;
 import at.ac.tuwien.infosys.www.pixy.analysis.alias.DummyAliasAnalysis;
+import at.ac.tuwien.infosys.www.pixy.analysis.dependency.FunctionSummaryStore;
 import at.ac.tuwien.infosys.www.pixy.analysis.globalsmodification.GlobalsModificationAnalysis;
 import at.ac.tuwien.infosys.www.pixy.analysis.inclusiondominator.InclusionDominatorAnalysis;
 import at.ac.tuwien.infosys.www.pixy.analysis.interprocedural.*;
@@ -11,24 +12,23 @@ import at.ac.tuwien.infosys.www.pixy.analysis.interprocedural.functional.Functio
 import at.ac.tuwien.infosys.www.pixy.analysis.literal.DummyLiteralAnalysis;
 import at.ac.tuwien.infosys.www.pixy.analysis.literal.LiteralAnalysis;
 import at.ac.tuwien.infosys.www.pixy.conversion.InternalStrings;
+import at.ac.tuwien.infosys.www.pixy.conversion.ParseTreeCache;
 import at.ac.tuwien.infosys.www.pixy.conversion.ProgramConverter;
 import at.ac.tuwien.infosys.www.pixy.conversion.TacConverter;
 import at.ac.tuwien.infosys.www.pixy.conversion.TacFunction;
 import org.apache.commons.cli.*;
 
-import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileNotFoundException;
-import java.io.IOException;
-import java.util.Enumeration;
-import java.util.LinkedList;
-import java.util.Properties;
-import java.util.StringTokenizer;
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.*;
 
 /**
  * @author Nenad Jovanovic <enji@seclab.tuwien.ac.at>
  */
 public final class Checker {
+    // stack size of the threads that analyze entry files concurrently
+    private static final long WORKER_STACK_SIZE = 256L * 1024 * 1024;
+
     // enable this switch to make the TacConverter recognize hotspots
     // and other special nodes
     private boolean specialNodes = true;
@@ -38,8 +38,8 @@ public final class Checker {
     //private InterproceduralWorklistOrder order;
     private InterproceduralWorklist workList;
 
-    // k-size for call-string analyses
-    private int kSize = 1;
+    // the state of this run (entry file etc.)
+    RunContext runContext;
 
     // Analyses
     AliasAnalysis aliasAnalysis;
@@ -54,7 +54,7 @@ public final class Checker {
 
     private static void help(Options cliOptions) {
         HelpFormatter helpFormatter = new HelpFormatter();
-        helpFormatter.printHelp("check [options] file", cliOptions);
+        helpFormatter.printHelp("check [options] file...", cliOptions);
     }
 
     public static void main(String[] args) {
@@ -82,17 +82,24 @@ public final class Checker {
         }
 
         String[] trailingArguments = commandLine.getArgs();
-        if (trailingArguments.length != 1) {
+        if (trailingArguments.length == 0) {
             help(commandLineOptions);
-            Utils.bail("Please specify exactly one target file.");
+            Utils.bail("Please specify at least one target file.");
         }
-        String fileName = trailingArguments[0];
-
-        // **********************
-        // CHECKING
-        // **********************
 
-        Checker checker = new Checker(fileName);
+        // several files or a directory: batch mode
+        List<String> fileNames = new LinkedList<>();
+        boolean batchMode = trailingArguments.length > 1;
+        for (String argument : trailingArguments) {
+            File argumentFile = new File(argument);
+            if (argumentFile.isDirectory()) {
+                batchMode = true;
+                fileNames.addAll(phpFilesInDir(argumentFile));
+            } else {
+                fileNames.add(argument);
+            }
+        }
+        MyOptions.batchMode = batchMode;
 
         // set boolean options according to command line
         MyOptions.optionA = commandLine.hasOption("a");
@@ -103,6 +110,7 @@ public final class Checker {
         MyOptions.optionF = commandLine.hasOption("f");
         MyOptions.optionG = !commandLine.hasOption("g");
         MyOptions.optionI = commandLine.hasOption("i");
+        MyOptions.adaptiveKSize = commandLine.hasOption("K");
         MyOptions.optionL = commandLine.hasOption("l");
         MyOptions.option_L = commandLine.hasOption("L");
         MyOptions.optionM = commandLine.hasOption("m");
@@ -116,11 +124,86 @@ public final class Checker {
         MyOptions.optionV = commandLine.hasOption("v");
         MyOptions.option_V = !commandLine.hasOption("V");
 
+        if (commandLine.hasOption("j")) {
+            try {
+                MyOptions.detectionThreads = Integer.parseInt(commandLine.getOptionValue("j"));
+            } catch (NumberFormatException e) {
+                MyOptions.detectionThreads = 0;
+            }
+            if (MyOptions.detectionThreads < 1) {
+                Utils.bail("Invalid 'j' argument");
+            }
+        }
+
+        if (commandLine.hasOption("k")) {
+            try {
+                MyOptions.kSize = Integer.parseInt(commandLine.getOptionValue("k"));
+            } catch (NumberFormatException e) {
+                MyOptions.kSize = -1;
+            }
+            if (MyOptions.kSize < 0) {
+                Utils.bail("Invalid 'k' argument");
+            }
+        }
+
+        if (commandLine.hasOption("T")) {
+            try {
+                MyOptions.parseThreads = Integer.parseInt(commandLine.getOptionValue("T"));
+            } catch (NumberFormatException e) {
+                MyOptions.parseThreads = 0;
+            }
+            if (MyOptions.parseThreads < 1) {
+                Utils.bail("Invalid 'T' argument");
+            }
+        }
+
+        int jobs = 1;
+        if (commandLine.hasOption("J")) {
+            try {
+                jobs = Integer.parseInt(commandLine.getOptionValue("J"));
+            } catch (NumberFormatException e) {
+                jobs = 0;
+            }
+            if (jobs < 1) {
+                Utils.bail("Invalid 'J' argument");
+            }
+        }
+
+        if (commandLine.hasOption("C")) {
+            File cacheDirectory = new File(commandLine.getOptionValue("C"));
+            cacheDirectory.mkdirs();
+            if (!cacheDirectory.isDirectory()) {
+                Utils.bail("Given cache directory does not exist");
+            }
+            MyOptions.parseTreeCacheDirectory = cacheDirectory;
+        }
+
+        if (commandLine.hasOption("U")) {
+            File summaryDirectory = new File(commandLine.getOptionValue("U"));
+            summaryDirectory.mkdirs();
+            if (!summaryDirectory.isDirectory()) {
+                Utils.bail("Given summary directory does not exist");
+            }
+            MyOptions.functionSummaryDirectory = summaryDirectory;
+        }
+
+        // in batch mode, parse trees are also shared between the entry files
+        ParseTreeCache parseTreeCache = null;
+        if (batchMode || MyOptions.parseTreeCacheDirectory != null) {
+            parseTreeCache = new ParseTreeCache(MyOptions.parseTreeCacheDirectory, batchMode);
+        }
+
         // inform MyOptions about the analyses that are to be performed
         if (!MyOptions.setAnalyses(commandLine.getOptionValue("y"))) {
             Utils.bail("Invalid 'y' argument");
         }
 
+        // the summaries depend on the analyses (and their models and sinks)
+        FunctionSummaryStore functionSummaryStore = null;
+        if (MyOptions.functionSummaryDirectory != null) {
+            functionSummaryStore = new FunctionSummaryStore(MyOptions.functionSummaryDirectory, batchMode);
+        }
+
         // set output directory
         if (commandLine.hasOption("o")) {
             MyOptions.graphPath = commandLine.getOptionValue("o");
@@ -132,14 +215,209 @@ public final class Checker {
             // no output directory given: use default
             MyOptions.graphPath = MyOptions.pixyHome + "/graphs";
 
-            // create / empty the graphs directory
+            // create / empty the graphs directory (including the directories
+            // of the entry files of earlier batch runs)
             File graphPathFile = new File(MyOptions.graphPath);
             graphPathFile.mkdir();
             for (File file : graphPathFile.listFiles()) {
-                file.delete();
+                delete(file);
+            }
+        }
+
+        // in batch mode, each entry file writes its output to a directory of its own
+        Map<String, String> outputPaths = new HashMap<>();
+        for (String fileName : fileNames) {
+            outputPaths.put(fileName, MyOptions.graphPath);
+        }
+        if (batchMode) {
+            outputPaths = batchOutputPaths(fileNames, MyOptions.graphPath);
+        }
+
+        // **********************
+        // CHECKING
+        // **********************
+
+        // the configuration is shared by all entry files
+        readConfiguration();
+
+        Map<String, List<Integer>> vulnerabilities;
+        if (jobs > 1 && fileNames.size() > 1) {
+            vulnerabilities = checkConcurrently(fileNames, outputPaths, parseTreeCache, functionSummaryStore, jobs);
+        } else {
+            vulnerabilities = new LinkedHashMap<>();
+            for (String fileName : fileNames) {
+                vulnerabilities.put(fileName,
+                    check(fileName, outputPaths.get(fileName), parseTreeCache, functionSummaryStore));
             }
         }
 
+        if (batchMode) {
+            if (!printBatchSummary(vulnerabilities)) {
+                System.exit(1);
+            }
+        }
+    }
+
+    // returns the output directory of each of the given entry files: its path relative
+    // to the directory that contains all of them, below the given output directory
+    // (so entry files with the same name in different directories don't collide)
+    static Map<String, String> batchOutputPaths(List<String> fileNames, String graphPath) {
+        Map<String, File> entryFiles = new LinkedHashMap<>();
+        File commonDirectory = null;
+        for (String fileName : fileNames) {
+            File entryFile = new File(fileName).getAbsoluteFile();
+            try {
+                entryFile = entryFile.getCanonicalFile();
+            } catch (IOException e) {
+                // the run will report this
+            }
+            entryFiles.put(fileName, entryFile);
+
+            File directory = entryFile.getParentFile();
+            if (commonDirectory == null) {
+                commonDirectory = directory;
+            } else {
+                while (!directory.toPath().startsWith(commonDirectory.toPath())) {
+                    commonDirectory = commonDirectory.getParentFile();
+                }
+            }
+        }
+
+        Map<String, String> outputPaths = new HashMap<>();
+        for (Map.Entry<String, File> entry : entryFiles.entrySet()) {
+            String relativePath = commonDirectory.toPath().relativize(entry.getValue().toPath()).toString();
+            outputPaths.put(entry.getKey(), new File(graphPath, relativePath).getPath());
+        }
+        return outputPaths;
+    }
+
+    // deletes the given file or directory (with its contents)
+    private static void delete(File file) {
+        File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                delete(child);
+            }
+        }
+        file.delete();
+    }
+
+    // analyzes the given entry files with the given number of threads; the output of
+    // each run is collected and printed as a whole, in the order of the files
+    private static Map<String, List<Integer>> checkConcurrently(
+        List<String> fileNames, final Map<String, String> outputPaths, final ParseTreeCache parseTreeCache,
+        final FunctionSummaryStore functionSummaryStore, int jobs) {
+
+        final PrintStream console = System.out;
+        final InheritableThreadLocal<ByteArrayOutputStream> runOutput = new InheritableThreadLocal<>();
+        System.setOut(new PrintStream(new OutputStream() {
+            public void write(int b) {
+                ByteArrayOutputStream buffer = runOutput.get();
+                if (buffer == null) {
+                    console.write(b);
+                } else {
+                    buffer.write(b);
+                }
+            }
+
+            public void write(byte[] bytes, int offset, int length) {
+                ByteArrayOutputStream buffer = runOutput.get();
+                if (buffer == null) {
+                    console.write(bytes, offset, length);
+                } else {
+                    buffer.write(bytes, offset, length);
+                }
+            }
+
+            public void flush() {
+                console.flush();
+            }
+        }, true));
+
+        // the conversion recurses along the parse tree, so the threads get
+        // as much stack as the main thread usually has
+        ExecutorService executor = Executors.newFixedThreadPool(jobs, new ThreadFactory() {
+            public Thread newThread(Runnable runnable) {
+                return new Thread(null, runnable, "checker", WORKER_STACK_SIZE);
+            }
+        });
+
+        Map<String, Future<List<Integer>>> futures = new LinkedHashMap<>();
+        Map<String, ByteArrayOutputStream> outputs = new HashMap<>();
+        for (final String fileName : fileNames) {
+            final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+            outputs.put(fileName, buffer);
+            futures.put(fileName, executor.submit(new Callable<List<Integer>>() {
+                public List<Integer> call() {
+                    runOutput.set(buffer);
+                    try {
+                        return check(fileName, outputPaths.get(fileName), parseTreeCache, functionSummaryStore);
+                    } finally {
+                        runOutput.remove();
+                    }
+                }
+            }));
+        }
+
+        Map<String, List<Integer>> vulnerabilities = new LinkedHashMap<>();
+        try {
+            for (Map.Entry<String, Future<List<Integer>>> entry : futures.entrySet()) {
+                List<Integer> lineNumbers;
+                try {
+                    lineNumbers = entry.getValue().get();
+                } finally {
+                    // also print the output of failed runs
+                    outputs.get(entry.getKey()).writeTo(console);
+                    console.flush();
+                }
+                vulnerabilities.put(entry.getKey(), lineNumbers);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            // rethrow what went wrong inside the run
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new RuntimeException(cause);
+        } finally {
+            executor.shutdownNow();
+            System.setOut(console);
+        }
+
+        return vulnerabilities;
+    }
+
+    // analyzes the given entry file, writing graphs and reports to the given output directory;
+    // returns the line numbers of the detected vulnerabilities, or null if the analysis was
+    // aborted (batch mode only, see Utils.abortRun); requires the configuration to be read already
+    static List<Integer> check(
+        String fileName, String outputPath, ParseTreeCache parseTreeCache, FunctionSummaryStore functionSummaryStore) {
+        if (!MyOptions.batchMode) {
+            return checkEntry(fileName, outputPath, parseTreeCache, functionSummaryStore);
+        }
+        try {
+            return checkEntry(fileName, outputPath, parseTreeCache, functionSummaryStore);
+        } catch (RuntimeException | StackOverflowError e) {
+            System.out.println();
+            String reason = (e instanceof RunAbortedException) ? e.getMessage() : e.toString();
+            System.out.println("*** analysis of " + fileName + " failed: " + reason + " ***");
+            System.out.println();
+            return null;
+        }
+    }
+
+    private static List<Integer> checkEntry(
+        String fileName, String outputPath, ParseTreeCache parseTreeCache, FunctionSummaryStore functionSummaryStore) {
+        Checker checker = new Checker(fileName, outputPath, parseTreeCache, functionSummaryStore);
+        new File(outputPath).mkdirs();
+
         if (!MyOptions.optionW) {
             if (MyOptions.optionB) {
                 System.out.println("File: " + Utils.basename(fileName));
@@ -151,7 +429,7 @@ public final class Checker {
         long startTime = System.currentTimeMillis();
 
         // convert the whole program (with file inclusions)
-        ProgramConverter programConverter = checker.initialize();
+        ProgramConverter programConverter = checker.parseAndConvert();
         TacConverter tac = programConverter.getTac();
 
         // params: tac, functional?, desired analyses
@@ -170,7 +448,7 @@ public final class Checker {
 
         // detect vulnerabilities
         System.out.println("\n*** detecting vulnerabilities ***\n");
-        checker.gta.detectVulnerabilities();
+        List<Integer> vulnerabilities = checker.gta.detectVulnerabilities();
 
         if (!MyOptions.optionB) {
             long endTime = System.currentTimeMillis();
@@ -179,6 +457,50 @@ public final class Checker {
             System.out.println();
             System.out.println();
         }
+
+        return vulnerabilities;
+    }
+
+    // returns the names of all PHP files below the given directory, sorted
+    private static List<String> phpFilesInDir(File dir) {
+        List<String> fileNames = new LinkedList<>();
+        for (File file : Utils.fileListFromDir(dir.getPath())) {
+            if (file.getName().toLowerCase().endsWith(".php")) {
+                fileNames.add(file.getPath());
+            }
+        }
+        Collections.sort(fileNames);
+        return fileNames;
+    }
+
+    // prints the summary of a batch run; returns false if the analysis of an entry file failed
+    private static boolean printBatchSummary(Map<String, List<Integer>> vulnerabilities) {
+        System.out.println("*** batch summary ***");
+        System.out.println();
+
+        int vulnerabilityCount = 0;
+        int vulnerableFiles = 0;
+        int failedFiles = 0;
+        for (Map.Entry<String, List<Integer>> entry : vulnerabilities.entrySet()) {
+            List<Integer> lineNumbers = entry.getValue();
+            String fileName = MyOptions.optionB ? Utils.basename(entry.getKey()) : entry.getKey();
+            if (lineNumbers == null) {
+                System.out.println(fileName + ": analysis failed");
+                failedFiles++;
+                continue;
+            }
+            System.out.println(fileName + ": " + lineNumbers.size() + " vulnerabilities" +
+                (lineNumbers.isEmpty() ? "" : " (lines " + lineNumbers + ")"));
+            vulnerabilityCount += lineNumbers.size();
+            if (!lineNumbers.isEmpty()) {
+                vulnerableFiles++;
+            }
+        }
+
+        System.out.println();
+        System.out.println("Total: " + vulnerabilityCount + " vulnerabilities in " + vulnerableFiles + " of " +
+            vulnerabilities.size() + " files" + (failedFiles == 0 ? "" : " (" + failedFiles + " failed)"));
+        return failedFiles == 0;
     }
 
     private static Options createCommandLineOptions() {
@@ -188,11 +510,16 @@ public final class Checker {
         commandLineOptions.addOption("A", "alias", false, "use alias analysis");
         commandLineOptions.addOption("b", "brief", false, "be brief (for regression tests)");
         commandLineOptions.addOption("c", "cfg", false, "dump the function CFGs in dot syntax");
+        commandLineOptions.addOption("C", "cache", true, "directory for caching parse trees across runs");
         commandLineOptions.addOption("d", "detailcfg", false, "dump the function control flow graphs and the CFGs of their paramters in dot syntax");
         commandLineOptions.addOption("f", "functions", false, "print function information");
         commandLineOptions.addOption("g", "registerGlobals", false, "DISABLE register_globals for analysis");
         commandLineOptions.addOption("h", "help", false, "print help");
         commandLineOptions.addOption("i", "getisuntaintedsql", false, "make the GET array untainted for SQL analysis");
+        commandLineOptions.addOption("j", "threads", true, "number of threads for vulnerability detection (default: 1)");
+        commandLineOptions.addOption("J", "jobs", true, "number of entry files analyzed concurrently (default: 1)");
+        commandLineOptions.addOption("k", "callstring", true, "maximum call-string length for call-string analysis (default: 1)");
+        commandLineOptions.addOption("K", "adaptive", false, "adapt the call-string length to each function (call-string analysis)");
         commandLineOptions.addOption("l", "libdetect", false, "detect libraries (i.e. scripts with empty main function)");
         commandLineOptions.addOption("L", "literal", false, "use literal analysis (usually not necessary)");
         commandLineOptions.addOption("m", "max", false, "print maximum number of temporaries");
@@ -203,6 +530,8 @@ public final class Checker {
         commandLineOptions.addOption("r", "notrim", false, "do NOT trim untained stuff (during sanitation analysis)");
         commandLineOptions.addOption("s", "sinks", true, "provide config files for custom sinks");
         commandLineOptions.addOption("t", "table", false, "print symbol tables");
+        commandLineOptions.addOption("T", "parsethreads", true, "number of threads for parsing included files (default: 1)");
+        commandLineOptions.addOption("U", "summaries", true, "directory for persisting function summaries across runs (functional analysis)");
         commandLineOptions.addOption("w", "web", false, "web interface mode");
         commandLineOptions.addOption("v", "verbose", false, "enable verbose output");
         commandLineOptions.addOption("V", "verbosegraphs", false, "disable verbose depgraphs");
@@ -218,28 +547,44 @@ public final class Checker {
     // after calling this constructor and before initializing / analyzing,
     // you can set options by modifying the appropriate member variables
     public Checker(String fileName) {
+        this(fileName, null, null);
+    }
+
+    // the parse tree cache and the summary store can be null
+    Checker(String fileName, ParseTreeCache parseTreeCache, FunctionSummaryStore functionSummaryStore) {
+        this(fileName, MyOptions.graphPath, parseTreeCache, functionSummaryStore);
+    }
+
+    // like the above, with the given output directory
+    Checker(
+        String fileName, String outputPath, ParseTreeCache parseTreeCache, FunctionSummaryStore functionSummaryStore) {
         // get entry file
+        File entryFile = null;
         try {
-            MyOptions.entryFile = (new File(fileName)).getCanonicalFile();
+            entryFile = (new File(fileName)).getCanonicalFile();
         } catch (IOException e) {
-            Utils.bail("File not found: " + fileName);
+            Utils.abortRun("File not found: " + fileName);
         }
+        this.runContext = new RunContext(entryFile, outputPath, parseTreeCache, functionSummaryStore);
     }
 
 //  ********************************************************************************
 //  OTHERS *************************************************************************
 //  ********************************************************************************
 
-    private void readConfiguration() {
+    private static void readConfiguration() {
         Properties properties = readConfigurationFileIntoProperties();
 
         readPhpIncludePathFromConfigurationFile(properties);
         findPhpBinary(properties);
-        findFsaUtilities(properties);
         readHarmlessServerVariables();
+
+        MyOptions.initializeBuiltinSinks();
+        MyOptions.readCustomSinkFiles();
+        MyOptions.readBuiltinFunctionModels();
     }
 
-    private Properties readConfigurationFileIntoProperties() {
+    private static Properties readConfigurationFileIntoProperties() {
         String configPath = MyOptions.pixyHome + "/" + MyOptions.configurationDirectory + "/config.txt";
         File configFile = new File(configPath);
         Properties properties = new Properties();
@@ -257,7 +602,7 @@ public final class Checker {
         return properties;
     }
 
-    private void readPhpIncludePathFromConfigurationFile(Properties properties) {
+    private static void readPhpIncludePathFromConfigurationFile(Properties properties) {
         MyOptions.includePaths = new LinkedList<>();
         MyOptions.includePaths.add(new File("."));
         String includePath = properties.getProperty(InternalStrings.INCLUDE_PATH);
@@ -275,7 +620,7 @@ public final class Checker {
         }
     }
 
-    private void findPhpBinary(Properties properties) {
+    private static void findPhpBinary(Properties properties) {
         String phpBin = properties.getProperty(InternalStrings.PHP_BIN);
         if (phpBin == null) {
             MyOptions.phpBin = null;
@@ -289,17 +634,7 @@ public final class Checker {
         }
     }
 
-    private void findFsaUtilities(Properties properties) {
-        String fsaUtilitiesHome = properties.getProperty(InternalStrings.FSA_HOME);
-        if (fsaUtilitiesHome != null) {
-            if (!(new File(fsaUtilitiesHome)).exists()) {
-                fsaUtilitiesHome = null;
-            }
-        }
-        MyOptions.fsaHome = fsaUtilitiesHome;
-    }
-
-    private void readHarmlessServerVariables() {
+    private static void readHarmlessServerVariables() {
         String harmlessServerVariablesPath = MyOptions.pixyHome + "/" + MyOptions.configurationDirectory
             + "/harmless_server_vars.txt";
         File harmlessServerVariablesFile = new File(harmlessServerVariablesPath);
@@ -333,12 +668,10 @@ public final class Checker {
         return parseAndConvert();
     }
 
+    // requires the configuration to be read already (see initialize)
     private ProgramConverter parseAndConvert() {
-        MyOptions.initializeBuiltinSinks();
-        MyOptions.readCustomSinkFiles();
-        MyOptions.readBuiltinFunctionModels();
-
-        ProgramConverter programConverter = new ProgramConverter(this.specialNodes, MyOptions.option_A);
+        ProgramConverter programConverter = new ProgramConverter(
+            this.runContext, this.specialNodes, MyOptions.option_A);
 
         if (MyOptions.optionP) {
             printParseTreeInDotSyntax(programConverter);
@@ -349,9 +682,9 @@ public final class Checker {
 
         if (MyOptions.optionL) {
             if (tac.hasEmptyMain()) {
-                System.out.println(MyOptions.entryFile.getPath() + ": library!");
+                System.out.println(this.runContext.getEntryFile().getPath() + ": library!");
             } else {
-                System.out.println(MyOptions.entryFile.getPath() + ": entry point!");
+                System.out.println(this.runContext.getEntryFile().getPath() + ": entry point!");
             }
             System.exit(0);
         }
@@ -373,8 +706,8 @@ public final class Checker {
     }
 
     private void printParseTreeInDotSyntax(ProgramConverter programConverter) {
-        ParseTree parseTree = programConverter.parse(MyOptions.entryFile.getPath());
-        Dumper.dumpDot(parseTree, MyOptions.graphPath, "parseTree");
+        ParseTree parseTree = programConverter.parse(this.runContext.getEntryFile().getPath());
+        Dumper.dumpDot(parseTree, this.runContext.getOutputPath(), "parseTree");
         System.exit(0);
     }
 
@@ -398,7 +731,7 @@ public final class Checker {
 
     private void printControlFlowGraph(TacConverter tac) {
         for (TacFunction function : tac.getUserFunctions().values()) {
-            Dumper.dumpDot(function, MyOptions.graphPath, MyOptions.optionD);
+            Dumper.dumpDot(function, this.runContext.getOutputPath(), MyOptions.optionD);
         }
         System.exit(0);
     }
@@ -451,7 +784,7 @@ public final class Checker {
         // do it now
         if (this.connectorComp == null) {
             this.connectorComp = new ConnectorComputation(
-                tac.getAllFunctions(), tac.getMainFunction(), this.kSize);
+                tac.getAllFunctions(), tac.getMainFunction(), MyOptions.kSize, MyOptions.adaptiveKSize);
             connectorComp.compute();
             this.workList = new InterproceduralWorklistBetter(new InterproceduralWorklistOrder(tac, this.connectorComp));
         }
@@ -494,7 +827,7 @@ public final class Checker {
         } else {
             if (this.connectorComp == null) {
                 this.connectorComp = new ConnectorComputation(
-                    tac.getAllFunctions(), tac.getMainFunction(), this.kSize);
+                    tac.getAllFunctions(), tac.getMainFunction(), MyOptions.kSize, MyOptions.adaptiveKSize);
                 connectorComp.compute();
                 this.workList = new InterproceduralWorklistBetter(new InterproceduralWorklistOrder(tac, this.connectorComp));
                 connectorComp.stats(false);
@@ -506,7 +839,18 @@ public final class Checker {
 
             // write called-by relations to file; can be quite useful
             Utils.writeToFile(this.connectorComp.dump(),
-                MyOptions.graphPath + "/" + "/calledby_" + MyOptions.entryFile.getName() + ".txt");
+                this.runContext.getOutputPath() + "/" + "/calledby_" + this.runContext.getEntryFile().getName() + ".txt");
+
+            // the same for the chosen call-string lengths
+            if (MyOptions.adaptiveKSize) {
+                String callStringLengths = this.connectorComp.dumpCallStringLengths();
+                Utils.writeToFile(callStringLengths,
+                    this.runContext.getOutputPath() + "/callstrings_" + this.runContext.getEntryFile().getName() + ".txt");
+                if (MyOptions.optionV) {
+                    System.out.println("call-string lengths:");
+                    System.out.print(callStringLengths);
+                }
+            }
 
             callGraph = this.connectorComp.getCallGraph();
             if (this.aliasAnalysis instanceof DummyAliasAnalysis) {
@@ -17,6 +17,7 @@ import at.ac.tuwien.infosys.www.pixy.analysis.interprocedural.callstring.Encoded
 import at.ac.tuwien.infosys.www.pixy.analysis.intraprocedural.IntraproceduralAnalysisNode;
 import at.ac.tuwien.infosys.www.pixy.analysis.literal.DummyLiteralAnalysis;
 import at.ac.tuwien.infosys.www.pixy.analysis.literal.LiteralAnalysis;
+import at.ac.tuwien.infosys.www.pixy.analysis.literal.LiteralLattice;
 import at.ac.tuwien.infosys.www.pixy.analysis.literal.LiteralLatticeElement;
 import at.ac.tuwien.infosys.www.pixy.conversion.*;
 import at.ac.tuwien.infosys.www.pixy.conversion.cfgnodes.*;
@@ -28,9 +29,6 @@ import java.util.*;
  * @author Nenad Jovanovic <enji@seclab.tuwien.ac.at>
  */
 public final class Dumper {
-    // auxiliary HashMap: CfgNode -> Integer
-    private static HashMap<AbstractCfgNode, Integer> node2Int;
-    private static int idCounter;
     static final String linesep = System.getProperty("line.separator");
 
 // *********************************************************************************
@@ -81,8 +79,17 @@ public final class Dumper {
     // dumps the subtree starting at the given parse node in dot syntax
     static void dumpDot(ParseNode parseNode, Writer outWriter)
         throws java.io.IOException {
+        dumpDot(parseNode, -1, new int[]{0}, outWriter);
+    }
+
+    // the dot nodes are numbered here instead of using the ids of the parse nodes:
+    // these are not unique if files have been parsed concurrently (see
+    // ProgramConverter.prefetch)
+    private static void dumpDot(ParseNode parseNode, int parentNumber, int[] nextNumber, Writer outWriter)
+        throws java.io.IOException {
 
-        outWriter.write("  n" + parseNode.getId() + " [label=\"");
+        int number = nextNumber[0]++;
+        outWriter.write("  n" + number + " [label=\"");
 
         // print symbol
         String symbolName = parseNode.getName();
@@ -97,14 +104,13 @@ public final class Dumper {
         outWriter.write("\"];\n");
 
         // print edge to parent
-        ParseNode parent = parseNode.getParent();
-        if (parent != null) {
-            outWriter.write("  n" + parent.getId() + " -> n" +
-                parseNode.getId() + ";\n");
+        if (parentNumber >= 0) {
+            outWriter.write("  n" + parentNumber + " -> n" +
+                number + ";\n");
         }
         // recursion
         for (int i = 0; i < parseNode.getChildren().size(); i++) {
-            dumpDot(parseNode.getChild(i), outWriter);
+            dumpDot(parseNode.getChild(i), number, nextNumber, outWriter);
         }
     }
 
@@ -162,29 +168,28 @@ public final class Dumper {
     static void dumpDot(ControlFlowGraph controlFlowGraph, String graphName, Writer outWriter) {
 
         try {
-            Dumper.node2Int = new HashMap<>();
-            Dumper.idCounter = 0;
             outWriter.write("digraph controlFlowGraph {\n  label=\"");
             outWriter.write(escapeDot(graphName, 0));
             outWriter.write("\";\n");
             outWriter.write("  labelloc=t;\n");
-            dumpDot(controlFlowGraph.getHead(), outWriter);
+            dumpDot(controlFlowGraph.getHead(), outWriter, new HashMap<AbstractCfgNode, Integer>());
             outWriter.write("}\n");
         } catch (Exception e) {
             System.out.println(e.getMessage());
         }
     }
 
-// dumpDot(CfgNode) ****************************************************************
+// dumpDot(CfgNode, Writer, Map) ***************************************************
 
     // recursively dumps the CfgNode in dot syntax
-    // and returns the ID that is assigned to this node
-    static int dumpDot(AbstractCfgNode cfgNode, Writer outWriter)
+    // and returns the ID that is assigned to this node;
+    // node2Int: the IDs of the nodes dumped so far
+    static int dumpDot(AbstractCfgNode cfgNode, Writer outWriter, Map<AbstractCfgNode, Integer> node2Int)
         throws java.io.IOException {
 
         // mark node as visited and store ID
-        int nodeId = Dumper.idCounter;
-        Dumper.node2Int.put(cfgNode, Dumper.idCounter++);
+        int nodeId = node2Int.size();
+        node2Int.put(cfgNode, nodeId);
 
         // print node
         String name = makeCfgNodeName(cfgNode);
@@ -201,9 +206,9 @@ public final class Dumper {
                 AbstractCfgNode succNode = outEdge.getDestination();
 
                 // print successor
-                Integer succIdInt = Dumper.node2Int.get(succNode);
+                Integer succIdInt = node2Int.get(succNode);
                 if (succIdInt == null) {
-                    succId = dumpDot(succNode, outWriter);
+                    succId = dumpDot(succNode, outWriter, node2Int);
                 } else {
                     succId = succIdInt;
                 }
@@ -621,6 +626,7 @@ public final class Dumper {
             System.out.println("dominators for cfg node " + cfgNode.toString() + ", " + cfgNode.getOriginalLineNumber());
             Dumper.dump(analysisNode.getInValue());
         }
+        System.out.println("transfer function applications: " + analysis.getTransferCount());
     }
 
     static public void dump(AbstractInterproceduralAnalysis analysis, String path, String filename) {
@@ -643,7 +649,7 @@ public final class Dumper {
 
             if (analysis instanceof LiteralAnalysis) {
                 writer.write(linesep + "Default Lattice Element:" + linesep + linesep);
-                dump(LiteralLatticeElement.DEFAULT, writer);
+                dump(((LiteralLattice) analysis.getLattice()).getDefaultElement(), writer);
             }
 
             // for each function...
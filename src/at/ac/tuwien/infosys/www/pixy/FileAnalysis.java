@@ -75,7 +75,7 @@ public class FileAnalysis extends AbstractVulnerabilityAnalysis {
             System.out.println("File:  " + fileName);
             System.out.println("Graph: file" + numberOfDependencyGraphs);
 
-            this.dumpDotAuto(auto, "file" + numberOfDependencyGraphs, MyOptions.graphPath);
+            this.dumpDotAuto(auto, "file" + numberOfDependencyGraphs, this.getOutputPath());
         }
 
         // initial sink count and final graph count may differ (e.g., if some sinks
@@ -48,7 +48,7 @@ public class GenericTaintAnalysis {
         GenericTaintAnalysis genericTaintAnalysis = new GenericTaintAnalysis();
 
         genericTaintAnalysis.dependencyAnalysis = new DependencyAnalysis(
-            tac, checker.aliasAnalysis, checker.literalAnalysis, enclosingAnalysis, workList, globalsModificationAnalysis
+            checker.runContext, tac, checker.aliasAnalysis, checker.literalAnalysis, enclosingAnalysis, workList, globalsModificationAnalysis
         );
 
         try {
@@ -15,6 +15,9 @@ import java.util.*;
  * @author Nenad Jovanovic <enji@seclab.tuwien.ac.at>
  */
 public class MyOptions {
+    // note: the options are set once at startup and then shared by all runs;
+    // the state of a single run is kept in RunContext
+
     // various boolean options and their defaults;
     // explanations are given in the cli help output (see main method of Checker)
     public static boolean optionA = false;
@@ -41,15 +44,34 @@ public class MyOptions {
     // count paths in depgraphs?
     public static boolean countPaths = false;
 
-    // the scanned entry file (canonical)
-    public static File entryFile;
+    // number of threads used for detecting vulnerabilities at the sinks
+    // (1: sequential detection)
+    public static int detectionThreads = 1;
+
+    // maximum length of the call strings in call-string analyses
+    // (0: context-insensitive)
+    public static int kSize = 1;
+
+    // adapt the call-string length to each function (see CallStringLengths)
+    public static boolean adaptiveKSize = false;
+
+    // are several entry files analyzed? (if so, errors in one of them only abort
+    // the analysis of that file, see Utils.abortRun)
+    public static boolean batchMode = false;
+
+    // number of threads used for parsing included files in advance
+    // (1: each file is parsed when it is included)
+    public static int parseThreads = 1;
+
+    // directory for caching parse trees across runs (null: no caching)
+    public static File parseTreeCacheDirectory = null;
+
+    // directory for persisting function summaries across runs (null: no summaries)
+    public static File functionSummaryDirectory = null;
 
     // pixy's home directory (from environment)
     public static File pixyHome;
 
-    // home directory of FSA Utils; can be null
-    public static String fsaHome;
-
     // name of the config directory
     public static String configurationDirectory = "config";
 
@@ -0,0 +1,13 @@
+package at.ac.tuwien.infosys.www.pixy;
+
+/**
+ * Thrown in batch mode when the analysis of one entry file can't go on (see Utils.abortRun); the other entry files
+ * are still analyzed.
+ */
+public class RunAbortedException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    public RunAbortedException(String message) {
+        super(message);
+    }
+}
\ No newline at end of file
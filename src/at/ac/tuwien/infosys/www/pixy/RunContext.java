@@ -0,0 +1,70 @@
+package at.ac.tuwien.infosys.www.pixy;
+
+import at.ac.tuwien.infosys.www.pixy.analysis.dependency.DependencyTable;
+import at.ac.tuwien.infosys.www.pixy.analysis.dependency.FunctionSummaryStore;
+import at.ac.tuwien.infosys.www.pixy.conversion.ParseTreeCache;
+
+import java.io.File;
+
+/**
+ * The state of one run of the analysis, i.e., of the analysis of one entry file.
+ *
+ * MyOptions only holds settings that are fixed when the program starts and shared by all runs; everything that
+ * differs between runs is kept here and handed down from the Checker, so that several entry files can be analyzed
+ * concurrently in the same process.
+ */
+public class RunContext {
+    // the scanned entry file (canonical)
+    private final File entryFile;
+
+    // the directory for the graphs and reports of this run
+    private final String outputPath;
+
+    // cache for the parse trees of the included files, shared with other
+    // runs (can be null)
+    private final ParseTreeCache parseTreeCache;
+
+    // store for the summaries of functions, shared with other runs and
+    // with later invocations (can be null)
+    private final FunctionSummaryStore functionSummaryStore;
+
+    // the dependency labels and sets of this run; they refer to the cfg nodes
+    // of this run, so they are dropped together with it
+    private final DependencyTable dependencyTable;
+
+    // writes the output to the output directory given by MyOptions
+    public RunContext(File entryFile, ParseTreeCache parseTreeCache, FunctionSummaryStore functionSummaryStore) {
+        this(entryFile, MyOptions.graphPath, parseTreeCache, functionSummaryStore);
+    }
+
+    public RunContext(
+        File entryFile, String outputPath, ParseTreeCache parseTreeCache, FunctionSummaryStore functionSummaryStore) {
+        this.entryFile = entryFile;
+        this.outputPath = outputPath;
+        this.parseTreeCache = parseTreeCache;
+        this.functionSummaryStore = functionSummaryStore;
+        this.dependencyTable = new DependencyTable();
+    }
+
+//  ********************************************************************************
+
+    public File getEntryFile() {
+        return this.entryFile;
+    }
+
+    public String getOutputPath() {
+        return this.outputPath;
+    }
+
+    public ParseTreeCache getParseTreeCache() {
+        return this.parseTreeCache;
+    }
+
+    public FunctionSummaryStore getFunctionSummaryStore() {
+        return this.functionSummaryStore;
+    }
+
+    public DependencyTable getDependencyTable() {
+        return this.dependencyTable;
+    }
+}
\ No newline at end of file
@@ -4,6 +4,7 @@ import at.ac.tuwien.infosys.www.pixy.analysis.dependency.DependencyAnalysis;
 import at.ac.tuwien.infosys.www.pixy.analysis.dependency.Sink;
 import at.ac.tuwien.infosys.www.pixy.analysis.dependency.graph.*;
 import at.ac.tuwien.infosys.www.pixy.automaton.Automaton;
+import at.ac.tuwien.infosys.www.pixy.automaton.FrozenAutomaton;
 import at.ac.tuwien.infosys.www.pixy.automaton.Transition;
 import at.ac.tuwien.infosys.www.pixy.conversion.AbstractTacPlace;
 import at.ac.tuwien.infosys.www.pixy.conversion.TacActualParameter;
@@ -20,6 +21,7 @@ import java.io.FileWriter;
 import java.io.IOException;
 import java.io.Writer;
 import java.util.*;
+import java.util.concurrent.Callable;
 
 /**
  * SQL Injection detection.
@@ -36,11 +38,19 @@ public class SqlAnalysis extends AbstractVulnerabilityAnalysis {
     private int dependencyGraphCount;
     private int vulnerabilityCount;
 
+    /** automata of dependency graph nodes, shared by all graphs of this run */
+    private final DecorationCache<Automaton> decorationCache = new DecorationCache<>();
+
     public SqlAnalysis(DependencyAnalysis dependencyAnalysis) {
         super(dependencyAnalysis);
         this.getIsTainted = !MyOptions.optionI;
     }
 
+    // switches the transducers on or off; for testing
+    void setUseTransducers(boolean useTransducers) {
+        this.useTransducers = useTransducers;
+    }
+
     /**
      * Detects vulnerabilities and returns a list with the line numbers of the detected vulnerabilities.
      *
@@ -65,12 +75,34 @@ public class SqlAnalysis extends AbstractVulnerabilityAnalysis {
         System.out.println("--------------------");
         System.out.println();
 
-        String fileName = MyOptions.entryFile.getName();
+        String fileName = this.dependencyAnalysis.getRunContext().getEntryFile().getName();
 
+        // number the dependency graphs in the order of the sorted sinks, and check them
+        // (concurrently, if enabled)
+        List<List<DependencyGraph>> dependencyGraphsPerSink = this.getDependencyGraphsForSinks(sinks);
+        List<Callable<DetectionResult>> tasks = new ArrayList<>();
         dependencyGraphCount = 0;
+        for (List<DependencyGraph> dependencyGraphs : dependencyGraphsPerSink) {
+            for (final DependencyGraph dependencyGraph : dependencyGraphs) {
+                dependencyGraphCount++;
+
+                final int graphNumber = dependencyGraphCount;
+                final String graphNameBase = "sql_" + fileName + "_" + graphNumber;
+                tasks.add(new Callable<DetectionResult>() {
+                    public DetectionResult call() {
+                        return detectVulnerabilitiesInDependencyGraph(dependencyGraph, graphNumber, graphNameBase);
+                    }
+                });
+            }
+        }
+
         vulnerabilityCount = 0;
-        for (Sink sink : sinks) {
-            detectVulnerabilitiesForSink(fileName, sink);
+        for (DetectionResult result : invokeAll(tasks)) {
+            if (result.isVulnerable()) {
+                vulnerabilityCount++;
+                lineNumbersOfVulnerabilities.add(result.vulnerabilityLineNumber);
+            }
+            System.out.print(result.output);
         }
 
         // initial sink count and final graph count may differ (e.g., if some sinks
@@ -89,67 +121,78 @@ public class SqlAnalysis extends AbstractVulnerabilityAnalysis {
         return lineNumbersOfVulnerabilities;
     }
 
-    private void detectVulnerabilitiesForSink(String fileName, Sink sink) {
-        Collection<DependencyGraph> dependencyGraphs = dependencyAnalysis.getDependencyGraphsForSink(sink);
-
-        for (DependencyGraph dependencyGraph : dependencyGraphs) {
-            dependencyGraphCount++;
-
-            String graphNameBase = "sql_" + fileName + "_" + dependencyGraphCount;
+    /**
+     * Checks a single dependency graph.
+     *
+     * Does not touch any shared state, so it can be run concurrently for different graphs.
+     *
+     * @param dependencyGraph
+     * @param graphNumber
+     * @param graphNameBase
+     *
+     * @return the buffered outcome
+     */
+    private DetectionResult detectVulnerabilitiesInDependencyGraph(
+        DependencyGraph dependencyGraph, int graphNumber, String graphNameBase
+    ) {
+        DetectionResult result = new DetectionResult();
+        StringBuilder output = result.output;
 
-            DependencyGraph sqlGraph = new DependencyGraph(dependencyGraph);
-            AbstractCfgNode cfgNode = dependencyGraph.getRootNode().getCfgNode();
+        DependencyGraph sqlGraph = new DependencyGraph(dependencyGraph);
+        AbstractCfgNode cfgNode = dependencyGraph.getRootNode().getCfgNode();
 
-            dependencyGraph.dumpDot(graphNameBase + "_dep", MyOptions.graphPath, dependencyGraph.getUninitializedNodes(), this.vulnerabilityAnalysisInformation);
+        dependencyGraph.dumpDot(graphNameBase + "_dep", this.getOutputPath(), dependencyGraph.getUninitializedNodes(), this.vulnerabilityAnalysisInformation);
 
-            Automaton automaton = this.toAutomaton(sqlGraph, dependencyGraph);
+        Automaton automaton = this.toAutomaton(sqlGraph, dependencyGraph);
 
-            boolean tainted = false;
-            if (automaton.hasDirectlyTaintedTransitions()) {
-                System.out.println("directly tainted!");
+        // the taint checks traverse the whole automaton, so they run on its frozen form
+        FrozenAutomaton frozen = new FrozenAutomaton(automaton);
+        boolean tainted = false;
+        if (frozen.hasDirectlyTaintedTransitions()) {
+            output.append("directly tainted!\n");
+            tainted = true;
+        }
+        if (frozen.hasIndirectlyTaintedTransitions()) {
+            if (frozen.hasDangerousIndirectTaint()) {
+                output.append("indirectly tainted and dangerous!\n");
                 tainted = true;
             }
-            if (automaton.hasIndirectlyTaintedTransitions()) {
-                if (automaton.hasDangerousIndirectTaint()) {
-                    System.out.println("indirectly tainted and dangerous!");
-                    tainted = true;
-                }
-            }
-            if (tainted) {
-                vulnerabilityCount++;
-                lineNumbersOfVulnerabilities.add(cfgNode.getOriginalLineNumber());
+        }
+        if (tainted) {
+            result.vulnerabilityLineNumber = cfgNode.getOriginalLineNumber();
 
-                System.out.println("- " + cfgNode.getLoc());
-                System.out.println("- Graphs: sql" + dependencyGraphCount);
-            }
+            output.append("- ").append(cfgNode.getLoc()).append("\n");
+            output.append("- Graphs: sql").append(graphNumber).append("\n");
+        }
 
-            // Ff we have detected a vulnerability, also dump a reduced SQL dependency graph.
-            if (tainted) {
-                DependencyGraph relevantSubgraph = this.getRelevantSubgraph(dependencyGraph);
-                Map<UninitializedNode, InitialTaint> dangerousUninitializedNodes
-                    = this.findDangerousUninitializedNodes(relevantSubgraph);
-                if (!dangerousUninitializedNodes.isEmpty()) {
-                    if (dangerousUninitializedNodes.values().contains(InitialTaint.ALWAYS)) {
-                        System.out.println("- unconditional");
-                    } else {
-                        System.out.println("- conditional on register_globals=on");
-                    }
-                    relevantSubgraph.reduceWithLeaves(dangerousUninitializedNodes.keySet());
-                    Set<? extends AbstractNode> fillUs;
-                    if (MyOptions.option_V) {
-                        relevantSubgraph.removeTemporaries();
-                        fillUs = relevantSubgraph.removeUninitializedNodes();
-                    } else {
-                        fillUs = dangerousUninitializedNodes.keySet();
-                    }
-                    relevantSubgraph.dumpDot(graphNameBase + "_min", MyOptions.graphPath, fillUs, this.vulnerabilityAnalysisInformation);
+        // Ff we have detected a vulnerability, also dump a reduced SQL dependency graph.
+        if (tainted) {
+            DependencyGraph relevantSubgraph = this.getRelevantSubgraph(dependencyGraph);
+            Map<UninitializedNode, InitialTaint> dangerousUninitializedNodes
+                = this.findDangerousUninitializedNodes(relevantSubgraph);
+            if (!dangerousUninitializedNodes.isEmpty()) {
+                if (dangerousUninitializedNodes.values().contains(InitialTaint.ALWAYS)) {
+                    output.append("- unconditional\n");
+                } else {
+                    output.append("- conditional on register_globals=on\n");
                 }
-
-                System.out.println();
+                relevantSubgraph.reduceWithLeaves(dangerousUninitializedNodes.keySet());
+                Set<? extends AbstractNode> fillUs;
+                if (MyOptions.option_V) {
+                    relevantSubgraph.removeTemporaries();
+                    fillUs = relevantSubgraph.removeUninitializedNodes();
+                } else {
+                    fillUs = dangerousUninitializedNodes.keySet();
+                }
+                relevantSubgraph.dumpDot(graphNameBase + "_min", this.getOutputPath(), fillUs, this.vulnerabilityAnalysisInformation);
             }
 
-            this.dumpDotAuto(automaton, graphNameBase + "_auto", MyOptions.graphPath);
+            output.append("\n");
         }
+
+        this.dumpDotAuto(automaton, graphNameBase + "_auto", this.getOutputPath(), output);
+
+        return result;
     }
 
     /**
@@ -178,14 +221,14 @@ public class SqlAnalysis extends AbstractVulnerabilityAnalysis {
                 graphCount++;
 
                 DependencyGraph workGraph = new DependencyGraph(dependencyGraph);
-                Automaton automaton = this.toAutomaton(workGraph, dependencyGraph);
+                FrozenAutomaton frozen = new FrozenAutomaton(this.toAutomaton(workGraph, dependencyGraph));
 
                 boolean tainted = false;
-                if (automaton.hasDirectlyTaintedTransitions()) {
+                if (frozen.hasDirectlyTaintedTransitions()) {
                     tainted = true;
                 }
-                if (automaton.hasIndirectlyTaintedTransitions()) {
-                    if (automaton.hasDangerousIndirectTaint()) {
+                if (frozen.hasIndirectlyTaintedTransitions()) {
+                    if (frozen.hasDangerousIndirectTaint()) {
                         tainted = true;
                     }
                 }
@@ -234,8 +277,9 @@ public class SqlAnalysis extends AbstractVulnerabilityAnalysis {
         dependencyGraph.eliminateCycles();
         AbstractNode root = dependencyGraph.getRootNode();
         Map<AbstractNode, Automaton> deco = new HashMap<>();
+        Map<AbstractNode, DecorationCache.Key> keys = new HashMap<>();
         Set<AbstractNode> visited = new HashSet<>();
-        this.decorate(root, deco, visited, dependencyGraph, origDependencyGraph);
+        this.decorate(root, deco, keys, visited, dependencyGraph, origDependencyGraph);
         Automaton rootDeco = deco.get(root).clone();
 
         return rootDeco;
@@ -243,9 +287,11 @@ public class SqlAnalysis extends AbstractVulnerabilityAnalysis {
 
 //  ********************************************************************************
 
-    // decorates the given node (and all its successors) with an automaton
+    // decorates the given node (and all its successors) with an automaton;
+    // the keys of the decorated nodes in the decoration cache are collected
+    // in "keys" (null for nodes that cannot be cached)
     private void decorate(
-        AbstractNode node, Map<AbstractNode, Automaton> deco,
+        AbstractNode node, Map<AbstractNode, Automaton> deco, Map<AbstractNode, DecorationCache.Key> keys,
         Set<AbstractNode> visited, DependencyGraph dependencyGraph, DependencyGraph origDependencyGraph
     ) {
         visited.add(node);
@@ -255,11 +301,22 @@ public class SqlAnalysis extends AbstractVulnerabilityAnalysis {
         if (successors != null && !successors.isEmpty()) {
             for (AbstractNode succ : successors) {
                 if (!visited.contains(succ) && deco.get(succ) == null) {
-                    decorate(succ, deco, visited, dependencyGraph, origDependencyGraph);
+                    decorate(succ, deco, keys, visited, dependencyGraph, origDependencyGraph);
                 }
             }
         }
 
+        // the same subgraph might already have been decorated for another graph
+        DecorationCache.Key key = this.makeDecorationKey(node, successors, keys, dependencyGraph);
+        if (key != null) {
+            DecorationCache.Decoration<Automaton> decoration = this.decorationCache.get(key);
+            if (decoration != null) {
+                keys.put(node, decoration.getKey());
+                deco.put(node, decoration.getAutomaton());
+                return;
+            }
+        }
+
         // now that all successors are decorated, we can decorate this node
         Automaton auto = null;
         if (node instanceof NormalNode) {
@@ -398,9 +455,50 @@ public class SqlAnalysis extends AbstractVulnerabilityAnalysis {
             throw new RuntimeException("SNH");
         }
 
+        if (key != null) {
+            DecorationCache.Decoration<Automaton> decoration = this.decorationCache.put(key, auto, auto.getNumberOfStates() + auto.getNumberOfTransitions());
+            key = decoration.getKey();
+            auto = decoration.getAutomaton();
+        }
+        keys.put(node, key);
         deco.put(node, auto);
     }
 
+    // returns the key of the given node in the decoration cache, or null if
+    // the node's automaton cannot be cached
+    private DecorationCache.Key makeDecorationKey(
+        AbstractNode node, List<AbstractNode> successors, Map<AbstractNode, DecorationCache.Key> keys,
+        DependencyGraph dependencyGraph
+    ) {
+        if (node instanceof CompleteGraphNode) {
+            // depends on the original graph (see DecorationCache)
+            return null;
+        }
+        if (node instanceof UninitializedNode) {
+            Set<AbstractNode> preds = dependencyGraph.getPredecessors(node);
+            if (preds.size() != 1) {
+                return null;
+            }
+            AbstractNode pre = preds.iterator().next();
+            if (pre instanceof CompleteGraphNode) {
+                return null;
+            }
+            return DecorationCache.makeUninitializedKey(pre, null);
+        }
+
+        List<DecorationCache.Key> successorKeys = new ArrayList<>();
+        if (successors != null) {
+            for (AbstractNode succ : successors) {
+                if (succ == node && node instanceof NormalNode) {
+                    // a simple loop, ignored by decorate()
+                    continue;
+                }
+                successorKeys.add(keys.get(succ));
+            }
+        }
+        return DecorationCache.makeKey(node, null, successorKeys);
+    }
+
     /**
      * Returns an automaton for the given operation node.
      *
@@ -599,7 +697,9 @@ public class SqlAnalysis extends AbstractVulnerabilityAnalysis {
         }
     }
 
-    void dumpDotAuto(Automaton auto, String graphName, String path) {
+    // dumps the given automaton to a dot file; additional information about the
+    // automaton is appended to the given output
+    void dumpDotAuto(Automaton auto, String graphName, String path, StringBuilder output) {
         String filename = graphName + ".dot";
         (new File(path)).mkdir();
 
@@ -609,7 +709,7 @@ public class SqlAnalysis extends AbstractVulnerabilityAnalysis {
             outWriter.write(autoDot);
             outWriter.close();
         } catch (IOException e) {
-            System.out.println(e.getMessage());
+            output.append(e.getMessage()).append("\n");
             return;
         }
 
@@ -618,26 +718,26 @@ public class SqlAnalysis extends AbstractVulnerabilityAnalysis {
                 Set<String> finiteStringsSet = auto.getFiniteStrings();
                 List<String> finiteStrings = new LinkedList<>(finiteStringsSet);
                 Collections.sort(finiteStrings);
-                System.out.println();
-                System.out.println("IS FINITE");
+                output.append("\n");
+                output.append("IS FINITE\n");
                 for (String finite : finiteStrings) {
-                    System.out.println();
-                    System.out.println("Finite BEGIN");
-                    System.out.println(finite);
-                    System.out.println("Finite END");
+                    output.append("\n");
+                    output.append("Finite BEGIN\n");
+                    output.append(finite).append("\n");
+                    output.append("Finite END\n");
                 }
             }
 
-            System.out.println();
-            System.out.println("Prefix BEGIN");
-            System.out.println(auto.getCommonPrefix());
-            System.out.println("Prefix END");
-            System.out.println();
+            output.append("\n");
+            output.append("Prefix BEGIN\n");
+            output.append(auto.getCommonPrefix()).append("\n");
+            output.append("Prefix END\n");
+            output.append("\n");
 
-            System.out.println("Suffix BEGIN");
-            System.out.println(auto.getCommonSuffix());
-            System.out.println("Suffix END");
-            System.out.println();
+            output.append("Suffix BEGIN\n");
+            output.append(auto.getCommonSuffix()).append("\n");
+            output.append("Suffix END\n");
+            output.append("\n");
         }
     }
 
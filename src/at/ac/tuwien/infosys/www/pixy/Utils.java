@@ -68,6 +68,24 @@ public class Utils {
         }
     }
 
+    // like bail, but for errors that only concern the analysis of the current entry
+    // file: in batch mode, the messages are printed and a RunAbortedException is
+    // thrown instead, so that the other entry files are still analyzed
+    public static void abortRun(String... msgs) {
+        if (!MyOptions.batchMode) {
+            bail(msgs);
+        }
+        StringBuilder message = new StringBuilder();
+        for (String msg : msgs) {
+            System.err.println(msg);
+            if (message.length() > 0) {
+                message.append(' ');
+            }
+            message.append(msg);
+        }
+        throw new RunAbortedException(message.toString());
+    }
+
     // prints the arguments to System.err and exits with code 1;
     // don't use System.exit directly, since chances are that you
     // will write the error message to System.out (not good)
@@ -77,58 +95,4 @@ public class Utils {
         }
         System.exit(1);
     }
-
-    // executes the given command and returns the output;
-    // error output is written to a logfile
-    public static String exec(String command) {
-        String execErrorLog = MyOptions.graphPath + "/exec-errors.txt";
-
-        StringBuilder retMe = new StringBuilder();
-        try {
-            Process p = Runtime.getRuntime().exec(command);
-
-            InputStream instream = p.getInputStream();      // standard output of prog
-            InputStream errstream = p.getErrorStream();     // error output of prog
-            p.waitFor();
-
-            // read output
-            try {
-                BufferedReader inreader = new BufferedReader(new InputStreamReader(instream));
-                String line;
-                while ((line = inreader.readLine()) != null) {
-                    retMe.append(line);
-                    retMe.append("\n");
-                }
-                inreader.close();
-            } catch (IOException e) {
-                throw new RuntimeException(e.getMessage());
-            }
-
-            // read and print errors
-            Writer outWriter = new FileWriter(execErrorLog, true);
-            try {
-                BufferedReader inreader = new BufferedReader(new InputStreamReader(errstream));
-                String line;
-
-                while ((line = inreader.readLine()) != null) {
-                    outWriter.append(line + "\n");
-                }
-                inreader.close();
-            } catch (IOException e) {
-                throw new RuntimeException(e.getMessage());
-            }
-
-            if (p.exitValue() != 0) {
-                System.err.println("Exit value: " + p.exitValue());
-                System.err.println("- " + command);
-                new RuntimeException().printStackTrace();
-            }
-            outWriter.close();
-        } catch (IOException | InterruptedException e) {
-            e.printStackTrace();
-            throw new RuntimeException();
-        }
-
-        return retMe.toString();
-    }
 }
\ No newline at end of file
@@ -12,6 +12,7 @@ import at.ac.tuwien.infosys.www.pixy.conversion.cfgnodes.Echo;
 import at.ac.tuwien.infosys.www.pixy.sanitation.AbstractSanitationAnalysis;
 
 import java.util.*;
+import java.util.concurrent.Callable;
 
 /**
  * XSS detection.
@@ -64,12 +65,39 @@ public class XssAnalysis extends AbstractVulnerabilityAnalysis {
         StringBuilder sink2Graph = new StringBuilder();
         StringBuilder quickReport = new StringBuilder();
 
-        String fileName = MyOptions.entryFile.getName();
+        String fileName = this.dependencyAnalysis.getRunContext().getEntryFile().getName();
 
+        // number the dependency graphs in the order of the sorted sinks, and check them
+        // (concurrently, if enabled)
+        List<List<DependencyGraph>> dependencyGraphsPerSink = this.getDependencyGraphsForSinks(sinks);
+        List<Callable<DetectionResult>> tasks = new ArrayList<>();
         dependencyGraphCount = 0;
+        for (int i = 0; i < sinks.size(); i++) {
+            final Sink sink = sinks.get(i);
+            for (final DependencyGraph dependencyGraph : dependencyGraphsPerSink.get(i)) {
+                dependencyGraphCount++;
+
+                final int graphNumber = dependencyGraphCount;
+                final String graphNameBase = "xss_" + fileName + "_" + graphNumber;
+                tasks.add(new Callable<DetectionResult>() {
+                    public DetectionResult call() {
+                        return detectVulnerabilitiesInDependencyGraphForSink(
+                            sink, dependencyGraph, graphNumber, graphNameBase
+                        );
+                    }
+                });
+            }
+        }
+
         vulnerabilityCount = 0;
-        for (Sink sink : sinks) {
-            detectVulnerabilitiesForSink(sink2Graph, quickReport, fileName, sink);
+        for (DetectionResult result : invokeAll(tasks)) {
+            if (result.isVulnerable()) {
+                vulnerabilityCount++;
+                lineNumbersOfVulnerabilities.add(result.vulnerabilityLineNumber);
+            }
+            System.out.print(result.output);
+            sink2Graph.append(result.sink2Graph);
+            quickReport.append(result.quickReport);
         }
 
         // initial sink count and final graph count may differ (e.g., if some sinks
@@ -86,39 +114,41 @@ public class XssAnalysis extends AbstractVulnerabilityAnalysis {
         System.out.println();
 
         if (MyOptions.optionW) {
-            Utils.writeToFile(sink2Graph.toString(), MyOptions.graphPath + "/xssSinks2Urls.txt");
-            Utils.writeToFile(quickReport.toString(), MyOptions.graphPath + "/xssQuickReport.txt");
+            Utils.writeToFile(sink2Graph.toString(), this.getOutputPath() + "/xssSinks2Urls.txt");
+            Utils.writeToFile(quickReport.toString(), this.getOutputPath() + "/xssQuickReport.txt");
         }
 
         return lineNumbersOfVulnerabilities;
     }
 
-    private void detectVulnerabilitiesForSink(
-        StringBuilder sink2Graph, StringBuilder quickReport, String fileName, Sink sink
+    /**
+     * Checks a single dependency graph of the given sink.
+     *
+     * Does not touch any shared state, so it can be run concurrently for different graphs.
+     *
+     * @param sink
+     * @param dependencyGraph
+     * @param graphNumber
+     * @param graphNameBase
+     *
+     * @return the buffered outcome
+     */
+    private DetectionResult detectVulnerabilitiesInDependencyGraphForSink(
+        Sink sink, DependencyGraph dependencyGraph, int graphNumber, String graphNameBase
     ) {
-        for (DependencyGraph dependencyGraph : dependencyAnalysis.getDependencyGraphsForSink(sink)) {
-            dependencyGraphCount++;
-
-            String graphNameBase = "xss_" + fileName + "_" + dependencyGraphCount;
+        DetectionResult result = new DetectionResult();
 
-            if (!MyOptions.optionW) {
-                dependencyGraph.dumpDot(graphNameBase + "_dep", MyOptions.graphPath, this.vulnerabilityAnalysisInformation);
-            }
-
-            detectVulnerabilitiesInDependencyGraphForSink(sink2Graph, quickReport, sink, dependencyGraph, graphNameBase);
+        if (!MyOptions.optionW) {
+            dependencyGraph.dumpDot(graphNameBase + "_dep", this.getOutputPath(), this.vulnerabilityAnalysisInformation);
         }
-    }
 
-    private void detectVulnerabilitiesInDependencyGraphForSink(
-        StringBuilder sink2Graph, StringBuilder quickReport, Sink sink, DependencyGraph dependencyGraph, String graphNameBase
-    ) {
         DependencyGraph relevantSubgraph = this.getRelevantSubgraph(dependencyGraph);
 
         Map<UninitializedNode, InitialTaint> dangerousUninitializedNodes
             = this.findDangerousUninitializedNodes(relevantSubgraph);
 
         if (dangerousUninitializedNodes.isEmpty()) {
-            return;
+            return result;
         }
 
         relevantSubgraph.reduceWithLeaves(dangerousUninitializedNodes.keySet());
@@ -131,28 +161,31 @@ public class XssAnalysis extends AbstractVulnerabilityAnalysis {
             fillUs = dangerousUninitializedNodes.keySet();
         }
 
-        vulnerabilityCount++;
         NormalNode root = dependencyGraph.getRootNode();
         AbstractCfgNode cfgNode = root.getCfgNode();
-        lineNumbersOfVulnerabilities.add(cfgNode.getOriginalLineNumber());
-        System.out.println("Vulnerability detected!");
+        result.vulnerabilityLineNumber = cfgNode.getOriginalLineNumber();
+
+        StringBuilder output = result.output;
+        output.append("Vulnerability detected!\n");
         if (dangerousUninitializedNodes.values().contains(InitialTaint.ALWAYS)) {
-            System.out.println("- unconditional");
+            output.append("- unconditional\n");
         } else {
-            System.out.println("- conditional on register_globals=on");
+            output.append("- conditional on register_globals=on\n");
         }
-        System.out.println("- " + cfgNode.getLoc());
+        output.append("- ").append(cfgNode.getLoc()).append("\n");
 
-        System.out.println("- Graph: xss" + dependencyGraphCount);
-        relevantSubgraph.dumpDot(graphNameBase + "_min", MyOptions.graphPath, fillUs, this.vulnerabilityAnalysisInformation);
-        System.out.println();
+        output.append("- Graph: xss").append(graphNumber).append("\n");
+        relevantSubgraph.dumpDot(graphNameBase + "_min", this.getOutputPath(), fillUs, this.vulnerabilityAnalysisInformation);
+        output.append("\n");
 
         if (MyOptions.optionW) {
+            StringBuilder sink2Graph = result.sink2Graph;
             sink2Graph.append(sink.getLineNumber());
             sink2Graph.append(":");
             sink2Graph.append(graphNameBase + "_min");
             sink2Graph.append("\n");
 
+            StringBuilder quickReport = result.quickReport;
             quickReport.append("Line ");
             quickReport.append(sink.getLineNumber());
             quickReport.append("\nSources:\n");
@@ -173,6 +206,8 @@ public class XssAnalysis extends AbstractVulnerabilityAnalysis {
             }
             quickReport.append("\n");
         }
+
+        return result;
     }
 
     /**
@@ -278,4 +278,12 @@ public abstract class AbstractAnalysis {
 //  recycle ************************************************************************
 
     public abstract AbstractLatticeElement recycle(AbstractLatticeElement recycleMe);
+
+//  getRepositoryStatistics ********************************************************
+
+    // returns statistics about the recycling of lattice elements (for verbose
+    // output), or null if this analysis doesn't recycle
+    public String getRepositoryStatistics() {
+        return null;
+    }
 }
\ No newline at end of file
@@ -1,9 +1,6 @@
 package at.ac.tuwien.infosys.www.pixy.analysis;
 
-import java.util.HashMap;
-import java.util.LinkedList;
-import java.util.List;
-import java.util.Map;
+import java.lang.ref.WeakReference;
 
 /**
  * A generic repository of recyclable objects.
@@ -28,45 +25,170 @@ import java.util.Map;
  * and that these methods perform recycling by means of the repository
  * - do not override its default equals and hashCode (would destroy the advantages mentioned above)
  *
+ * The repository is an open-addressing hash table over the structure hash codes, split into
+ * independently locked segments so that several threads can recycle at the same time. It only
+ * holds weak references: an element that is not used anywhere else can be garbage collected
+ * (nobody could compare it with "==" any longer anyway).
+ *
  * @author Nenad Jovanovic <enji@seclab.tuwien.ac.at>
  */
 public class GenericRepository<E extends Recyclable> {
-    // structure hash code (Integer) -> List of Recyclable's
-    private Map<Integer, List<E>> repos;
+    private static final int SEGMENTS = 16;
+
+    private final Segment<E>[] segments;
 
+    @SuppressWarnings({"unchecked", "rawtypes"})
     public GenericRepository() {
-        this.repos = new HashMap<>();
+        this.segments = new Segment[SEGMENTS];
+        for (int i = 0; i < SEGMENTS; i++) {
+            this.segments[i] = new Segment<>();
+        }
     }
 
     // if the given element equals one from the repository: the
     // repository element is returned; else: the element is
-    // entered into the repository and returned
+    // entered into the repository and returned;
+    // thread-safe, since dependency graphs for different sinks
+    // may be constructed concurrently
     public E recycle(E recycleMe) {
 
         if (recycleMe == null) {
             return recycleMe;
         }
 
-        Integer structureHashCode = recycleMe.structureHashCode();
-        List<E> candidates = this.repos.get(structureHashCode);
-        if (candidates == null) {
-            // no candidates list: add recycleMe to the repos and return it
-            List<E> recycleMeList = new LinkedList<>();
-            recycleMeList.add(recycleMe);
-            this.repos.put(structureHashCode, recycleMeList);
+        int hash = recycleMe.structureHashCode();
+        hash *= 0x9E3779B9;
+        hash ^= hash >>> 16;
+
+        // the low bits select the segment, the others the slot inside it
+        return this.segments[hash & (SEGMENTS - 1)].recycle(recycleMe, hash >>> 4);
+    }
+
+    // returns statistics about the recycling so far (for verbose output)
+    public String getStatistics() {
+        long hits = 0;
+        long misses = 0;
+        long probes = 0;
+        int maxProbes = 0;
+        int size = 0;
+        for (Segment<E> segment : this.segments) {
+            synchronized (segment) {
+                hits += segment.hits;
+                misses += segment.misses;
+                probes += segment.probes;
+                maxProbes = Math.max(maxProbes, segment.maxProbes);
+                size += segment.used;
+            }
+        }
+        long lookups = hits + misses;
+        return "recycled: " + hits + " hits, " + misses + " misses, average chain length " +
+            (lookups == 0 ? 0 : (float) probes / lookups) + ", max chain length " + maxProbes + ", " +
+            size + " entries";
+    }
+
+//  ********************************************************************************
+
+    // one part of the table
+    private static final class Segment<E extends Recyclable> {
+        private int[] hashes = new int[16];
+        private WeakReference<E>[] references = newArray(16);
+
+        // number of non-empty slots (including cleared references)
+        private int used;
+
+        // counters
+        private long hits;
+        private long misses;
+        private long probes;
+        private int maxProbes;
+
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        private static <E> WeakReference<E>[] newArray(int length) {
+            return new WeakReference[length];
+        }
+
+        synchronized E recycle(E recycleMe, int hash) {
+            int mask = this.references.length - 1;
+            int index = hash & mask;
+            int stale = -1;
+            int probeCount = 0;
+
+            // search the chain
+            WeakReference<E> reference;
+            while ((reference = this.references[index]) != null) {
+                probeCount++;
+                E candidate = reference.get();
+                if (candidate == null) {
+                    // remember the first slot that can be reused
+                    if (stale < 0) {
+                        stale = index;
+                    }
+                } else if (this.hashes[index] == hash && candidate.structureEquals(recycleMe)) {
+                    // recycling!
+                    this.count(probeCount, true);
+                    return candidate;
+                }
+                index = (index + 1) & mask;
+            }
+            this.count(probeCount, false);
+
+            // no candidate matches: add recycleMe and return it
+            if (stale >= 0) {
+                index = stale;
+            } else {
+                this.used++;
+            }
+            this.hashes[index] = hash;
+            this.references[index] = new WeakReference<>(recycleMe);
+
+            // keep the load factor below 1/2
+            if (2 * this.used > this.references.length) {
+                this.rehash();
+            }
             return recycleMe;
         }
 
-        // search the candidates list
-        for (E candidate : candidates) {
-            if (candidate.structureEquals(recycleMe)) {
-                // recycling!
-                return candidate;
+        private void count(int probeCount, boolean hit) {
+            if (hit) {
+                this.hits++;
+            } else {
+                this.misses++;
             }
+            this.probes += probeCount;
+            this.maxProbes = Math.max(this.maxProbes, probeCount);
         }
 
-        // no candidate matches: add recycleMe to this list and return it
-        candidates.add(recycleMe);
-        return recycleMe;
+        // drops cleared references, and grows the table if necessary
+        private void rehash() {
+            int live = 0;
+            for (WeakReference<E> reference : this.references) {
+                if (reference != null && reference.get() != null) {
+                    live++;
+                }
+            }
+            int length = this.references.length;
+            while (4 * live > length) {
+                length *= 2;
+            }
+
+            int[] oldHashes = this.hashes;
+            WeakReference<E>[] oldReferences = this.references;
+            this.hashes = new int[length];
+            this.references = newArray(length);
+            this.used = 0;
+            int mask = length - 1;
+            for (int i = 0; i < oldReferences.length; i++) {
+                if (oldReferences[i] == null || oldReferences[i].get() == null) {
+                    continue;
+                }
+                int index = oldHashes[i] & mask;
+                while (this.references[index] != null) {
+                    index = (index + 1) & mask;
+                }
+                this.hashes[index] = oldHashes[i];
+                this.references[index] = oldReferences[i];
+                this.used++;
+            }
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,521 @@
+package at.ac.tuwien.infosys.www.pixy.analysis;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * An immutable map that shares its structure with the maps it was derived from (a hash array mapped trie).
+ *
+ * plus() and minus() return a new map and leave the old one untouched; only the path from the root to the changed
+ * entry is copied, so a copy of a map is free and changing one entry costs O(log n). Size and hash code are
+ * maintained incrementally, and differingKeys() skips all parts of two maps that are still shared.
+ *
+ * Neither keys nor values may be null. The java.util.Map view is read-only.
+ */
+public final class PersistentMap<K, V> extends AbstractMap<K, V> {
+    private static final int BITS = 5;
+    private static final int MASK = (1 << BITS) - 1;
+
+    private static final PersistentMap<Object, Object> EMPTY = new PersistentMap<>(null, 0, 0);
+
+    // null for the empty map
+    private final Node root;
+    private final int size;
+
+    // sum of the hash codes of all entries, as required by java.util.Map
+    private final int hashCode;
+
+    private PersistentMap(Node root, int size, int hashCode) {
+        this.root = root;
+        this.size = size;
+        this.hashCode = hashCode;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <K, V> PersistentMap<K, V> empty() {
+        return (PersistentMap<K, V>) EMPTY;
+    }
+
+//  ********************************************************************************
+
+    public int size() {
+        return this.size;
+    }
+
+    @SuppressWarnings("unchecked")
+    public V get(Object key) {
+        if (this.root == null || key == null) {
+            return null;
+        }
+        return (V) this.root.find(0, hash(key), key);
+    }
+
+    public boolean containsKey(Object key) {
+        return this.get(key) != null;
+    }
+
+    // returns a map that maps the given key to the given value, and is otherwise equal to this one
+    public PersistentMap<K, V> plus(K key, V value) {
+        if (key == null || value == null) {
+            throw new NullPointerException();
+        }
+        Change change = new Change();
+        int hash = hash(key);
+        Node newRoot = (this.root == null)
+            ? BitmapNode.EMPTY.plus(0, hash, key, value, change)
+            : this.root.plus(0, hash, key, value, change);
+        if (newRoot == this.root) {
+            return this;
+        }
+        return new PersistentMap<>(newRoot, this.size + change.sizeDelta, this.hashCode + change.hashDelta);
+    }
+
+    // returns a map without a mapping for the given key, and otherwise equal to this one
+    public PersistentMap<K, V> minus(Object key) {
+        if (this.root == null || key == null) {
+            return this;
+        }
+        Change change = new Change();
+        Node newRoot = this.root.minus(0, hash(key), key, change);
+        if (newRoot == this.root) {
+            return this;
+        }
+        if (newRoot == null) {
+            return empty();
+        }
+        return new PersistentMap<>(newRoot, this.size + change.sizeDelta, this.hashCode + change.hashDelta);
+    }
+
+    // returns the keys that are mapped differently by this map and the given one
+    // (including keys that are only mapped by one of them)
+    public List<K> differingKeys(PersistentMap<K, V> other) {
+        List<Object> keys = new ArrayList<>();
+        diff(this.root, other.root, 0, keys, Integer.MAX_VALUE);
+        @SuppressWarnings("unchecked")
+        List<K> retMe = (List<K>) (List<?>) keys;
+        return retMe;
+    }
+
+//  ********************************************************************************
+
+    public Set<Map.Entry<K, V>> entrySet() {
+        return new AbstractSet<Map.Entry<K, V>>() {
+            public Iterator<Map.Entry<K, V>> iterator() {
+                return new EntryIterator<>(PersistentMap.this.root);
+            }
+
+            public int size() {
+                return PersistentMap.this.size;
+            }
+        };
+    }
+
+    public boolean equals(Object compX) {
+        if (compX == this) {
+            return true;
+        }
+        if (!(compX instanceof PersistentMap)) {
+            return super.equals(compX);
+        }
+        PersistentMap<?, ?> comp = (PersistentMap<?, ?>) compX;
+        if (this.size != comp.size || this.hashCode != comp.hashCode) {
+            return false;
+        }
+        List<Object> keys = new ArrayList<>(1);
+        diff(this.root, comp.root, 0, keys, 1);
+        return keys.isEmpty();
+    }
+
+    public int hashCode() {
+        return this.hashCode;
+    }
+
+//  ********************************************************************************
+
+    private static int hash(Object key) {
+        int h = key.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    private static int entryHash(Object key, Object value) {
+        return key.hashCode() ^ value.hashCode();
+    }
+
+    // adds the keys that are mapped differently by the two (sub-)tries to "keys",
+    // stopping as soon as "keys" contains "limit" elements
+    private static void diff(Node a, Node b, int shift, List<Object> keys, int limit) {
+        if (a == b || keys.size() >= limit) {
+            return;
+        }
+        if (a == null || b == null) {
+            collectKeys(a == null ? b : a, keys);
+            return;
+        }
+        if (!(a instanceof BitmapNode) || !(b instanceof BitmapNode)) {
+            // only at the bottom of the trie
+            diffByLookup(a, b, shift, keys, false);
+            diffByLookup(b, a, shift, keys, true);
+            return;
+        }
+
+        BitmapNode bitmapA = (BitmapNode) a;
+        BitmapNode bitmapB = (BitmapNode) b;
+        int bits = bitmapA.bitmap | bitmapB.bitmap;
+        while (bits != 0 && keys.size() < limit) {
+            int bit = Integer.lowestOneBit(bits);
+            bits &= ~bit;
+
+            int indexA = bitmapA.indexOf(bit);
+            int indexB = bitmapB.indexOf(bit);
+            Object keyA = (indexA < 0) ? null : bitmapA.array[indexA];
+            Object valueA = (indexA < 0) ? null : bitmapA.array[indexA + 1];
+            Object keyB = (indexB < 0) ? null : bitmapB.array[indexB];
+            Object valueB = (indexB < 0) ? null : bitmapB.array[indexB + 1];
+
+            if (indexA < 0 || indexB < 0) {
+                // slot only exists in one of the tries
+                if (indexA < 0) {
+                    collectSlot(keyB, valueB, keys);
+                } else {
+                    collectSlot(keyA, valueA, keys);
+                }
+            } else if (keyA == null && keyB == null) {
+                diff((Node) valueA, (Node) valueB, shift + BITS, keys, limit);
+            } else if (keyA != null && keyB != null) {
+                if (keyA.equals(keyB)) {
+                    if (!valueA.equals(valueB)) {
+                        keys.add(keyA);
+                    }
+                } else {
+                    keys.add(keyA);
+                    keys.add(keyB);
+                }
+            } else {
+                // an entry on one side, a sub-trie on the other side
+                Object key = (keyA != null) ? keyA : keyB;
+                Object value = (keyA != null) ? valueA : valueB;
+                Node node = (Node) ((keyA != null) ? valueB : valueA);
+                if (!value.equals(node.find(shift + BITS, hash(key), key))) {
+                    keys.add(key);
+                }
+                List<Object> nodeKeys = new ArrayList<>();
+                collectKeys(node, nodeKeys);
+                for (Object nodeKey : nodeKeys) {
+                    if (!nodeKey.equals(key)) {
+                        keys.add(nodeKey);
+                    }
+                }
+            }
+        }
+    }
+
+    // adds the keys of "a" that are not mapped to the same value by "b"
+    // (or, if "onlyMissing" is set, that are not mapped at all by "b")
+    private static void diffByLookup(Node a, Node b, int shift, List<Object> keys, boolean onlyMissing) {
+        List<Object> aKeys = new ArrayList<>();
+        collectKeys(a, aKeys);
+        for (Object key : aKeys) {
+            Object valueA = a.find(shift, hash(key), key);
+            Object valueB = b.find(shift, hash(key), key);
+            if (onlyMissing ? valueB == null : !valueA.equals(valueB)) {
+                keys.add(key);
+            }
+        }
+    }
+
+    private static void collectSlot(Object key, Object value, List<Object> keys) {
+        if (key == null) {
+            collectKeys((Node) value, keys);
+        } else {
+            keys.add(key);
+        }
+    }
+
+    private static void collectKeys(Node node, List<Object> keys) {
+        Object[] array = node.array;
+        for (int i = 0; i < array.length; i += 2) {
+            collectSlot(array[i], array[i + 1], keys);
+        }
+    }
+
+//  ********************************************************************************
+
+    // size and hash code changes caused by an update
+    private static final class Change {
+        int sizeDelta;
+        int hashDelta;
+    }
+
+    /**
+     * A trie node. Its array holds pairs: (key, value) for an entry, (null, node) for a sub-trie.
+     */
+    private abstract static class Node {
+        final Object[] array;
+
+        Node(Object[] array) {
+            this.array = array;
+        }
+
+        // returns the value for the given key, or null
+        abstract Object find(int shift, int hash, Object key);
+
+        // returns this node if nothing changed
+        abstract Node plus(int shift, int hash, Object key, Object value, Change change);
+
+        // returns this node if nothing changed, null if the node became empty
+        abstract Node minus(int shift, int hash, Object key, Change change);
+    }
+
+//  ********************************************************************************
+
+    // an inner node: 5 bits of the hash select one of 32 slots, only the occupied ones are stored
+    private static final class BitmapNode extends Node {
+        static final BitmapNode EMPTY = new BitmapNode(0, new Object[0]);
+
+        final int bitmap;
+
+        BitmapNode(int bitmap, Object[] array) {
+            super(array);
+            this.bitmap = bitmap;
+        }
+
+        // returns the array index of the pair for the given bit, or -1
+        int indexOf(int bit) {
+            if ((this.bitmap & bit) == 0) {
+                return -1;
+            }
+            return 2 * Integer.bitCount(this.bitmap & (bit - 1));
+        }
+
+        Object find(int shift, int hash, Object key) {
+            int index = this.indexOf(1 << ((hash >>> shift) & MASK));
+            if (index < 0) {
+                return null;
+            }
+            Object myKey = this.array[index];
+            Object myValue = this.array[index + 1];
+            if (myKey == null) {
+                return ((Node) myValue).find(shift + BITS, hash, key);
+            }
+            return key.equals(myKey) ? myValue : null;
+        }
+
+        Node plus(int shift, int hash, Object key, Object value, Change change) {
+            int bit = 1 << ((hash >>> shift) & MASK);
+            int index = this.indexOf(bit);
+
+            if (index < 0) {
+                // free slot
+                Object[] newArray = new Object[this.array.length + 2];
+                index = 2 * Integer.bitCount(this.bitmap & (bit - 1));
+                System.arraycopy(this.array, 0, newArray, 0, index);
+                newArray[index] = key;
+                newArray[index + 1] = value;
+                System.arraycopy(this.array, index, newArray, index + 2, this.array.length - index);
+                change.sizeDelta = 1;
+                change.hashDelta = entryHash(key, value);
+                return new BitmapNode(this.bitmap | bit, newArray);
+            }
+
+            Object myKey = this.array[index];
+            Object myValue = this.array[index + 1];
+            if (myKey == null) {
+                Node node = (Node) myValue;
+                Node newNode = node.plus(shift + BITS, hash, key, value, change);
+                return (newNode == node) ? this : this.replace(index, null, newNode);
+            }
+            if (key.equals(myKey)) {
+                if (value.equals(myValue)) {
+                    return this;
+                }
+                change.hashDelta = entryHash(key, value) - entryHash(myKey, myValue);
+                return this.replace(index, myKey, value);
+            }
+
+            // two different keys for one slot: push both into a new sub-trie
+            Node node = createNode(shift + BITS, myKey, myValue, new Change());
+            node = node.plus(shift + BITS, hash, key, value, change);
+            return this.replace(index, null, node);
+        }
+
+        Node minus(int shift, int hash, Object key, Change change) {
+            int bit = 1 << ((hash >>> shift) & MASK);
+            int index = this.indexOf(bit);
+            if (index < 0) {
+                return this;
+            }
+
+            Object myKey = this.array[index];
+            Object myValue = this.array[index + 1];
+            if (myKey == null) {
+                Node node = (Node) myValue;
+                Node newNode = node.minus(shift + BITS, hash, key, change);
+                if (newNode == node) {
+                    return this;
+                }
+                if (newNode != null) {
+                    return this.replace(index, null, newNode);
+                }
+            } else if (key.equals(myKey)) {
+                change.sizeDelta = -1;
+                change.hashDelta = -entryHash(myKey, myValue);
+            } else {
+                return this;
+            }
+
+            // remove the slot
+            if (this.bitmap == bit) {
+                return null;
+            }
+            Object[] newArray = new Object[this.array.length - 2];
+            System.arraycopy(this.array, 0, newArray, 0, index);
+            System.arraycopy(this.array, index + 2, newArray, index, newArray.length - index);
+            return new BitmapNode(this.bitmap & ~bit, newArray);
+        }
+
+        private BitmapNode replace(int index, Object key, Object value) {
+            Object[] newArray = this.array.clone();
+            newArray[index] = key;
+            newArray[index + 1] = value;
+            return new BitmapNode(this.bitmap, newArray);
+        }
+
+        private static Node createNode(int shift, Object key, Object value, Change change) {
+            if (shift >= 32) {
+                // all bits of the hash are used up
+                return new CollisionNode(new Object[]{key, value});
+            }
+            return EMPTY.plus(shift, hash(key), key, value, change);
+        }
+    }
+
+//  ********************************************************************************
+
+    // a leaf for keys whose hashes are completely equal
+    private static final class CollisionNode extends Node {
+        CollisionNode(Object[] array) {
+            super(array);
+        }
+
+        private int indexOf(Object key) {
+            for (int i = 0; i < this.array.length; i += 2) {
+                if (key.equals(this.array[i])) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        Object find(int shift, int hash, Object key) {
+            int index = this.indexOf(key);
+            return (index < 0) ? null : this.array[index + 1];
+        }
+
+        Node plus(int shift, int hash, Object key, Object value, Change change) {
+            int index = this.indexOf(key);
+            Object[] newArray;
+            if (index < 0) {
+                newArray = new Object[this.array.length + 2];
+                System.arraycopy(this.array, 0, newArray, 0, this.array.length);
+                newArray[this.array.length] = key;
+                newArray[this.array.length + 1] = value;
+                change.sizeDelta = 1;
+                change.hashDelta = entryHash(key, value);
+            } else {
+                Object myValue = this.array[index + 1];
+                if (value.equals(myValue)) {
+                    return this;
+                }
+                newArray = this.array.clone();
+                newArray[index + 1] = value;
+                change.hashDelta = entryHash(key, value) - entryHash(key, myValue);
+            }
+            return new CollisionNode(newArray);
+        }
+
+        Node minus(int shift, int hash, Object key, Change change) {
+            int index = this.indexOf(key);
+            if (index < 0) {
+                return this;
+            }
+            change.sizeDelta = -1;
+            change.hashDelta = -entryHash(this.array[index], this.array[index + 1]);
+            if (this.array.length == 2) {
+                return null;
+            }
+            Object[] newArray = new Object[this.array.length - 2];
+            System.arraycopy(this.array, 0, newArray, 0, index);
+            System.arraycopy(this.array, index + 2, newArray, index, newArray.length - index);
+            return new CollisionNode(newArray);
+        }
+    }
+
+//  ********************************************************************************
+
+    // depth-first iteration over the entries of a trie
+    private static final class EntryIterator<K, V> implements Iterator<Map.Entry<K, V>> {
+        // 7 levels of bitmap nodes plus one level of collision nodes
+        private final Object[][] arrays = new Object[8][];
+        private final int[] positions = new int[8];
+        private int depth;
+
+        private Object nextKey;
+        private Object nextValue;
+
+        EntryIterator(Node root) {
+            if (root == null) {
+                this.depth = -1;
+            } else {
+                this.arrays[0] = root.array;
+                this.depth = 0;
+                this.advance();
+            }
+        }
+
+        private void advance() {
+            this.nextKey = null;
+            while (this.depth >= 0) {
+                Object[] array = this.arrays[this.depth];
+                int position = this.positions[this.depth];
+                if (position >= array.length) {
+                    this.depth--;
+                    continue;
+                }
+                this.positions[this.depth] = position + 2;
+                if (array[position] == null) {
+                    this.depth++;
+                    this.arrays[this.depth] = ((Node) array[position + 1]).array;
+                    this.positions[this.depth] = 0;
+                } else {
+                    this.nextKey = array[position];
+                    this.nextValue = array[position + 1];
+                    return;
+                }
+            }
+        }
+
+        public boolean hasNext() {
+            return this.nextKey != null;
+        }
+
+        @SuppressWarnings("unchecked")
+        public Map.Entry<K, V> next() {
+            if (this.nextKey == null) {
+                throw new NoSuchElementException();
+            }
+            Map.Entry<K, V> entry = new AbstractMap.SimpleImmutableEntry<>((K) this.nextKey, (V) this.nextValue);
+            this.advance();
+            return entry;
+        }
+
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
@@ -389,6 +389,10 @@ public class AliasAnalysis extends AbstractInterproceduralAnalysis {
         return this.repos.recycle(recycleMe);
     }
 
+    public String getRepositoryStatistics() {
+        return this.repos.getStatistics();
+    }
+
 //  clean **************************************************************************
 
     // performs post-analysis cleanup operations to save memory
@@ -1,8 +1,12 @@
 package at.ac.tuwien.infosys.www.pixy.analysis.dependency;
 
+import at.ac.tuwien.infosys.www.pixy.MyOptions;
+import at.ac.tuwien.infosys.www.pixy.RunContext;
 import at.ac.tuwien.infosys.www.pixy.analysis.*;
 import at.ac.tuwien.infosys.www.pixy.analysis.alias.AliasAnalysis;
+import at.ac.tuwien.infosys.www.pixy.analysis.alias.DummyAliasAnalysis;
 import at.ac.tuwien.infosys.www.pixy.analysis.dependency.graph.DependencyGraph;
+import at.ac.tuwien.infosys.www.pixy.analysis.dependency.graph.DependencyGraphCache;
 import at.ac.tuwien.infosys.www.pixy.analysis.dependency.transferfunction.AssignArray;
 import at.ac.tuwien.infosys.www.pixy.analysis.dependency.transferfunction.AssignBinary;
 import at.ac.tuwien.infosys.www.pixy.analysis.dependency.transferfunction.AssignReference;
@@ -17,6 +21,8 @@ import at.ac.tuwien.infosys.www.pixy.analysis.dependency.transferfunction.Unset;
 import at.ac.tuwien.infosys.www.pixy.analysis.globalsmodification.GlobalsModificationAnalysis;
 import at.ac.tuwien.infosys.www.pixy.analysis.interprocedural.*;
 import at.ac.tuwien.infosys.www.pixy.analysis.interprocedural.callstring.CallStringAnalysis;
+import at.ac.tuwien.infosys.www.pixy.analysis.interprocedural.functional.FunctionalAnalysis;
+import at.ac.tuwien.infosys.www.pixy.analysis.literal.DummyLiteralAnalysis;
 import at.ac.tuwien.infosys.www.pixy.analysis.literal.LiteralAnalysis;
 import at.ac.tuwien.infosys.www.pixy.conversion.*;
 import at.ac.tuwien.infosys.www.pixy.conversion.cfgnodes.*;
@@ -31,6 +37,9 @@ import java.util.*;
  * @author Nenad Jovanovic <enji@seclab.tuwien.ac.at>
  */
 public class DependencyAnalysis extends AbstractInterproceduralAnalysis {
+    // the run that this analysis belongs to
+    private RunContext runContext;
+
     private TacConverter tac;
     private List<AbstractTacPlace> places;
     private ConstantsTable constantsTable;
@@ -42,22 +51,39 @@ public class DependencyAnalysis extends AbstractInterproceduralAnalysis {
     private LiteralAnalysis literalAnalysis;
     private GlobalsModificationAnalysis globalsModificationAnalysis;
 
+    // function -> global variables (roots only) and return variables that can
+    // be accessed by this function or by the functions it calls; null if callee
+    // contexts are not restricted (see projectOnCallee)
+    private Map<TacFunction, Set<Variable>> accessibleGlobals;
+
+    // functions that have a summary and haven't been analyzed yet (see
+    // analyze() and materialize())
+    private Map<TacFunction, FunctionSummary> dormantFunctions;
+
+    // dormant function -> contexts under which it has been called -> entry value
+    private Map<TacFunction, Map<AbstractContext, AbstractLatticeElement>> dormantCalls;
+
     // has detectVulnerabilities() already been called?
     private boolean finishedDetection;
 
+    // subgraphs shared by the dependency graphs of all sinks
+    private DependencyGraphCache dependencyGraphCache;
+
 //  ********************************************************************************
 //  CONSTRUCTORS *******************************************************************
 //  ********************************************************************************
 
 //  ExTaintAnalysis ****************************************************************
 
-    public DependencyAnalysis(TacConverter tac,
+    public DependencyAnalysis(RunContext runContext,
+                              TacConverter tac,
                               AliasAnalysis aliasAnalysis,
                               LiteralAnalysis literalAnalysis,
                               AbstractAnalysisType analysisType,
                               InterproceduralWorklist workList,
                               GlobalsModificationAnalysis globalsModificationAnalysis) {
 
+        this.runContext = runContext;
         this.tac = tac;
         this.places = tac.getPlacesList();
         this.constantsTable = tac.getConstantsTable();
@@ -70,23 +96,119 @@ public class DependencyAnalysis extends AbstractInterproceduralAnalysis {
         this.globalsModificationAnalysis = globalsModificationAnalysis;
 
         this.finishedDetection = false;
+        this.dependencyGraphCache = new DependencyGraphCache();
+        this.dormantFunctions = Collections.emptyMap();
+        this.dormantCalls = new HashMap<>();
+
+        // the restriction of callee contexts only pays off for the functional
+        // approach; it relies on the fact that globals are only accessed
+        // directly, i.e., not through aliases
+        if (analysisType instanceof FunctionalAnalysis && aliasAnalysis instanceof DummyAliasAnalysis) {
+            this.accessibleGlobals = computeAccessibleGlobals(tac.getAllFunctions(), tac.getMainFunction());
+        }
 
         this.initGeneral(tac.getAllFunctions(), tac.getMainFunction(),
             analysisType, workList);
     }
 
+//  computeAccessibleGlobals *******************************************************
+
+    // computes the global variables (roots only) and return variables that each
+    // function or one of the functions it (directly or indirectly) calls can read
+    // or write
+    private static Map<TacFunction, Set<Variable>> computeAccessibleGlobals(
+        List<TacFunction> functions, TacFunction mainFunction) {
+
+        SymbolTable mainSymTab = mainFunction.getSymbolTable();
+        Map<TacFunction, Set<Variable>> accessible = new HashMap<>();
+        Map<TacFunction, Set<TacFunction>> callees = new HashMap<>();
+
+        // the globals that are accessed inside the function itself
+        for (TacFunction function : functions) {
+            Set<Variable> variables = new HashSet<>();
+            variables.add(function.getRetVar());
+            Set<TacFunction> calledFunctions = new HashSet<>();
+            for (AbstractCfgNode cfgNode : function.getControlFlowGraph().dfPreOrder()) {
+                collectAccessibleGlobals(cfgNode, mainSymTab, variables);
+                if (cfgNode instanceof Call && ((Call) cfgNode).getCallee() != null) {
+                    calledFunctions.add(((Call) cfgNode).getCallee());
+                }
+            }
+            accessible.put(function, variables);
+            callees.put(function, calledFunctions);
+        }
+
+        // add the globals accessed by the callees until nothing changes
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (TacFunction function : functions) {
+                Set<Variable> variables = accessible.get(function);
+                for (TacFunction callee : callees.get(function)) {
+                    Set<Variable> calleeVariables = accessible.get(callee);
+                    if (calleeVariables != null && variables.addAll(calleeVariables)) {
+                        changed = true;
+                    }
+                }
+            }
+        }
+
+        return accessible;
+    }
+
+    private static void collectAccessibleGlobals(AbstractCfgNode cfgNode, SymbolTable mainSymTab,
+                                                 Set<Variable> variables) {
+        if (cfgNode instanceof BasicBlock) {
+            for (AbstractCfgNode containedNode : ((BasicBlock) cfgNode).getContainedNodes()) {
+                collectAccessibleGlobals(containedNode, mainSymTab, variables);
+            }
+            return;
+        }
+
+        // "global <var>" refers to the variable in the main function with the
+        // same name (see global())
+        if (cfgNode instanceof Global) {
+            Variable realGlobal = mainSymTab.getVariable(((Global) cfgNode).getOperand().getName());
+            if (realGlobal != null) {
+                variables.add(realGlobal);
+            }
+        }
+
+        for (Variable var : cfgNode.getVariables()) {
+            if (var != null) {
+                addAccessibleGlobal(var, variables);
+            }
+        }
+    }
+
+    private static void addAccessibleGlobal(Variable var, Set<Variable> variables) {
+        Variable root = var;
+        if (var.isArrayElement()) {
+            root = var.getTopEnclosingArray();
+            for (AbstractTacPlace index : var.getIndices()) {
+                if (index instanceof Variable) {
+                    addAccessibleGlobal((Variable) index, variables);
+                }
+            }
+        }
+        if (root.isGlobal() || root.isReturnVariable()) {
+            variables.add(root);
+        }
+    }
+
 //  initLattice ********************************************************************
 
     protected void initLattice() {
 
         // initialize lattice
-        this.lattice = new DependencyLattice(
+        DependencyLattice dependencyLattice = new DependencyLattice(
             this.places, this.constantsTable, this.functions,
-            this.superSymbolTable, this.memberPlace);
+            this.superSymbolTable, this.memberPlace, this.runContext.getDependencyTable());
+        this.lattice = dependencyLattice;
 
         // initialize start value: a lattice element that adds no information to
         // the default lattice element
-        this.startValue = new DependencyLatticeElement();
+        this.startValue = dependencyLattice.getDefaultElement().createBlank();
 
         // initialize initial value
         this.initialValue = this.lattice.getBottom();
@@ -139,6 +261,100 @@ public class DependencyAnalysis extends AbstractInterproceduralAnalysis {
         return out;
     }
 
+//  analyze ************************************************************************
+
+    // if there is a summary store, the functions that have a summary are not
+    // analyzed at first: calls to them are handled with their summaries, and
+    // they are only analyzed when a dependency graph needs their values (see
+    // materialize()); summaries require exactly the conditions under which
+    // callee contexts are restricted, and a dummy literal analysis
+    public void analyze() {
+        FunctionSummaryStore store = this.runContext.getFunctionSummaryStore();
+        if (store != null) {
+            if (this.accessibleGlobals != null && this.literalAnalysis instanceof DummyLiteralAnalysis &&
+                this.globalsModificationAnalysis == null && MyOptions.detectionThreads <= 1) {
+
+                this.dormantFunctions = new FunctionSummaryComputation(this, store,
+                    this.functions, this.mainFunction, this.superSymbolTable).compute();
+            } else if (!MyOptions.optionB) {
+                System.out.println("Warning: function summaries are only used by the functional analysis " +
+                    "without alias analysis, literal analysis, and detection threads");
+            }
+        }
+        super.analyze();
+    }
+
+//  summarizeCall ******************************************************************
+
+    // calls to dormant functions are handled with their summaries; the entry
+    // value is remembered in case that the function has to be analyzed later
+    protected AbstractLatticeElement summarizeCall(
+        Call callNode, AbstractContext propagationContext, AbstractLatticeElement entryValue) {
+
+        FunctionSummary summary = this.dormantFunctions.get(callNode.getCallee());
+        if (summary == null) {
+            return null;
+        }
+        Map<AbstractContext, AbstractLatticeElement> calls = this.dormantCalls.get(callNode.getCallee());
+        if (calls == null) {
+            calls = new HashMap<>();
+            this.dormantCalls.put(callNode.getCallee(), calls);
+        }
+        calls.put(propagationContext, entryValue);
+        return summary.apply((DependencyLatticeElement) entryValue);
+    }
+
+//  materialize ********************************************************************
+
+    // analyzes the given function if it is still dormant, so that its nodes get
+    // their values; since dependency graphs also lead from a function to its
+    // callers, the (transitive) callers that are still dormant are analyzed as
+    // well; the values at the call return nodes don't change, since they
+    // already contain the effects of the summaries
+    public void materialize(TacFunction function) {
+        if (!this.dormantFunctions.containsKey(function)) {
+            return;
+        }
+
+        List<TacFunction> woken = new LinkedList<>();
+        LinkedList<TacFunction> queue = new LinkedList<>();
+        queue.add(function);
+        while (!queue.isEmpty()) {
+            TacFunction next = queue.removeFirst();
+            if (this.dormantFunctions.remove(next) == null) {
+                continue;
+            }
+            woken.add(next);
+            for (Call callNode : next.getCalledFrom()) {
+                queue.add(callNode.getEnclosingFunction());
+            }
+        }
+
+        for (TacFunction wokenFunction : woken) {
+            Map<AbstractContext, AbstractLatticeElement> calls = this.dormantCalls.remove(wokenFunction);
+            if (calls == null) {
+                continue;
+            }
+            AbstractCfgNode entryNode = wokenFunction.getControlFlowGraph().getHead();
+            for (Map.Entry<AbstractContext, AbstractLatticeElement> call : calls.entrySet()) {
+                this.propagate(call.getKey(), call.getValue(), entryNode);
+            }
+        }
+        this.processWorklist();
+    }
+
+//  getRunContext ******************************************************************
+
+    public RunContext getRunContext() {
+        return this.runContext;
+    }
+
+//  getDependencyGraphCache ********************************************************
+
+    public DependencyGraphCache getDependencyGraphCache() {
+        return this.dependencyGraphCache;
+    }
+
 //  ********************************************************************************
 //  TRANSFER FUNCTION GENERATORS ***************************************************
 //  ********************************************************************************
@@ -294,6 +510,10 @@ public class DependencyAnalysis extends AbstractInterproceduralAnalysis {
             if (this.globalsModificationAnalysis != null) {
                 modSet = this.globalsModificationAnalysis.getMod(calledFunction);
             }
+            Set<Variable> calleeAccessible = null;
+            if (this.accessibleGlobals != null) {
+                calleeAccessible = this.accessibleGlobals.get(calledFunction);
+            }
 
             // quite powerful transfer function, does many things
             tf = new at.ac.tuwien.infosys.www.pixy.analysis.dependency.transferfunction.CallReturn(
@@ -303,7 +523,8 @@ public class DependencyAnalysis extends AbstractInterproceduralAnalysis {
                 cfgNodePrep,
                 cfgNodeRet,
                 this.aliasAnalysis,
-                modSet);
+                modSet,
+                calleeAccessible);
         }
 
         return tf;
@@ -375,6 +596,19 @@ public class DependencyAnalysis extends AbstractInterproceduralAnalysis {
         return this.literalAnalysis.evalIf(ifNode);
     }
 
+    // restricts the value to the places that the callee can access, i.e., removes
+    // the globals and return variables that neither the callee nor its callees
+    // access; the callee passes them through unchanged, so the call return node
+    // takes them from the value at the call instead (see CallReturn)
+    public AbstractLatticeElement projectOnCallee(Call callNode, AbstractLatticeElement value) {
+        if (this.accessibleGlobals == null || callNode.getCallee() == null) {
+            return value;
+        }
+        DependencyLatticeElement projected = new DependencyLatticeElement((DependencyLatticeElement) value);
+        projected.resetInaccessibleGlobals(this.accessibleGlobals.get(callNode.getCallee()));
+        return projected;
+    }
+
     /**
      * Returns the dependency graphs for the given sink.
      *
@@ -479,6 +713,10 @@ public class DependencyAnalysis extends AbstractInterproceduralAnalysis {
         return this.repos.recycle(recycleMe);
     }
 
+    public String getRepositoryStatistics() {
+        return this.repos.getStatistics();
+    }
+
     // checks if the callgraph contains unreachable code (i.e., nodes that have not
     // been associated with analysis information)
     public void checkReachability() {
@@ -1,24 +1,24 @@
 package at.ac.tuwien.infosys.www.pixy.analysis.dependency;
 
-import at.ac.tuwien.infosys.www.pixy.analysis.GenericRepository;
-import at.ac.tuwien.infosys.www.pixy.analysis.Recyclable;
 import at.ac.tuwien.infosys.www.pixy.conversion.cfgnodes.AbstractCfgNode;
 
 /**
  * Corresponds to one dependency label, consisting of
  * <source descriptor (e.g., variable or function name)>, <location (cfg node)>.
  *
+ * Labels are created by the DependencyTable of a run, which numbers them densely.
+ *
  * @author Nenad Jovanovic <enji@seclab.tuwien.ac.at>
  */
-public class DependencyLabel implements Recyclable {
-    public static GenericRepository<DependencyLabel> repos =
-        new GenericRepository<>();
-
-    // special, parameterized label
+public class DependencyLabel {
+    // special, parameterized label; belongs to every table (with id 0)
     public static final DependencyLabel UNINIT =
-        new DependencyLabel(null);
+        new DependencyLabel(null, null, 0);
 
-    private AbstractCfgNode cfgNode;
+    // the table that created this label (null for UNINIT)
+    private final DependencyTable table;
+    private final AbstractCfgNode cfgNode;
+    private final int id;
 
 //  ********************************************************************************
 //  CONSTRUCTORS *******************************************************************
@@ -26,16 +26,17 @@ public class DependencyLabel implements Recyclable {
 
 //  ********************************************************************************
 
-    private DependencyLabel(AbstractCfgNode cfgNode) {
+    // to be called by the table
+    DependencyLabel(DependencyTable table, AbstractCfgNode cfgNode, int id) {
+        this.table = table;
         this.cfgNode = cfgNode;
+        this.id = id;
     }
 
 //  ********************************************************************************
 
-    public static DependencyLabel create(AbstractCfgNode cfgNode) {
-        DependencyLabel ret = new DependencyLabel(cfgNode);
-        ret = repos.recycle(ret);
-        return ret;
+    public static DependencyLabel create(DependencyTable table, AbstractCfgNode cfgNode) {
+        return table.getLabel(cfgNode);
     }
 
 //  ********************************************************************************
@@ -48,6 +49,18 @@ public class DependencyLabel implements Recyclable {
         return this.cfgNode;
     }
 
+//  ********************************************************************************
+
+    int getId() {
+        return this.id;
+    }
+
+//  ********************************************************************************
+
+    DependencyTable getTable() {
+        return this.table;
+    }
+
 //  ********************************************************************************
 
     public String toString() {
@@ -66,28 +79,4 @@ public class DependencyLabel implements Recyclable {
         buf.append(") ");
         return buf.toString();
     }
-
-//  ********************************************************************************
-
-    public boolean structureEquals(Object compX) {
-        if (compX == this) {
-            return true;
-        }
-        if (!(compX instanceof DependencyLabel)) {
-            return false;
-        }
-        DependencyLabel comp = (DependencyLabel) compX;
-        if (this.cfgNode == null) {
-            return this == comp;
-        }
-        return this.cfgNode.equals(comp.cfgNode);
-    }
-
-//  ********************************************************************************
-
-    public int structureHashCode() {
-        int hashCode = 17;
-        hashCode = 37 * hashCode + this.cfgNode.hashCode();
-        return hashCode;
-    }
 }
\ No newline at end of file
@@ -12,11 +12,19 @@ import java.util.List;
  * @author Nenad Jovanovic <enji@seclab.tuwien.ac.at>
  */
 class DependencyLattice extends AbstractLattice {
+    // the default lattice element of this lattice (see DependencyLatticeElement)
+    private final DependencyLatticeElement defaultElement;
+
     DependencyLattice(
         List<AbstractTacPlace> places, ConstantsTable constantsTable, List<TacFunction> functions, SymbolTable superSymbolTable,
-        Variable memberPlace
+        Variable memberPlace, DependencyTable dependencyTable
     ) {
-        DependencyLatticeElement.initDefault(places, constantsTable, functions, superSymbolTable, memberPlace);
+        this.defaultElement = new DependencyLatticeElement(
+            places, constantsTable, functions, superSymbolTable, memberPlace, dependencyTable);
+    }
+
+    DependencyLatticeElement getDefaultElement() {
+        return this.defaultElement;
     }
 
 // *********************************************************************************
@@ -2,6 +2,7 @@ package at.ac.tuwien.infosys.www.pixy.analysis.dependency;
 
 import at.ac.tuwien.infosys.www.pixy.MyOptions;
 import at.ac.tuwien.infosys.www.pixy.analysis.AbstractLatticeElement;
+import at.ac.tuwien.infosys.www.pixy.analysis.PersistentMap;
 import at.ac.tuwien.infosys.www.pixy.conversion.*;
 import at.ac.tuwien.infosys.www.pixy.conversion.cfgnodes.AbstractCfgNode;
 import at.ac.tuwien.infosys.www.pixy.conversion.cfgnodes.CallReturn;
@@ -16,41 +17,51 @@ public class DependencyLatticeElement extends AbstractLatticeElement {
     // does not contain mappings for non-literal array elements, because:
     // the dependency value of such elements solely depends on the array label
     // of their root array;
-    // also: contains only mappings for Variables and Constants, not for Literals
-    private Map<AbstractTacPlace, DependencySet> placeToDep;
+    // also: contains only mappings for Variables and Constants, not for Literals;
+    // persistent, i.e., shared between an element and its clones until one of them
+    // changes (which then only copies the path to the changed mapping)
+    private PersistentMap<AbstractTacPlace, DependencySet> placeToDep;
 
     // "array labels";
     // remotely resemble "clean array flags" (caFlags) from XSS taint analysis;
     // gives an upper bound for the label of non-literal array elements;
     // contains only non-default mappings;
-    // only defined for non-array-elements
-    private Map<Variable, DependencySet> arrayLabels;
+    // only defined for non-array-elements;
+    // persistent, just like placeToDep
+    private PersistentMap<Variable, DependencySet> arrayLabels;
 
-    // the default lattice element; IT MUST NOT BE USED DIRECTLY BY THE ANALYSIS!
+    // the default lattice element of the analysis that this element belongs to
+    // (for the default element itself: the element itself);
+    // IT MUST NOT BE USED DIRECTLY BY THE ANALYSIS!
     // can be seen as "grounding", "fall-back" for normal lattice elements
-    public static DependencyLatticeElement DEFAULT;
+    private final DependencyLatticeElement defaultElement;
+
+    // the labels and sets of the run that this element belongs to
+    private final DependencyTable dependencyTable;
 
 //  ********************************************************************************
 //  CONSTRUCTORS *******************************************************************
 //  ********************************************************************************
 
-//  DependencyLatticeElement() ********************************************************
+//  DependencyLatticeElement(DependencyLatticeElement) ***********************************
 
-    // a lattice element that doesn't modify the information of the
-    // default lattice element
-    public DependencyLatticeElement() {
-        this.placeToDep = new HashMap<>();
-        this.arrayLabels = new HashMap<>();
+    // clones the given element (in constant time, since the maps are persistent)
+    public DependencyLatticeElement(DependencyLatticeElement element) {
+        this.placeToDep = element.placeToDep;
+        this.arrayLabels = element.arrayLabels;
+        this.defaultElement = element.defaultElement;
+        this.dependencyTable = element.dependencyTable;
     }
 
-//  DependencyLatticeElement(DependencyLatticeElement) ***********************************
+//  createBlank ********************************************************************
 
-    // clones the given element
-    public DependencyLatticeElement(DependencyLatticeElement element) {
-        this.placeToDep =
-            new HashMap<>(element.getPlaceToDep());
-        this.arrayLabels =
-            new HashMap<>(element.getArrayLabels());
+    // returns a lattice element that doesn't modify the information of the
+    // default lattice element of this element's analysis
+    public DependencyLatticeElement createBlank() {
+        DependencyLatticeElement retMe = new DependencyLatticeElement(this.defaultElement);
+        retMe.placeToDep = PersistentMap.empty();
+        retMe.arrayLabels = PersistentMap.empty();
+        return retMe;
     }
 
 //  cloneMe ************************************************************************
@@ -60,24 +71,28 @@ public class DependencyLatticeElement extends AbstractLatticeElement {
         return new DependencyLatticeElement(this);
     }
 
-//  DependencyLatticeElement(<for initDefault>) *****************************************
+//  DependencyLatticeElement(<for the default element>) *********************************
 
-    // constructor for default element (to be called by "initDefault"):
+    // constructor for default element (to be called by the lattice):
     // basically initializes everything to UNINIT;
     // TODO: the code for this can probably be simplified dramatically ;
     // also, the comments inside this function are partly obsolete
-    private DependencyLatticeElement(
+    DependencyLatticeElement(
         List<AbstractTacPlace> places,
         ConstantsTable constantsTable,
         List<TacFunction> functions,
         SymbolTable superSymbolTable,
-        Variable memberPlace) {
+        Variable memberPlace,
+        DependencyTable dependencyTable) {
+
+        this.defaultElement = this;
+        this.dependencyTable = dependencyTable;
 
         // initialize base mapping for variables: UNINIT
         // (note: array elements have no explicit array label: their label is
         // that of their top enclosing array)
-        this.placeToDep = new HashMap<>();
-        this.arrayLabels = new HashMap<>();
+        this.placeToDep = PersistentMap.empty();
+        this.arrayLabels = PersistentMap.empty();
         for (AbstractTacPlace place : places) {
             if ((place instanceof Variable) &&
                 place.getVariable().isArrayElement() &&
@@ -85,12 +100,12 @@ public class DependencyLatticeElement extends AbstractLatticeElement {
                 // if this is a non-literal array element:
                 // don't add a mapping
             } else {
-                this.placeToDep.put(place, DependencySet.UNINIT);
+                this.placeToDep = this.placeToDep.plus(place, DependencySet.UNINIT);
             }
 
             // arrayLabels are not defined for variables that are array-elements
             if ((place instanceof Variable) && !place.getVariable().isArrayElement()) {
-                this.arrayLabels.put((Variable) place, DependencySet.UNINIT);
+                this.arrayLabels = this.arrayLabels.plus((Variable) place, DependencySet.UNINIT);
             }
         }
 
@@ -101,18 +116,18 @@ public class DependencyLatticeElement extends AbstractLatticeElement {
         // mapping for NULL (i.e., harmless);
         for (AbstractTacPlace place : places) {
             if ((place instanceof Variable) && place.getVariable().isReturnVariable()) {
-                this.placeToDep.put(place, DependencySet.UNINIT);
-                this.arrayLabels.put((Variable) place, DependencySet.UNINIT);
+                this.placeToDep = this.placeToDep.plus(place, DependencySet.UNINIT);
+                this.arrayLabels = this.arrayLabels.plus((Variable) place, DependencySet.UNINIT);
             }
         }
 
         // special member variable
-        this.placeToDep.put(memberPlace, DependencySet.UNINIT);
-        this.arrayLabels.put(memberPlace, DependencySet.UNINIT);
+        this.placeToDep = this.placeToDep.plus(memberPlace, DependencySet.UNINIT);
+        this.arrayLabels = this.arrayLabels.plus(memberPlace, DependencySet.UNINIT);
 
         // initialize constants
         for (Constant constant : constantsTable.getConstants().values()) {
-            this.placeToDep.put(constant, DependencySet.UNINIT);
+            this.placeToDep = this.placeToDep.plus(constant, DependencySet.UNINIT);
         }
 
         // initialize local function variables & parameters to HARMLESS;
@@ -139,14 +154,14 @@ public class DependencyLatticeElement extends AbstractLatticeElement {
                 // init the whole tree below this variable to untainted
                 // (note that using setTree wouldn't work here)
                 this.initTree(variable, DependencySet.UNINIT);
-                this.arrayLabels.put(variable, DependencySet.UNINIT);
+                this.arrayLabels = this.arrayLabels.plus(variable, DependencySet.UNINIT);
             }
         }
 
         // untaint the whole $_SESSION array
         Variable sess = superSymbolTable.getVariable("$_SESSION");
         this.initTree(sess, DependencySet.UNINIT);
-        this.arrayLabels.put(sess, DependencySet.UNINIT);
+        this.arrayLabels = this.arrayLabels.plus(sess, DependencySet.UNINIT);
 
         // untaint harmless superglobals;
         // fill this list with harmless superglobals that must be set to
@@ -188,7 +203,7 @@ public class DependencyLatticeElement extends AbstractLatticeElement {
         for (Variable harmlessSuperGlobal : harmlessSuperGlobals) {
             // if it is null, it hasn't been used in the php script
             if (harmlessSuperGlobal != null) {
-                this.placeToDep.put(harmlessSuperGlobal, DependencySet.UNINIT);
+                this.placeToDep = this.placeToDep.plus(harmlessSuperGlobal, DependencySet.UNINIT);
             }
         }
     }
@@ -208,17 +223,6 @@ public class DependencyLatticeElement extends AbstractLatticeElement {
         harmlessSuperGlobals.add(v2);
     }
 
-//  initDefault ********************************************************************
-
-    // initializes the default lattice element
-    static void initDefault(
-        List<AbstractTacPlace> places, ConstantsTable constantsTable, List<TacFunction> functions, SymbolTable superSymbolTable,
-        Variable memberPlace
-    ) {
-        DependencyLatticeElement.DEFAULT
-            = new DependencyLatticeElement(places, constantsTable, functions, superSymbolTable, memberPlace);
-    }
-
 //  *********************************************************************************
 //  GET *****************************************************************************
 //  *********************************************************************************
@@ -235,6 +239,12 @@ public class DependencyLatticeElement extends AbstractLatticeElement {
         return this.arrayLabels;
     }
 
+//  *********************************************************************************
+
+    public DependencyTable getDependencyTable() {
+        return this.dependencyTable;
+    }
+
 //  ********************************************************************************
 
     public DependencySet getDep(AbstractTacPlace place) {
@@ -278,11 +288,11 @@ public class DependencyLatticeElement extends AbstractLatticeElement {
 
 //  ********************************************************************************
 
-    private static DependencySet getDefaultDep(AbstractTacPlace place) {
+    private DependencySet getDefaultDep(AbstractTacPlace place) {
         if (place instanceof Literal) {
             throw new RuntimeException("SNH");
         }
-        return DependencyLatticeElement.DEFAULT.getPlaceToDep().get(place);
+        return this.defaultElement.getPlaceToDep().get(place);
     }
 
 //  ********************************************************************************
@@ -325,7 +335,7 @@ public class DependencyLatticeElement extends AbstractLatticeElement {
 //  ********************************************************************************
 
     private DependencySet getDefaultArrayLabel(Variable var) {
-        return DEFAULT.arrayLabels.get(var);
+        return this.defaultElement.arrayLabels.get(var);
     }
 
 //  ********************************************************************************
@@ -352,9 +362,9 @@ public class DependencyLatticeElement extends AbstractLatticeElement {
 
         if (getDefaultDep(place).equals(dependencySet)) {
             // if the target dependency is the default, we simply remove the mapping
-            this.placeToDep.remove(place);
+            this.placeToDep = this.placeToDep.minus(place);
         } else {
-            this.placeToDep.put(place, dependencySet);
+            this.placeToDep = this.placeToDep.plus(place, dependencySet);
         }
     }
 
@@ -374,9 +384,9 @@ public class DependencyLatticeElement extends AbstractLatticeElement {
         DependencySet resultDep = DependencySet.lub(oldDep, dependencySet);
         if (getDefaultDep(place).equals(resultDep)) {
             // if the target dependency is the default, we simply remove the mapping
-            this.placeToDep.remove(place);
+            this.placeToDep = this.placeToDep.minus(place);
         } else {
-            this.placeToDep.put(place, resultDep);
+            this.placeToDep = this.placeToDep.plus(place, resultDep);
         }
     }
 
@@ -394,9 +404,9 @@ public class DependencyLatticeElement extends AbstractLatticeElement {
 
         // if the target dependency is the default, we simply remove the mapping
         if (getDefaultArrayLabel(var).equals(dependencySet)) {
-            this.arrayLabels.remove(var);
+            this.arrayLabels = this.arrayLabels.minus(var);
         } else {
-            this.arrayLabels.put(var, dependencySet);
+            this.arrayLabels = this.arrayLabels.plus(var, dependencySet);
         }
     }
 
@@ -413,10 +423,10 @@ public class DependencyLatticeElement extends AbstractLatticeElement {
         if (resultDep.equals(getDefaultArrayLabel(var))) {
             // if the resulting dependency is equal to this variable's default
             // dependency, we simply have to remove the default mapping
-            this.arrayLabels.remove(var);
+            this.arrayLabels = this.arrayLabels.minus(var);
         } else {
             // replace the non-default mapping
-            this.arrayLabels.put(var, resultDep);
+            this.arrayLabels = this.arrayLabels.plus(var, resultDep);
         }
     }
 
@@ -458,80 +468,19 @@ public class DependencyLatticeElement extends AbstractLatticeElement {
 
         DependencyLatticeElement foreign = (DependencyLatticeElement) foreignX;
 
-        // DEPS ***
-
-        // lub over my non-default mappings;
-        // this one is necessary because we must not modify a map while
-        // iterating over it
-        Map<AbstractTacPlace, DependencySet> newPlaceToDep =
-            new HashMap<>(this.placeToDep);
-        for (Map.Entry<AbstractTacPlace, DependencySet> myEntry : this.placeToDep.entrySet()) {
-            AbstractTacPlace myPlace = myEntry.getKey();
-            DependencySet myDep = myEntry.getValue();
-            DependencySet foreignDep = foreign.getDep(myPlace);
-            newPlaceToDep.put(myPlace, DependencySet.lub(myDep, foreignDep));
-        }
-        this.placeToDep = newPlaceToDep;
-
-        // lub the remaining non-default mappings of "foreign" over my
-        // default mappings
-        for (Map.Entry<AbstractTacPlace, DependencySet> foreignEntry : foreign.getPlaceToDep().entrySet()) {
-            AbstractTacPlace foreignPlace = foreignEntry.getKey();
-            DependencySet foreignDep = foreignEntry.getValue();
-
-            DependencySet myDep = this.getNonDefaultDep(foreignPlace);
-            // make sure that we handle my default mappings now
-            if (myDep == null) {
-                myDep = getDefaultDep(foreignPlace);
-                this.placeToDep.put(foreignPlace, DependencySet.lub(foreignDep, myDep));
-            }
-        }
+        // only places that are mapped differently by the two elements have to be
+        // considered: for all others, the lub is the value they already have;
+        // this skips everything the maps still share, and the maps contain no
+        // default mappings and no non-literal array elements
 
-        // cleaning pass: remove defaults
-        for (Iterator<Map.Entry<AbstractTacPlace, DependencySet>> iter = this.placeToDep.entrySet().iterator(); iter.hasNext(); ) {
-            Map.Entry<AbstractTacPlace, DependencySet> entry = iter.next();
-            AbstractTacPlace place = entry.getKey();
-            DependencySet dep = entry.getValue();
-            if (getDefaultDep(place).equals(dep)) {
-                iter.remove();
-            }
+        // DEPS ***
+        for (AbstractTacPlace place : this.placeToDep.differingKeys(foreign.placeToDep)) {
+            this.lubDep(place, foreign.getDep(place));
         }
 
         // ARRAY LABELS ***
-
-        // lub over my non-default mappings
-        Map<Variable, DependencySet> newArrayLabels = new HashMap<>(this.arrayLabels);
-        for (Map.Entry<Variable, DependencySet> myEntry : this.arrayLabels.entrySet()) {
-            Variable myVar = myEntry.getKey();
-            DependencySet myArrayLabel = myEntry.getValue();
-            DependencySet foreignArrayLabel = foreign.getArrayLabel(myVar);
-            newArrayLabels.put(myVar, DependencySet.lub(myArrayLabel, foreignArrayLabel));
-        }
-        this.arrayLabels = newArrayLabels;
-
-        // lub the remaining non-default mappings of "foreign" over my
-        // default mappings
-        for (Map.Entry<Variable, DependencySet> foreignEntry : foreign.getArrayLabels().entrySet()) {
-            Variable foreignVar = foreignEntry.getKey();
-            DependencySet foreignArrayLabel = foreignEntry.getValue();
-
-            // try non-default mapping:
-            DependencySet myArrayLabel = getNonDefaultArrayLabel(foreignVar);
-            if (myArrayLabel == null) {
-                // fetch default mapping:
-                myArrayLabel = getDefaultArrayLabel(foreignVar);
-                this.arrayLabels.put(foreignVar, DependencySet.lub(myArrayLabel, foreignArrayLabel));
-            }
-        }
-
-        // cleaning pass: remove defaults
-        for (Iterator<Map.Entry<Variable, DependencySet>> iter = this.arrayLabels.entrySet().iterator(); iter.hasNext(); ) {
-            Map.Entry<Variable, DependencySet> entry = iter.next();
-            Variable var = entry.getKey();
-            DependencySet arrayLabel = entry.getValue();
-            if (getDefaultArrayLabel(var).equals(arrayLabel)) {
-                iter.remove();
-            }
+        for (Variable var : this.arrayLabels.differingKeys(foreign.arrayLabels)) {
+            this.lubArrayLabel(var, foreign.getArrayLabel(var));
         }
     }
 
@@ -550,7 +499,7 @@ public class DependencyLatticeElement extends AbstractLatticeElement {
     // to reduce defaults, which don't exist during initialization),
     // but modifies placeToDep directly
     void initTree(Variable root, DependencySet dep) {
-        this.placeToDep.put(root, dep);
+        this.placeToDep = this.placeToDep.plus(root, dep);
         if (!root.isArray()) {
             return;
         }
@@ -565,7 +514,7 @@ public class DependencyLatticeElement extends AbstractLatticeElement {
     // include left itself
     public void assign(Variable left, Set<Variable> mustAliases, Set<Variable> mayAliases, AbstractCfgNode cfgNode) {
         // dependency to be assigned to the left side
-        DependencySet dep = DependencySet.create(DependencyLabel.create(cfgNode));
+        DependencySet dep = DependencySet.create(DependencyLabel.create(this.dependencyTable, cfgNode));
 
         // case distinguisher for the left variable
         int leftCase;
@@ -653,10 +602,10 @@ public class DependencyLatticeElement extends AbstractLatticeElement {
 
     public void assignArray(Variable left, AbstractCfgNode cfgNode) {
         // set the whole tree of left
-        this.setWholeTree(left, DependencySet.create(DependencyLabel.create(cfgNode)));
+        this.setWholeTree(left, DependencySet.create(DependencyLabel.create(this.dependencyTable, cfgNode)));
         // if left is not an array element, set its arrayLabel
         if (!left.isArrayElement()) {
-            this.setArrayLabel(left, DependencySet.create(DependencyLabel.create(cfgNode)));
+            this.setArrayLabel(left, DependencySet.create(DependencyLabel.create(this.dependencyTable, cfgNode)));
         }
     }
 
@@ -664,14 +613,14 @@ public class DependencyLatticeElement extends AbstractLatticeElement {
 
     // sets the dependency of the given constant
     public void defineConstant(Constant c, AbstractCfgNode cfgNode) {
-        this.setDep(c, DependencySet.create(DependencyLabel.create(cfgNode)));
+        this.setDep(c, DependencySet.create(DependencyLabel.create(this.dependencyTable, cfgNode)));
     }
 
 //  defineConstantWeak *************************************************************
 
     // lubs the taint of the given constant
     public void defineConstantWeak(Constant c, AbstractCfgNode cfgNode) {
-        this.lubDep(c, DependencySet.create(DependencyLabel.create(cfgNode)));
+        this.lubDep(c, DependencySet.create(DependencyLabel.create(this.dependencyTable, cfgNode)));
     }
 
 // getMiList ***********************************************************************
@@ -757,10 +706,7 @@ public class DependencyLatticeElement extends AbstractLatticeElement {
     public void resetVariables(SymbolTable symTab) {
 
         // reset deps
-        for (Iterator<Map.Entry<AbstractTacPlace, DependencySet>> iter = this.placeToDep.entrySet().iterator(); iter.hasNext(); ) {
-            Map.Entry<AbstractTacPlace, DependencySet> entry = iter.next();
-            AbstractTacPlace place = entry.getKey();
-
+        for (AbstractTacPlace place : this.placeToDep.keySet()) {
             if (!(place instanceof Variable)) {
                 // nothing to do for non-variables (i.e., constants)
                 continue;
@@ -768,24 +714,14 @@ public class DependencyLatticeElement extends AbstractLatticeElement {
 
             Variable var = (Variable) place;
             if (var.belongsTo(symTab)) {
-                iter.remove();
+                this.placeToDep = this.placeToDep.minus(var);
             }
         }
 
         // reset array labels
-        for (Iterator<Map.Entry<Variable, DependencySet>> iter = this.arrayLabels.entrySet().iterator(); iter.hasNext(); ) {
-            Map.Entry<Variable, DependencySet> entry = iter.next();
-            AbstractTacPlace place = entry.getKey();
-
-            if (!(place != null)) {
-                // nothing to do for non-variables (i.e., constants)
-                // Note: Is this possible here at all as of the Map contents data types?
-                continue;
-            }
-
-            Variable var = (Variable) place;
+        for (Variable var : this.arrayLabels.keySet()) {
             if (var.belongsTo(symTab)) {
-                iter.remove();
+                this.arrayLabels = this.arrayLabels.minus(var);
             }
         }
     }
@@ -797,10 +733,7 @@ public class DependencyLatticeElement extends AbstractLatticeElement {
     public void resetTemporaries(SymbolTable symTab) {
 
         // reset deps
-        for (Iterator<Map.Entry<AbstractTacPlace, DependencySet>> iter = this.placeToDep.entrySet().iterator(); iter.hasNext(); ) {
-            Map.Entry<AbstractTacPlace, DependencySet> entry = iter.next();
-            AbstractTacPlace place = entry.getKey();
-
+        for (AbstractTacPlace place : this.placeToDep.keySet()) {
             if (!(place instanceof Variable)) {
                 // nothing to do for non-variables (i.e., constants)
                 continue;
@@ -813,29 +746,19 @@ public class DependencyLatticeElement extends AbstractLatticeElement {
             }
 
             if (var.belongsTo(symTab)) {
-                iter.remove();
+                this.placeToDep = this.placeToDep.minus(var);
             }
         }
 
         // reset array labels
-        for (Iterator<Map.Entry<Variable, DependencySet>>  iter = this.arrayLabels.entrySet().iterator(); iter.hasNext(); ) {
-            Map.Entry<Variable, DependencySet> entry = iter.next();
-            AbstractTacPlace place = entry.getKey();
-
-            if (!(place != null)) {
-                // nothing to do for non-variables (i.e., constants)
-                // Note: Is this possible here at all as of the Map contents data types?
-                continue;
-            }
-
-            Variable var = (Variable) place;
+        for (Variable var : this.arrayLabels.keySet()) {
             if (!var.isTemp()) {
                 // nothing to do for non-temporaries
                 continue;
             }
 
             if (var.belongsTo(symTab)) {
-                iter.remove();
+                this.arrayLabels = this.arrayLabels.minus(var);
             }
         }
     }
@@ -853,6 +776,27 @@ public class DependencyLatticeElement extends AbstractLatticeElement {
         this.assign(formalVar, mustAliases, mayAliases, cfgNode);
     }
 
+//  applyEffect ********************************************************************
+
+    // sets the dependency of the given place to the given dependency; if "keep" is
+    // true, the given dependency is added to the old one instead (see FunctionSummary)
+    public void applyEffect(AbstractTacPlace place, DependencySet dependencySet, boolean keep) {
+        if (keep) {
+            this.lubDep(place, dependencySet);
+        } else {
+            this.setDep(place, dependencySet);
+        }
+    }
+
+    // analogous to applyEffect, but for the array label of the given variable
+    public void applyArrayLabelEffect(Variable var, DependencySet dependencySet, boolean keep) {
+        if (keep) {
+            this.lubArrayLabel(var, dependencySet);
+        } else {
+            this.setArrayLabel(var, dependencySet);
+        }
+    }
+
 //  setShadow **********************************************************************
 
     // sets a shadow's dependency/label to the dependency/label of its original
@@ -977,6 +921,65 @@ public class DependencyLatticeElement extends AbstractLatticeElement {
         }
     }
 
+//  resetInaccessibleGlobals *******************************************************
+
+    // resets all global variables and return variables that are not accessible
+    // according to the given set (see isInaccessible)
+    public void resetInaccessibleGlobals(Set<Variable> accessible) {
+
+        // reset deps
+        for (AbstractTacPlace place : this.placeToDep.keySet()) {
+            if (isInaccessible(place, accessible)) {
+                this.placeToDep = this.placeToDep.minus(place);
+            }
+        }
+
+        // reset array labels
+        for (Variable var : this.arrayLabels.keySet()) {
+            if (isInaccessible(var, accessible)) {
+                this.arrayLabels = this.arrayLabels.minus(var);
+            }
+        }
+    }
+
+//  copyInaccessibleGlobals ********************************************************
+
+    // copies the non-default dependency/label mappings for global variables and
+    // return variables that are not accessible according to the given set
+    // from origElement; counterpart of resetInaccessibleGlobals
+    public void copyInaccessibleGlobals(DependencyLatticeElement origElement, Set<Variable> accessible) {
+
+        // dependency mappings
+        for (Map.Entry<AbstractTacPlace, DependencySet> entry : origElement.getPlaceToDep().entrySet()) {
+            if (isInaccessible(entry.getKey(), accessible)) {
+                this.setDep(entry.getKey(), entry.getValue());
+            }
+        }
+
+        // array label mappings
+        for (Map.Entry<Variable, DependencySet> entry : origElement.getArrayLabels().entrySet()) {
+            if (isInaccessible(entry.getKey(), accessible)) {
+                this.setArrayLabel(entry.getKey(), entry.getValue());
+            }
+        }
+    }
+
+    // is the given place (an element of) a global variable or a return variable
+    // that is not contained in the given set?
+    private static boolean isInaccessible(AbstractTacPlace place, Set<Variable> accessible) {
+        if (!(place instanceof Variable)) {
+            return false;
+        }
+        Variable root = (Variable) place;
+        if (root.isArrayElement()) {
+            root = root.getTopEnclosingArray();
+        }
+        if (!root.isGlobal() && !root.isReturnVariable()) {
+            return false;
+        }
+        return !accessible.contains(root);
+    }
+
 //  copyMainTemporaries ****************************************************************
 
     // copies the dependency/label mappings for local temporaries of the main function
@@ -1081,7 +1084,7 @@ public class DependencyLatticeElement extends AbstractLatticeElement {
     public void handleReturnValue(CallReturn retNode/*, DependencyLatticeElement calleeIn*/) {
 
         Variable tempVar = retNode.getTempVar();
-        DependencyLabel dependencyLabel = DependencyLabel.create(retNode);
+        DependencyLabel dependencyLabel = DependencyLabel.create(this.dependencyTable, retNode);
         DependencySet dependencySet = DependencySet.create(dependencyLabel);
         this.setWholeTree(tempVar, dependencySet);
         this.setArrayLabel(tempVar, dependencySet);
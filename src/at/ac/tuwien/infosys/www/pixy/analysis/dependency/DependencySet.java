@@ -1,57 +1,97 @@
 package at.ac.tuwien.infosys.www.pixy.analysis.dependency;
 
-import at.ac.tuwien.infosys.www.pixy.analysis.GenericRepository;
-import at.ac.tuwien.infosys.www.pixy.analysis.Recyclable;
-
+import java.util.Arrays;
 import java.util.HashSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
 import java.util.Set;
 
 /**
  * Just a set of Deps.
  *
+ * Represented as a bitset over the ids of the contained labels: words[i] holds the
+ * bits for the ids 64 * (firstWord + i) to 64 * (firstWord + i) + 63, and neither
+ * the first nor the last word is empty. Dependency sets are immutable and interned
+ * by the DependencyTable of their labels, so they can be compared with "==".
+ *
  * @author Nenad Jovanovic <enji@seclab.tuwien.ac.at>
  */
-public class DependencySet implements Recyclable {
-    public static GenericRepository<DependencySet> repos = new GenericRepository<>();
-
+public class DependencySet implements Iterable<DependencyLabel> {
     // no special treatment necessary for the following:
-    static public final DependencySet UNINIT = new DependencySet(DependencyLabel.UNINIT);
+    // belongs to every table, just like its label
+    static public final DependencySet UNINIT = new DependencySet(null, 0, new long[]{1L}, hashCode(0, new long[]{1L}));
 
-    static {
-        repos.recycle(UNINIT);
-    }
+    // the table that interned this set (null for UNINIT)
+    private final DependencyTable table;
 
-    // the contained dependency labels
-    private Set<DependencyLabel> dependencyLabelSet;
+    // index of the first word, and the (non-empty) words
+    private final int firstWord;
+    private final long[] words;
+
+    private final int hashCode;
 
 //  ********************************************************************************
 //  CONSTRUCTORS *******************************************************************
 //  ********************************************************************************
 
-    private DependencySet(DependencyLabel dependencyLabel) {
-        this.dependencyLabelSet = new HashSet<>();
-        this.dependencyLabelSet.add(dependencyLabel);
+    // to be called by the table
+    DependencySet(DependencyTable table, int firstWord, long[] words, int hashCode) {
+        this.table = table;
+        this.firstWord = firstWord;
+        this.words = words;
+        this.hashCode = hashCode;
     }
 
 //  ********************************************************************************
 
-    private DependencySet(Set<DependencyLabel> dependencyLabelSet) {
-        this.dependencyLabelSet = dependencyLabelSet;
+    public static DependencySet create(Set<DependencyLabel> dependencyLabelSet) {
+        DependencyTable table = null;
+        int min = Integer.MAX_VALUE;
+        int max = -1;
+        for (DependencyLabel label : dependencyLabelSet) {
+            min = Math.min(min, label.getId());
+            max = Math.max(max, label.getId());
+            if (label.getTable() != null) {
+                table = label.getTable();
+            }
+        }
+        if (max < 0) {
+            throw new RuntimeException("SNH");
+        }
+        if (table == null) {
+            // only UNINIT
+            return UNINIT;
+        }
+        int firstWord = min >>> 6;
+        long[] words = new long[(max >>> 6) - firstWord + 1];
+        for (DependencyLabel label : dependencyLabelSet) {
+            if (label.getTable() != null && label.getTable() != table) {
+                throw new RuntimeException("SNH");
+            }
+            words[(label.getId() >>> 6) - firstWord] |= 1L << label.getId();
+        }
+        return table.intern(firstWord, words);
     }
 
 //  ********************************************************************************
 
-    public static DependencySet create(Set<DependencyLabel> dependencyLabelSet) {
-        DependencySet x = new DependencySet(dependencyLabelSet);
-        return repos.recycle(x);
+    public static DependencySet create(DependencyLabel dependencyLabel) {
+        if (dependencyLabel == DependencyLabel.UNINIT) {
+            return UNINIT;
+        }
+        int id = dependencyLabel.getId();
+        return dependencyLabel.getTable().intern(id >>> 6, new long[]{1L << id});
     }
 
 //  ********************************************************************************
 
-    public static DependencySet create(DependencyLabel dependencyLabel) {
-        Set<DependencyLabel> taintSet = new HashSet<>();
-        taintSet.add(dependencyLabel);
-        return create(taintSet);
+    static int hashCode(int firstWord, long[] words) {
+        return 31 * firstWord + Arrays.hashCode(words);
+    }
+
+    // does this set have the given bits?
+    boolean hasWords(int firstWord, long[] words) {
+        return this.firstWord == firstWord && Arrays.equals(this.words, words);
     }
 
 //  ********************************************************************************
@@ -62,18 +102,52 @@ public class DependencySet implements Recyclable {
 
     // compute the least upper bound (here: union) of the two taint sets
     public static DependencySet lub(DependencySet a, DependencySet b) {
+        if (a == b) {
+            return a;
+        }
+
         // union!
-        Set<DependencyLabel> resultSet = new HashSet<>();
-        resultSet.addAll(a.dependencyLabelSet);
-        resultSet.addAll(b.dependencyLabelSet);
-        return DependencySet.create(resultSet);
+        int firstWord = Math.min(a.firstWord, b.firstWord);
+        int endWord = Math.max(a.firstWord + a.words.length, b.firstWord + b.words.length);
+        long[] words = new long[endWord - firstWord];
+        System.arraycopy(a.words, 0, words, a.firstWord - firstWord, a.words.length);
+        boolean containsA = true;
+        boolean containsB = (firstWord == b.firstWord && endWord == b.firstWord + b.words.length);
+        for (int i = 0; i < b.words.length; i++) {
+            int index = b.firstWord - firstWord + i;
+            long word = words[index];
+            long union = word | b.words[i];
+            if (union != b.words[i]) {
+                containsB = false;
+            }
+            if (union != word) {
+                containsA = false;
+                words[index] = union;
+            }
+        }
+
+        // avoid interning if the union is one of the two sets
+        if (containsA && words.length == a.words.length) {
+            return a;
+        }
+        if (containsB) {
+            return b;
+        }
+
+        // the union contains a label other than UNINIT, so at least one of the
+        // sets belongs to a table
+        DependencyTable table = a.table == null ? b.table : a.table;
+        if (b.table != null && b.table != table) {
+            throw new RuntimeException("SNH");
+        }
+        return table.intern(firstWord, words);
     }
 
 //  ********************************************************************************
 
     public String toString() {
         StringBuilder buf = new StringBuilder();
-        for (DependencyLabel element : this.dependencyLabelSet) {
+        for (DependencyLabel element : this) {
             buf.append(element.toString());
         }
         return buf.toString();
@@ -85,30 +159,50 @@ public class DependencySet implements Recyclable {
     // (a copy: such that a caller can't modify my state)
     // (shallow copy is sufficient, since the elements of the set are immutable, too)
     public Set<DependencyLabel> getDependencyLabelSet() {
-        return new HashSet<>(this.dependencyLabelSet);
+        Set<DependencyLabel> retMe = new HashSet<>();
+        for (DependencyLabel element : this) {
+            retMe.add(element);
+        }
+        return retMe;
     }
 
 //  ********************************************************************************
 
-    public boolean structureEquals(Object compX) {
-
-        if (compX == this) {
-            return true;
-        }
-        if (!(compX instanceof DependencySet)) {
-            return false;
-        }
-        DependencySet comp = (DependencySet) compX;
-
-        // the enclosed sets have to be equal
-        return this.dependencyLabelSet.equals(comp.dependencyLabelSet);
+    // iterates over the contained labels (without copying them), in the order of
+    // their ids
+    public Iterator<DependencyLabel> iterator() {
+        return new Iterator<DependencyLabel>() {
+            private int wordIndex = 0;
+            private long word = words[0];
+
+            public boolean hasNext() {
+                while (this.word == 0 && this.wordIndex + 1 < words.length) {
+                    this.word = words[++this.wordIndex];
+                }
+                return this.word != 0;
+            }
+
+            public DependencyLabel next() {
+                if (!this.hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                int bit = Long.numberOfTrailingZeros(this.word);
+                this.word &= this.word - 1;
+                int id = 64 * (firstWord + this.wordIndex) + bit;
+                return table == null ? DependencyLabel.UNINIT : table.getLabel(id);
+            }
+
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+        };
     }
 
 //  ********************************************************************************
 
-    public int structureHashCode() {
-        int hashCode = 17;
-        hashCode = 37 * hashCode + this.dependencyLabelSet.hashCode();
-        return hashCode;
+    // equality is identity (the sets are interned), but the hash code
+    // should not depend on the memory layout
+    public int hashCode() {
+        return this.hashCode;
     }
 }
\ No newline at end of file
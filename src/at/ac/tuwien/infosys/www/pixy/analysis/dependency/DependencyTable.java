@@ -0,0 +1,131 @@
+package at.ac.tuwien.infosys.www.pixy.analysis.dependency;
+
+import at.ac.tuwien.infosys.www.pixy.conversion.cfgnodes.AbstractCfgNode;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The dependency labels and the interned dependency sets of one run (see RunContext).
+ *
+ * There is exactly one label per cfg node; labels are numbered densely in the order of their creation, which allows
+ * DependencySet to represent sets of labels as bitsets. The special label UNINIT and the set that only contains it
+ * belong to every table (with id 0). The table keeps the cfg nodes of its labels reachable, so it must not outlive
+ * its run. It can be used by several threads at the same time.
+ */
+public class DependencyTable {
+    // guarded by this table's lock
+    private final Map<AbstractCfgNode, DependencyLabel> cfgNodeToLabel;
+
+    // id -> label (may be longer than the number of labels);
+    // volatile, since it is read without locking
+    private volatile DependencyLabel[] labels;
+    private int labelCount;
+
+    // the interned sets: open addressing with linear probing;
+    // guarded by this table's lock
+    private DependencySet[] sets;
+    private int setCount;
+
+//  ********************************************************************************
+//  CONSTRUCTORS *******************************************************************
+//  ********************************************************************************
+
+    public DependencyTable() {
+        this.cfgNodeToLabel = new HashMap<>();
+        this.labels = new DependencyLabel[1024];
+        this.labels[0] = DependencyLabel.UNINIT;
+        this.labelCount = 1;
+        this.sets = new DependencySet[1024];
+        this.setCount = 0;
+        this.intern(DependencySet.UNINIT);
+    }
+
+//  ********************************************************************************
+//  OTHER **************************************************************************
+//  ********************************************************************************
+
+    // returns the label of the given cfg node (creates it if necessary)
+    synchronized DependencyLabel getLabel(AbstractCfgNode cfgNode) {
+        DependencyLabel ret = this.cfgNodeToLabel.get(cfgNode);
+        if (ret == null) {
+            int id = this.labelCount++;
+            ret = new DependencyLabel(this, cfgNode, id);
+            if (id == this.labels.length) {
+                this.labels = Arrays.copyOf(this.labels, 2 * id);
+            }
+            this.labels[id] = ret;
+            this.cfgNodeToLabel.put(cfgNode, ret);
+        }
+        return ret;
+    }
+
+//  ********************************************************************************
+
+    // returns the label with the given id
+    DependencyLabel getLabel(int id) {
+        return this.labels[id];
+    }
+
+//  ********************************************************************************
+
+    // returns the interned set with the given bits (the words array must not be
+    // modified afterwards)
+    synchronized DependencySet intern(int firstWord, long[] words) {
+        int hashCode = DependencySet.hashCode(firstWord, words);
+        int mask = this.sets.length - 1;
+        int index = mix(hashCode) & mask;
+        DependencySet candidate;
+        while ((candidate = this.sets[index]) != null) {
+            if (candidate.hashCode() == hashCode && candidate.hasWords(firstWord, words)) {
+                return candidate;
+            }
+            index = (index + 1) & mask;
+        }
+        return this.intern(new DependencySet(this, firstWord, words, hashCode));
+    }
+
+    // adds the given set, which is not contained yet
+    private DependencySet intern(DependencySet set) {
+        this.insert(this.sets, set);
+        this.setCount++;
+        if (2 * this.setCount > this.sets.length) {
+            // keep the load factor below 1/2
+            DependencySet[] oldSets = this.sets;
+            this.sets = new DependencySet[2 * oldSets.length];
+            for (DependencySet oldSet : oldSets) {
+                if (oldSet != null) {
+                    this.insert(this.sets, oldSet);
+                }
+            }
+        }
+        return set;
+    }
+
+    private void insert(DependencySet[] table, DependencySet set) {
+        int mask = table.length - 1;
+        int index = mix(set.hashCode()) & mask;
+        while (table[index] != null) {
+            index = (index + 1) & mask;
+        }
+        table[index] = set;
+    }
+
+    private static int mix(int hashCode) {
+        int h = hashCode * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+//  ********************************************************************************
+
+    // returns the number of labels (including UNINIT)
+    public synchronized int getLabelCount() {
+        return this.labelCount;
+    }
+
+    // returns the number of interned sets (including UNINIT)
+    public synchronized int getSetCount() {
+        return this.setCount;
+    }
+}
\ No newline at end of file
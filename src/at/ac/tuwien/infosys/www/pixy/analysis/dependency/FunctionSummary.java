@@ -0,0 +1,93 @@
+package at.ac.tuwien.infosys.www.pixy.analysis.dependency;
+
+import at.ac.tuwien.infosys.www.pixy.conversion.Variable;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The effect of a function (including the functions it calls) on the dependency information of the global variables,
+ * superglobals and return variables that it can access (see FunctionSummaryComputation).
+ *
+ * For each place that the function changes, the summary contains the labels that the function adds, and whether the
+ * labels that the place had at the function's entry are kept (which is the case if the place is not written on some
+ * path through the function). All other places are passed through unchanged.
+ */
+public class FunctionSummary {
+    // variable -> effect on its dependency
+    private final Map<Variable, Effect> effects;
+
+    // variable (not an array element) -> effect on its array label
+    private final Map<Variable, Effect> arrayLabelEffects;
+
+//  ********************************************************************************
+//  CONSTRUCTORS *******************************************************************
+//  ********************************************************************************
+
+    FunctionSummary() {
+        this.effects = new LinkedHashMap<>();
+        this.arrayLabelEffects = new LinkedHashMap<>();
+    }
+
+//  ********************************************************************************
+//  GET / SET **********************************************************************
+//  ********************************************************************************
+
+    Map<Variable, Effect> getEffects() {
+        return this.effects;
+    }
+
+    Map<Variable, Effect> getArrayLabelEffects() {
+        return this.arrayLabelEffects;
+    }
+
+    void addEffect(Variable var, Effect effect) {
+        this.effects.put(var, effect);
+    }
+
+    void addArrayLabelEffect(Variable var, Effect effect) {
+        this.arrayLabelEffects.put(var, effect);
+    }
+
+//  ********************************************************************************
+//  OTHER **************************************************************************
+//  ********************************************************************************
+
+    // returns the value at the function's exit node for the given value at its
+    // entry node; only the accessed global-like places are correct, everything
+    // else (e.g., the function's locals) still has its value from the entry
+    public DependencyLatticeElement apply(DependencyLatticeElement entryValue) {
+        DependencyLatticeElement exitValue = new DependencyLatticeElement(entryValue);
+        for (Map.Entry<Variable, Effect> entry : this.effects.entrySet()) {
+            Effect effect = entry.getValue();
+            exitValue.applyEffect(entry.getKey(), effect.getDependencySet(), effect.isKeep());
+        }
+        for (Map.Entry<Variable, Effect> entry : this.arrayLabelEffects.entrySet()) {
+            Effect effect = entry.getValue();
+            exitValue.applyArrayLabelEffect(entry.getKey(), effect.getDependencySet(), effect.isKeep());
+        }
+        return exitValue;
+    }
+
+//  ********************************************************************************
+
+    // the effect on a single place: the labels that are added, and whether the
+    // old labels are kept
+    static final class Effect {
+        private final DependencySet dependencySet;
+        private final boolean keep;
+
+        Effect(DependencySet dependencySet, boolean keep) {
+            this.dependencySet = dependencySet;
+            this.keep = keep;
+        }
+
+        DependencySet getDependencySet() {
+            return this.dependencySet;
+        }
+
+        boolean isKeep() {
+            return this.keep;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,686 @@
+package at.ac.tuwien.infosys.www.pixy.analysis.dependency;
+
+import at.ac.tuwien.infosys.www.pixy.Dumper;
+import at.ac.tuwien.infosys.www.pixy.MyOptions;
+import at.ac.tuwien.infosys.www.pixy.analysis.AbstractTransferFunction;
+import at.ac.tuwien.infosys.www.pixy.analysis.intraprocedural.IntraproceduralWorklist;
+import at.ac.tuwien.infosys.www.pixy.conversion.*;
+import at.ac.tuwien.infosys.www.pixy.conversion.cfgnodes.*;
+
+import java.io.*;
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Computes the summaries of functions for the dependency analysis (see FunctionSummary), or takes them from a
+ * FunctionSummaryStore if they have already been computed by an earlier run.
+ *
+ * Without aliases and without a literal analysis, the transfer functions of the dependency analysis only ever set a
+ * place to fixed labels or add fixed labels to it, and they never copy the dependencies of one global-like place to
+ * another. Hence, the effect of a function on the global-like places that it accesses does not depend on the value
+ * that the function is called with, and it can be computed by analyzing the function once: each of these places
+ * starts with a marker label of its own, and a marker that is still there at the exit node means that the old labels
+ * are kept. Calls inside the function are handled with the summaries of the callees, so a function can only be
+ * summarized if all its callees can be summarized (which excludes recursion). Functions with define nodes are not
+ * summarized either, since their effect on constants depends on the literal analysis.
+ *
+ * Summaries are stored under a key that is computed from the code of the function and the keys of its callees, and
+ * the labels are stored as pairs of function name and position of the cfg node in the function, so that later runs
+ * that convert the same functions again can use them.
+ */
+class FunctionSummaryComputation {
+    // to be increased whenever the format of the summaries or the transfer functions change
+    private static final int FORMAT_VERSION = 1;
+
+    // temporaries are numbered during conversion, so their names differ between
+    // programs that include the same function
+    private static final Pattern TEMPORARY = Pattern.compile("_t\\d+_\\d+");
+
+    private final DependencyAnalysis dependencyAnalysis;
+    private final FunctionSummaryStore store;
+    private final List<TacFunction> functions;
+    private final TacFunction mainFunction;
+    private final SymbolTable superSymbolTable;
+
+    // function name -> function; only contains the names that are unique
+    private final Map<String, TacFunction> functionsByName;
+
+    // function -> its cfg nodes (see getNodes)
+    private final Map<TacFunction, List<AbstractCfgNode>> nodes;
+
+    // cfg node -> the function in whose node list it is contained, and its
+    // position in this list
+    private final Map<AbstractCfgNode, TacFunction> owners;
+    private final Map<AbstractCfgNode, Integer> positions;
+
+    // function -> roots of the global-like variables that it (or one of its callees) accesses
+    private final Map<TacFunction, Set<Variable>> roots;
+
+    // function -> key of its summary
+    private final Map<TacFunction, String> keys;
+
+    // function -> its summary (null: the function can't be summarized)
+    private final Map<TacFunction, FunctionSummary> summaries;
+
+    // the labels of this run
+    private final DependencyTable dependencyTable;
+
+    // labels that stand for the values of places at the entry of a function;
+    // shared by the functions
+    private final List<DependencyLabel> markers;
+
+    // functions whose summaries are being determined right now (for detecting recursion)
+    private final Set<TacFunction> inProgress;
+
+    // statistics
+    private int loaded;
+    private int computed;
+
+//  ********************************************************************************
+//  CONSTRUCTORS *******************************************************************
+//  ********************************************************************************
+
+    FunctionSummaryComputation(DependencyAnalysis dependencyAnalysis, FunctionSummaryStore store,
+                               List<TacFunction> functions, TacFunction mainFunction,
+                               SymbolTable superSymbolTable) {
+        this.dependencyAnalysis = dependencyAnalysis;
+        this.store = store;
+        this.functions = functions;
+        this.mainFunction = mainFunction;
+        this.superSymbolTable = superSymbolTable;
+
+        Map<String, Integer> nameCounts = new HashMap<>();
+        for (TacFunction function : functions) {
+            Integer count = nameCounts.get(function.getName());
+            nameCounts.put(function.getName(), count == null ? 1 : count + 1);
+        }
+        this.functionsByName = new HashMap<>();
+        for (TacFunction function : functions) {
+            if (nameCounts.get(function.getName()) == 1) {
+                this.functionsByName.put(function.getName(), function);
+            }
+        }
+
+        this.nodes = new HashMap<>();
+        this.owners = new HashMap<>();
+        this.positions = new HashMap<>();
+        this.roots = new HashMap<>();
+        this.keys = new HashMap<>();
+        this.summaries = new HashMap<>();
+        this.inProgress = new HashSet<>();
+        this.dependencyTable = dependencyAnalysis.getRunContext().getDependencyTable();
+        this.markers = new ArrayList<>();
+    }
+
+//  ********************************************************************************
+//  OTHER **************************************************************************
+//  ********************************************************************************
+
+//  compute ************************************************************************
+
+    // returns the summaries of all functions that can be summarized
+    Map<TacFunction, FunctionSummary> compute() {
+        Map<TacFunction, FunctionSummary> retMe = new HashMap<>();
+        for (TacFunction function : this.functions) {
+            FunctionSummary summary = this.summarize(function);
+            if (summary != null) {
+                retMe.put(function, summary);
+            }
+        }
+
+        if (!MyOptions.optionB && MyOptions.optionV) {
+            System.out.println("Function summaries: " + this.loaded + " loaded, " + this.computed + " computed, " +
+                (this.functions.size() - retMe.size()) + " functions without summary");
+        }
+
+        return retMe;
+    }
+
+//  summarize **********************************************************************
+
+    // returns the summary of the given function, or null if it can't be summarized
+    private FunctionSummary summarize(TacFunction function) {
+        if (this.summaries.containsKey(function)) {
+            return this.summaries.get(function);
+        }
+        if (!this.inProgress.add(function)) {
+            // recursion; all functions on the cycle will end up without summary
+            return null;
+        }
+
+        FunctionSummary summary = null;
+        if (this.isSummarizable(function)) {
+            boolean calleesSummarized = true;
+            for (AbstractCfgNode cfgNode : this.getNodes(function)) {
+                if (cfgNode instanceof Call && this.summarize(((Call) cfgNode).getCallee()) == null) {
+                    calleesSummarized = false;
+                }
+            }
+            if (calleesSummarized) {
+                summary = this.loadOrCompute(function);
+            }
+        }
+
+        this.inProgress.remove(function);
+        this.summaries.put(function, summary);
+        return summary;
+    }
+
+    // checks the function itself (but not its callees)
+    private boolean isSummarizable(TacFunction function) {
+        if (function == this.mainFunction || this.functionsByName.get(function.getName()) != function) {
+            return false;
+        }
+
+        // the exit node must be reachable
+        AbstractCfgNode exitNode = function.getControlFlowGraph().getTail();
+        if (!(exitNode instanceof CfgExit) || this.dependencyAnalysis.getAnalysisNode(exitNode) == null) {
+            return false;
+        }
+
+        for (AbstractCfgNode cfgNode : this.getNodes(function)) {
+            if (cfgNode instanceof Define) {
+                return false;
+            }
+            if ((cfgNode instanceof Call && ((Call) cfgNode).getCallee() == null) ||
+                (cfgNode instanceof CallPreparation && ((CallPreparation) cfgNode).getCallee() == null)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+//  getNodes ***********************************************************************
+
+    // returns the cfg nodes of the given function in a fixed order: the nodes of
+    // its cfg in depth-first preorder (each basic block followed by its contents),
+    // followed by the nodes of the default cfgs of its parameters
+    private List<AbstractCfgNode> getNodes(TacFunction function) {
+        List<AbstractCfgNode> retMe = this.nodes.get(function);
+        if (retMe != null) {
+            return retMe;
+        }
+
+        retMe = new ArrayList<>();
+        addNodes(function.getControlFlowGraph(), retMe);
+        for (TacFormalParameter param : function.getParams()) {
+            if (param.hasDefault()) {
+                addNodes(param.getDefaultControlFlowGraph(), retMe);
+            }
+        }
+        for (int i = 0; i < retMe.size(); i++) {
+            this.owners.put(retMe.get(i), function);
+            this.positions.put(retMe.get(i), i);
+        }
+
+        this.nodes.put(function, retMe);
+        return retMe;
+    }
+
+    private static void addNodes(ControlFlowGraph controlFlowGraph, List<AbstractCfgNode> nodeList) {
+        for (AbstractCfgNode cfgNode : controlFlowGraph.dfPreOrder()) {
+            nodeList.add(cfgNode);
+            if (cfgNode instanceof BasicBlock) {
+                nodeList.addAll(((BasicBlock) cfgNode).getContainedNodes());
+            }
+        }
+    }
+
+//  collectRoots *******************************************************************
+
+    // returns the roots of the global-like variables (globals, superglobals, and
+    // return variables) that the given function or one of its callees accesses;
+    // requires the roots of the callees
+    private Set<Variable> collectRoots(TacFunction function) {
+        Set<Variable> retMe = new HashSet<>();
+        retMe.add(function.getRetVar());
+        SymbolTable mainSymbolTable = this.mainFunction.getSymbolTable();
+        for (AbstractCfgNode cfgNode : this.getNodes(function)) {
+            // "global <var>" refers to the variable in the main function with the same name
+            if (cfgNode instanceof Global) {
+                Variable realGlobal = mainSymbolTable.getVariable(((Global) cfgNode).getOperand().getName());
+                if (realGlobal != null) {
+                    retMe.add(realGlobal);
+                }
+            }
+            for (Variable var : cfgNode.getVariables()) {
+                if (var != null) {
+                    addRoot(var, retMe);
+                }
+            }
+            if (cfgNode instanceof Call) {
+                retMe.addAll(this.roots.get(((Call) cfgNode).getCallee()));
+            }
+        }
+        this.roots.put(function, retMe);
+        return retMe;
+    }
+
+    private static void addRoot(Variable var, Set<Variable> rootSet) {
+        Variable root = var;
+        if (var.isArrayElement()) {
+            root = var.getTopEnclosingArray();
+            for (AbstractTacPlace index : var.getIndices()) {
+                if (index instanceof Variable) {
+                    addRoot((Variable) index, rootSet);
+                }
+            }
+        }
+        if (isGlobalLike(root)) {
+            rootSet.add(root);
+        }
+    }
+
+    private static boolean isGlobalLike(Variable var) {
+        return var.isGlobal() || var.isSuperGlobal();
+    }
+
+    // returns the given roots together with their literal array elements, i.e.,
+    // all places whose dependencies might be changed
+    private static List<Variable> getPlaces(Collection<Variable> rootSet) {
+        List<Variable> retMe = new ArrayList<>();
+        for (Variable root : rootSet) {
+            addTree(root, retMe);
+        }
+        return retMe;
+    }
+
+    private static void addTree(Variable root, List<Variable> places) {
+        places.add(root);
+        if (root.isArray()) {
+            for (Variable element : root.getLiteralElements()) {
+                addTree(element, places);
+            }
+        }
+    }
+
+//  loadOrCompute ******************************************************************
+
+    // returns the summary of the given function from the store, or computes (and
+    // stores) it; requires the summaries of the callees
+    private FunctionSummary loadOrCompute(TacFunction function) {
+        Set<Variable> rootSet = this.collectRoots(function);
+        String key = this.makeKey(function, rootSet);
+        this.keys.put(function, key);
+
+        byte[] data = this.store.get(key);
+        if (data != null) {
+            FunctionSummary summary = this.decode(data);
+            if (summary != null) {
+                this.loaded++;
+                return summary;
+            }
+        }
+
+        FunctionSummary summary = this.computeSummary(function, rootSet);
+        if (summary != null) {
+            this.store.put(key, this.encode(summary));
+            this.computed++;
+        }
+        return summary;
+    }
+
+//  makeKey ************************************************************************
+
+    // the key consists of everything the summary depends on: the function's
+    // nodes and their connections, the keys of the callees, and the global-like
+    // places that might be changed
+    private String makeKey(TacFunction function, Set<Variable> rootSet) {
+        StringBuilder text = new StringBuilder();
+        text.append(FORMAT_VERSION).append('\n');
+        text.append(this.store.getConfigurationHash()).append('\n');
+        text.append(function.getName()).append('\n');
+
+        Map<String, String> temporaries = new HashMap<>();
+        for (TacFormalParameter param : function.getParams()) {
+            text.append("param ").append(param.getVariable().getName()).append(' ')
+                .append(param.isReference()).append(' ').append(param.hasDefault()).append('\n');
+        }
+
+        List<AbstractCfgNode> nodeList = this.getNodes(function);
+        for (int i = 0; i < nodeList.size(); i++) {
+            AbstractCfgNode cfgNode = nodeList.get(i);
+            text.append(i).append(' ').append(cfgNode.getClass().getSimpleName()).append(' ');
+            text.append(canonicalize(Dumper.makeCfgNodeName(cfgNode), temporaries));
+            for (Variable var : cfgNode.getVariables()) {
+                text.append(' ');
+                if (var != null) {
+                    text.append(kind(var)).append(canonicalize(var.getName(), temporaries));
+                }
+            }
+            for (int j = 0; j < 2; j++) {
+                Integer position = this.positions.get(cfgNode.getSuccessor(j));
+                text.append(" > ").append(position == null ? -1 : position);
+            }
+            if (cfgNode instanceof Call) {
+                text.append(" calls ").append(this.keys.get(((Call) cfgNode).getCallee()));
+            }
+            text.append('\n');
+        }
+
+        // the literal array elements of the global-like places depend on the
+        // whole program
+        List<String> rootNames = new ArrayList<>();
+        for (Variable root : rootSet) {
+            List<String> elementNames = new ArrayList<>();
+            for (Variable place : getPlaces(Collections.singleton(root))) {
+                elementNames.add(place.getName());
+            }
+            Collections.sort(elementNames);
+            rootNames.add(kind(root) + elementNames);
+        }
+        Collections.sort(rootNames);
+        for (String rootName : rootNames) {
+            text.append(rootName).append('\n');
+        }
+
+        try {
+            return FunctionSummaryStore.hash(text.toString().getBytes("UTF-8"));
+        } catch (UnsupportedEncodingException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    // replaces the names of temporaries by their number of appearance
+    private static String canonicalize(String text, Map<String, String> temporaries) {
+        Matcher matcher = TEMPORARY.matcher(text);
+        StringBuffer retMe = new StringBuffer();
+        while (matcher.find()) {
+            String replacement = temporaries.get(matcher.group());
+            if (replacement == null) {
+                replacement = "_t" + temporaries.size();
+                temporaries.put(matcher.group(), replacement);
+            }
+            matcher.appendReplacement(retMe, replacement);
+        }
+        matcher.appendTail(retMe);
+        return retMe.toString();
+    }
+
+    private static String kind(Variable var) {
+        if (var.isSuperGlobal()) {
+            return "S:";
+        } else if (var.isGlobal()) {
+            return "G:";
+        } else if (var.isTemp()) {
+            return "T:";
+        } else {
+            return "L:";
+        }
+    }
+
+//  computeSummary *****************************************************************
+
+    // analyzes the given function with a marker label for each place that might
+    // be changed, and extracts the summary from the value at the exit node;
+    // returns null if the function doesn't behave as expected
+    private FunctionSummary computeSummary(TacFunction function, Set<Variable> rootSet) {
+        List<Variable> places = getPlaces(rootSet);
+
+        DependencyLatticeElement entryValue =
+            ((DependencyLatticeElement) this.dependencyAnalysis.getStartValue()).createBlank();
+        Map<Variable, DependencyLabel> placeMarkers = new HashMap<>();
+        Map<Variable, DependencyLabel> arrayLabelMarkers = new HashMap<>();
+        int markerCount = 0;
+        for (Variable place : places) {
+            DependencyLabel marker = this.marker(markerCount++);
+            placeMarkers.put(place, marker);
+            entryValue.applyEffect(place, DependencySet.create(marker), false);
+        }
+        for (Variable root : rootSet) {
+            DependencyLabel marker = this.marker(markerCount++);
+            arrayLabelMarkers.put(root, marker);
+            entryValue.applyArrayLabelEffect(root, DependencySet.create(marker), false);
+        }
+        Set<DependencyLabel> markerSet = new HashSet<>(placeMarkers.values());
+        markerSet.addAll(arrayLabelMarkers.values());
+
+        DependencyLatticeElement exitValue = this.analyzeFunction(function, entryValue);
+        if (exitValue == null) {
+            return null;
+        }
+
+        // the function must not have changed any other global-like places
+        for (AbstractTacPlace place : exitValue.getPlaceToDep().keySet()) {
+            if (!(place instanceof Variable)) {
+                return null;
+            }
+            if (isGlobalLike((Variable) place) && !placeMarkers.containsKey(place)) {
+                return null;
+            }
+        }
+        for (Variable var : exitValue.getArrayLabels().keySet()) {
+            if (isGlobalLike(var) && !arrayLabelMarkers.containsKey(var)) {
+                return null;
+            }
+        }
+
+        FunctionSummary summary = new FunctionSummary();
+        for (Variable place : places) {
+            FunctionSummary.Effect effect = this.extractEffect(
+                exitValue.getDep(place), placeMarkers.get(place), markerSet);
+            if (effect == null) {
+                return null;
+            }
+            if (effect.getDependencySet() != null) {
+                summary.addEffect(place, effect);
+            }
+        }
+        for (Variable root : rootSet) {
+            FunctionSummary.Effect effect = this.extractEffect(
+                exitValue.getArrayLabel(root), arrayLabelMarkers.get(root), markerSet);
+            if (effect == null) {
+                return null;
+            }
+            if (effect.getDependencySet() != null) {
+                summary.addArrayLabelEffect(root, effect);
+            }
+        }
+        return summary;
+    }
+
+    // returns the effect for a place that has the given dependencies at the exit
+    // node and the given marker at the entry node (with a null dependency set
+    // if the place is not changed at all), or null if the dependencies contain
+    // the marker of another place or a label that can't be stored
+    private FunctionSummary.Effect extractEffect(
+        DependencySet dependencySet, DependencyLabel marker, Set<DependencyLabel> markerSet) {
+
+        boolean keep = false;
+        Set<DependencyLabel> labels = new HashSet<>();
+        for (DependencyLabel label : dependencySet) {
+            if (label == marker) {
+                keep = true;
+            } else if (markerSet.contains(label)) {
+                return null;
+            } else if (label != DependencyLabel.UNINIT && !this.owners.containsKey(label.getCfgNode())) {
+                return null;
+            } else {
+                labels.add(label);
+            }
+        }
+        return new FunctionSummary.Effect(labels.isEmpty() ? null : DependencySet.create(labels), keep);
+    }
+
+    private DependencyLabel marker(int index) {
+        while (this.markers.size() <= index) {
+            this.markers.add(DependencyLabel.create(this.dependencyTable, new Empty()));
+        }
+        return this.markers.get(index);
+    }
+
+//  analyzeFunction ****************************************************************
+
+    // analyzes the given function (intraprocedurally, with the summaries of the
+    // callees) for the given entry value and returns the value at the exit node
+    // (null if the exit node is not reached)
+    private DependencyLatticeElement analyzeFunction(TacFunction function, DependencyLatticeElement entryValue) {
+        ControlFlowGraph controlFlowGraph = function.getControlFlowGraph();
+        IntraproceduralWorklist workList = new IntraproceduralWorklist(controlFlowGraph);
+        Map<AbstractCfgNode, DependencyLatticeElement> values = new HashMap<>();
+        values.put(controlFlowGraph.getHead(), entryValue);
+        workList.add(controlFlowGraph.getHead());
+
+        // the same steps as in AbstractInterproceduralAnalysis.analyze()
+        while (workList.hasNext()) {
+            AbstractCfgNode cfgNode = workList.removeNext();
+            DependencyLatticeElement inValue = values.get(cfgNode);
+
+            if (cfgNode instanceof Call) {
+                Call callNode = (Call) cfgNode;
+                DependencyLatticeElement calleeValue =
+                    (DependencyLatticeElement) this.dependencyAnalysis.projectOnCallee(callNode, inValue);
+                this.propagate(values, workList, this.summaries.get(callNode.getCallee()).apply(calleeValue),
+                    callNode.getSuccessor(0));
+            } else if (cfgNode instanceof CfgExit) {
+                // the exit value is read at the end
+            } else if (cfgNode instanceof If) {
+                AbstractTransferFunction tf = this.dependencyAnalysis.getTransferFunction(cfgNode);
+                DependencyLatticeElement outValue = (DependencyLatticeElement) tf.transfer(inValue);
+                Boolean eval = this.dependencyAnalysis.evalIf((If) cfgNode, inValue);
+                if (eval == null || eval == Boolean.FALSE) {
+                    this.propagate(values, workList, outValue, cfgNode.getSuccessor(0));
+                }
+                if (eval == null || eval == Boolean.TRUE) {
+                    this.propagate(values, workList, outValue, cfgNode.getSuccessor(1));
+                }
+            } else {
+                DependencyLatticeElement outValue;
+                if (cfgNode instanceof CallReturn) {
+                    CallReturn callRet = (CallReturn) cfgNode;
+                    at.ac.tuwien.infosys.www.pixy.analysis.dependency.transferfunction.CallReturn tf =
+                        (at.ac.tuwien.infosys.www.pixy.analysis.dependency.transferfunction.CallReturn)
+                            this.dependencyAnalysis.getTransferFunction(callRet);
+                    outValue = (DependencyLatticeElement) tf.transfer(inValue, values.get(callRet.getCallPrepNode()));
+                } else {
+                    if (cfgNode instanceof CallPreparation) {
+                        // the call return node also depends on the value at the call
+                        // preparation node
+                        AbstractCfgNode callRet = cfgNode.getSuccessor(0).getSuccessor(0);
+                        if (values.containsKey(callRet)) {
+                            workList.add(callRet);
+                        }
+                    }
+                    AbstractTransferFunction tf = this.dependencyAnalysis.getTransferFunction(cfgNode);
+                    outValue = (DependencyLatticeElement) tf.transfer(inValue);
+                }
+                for (int i = 0; i < 2; i++) {
+                    if (cfgNode.getSuccessor(i) != null) {
+                        this.propagate(values, workList, outValue, cfgNode.getSuccessor(i));
+                    }
+                }
+            }
+        }
+
+        return values.get(controlFlowGraph.getTail());
+    }
+
+    private void propagate(Map<AbstractCfgNode, DependencyLatticeElement> values, IntraproceduralWorklist workList,
+                           DependencyLatticeElement value, AbstractCfgNode target) {
+        DependencyLatticeElement oldValue = values.get(target);
+        DependencyLatticeElement newValue;
+        if (oldValue == null) {
+            newValue = value;
+        } else {
+            newValue = new DependencyLatticeElement(oldValue);
+            newValue.lub(value);
+            if (newValue.equals(oldValue)) {
+                return;
+            }
+        }
+        values.put(target, newValue);
+        workList.add(target);
+    }
+
+//  encode / decode ****************************************************************
+
+    // encodes the given summary; places are stored by name, labels as pairs of
+    // function name and position of the cfg node
+    private byte[] encode(FunctionSummary summary) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            this.encodeEffects(out, summary.getEffects());
+            this.encodeEffects(out, summary.getArrayLabelEffects());
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private void encodeEffects(DataOutputStream out, Map<Variable, FunctionSummary.Effect> effects)
+        throws IOException {
+
+        out.writeInt(effects.size());
+        for (Map.Entry<Variable, FunctionSummary.Effect> entry : effects.entrySet()) {
+            out.writeBoolean(entry.getKey().isSuperGlobal());
+            out.writeUTF(entry.getKey().getName());
+            out.writeBoolean(entry.getValue().isKeep());
+            DependencySet dependencySet = entry.getValue().getDependencySet();
+            out.writeInt(dependencySet.getDependencyLabelSet().size());
+            for (DependencyLabel label : dependencySet) {
+                if (label == DependencyLabel.UNINIT) {
+                    out.writeUTF("");
+                    out.writeInt(-1);
+                } else {
+                    out.writeUTF(this.owners.get(label.getCfgNode()).getName());
+                    out.writeInt(this.positions.get(label.getCfgNode()));
+                }
+            }
+        }
+    }
+
+    // decodes the given summary; returns null if it doesn't fit the program
+    private FunctionSummary decode(byte[] data) {
+        FunctionSummary summary = new FunctionSummary();
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(data))) {
+            for (int kind = 0; kind < 2; kind++) {
+                int count = in.readInt();
+                for (int i = 0; i < count; i++) {
+                    boolean superGlobal = in.readBoolean();
+                    String name = in.readUTF();
+                    Variable var = superGlobal
+                        ? this.superSymbolTable.getVariable(name)
+                        : this.mainFunction.getSymbolTable().getVariable(name);
+                    boolean keep = in.readBoolean();
+                    Set<DependencyLabel> labels = new HashSet<>();
+                    int labelCount = in.readInt();
+                    for (int j = 0; j < labelCount; j++) {
+                        DependencyLabel label = this.decodeLabel(in.readUTF(), in.readInt());
+                        if (label == null) {
+                            return null;
+                        }
+                        labels.add(label);
+                    }
+                    if (var == null || labels.isEmpty()) {
+                        return null;
+                    }
+                    FunctionSummary.Effect effect = new FunctionSummary.Effect(DependencySet.create(labels), keep);
+                    if (kind == 0) {
+                        summary.addEffect(var, effect);
+                    } else {
+                        summary.addArrayLabelEffect(var, effect);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            return null;
+        }
+        return summary;
+    }
+
+    private DependencyLabel decodeLabel(String functionName, int position) {
+        if (position == -1) {
+            return DependencyLabel.UNINIT;
+        }
+        TacFunction function = this.functionsByName.get(functionName);
+        if (function == null) {
+            return null;
+        }
+        List<AbstractCfgNode> nodeList = this.getNodes(function);
+        if (position < 0 || position >= nodeList.size()) {
+            return null;
+        }
+        return DependencyLabel.create(this.dependencyTable, nodeList.get(position));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,173 @@
+package at.ac.tuwien.infosys.www.pixy.analysis.dependency;
+
+import at.ac.tuwien.infosys.www.pixy.MyOptions;
+import at.ac.tuwien.infosys.www.pixy.VulnerabilityAnalysisInformation;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Map;
+import java.util.StringTokenizer;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Store for function summaries (see FunctionSummaryComputation): on disk, shared by all runs that use the same
+ * directory, and / or in memory, shared by all entry files analyzed in the same process (batch mode).
+ *
+ * Summaries are stored under a key that is computed from the code of the function and of the functions it calls, and
+ * from the configuration (see getConfigurationHash). A function that has changed gets a different key, so stored
+ * summaries never have to be invalidated; they just aren't used any longer.
+ */
+public class FunctionSummaryStore {
+    // to be increased whenever the format of the store files changes
+    private static final int FORMAT_VERSION = 1;
+
+    // the store directory (null: no storing on disk)
+    private final File directory;
+
+    // key -> encoded summary (null: no storing in memory)
+    private final Map<String, byte[]> memory;
+
+    // hash of the configuration files
+    private final String configurationHash;
+
+    public FunctionSummaryStore(File directory, boolean inMemory) {
+        this.directory = directory;
+        this.memory = inMemory ? new ConcurrentHashMap<String, byte[]>() : null;
+        this.configurationHash = computeConfigurationHash();
+    }
+
+//  ********************************************************************************
+
+    // returns the encoded summary stored under the given key, or null if there is none
+    public byte[] get(String key) {
+        if (this.memory != null) {
+            byte[] data = this.memory.get(key);
+            if (data != null) {
+                return data;
+            }
+        }
+
+        byte[] data = null;
+        if (this.directory != null) {
+            data = this.read(new File(this.directory, key + ".summary"), key);
+        }
+        if (data != null && this.memory != null) {
+            this.memory.put(key, data);
+        }
+        return data;
+    }
+
+    // stores the given encoded summary under the given key
+    public void put(String key, byte[] data) {
+        if (this.memory != null) {
+            this.memory.put(key, data);
+        }
+        if (this.directory != null) {
+            this.write(new File(this.directory, key + ".summary"), key, data);
+        }
+    }
+
+//  ********************************************************************************
+
+    // returns the stored data if the file is valid for the given key, null otherwise
+    private byte[] read(File file, String key) {
+        if (!file.isFile()) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (in.readInt() != FORMAT_VERSION || !key.equals(in.readUTF())) {
+                return null;
+            }
+            byte[] data = new byte[in.readInt()];
+            in.readFully(data);
+            return data;
+        } catch (IOException e) {
+            // a broken file is no reason to fail
+            return null;
+        }
+    }
+
+    // writes the given data to the given file; errors are ignored (the summary just won't be stored)
+    private void write(File file, String key, byte[] data) {
+        File tempFile = null;
+        try {
+            // write to a temporary file first, so that concurrent runs never see
+            // half-written files
+            tempFile = File.createTempFile("summary", ".tmp", this.directory);
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tempFile)))) {
+                out.writeInt(FORMAT_VERSION);
+                out.writeUTF(key);
+                out.writeInt(data.length);
+                out.write(data);
+            }
+            Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            tempFile = null;
+        } catch (IOException e) {
+            System.err.println("Warning: could not store the function summary in " + file + ": " + e.getMessage());
+        } finally {
+            if (tempFile != null) {
+                tempFile.delete();
+            }
+        }
+    }
+
+//  ********************************************************************************
+
+    // the hash of the configuration that the summaries are computed for;
+    // becomes part of every key
+    String getConfigurationHash() {
+        return this.configurationHash;
+    }
+
+    // hashes the builtin function models and the sink files: the dependency analysis
+    // doesn't use them by itself, but summaries must not survive a change of the
+    // models that they might be used with
+    private static String computeConfigurationHash() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        try {
+            String configurationPath = MyOptions.pixyHome + "/" + MyOptions.configurationDirectory + "/";
+            for (VulnerabilityAnalysisInformation analysis : MyOptions.getVulnerabilityAnalyses()) {
+                addFile(out, new File(configurationPath + "model_" + analysis.getName() + ".txt"));
+                addFile(out, new File(configurationPath + "sinks_" + analysis.getName() + ".txt"));
+            }
+            if (MyOptions.optionS != null) {
+                StringTokenizer tokenizer = new StringTokenizer(MyOptions.optionS, ":");
+                while (tokenizer.hasMoreTokens()) {
+                    addFile(out, new File(tokenizer.nextToken()));
+                }
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        return hash(bytes.toByteArray());
+    }
+
+    private static void addFile(DataOutputStream out, File file) throws IOException {
+        out.writeUTF(file.getName());
+        if (file.isFile()) {
+            byte[] content = Files.readAllBytes(file.toPath());
+            out.writeInt(content.length);
+            out.write(content);
+        } else {
+            out.writeInt(-1);
+        }
+    }
+
+    static String hash(byte[] bytes) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-1");
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException(e);
+        }
+        StringBuilder hex = new StringBuilder();
+        for (byte b : digest.digest(bytes)) {
+            hex.append(String.format("%02x", b));
+        }
+        return hex.toString();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,212 @@
+package at.ac.tuwien.infosys.www.pixy.analysis.dependency.graph;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Memoizes the automata that decorate dependency graph nodes, across the graphs of all sinks.
+ *
+ * The automaton of a node depends on the automata of its successors, so a node is identified by itself (place and
+ * cfg node for normal nodes), an optional detail (e.g., a flag of the decoration), and the keys of its successors
+ * in the order of the edges; uninitialized nodes are identified by their predecessors instead. Keys are canonical:
+ * the key of a successor is the one stored in the cache, and successor keys are compared by identity. Equal keys
+ * therefore stand for equal subgraphs, no matter which graph they come from. Nodes whose automata depend on more than
+ * the subgraph below them must not get a key: SCC nodes ({@link CompleteGraphNode}) and the uninitialized nodes below
+ * them are decorated based on the original graph. Since a node without a key has no key for its predecessors either,
+ * everything above such a node is not cached.
+ *
+ * The capacity of the cache limits the total size of the cached automata, as given by the callers (e.g., states plus
+ * transitions), plus one per entry; the least recently used entries are evicted when it is exceeded, and automata that
+ * are larger than the capacity on their own are not cached at all. The number of entries alone would not be a bound:
+ * an automaton for a long chain of concatenations can be orders of magnitude larger than a typical one. An evicted
+ * key that is still referenced by the key of another node only leads to misses. The cached automata are shared and
+ * must not be modified. The cache can be used by several threads at the same time.
+ *
+ * @param <T> the type of the automata
+ */
+public class DecorationCache<T> {
+    public static final int DEFAULT_CAPACITY = 500000;
+
+    // in access order, i.e., the least recently used entry comes first
+    private final Map<Key, Decoration<T>> decorations = new LinkedHashMap<>(16, 0.75f, true);
+
+    private final int capacity;
+
+    // the total size of the cached decorations
+    private int size;
+
+    public DecorationCache() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public DecorationCache(int capacity) {
+        this.capacity = capacity;
+    }
+
+    /**
+     * Returns the key for the given node, or null if the node cannot be cached (because one of its successors cannot
+     * be cached).
+     *
+     * @param node       the decorated node
+     * @param detail     additional information that the automaton depends on, compared with equals (can be null)
+     * @param successors the keys of the node's successors
+     *
+     * @return the key, which is not canonical yet (see get())
+     */
+    public static Key makeKey(AbstractNode node, Object detail, List<Key> successors) {
+        for (Key successor : successors) {
+            if (successor == null) {
+                return null;
+            }
+        }
+        return new Key(node, false, detail, successors.toArray(new Key[successors.size()]));
+    }
+
+    /**
+     * Returns the key for an uninitialized node. Uninitialized nodes are created anew for each graph, and their
+     * automata only depend on their predecessors, so they are identified by their predecessors.
+     *
+     * @param predecessor the only predecessor of the uninitialized node
+     * @param detail      additional information that the automaton depends on (can be null)
+     *
+     * @return the key, which is not canonical yet (see get())
+     */
+    public static Key makeUninitializedKey(AbstractNode predecessor, Object detail) {
+        return new Key(predecessor, true, detail, new Key[0]);
+    }
+
+    /**
+     * Returns the cached decoration for the given key, or null. The key of the returned decoration is the canonical
+     * one and has to be used instead of the given key from now on.
+     *
+     * @param key
+     *
+     * @return
+     */
+    public synchronized Decoration<T> get(Key key) {
+        return this.decorations.get(key);
+    }
+
+    /**
+     * Caches the given automaton; the given key becomes canonical (unless another thread was faster, or the automaton
+     * is too large to be cached).
+     *
+     * @param key
+     * @param automaton
+     * @param size      the size of the automaton (e.g., its number of states and transitions)
+     *
+     * @return the canonical decoration
+     */
+    public synchronized Decoration<T> put(Key key, T automaton, int size) {
+        Decoration<T> decoration = this.decorations.get(key);
+        if (decoration != null) {
+            return decoration;
+        }
+        decoration = new Decoration<>(key, automaton, size + 1);
+        if (decoration.size > this.capacity) {
+            return decoration;
+        }
+        this.decorations.put(key, decoration);
+        this.size += decoration.size;
+
+        // evict the least recently used entries; the new entry comes last and fits
+        Iterator<Decoration<T>> iterator = this.decorations.values().iterator();
+        while (this.size > this.capacity) {
+            Decoration<T> eldest = iterator.next();
+            iterator.remove();
+            this.size -= eldest.size;
+        }
+        return decoration;
+    }
+
+    // returns the number of cached automata
+    public synchronized int size() {
+        return this.decorations.size();
+    }
+
+    // returns the total size of the cached automata (plus one per entry)
+    public synchronized int getSize() {
+        return this.size;
+    }
+
+//  ********************************************************************************
+
+    /**
+     * Identifies a node together with the subgraph below it.
+     */
+    public static final class Key {
+        private final AbstractNode node;
+        private final boolean uninitialized;
+        private final Object detail;
+        private final Key[] successors;
+        private final int hashCode;
+
+        private Key(AbstractNode node, boolean uninitialized, Object detail, Key[] successors) {
+            this.node = node;
+            this.uninitialized = uninitialized;
+            this.detail = detail;
+            this.successors = successors;
+
+            int hashCode = 17;
+            hashCode = 37 * hashCode + node.hashCode();
+            hashCode = 37 * hashCode + (uninitialized ? 1 : 0);
+            hashCode = 37 * hashCode + (detail == null ? 0 : detail.hashCode());
+            for (Key successor : successors) {
+                hashCode = 37 * hashCode + System.identityHashCode(successor);
+            }
+            this.hashCode = hashCode;
+        }
+
+        public boolean equals(Object compX) {
+            if (compX == this) {
+                return true;
+            }
+            if (!(compX instanceof Key)) {
+                return false;
+            }
+            Key comp = (Key) compX;
+            if (this.hashCode != comp.hashCode || this.uninitialized != comp.uninitialized ||
+                this.successors.length != comp.successors.length) {
+                return false;
+            }
+            for (int i = 0; i < this.successors.length; i++) {
+                if (this.successors[i] != comp.successors[i]) {
+                    return false;
+                }
+            }
+            return this.node.equals(comp.node) &&
+                (this.detail == null ? comp.detail == null : this.detail.equals(comp.detail));
+        }
+
+        public int hashCode() {
+            return this.hashCode;
+        }
+    }
+
+//  ********************************************************************************
+
+    /**
+     * A cached automaton together with its canonical key.
+     */
+    public static final class Decoration<T> {
+        private final Key key;
+        private final T automaton;
+        private final int size;
+
+        private Decoration(Key key, T automaton, int size) {
+            this.key = key;
+            this.automaton = automaton;
+            this.size = size;
+        }
+
+        public Key getKey() {
+            return this.key;
+        }
+
+        public T getAutomaton() {
+            return this.automaton;
+        }
+    }
+}
\ No newline at end of file
@@ -60,6 +60,20 @@ public class DependencyGraph {
     /** set to true if reduceWithLeaves() is called */
     private boolean leavesReduced = false;
 
+    /**
+     * Construction state for memoizing subgraphs (see DependencyGraphCache); only used inside create().
+     *
+     * - log: the addNode / addEdge steps performed so far
+     * - logPositions: position in the log at which each node was added
+     * - lowestReused: the lowest log position of an already existing node that was reused by the subgraph
+     *   currently under construction
+     * - finishedSubgraphs: the subgraphs that can be memoized once the construction has succeeded
+     */
+    private List<AbstractNode> log;
+    private Map<AbstractNode, Integer> logPositions;
+    private int lowestReused;
+    private Map<DependencyGraphCache.Key, int[]> finishedSubgraphs;
+
     private DependencyGraph() {
     }
 
@@ -104,8 +118,14 @@ public class DependencyGraph {
         dependencyGraph.mainSymbolTable = mainSymTab;
         dependencyGraph.dependencyAnalysis = dependencyAnalysis;
 
-        List<AbstractTacPlace> indices = new LinkedList<>();
+        List<AbstractTacPlace> indices = new ArrayList<>();
 
+        dependencyGraph.log = new ArrayList<>();
+        dependencyGraph.logPositions = new HashMap<>();
+        dependencyGraph.lowestReused = Integer.MAX_VALUE;
+        dependencyGraph.finishedSubgraphs = new HashMap<>();
+        // functions that are still dormant have no values yet
+        dependencyAnalysis.materialize(ControlFlowGraph.getFunction(start));
         try {
             // start with all contexts of the start node
             Set<AbstractContext> allContexts = analysisInfo.getAnalysisNode(start).getContexts();
@@ -116,10 +136,26 @@ public class DependencyGraph {
             debug("not reachable!!!");
             return null;
         }
+        dependencyGraph.memoizeSubgraphs();
 
         return dependencyGraph;
     }
 
+    // hands the subgraphs that were finished during the construction of this graph
+    // over to the cache, and discards the construction state
+    private void memoizeSubgraphs() {
+        DependencyGraphCache cache = this.dependencyAnalysis.getDependencyGraphCache();
+        AbstractNode[] finalLog = this.log.toArray(new AbstractNode[this.log.size()]);
+        for (Map.Entry<DependencyGraphCache.Key, int[]> entry : this.finishedSubgraphs.entrySet()) {
+            int[] range = entry.getValue();
+            cache.put(entry.getKey(), new DependencyGraphCache.Subgraph(finalLog, range[0], range[1]));
+        }
+
+        this.log = null;
+        this.logPositions = null;
+        this.finishedSubgraphs = null;
+    }
+
     /**
      * Clones the given DependencyGraph. Nodes are reused.
      *
@@ -166,6 +202,10 @@ public class DependencyGraph {
      *   (see "getUsedPlaces()" below).
      * - For each of these places: Recursively calls makeDependencyGraph() and connect dgn with the returned node.
      *
+     * The "recursion" is performed with an explicit stack of Frames (one per dgn under construction), so long
+     * dependency chains don't overflow the native stack; the graph (including the order of its nodes and edges) is
+     * the same as with a recursive implementation.
+     *
      * @param place
      * @param current
      * @param function
@@ -179,6 +219,51 @@ public class DependencyGraph {
     private AbstractNode makeDependencyGraph(
         AbstractTacPlace place, AbstractCfgNode current, TacFunction function, List<AbstractTacPlace> indices,
         Set<AbstractContext> contexts
+    ) throws NotReachableException {
+        Deque<Frame> stack = new ArrayDeque<>();
+
+        AbstractNode finished = this.enter(place, current, function, indices, contexts, stack);
+        if (finished != null) {
+            return finished;
+        }
+
+        while (true) {
+            Frame frame = stack.peek();
+
+            if (frame.usedPlaces != null && frame.usedPlaces.hasNext()) {
+                // descend into the next used place
+                AbstractTacPlace used = frame.usedPlaces.next();
+                AbstractNode child = this.enter(
+                    used, frame.targetNode, frame.targetFunction, frame.newIndices, frame.targetContexts, stack);
+                if (child != null) {
+                    this.logEdge(frame.connectWith, child);
+                }
+                continue;
+            }
+            frame.usedPlaces = null;
+
+            if (frame.dependencyLabels.hasNext()) {
+                this.visitDependency(frame, frame.dependencyLabels.next());
+                continue;
+            }
+
+            // all dependencies of this frame's node have been visited
+            debug("...end going to nodes");
+            stack.pop();
+            this.leave(frame);
+            if (stack.isEmpty()) {
+                return frame.dgn;
+            }
+            this.logEdge(stack.peek().connectWith, frame.dgn);
+        }
+    }
+
+    // first part of makeDependencyGraph(): returns the node for the given parameters if
+    // it can be determined right away; otherwise, adds the node, pushes a new frame
+    // for visiting its dependencies, and returns null
+    private AbstractNode enter(
+        AbstractTacPlace place, AbstractCfgNode current, TacFunction function, List<AbstractTacPlace> indices,
+        Set<AbstractContext> contexts, Deque<Frame> stack
     ) throws NotReachableException {
         debug("  visiting: " + current.getClass() + ", " + current.getOriginalLineNumber() + ", " + place);
         debug(current.toString());
@@ -191,20 +276,34 @@ public class DependencyGraph {
         // if there already is such a graph node: reuse it and end recursion
         if (this.nodes.containsKey(dgn)) {
             debug("loop!");
-            return this.nodes.get(dgn);
+            return this.reuseNode(dgn);
         }
 
-        // now that we know that there is no such graph node yet, we can add
-        // it to the graph
-        addNode(dgn);
-
         // if this place is a simple literal, we don't have to continue here
         // (a literal has no further data dependencies)
         if (place instanceof Literal) {
             debug("literal!");
+            this.logNode(dgn);
             return dgn;
         }
 
+        // if the same subgraph has already been built before (e.g., for another sink),
+        // replay it instead of building it again
+        DependencyGraphCache.Key key = new DependencyGraphCache.Key(place, current, function, indices, contexts);
+        AbstractNode replayed = this.replay(this.dependencyAnalysis.getDependencyGraphCache().get(key));
+        if (replayed != null) {
+            debug("memoized!");
+            return replayed;
+        }
+
+        // now that we know that there is no such graph node yet, we can add
+        // it to the graph
+        Frame frame = new Frame(dgn, place, current, function, indices, contexts, key);
+        frame.start = this.log.size();
+        frame.outerLowestReused = this.lowestReused;
+        this.lowestReused = Integer.MAX_VALUE;
+        this.logNode(dgn);
+
         // get the dependency value of the given place for the current cfg node under
         // the given contexts
         DependencySet dependencySet = this.getDepSet(current, place, contexts);
@@ -212,59 +311,122 @@ public class DependencyGraph {
         // a dependency set is basically nothing but a set of cfg nodes at which
         // a variable's value has been modified; now we go and visit these cfg nodes...
         debug("start going to nodes...");
-        for (DependencyLabel dependencyLabel : dependencySet.getDependencyLabelSet()) {
-            if (dependencyLabel == DependencyLabel.UNINIT) {
-                // end of recursion
-                debug("uninit!");
-                UninitializedNode uninitializedNode = new UninitializedNode();
-                addNode(uninitializedNode);
-                addEdge(dgn, uninitializedNode);
-            } else {
-                debug("getting used places for " + dependencyLabel.getCfgNode().getOriginalLineNumber());
-
-                // we retrieve the places that were "used" (read) at the given cfg node
-                // and recursively continue the graph construction algorithm
-
-                // the node we will have to visit next
-                AbstractCfgNode targetNode = dependencyLabel.getCfgNode();
-
-                // tweak to add appropriate operation nodes
-                AbstractNode connectWith = this.checkOp(targetNode);
-                if (connectWith == null) {
-                    // the target node is not an operation node, so there is nothing
-                    // we have to do
-                    connectWith = dgn;
-                } else if (this.nodes.containsKey(connectWith)) {
-                    // the target node is an operation node which already exists
-                    connectWith = this.nodes.get(connectWith);
-                    addEdge(dgn, connectWith);
-                    continue;
-                } else {
-                    // the target node is a new operation node
-                    addNode(connectWith);
-                    addEdge(dgn, connectWith);
-                }
+        frame.dependencyLabels = dependencySet.iterator();
+        stack.push(frame);
+
+        return null;
+    }
 
-                // used for our increased array-awareness
-                List<AbstractTacPlace> newIndices = new LinkedList<>();
+    // visits the given dependency of the frame's node; if there are used places
+    // to descend into, they are stored in the frame
+    private void visitDependency(Frame frame, DependencyLabel dependencyLabel) {
+        if (dependencyLabel == DependencyLabel.UNINIT) {
+            // end of recursion
+            debug("uninit!");
+            UninitializedNode uninitializedNode = new UninitializedNode();
+            this.logNode(uninitializedNode);
+            this.logEdge(frame.dgn, uninitializedNode);
+            return;
+        }
 
-                // context and function switching!
-                ContextSwitch cswitch = this.switchContexts(function, contexts, current, targetNode);
-                TacFunction targetFunction = cswitch.targetFunction;
-                Set<AbstractContext> targetContexts = cswitch.targetContexts;
+        debug("getting used places for " + dependencyLabel.getCfgNode().getOriginalLineNumber());
 
-                // for every used place...
-                for (AbstractTacPlace used : this.getUsedPlaces(targetNode, place, indices, newIndices)) {
+        // we retrieve the places that were "used" (read) at the given cfg node
+        // and recursively continue the graph construction algorithm
 
-                    addEdge(connectWith,
-                        makeDependencyGraph(used, targetNode, targetFunction,
-                            newIndices, targetContexts));
-                }
+        // the node we will have to visit next
+        AbstractCfgNode targetNode = dependencyLabel.getCfgNode();
+
+        // tweak to add appropriate operation nodes
+        AbstractNode connectWith = this.checkOp(targetNode);
+        if (connectWith == null) {
+            // the target node is not an operation node, so there is nothing
+            // we have to do
+            connectWith = frame.dgn;
+        } else if (this.nodes.containsKey(connectWith)) {
+            // the target node is an operation node which already exists
+            connectWith = this.reuseNode(connectWith);
+            this.logEdge(frame.dgn, connectWith);
+            return;
+        } else {
+            // the target node is a new operation node
+            this.logNode(connectWith);
+            this.logEdge(frame.dgn, connectWith);
+        }
+
+        // used for our increased array-awareness
+        List<AbstractTacPlace> newIndices = new ArrayList<>();
+
+        // context and function switching!
+        ContextSwitch cswitch = this.switchContexts(frame.function, frame.contexts, frame.current, targetNode);
+
+        frame.targetNode = targetNode;
+        frame.targetFunction = cswitch.targetFunction;
+        frame.targetContexts = cswitch.targetContexts;
+        frame.connectWith = connectWith;
+        frame.newIndices = newIndices;
+
+        // for every used place...
+        frame.usedPlaces = this.getUsedPlaces(targetNode, frame.place, frame.indices, newIndices).iterator();
+    }
+
+    // last part of makeDependencyGraph(), after all dependencies of the frame's node
+    // have been visited
+    private void leave(Frame frame) {
+        // the subgraph below dgn can be memoized if it does not depend on nodes
+        // that were already there before dgn
+        if (this.lowestReused >= frame.start) {
+            this.finishedSubgraphs.put(frame.key, new int[]{frame.start, this.log.size()});
+        }
+        this.lowestReused = Math.min(frame.outerLowestReused, this.lowestReused);
+    }
+
+    // adds the given node during construction
+    private void logNode(AbstractNode node) {
+        this.addNode(node);
+        this.logPositions.put(node, this.log.size());
+        this.log.add(node);
+        this.log.add(null);
+    }
+
+    // adds the given edge during construction
+    private void logEdge(AbstractNode from, AbstractNode to) {
+        this.addEdge(from, to);
+        this.log.add(from);
+        this.log.add(to);
+    }
+
+    // returns the existing graph node that equals the given one during construction
+    private AbstractNode reuseNode(AbstractNode node) {
+        AbstractNode existing = this.nodes.get(node);
+        this.lowestReused = Math.min(this.lowestReused, this.logPositions.get(existing));
+        return existing;
+    }
+
+    // replays the given memoized subgraph and returns its root; returns null if there
+    // is no such subgraph, or if this graph already contains one of its nodes
+    // (in this case, the construction would not be the same)
+    private AbstractNode replay(DependencyGraphCache.Subgraph subgraph) {
+        if (subgraph == null) {
+            return null;
+        }
+
+        AbstractNode[] subLog = subgraph.log;
+        for (int i = subgraph.start; i < subgraph.end; i += 2) {
+            if (subLog[i + 1] == null && this.nodes.containsKey(subLog[i])) {
+                return null;
             }
         }
-        debug("...end going to nodes");
 
-        return dgn;
+        for (int i = subgraph.start; i < subgraph.end; i += 2) {
+            if (subLog[i + 1] == null) {
+                this.logNode(subLog[i]);
+            } else {
+                this.logEdge(subLog[i], subLog[i + 1]);
+            }
+        }
+
+        return subgraph.getRoot();
     }
 
     /**
@@ -381,6 +543,9 @@ public class DependencyGraph {
     ) {
         ContextSwitch retMe = new ContextSwitch();
 
+        // the target node might be located in a function that is still dormant
+        this.dependencyAnalysis.materialize(ControlFlowGraph.getFunction(targetNode));
+
         // function and contexts of the target cfg node;
         // at the beginning, assume that we are remaining in the same function
         TacFunction targetFunction = function;
@@ -986,34 +1151,44 @@ public class DependencyGraph {
         }
 
         for (AbstractNode node : this.nodes.keySet()) {
-            if (hasCyclesHelper(node, colorMap)) {
+            if (colorMap.get(node) == 0 && hasCyclesHelper(node, colorMap)) {
                 return true;
             }
         }
         return false;
     }
 
-    private boolean hasCyclesHelper(AbstractNode node, HashMap<AbstractNode, Integer> colorMap) {
+    // depth-first search from the given node; uses an explicit stack since
+    // the graph can be as deep as the program is long
+    private boolean hasCyclesHelper(AbstractNode start, HashMap<AbstractNode, Integer> colorMap) {
+        Deque<AbstractNode> nodeStack = new ArrayDeque<>();
+        Deque<Iterator<AbstractNode>> successorStack = new ArrayDeque<>();
+
         // mark as grey
-        colorMap.put(node, 1);
-
-        // visit successors (depth-first)
-        List<AbstractNode> successors = this.edges.get(node);
-        if (successors != null) {
-            for (AbstractNode succ : this.edges.get(node)) {
-                int color = colorMap.get(succ);
-                if (color == 1) {
-                    return true;
-                } else if (color == 0) {
-                    if (hasCyclesHelper(succ, colorMap)) {
-                        return true;
-                    }
-                }
+        colorMap.put(start, 1);
+        nodeStack.push(start);
+        successorStack.push(this.getSuccessors(start).iterator());
+
+        while (!nodeStack.isEmpty()) {
+            Iterator<AbstractNode> successors = successorStack.peek();
+            if (!successors.hasNext()) {
+                // all successors visited, mark as black
+                colorMap.put(nodeStack.pop(), 2);
+                successorStack.pop();
+                continue;
             }
-        }
 
-        // all successors visited, mark as black
-        colorMap.put(node, 2);
+            // visit successors (depth-first)
+            AbstractNode succ = successors.next();
+            int color = colorMap.get(succ);
+            if (color == 1) {
+                return true;
+            } else if (color == 0) {
+                colorMap.put(succ, 1);
+                nodeStack.push(succ);
+                successorStack.push(this.getSuccessors(succ).iterator());
+            }
+        }
 
         return false;
     }
@@ -1381,44 +1556,74 @@ public class DependencyGraph {
         return sccs;
     }
 
-    // helper function for SCC computation
-    private void sccVisit(AbstractNode v, List<AbstractNode> stack,
+    // helper function for SCC computation; the depth-first search uses an
+    // explicit stack instead of recursion
+    private void sccVisit(AbstractNode root, List<AbstractNode> stack,
                           Map<AbstractNode, Integer> dfsnum,
                           Map<AbstractNode, Integer> low,
                           Set<AbstractNode> old,
                           List<List<AbstractNode>> sccs) {
 
-        old.add(v);
-        dfsnum.put(v, n);
-        low.put(v, n);
-        n++;
-        stack.add(v);
+        Deque<AbstractNode> visitStack = new ArrayDeque<>();
+        Deque<Iterator<AbstractNode>> successorStack = new ArrayDeque<>();
+        this.sccEnter(root, stack, dfsnum, low, old);
+        visitStack.push(root);
+        successorStack.push(this.getSuccessors(root).iterator());
+
+        while (!visitStack.isEmpty()) {
+            AbstractNode v = visitStack.peek();
+            Iterator<AbstractNode> successors = successorStack.peek();
+
+            if (successors.hasNext()) {
+                AbstractNode w = successors.next();
+                if (!old.contains(w)) {
+                    this.sccEnter(w, stack, dfsnum, low, old);
+                    visitStack.push(w);
+                    successorStack.push(this.getSuccessors(w).iterator());
+                } else {
+                    int dfsnum_v = dfsnum.get(v);
+                    int dfsnum_w = dfsnum.get(w);
+                    if (dfsnum_w < dfsnum_v && stack.contains(w)) {
+                        int low_v = low.get(v);
+                        low.put(v, Math.min(dfsnum_w, low_v));
+                    }
+                }
+                continue;
+            }
+
+            // all successors of v are done
+            visitStack.pop();
+            successorStack.pop();
+
+            if (low.get(v).equals(dfsnum.get(v))) {
+                List<AbstractNode> scc = new LinkedList<>();
+                AbstractNode x;
+                do {
+                    x = stack.remove(stack.size() - 1);
+                    scc.add(x);
+                } while (!x.equals(v));
+                sccs.add(scc);
+            }
 
-        for (AbstractNode w : this.getSuccessors(v)) {
-            if (!old.contains(w)) {
-                sccVisit(w, stack, dfsnum, low, old, sccs);
+            // back in the caller
+            if (!visitStack.isEmpty()) {
+                AbstractNode caller = visitStack.peek();
+                int low_caller = low.get(caller);
                 int low_v = low.get(v);
-                int low_w = low.get(w);
-                low.put(v, Math.min(low_v, low_w));
-            } else {
-                int dfsnum_v = dfsnum.get(v);
-                int dfsnum_w = dfsnum.get(w);
-                if (dfsnum_w < dfsnum_v && stack.contains(w)) {
-                    int low_v = low.get(v);
-                    low.put(v, Math.min(dfsnum_w, low_v));
-                }
+                low.put(caller, Math.min(low_caller, low_v));
             }
         }
+    }
 
-        if (low.get(v).equals(dfsnum.get(v))) {
-            List<AbstractNode> scc = new LinkedList<>();
-            AbstractNode x;
-            do {
-                x = stack.remove(stack.size() - 1);
-                scc.add(x);
-            } while (!x.equals(v));
-            sccs.add(scc);
-        }
+    private void sccEnter(AbstractNode v, List<AbstractNode> stack,
+                          Map<AbstractNode, Integer> dfsnum,
+                          Map<AbstractNode, Integer> low,
+                          Set<AbstractNode> old) {
+        old.add(v);
+        dfsnum.put(v, n);
+        low.put(v, n);
+        n++;
+        stack.add(v);
     }
 
     public List<AbstractNode> getSuccessors(AbstractNode node) {
@@ -1457,38 +1662,29 @@ public class DependencyGraph {
         visited.add(this.rootNode);
 
         Comparator<AbstractNode> comp = new NodeComparator<>();
-        this.breadthFirstIteratorHelper(list, queue, visited, comp);
-
-        return list;
-    }
-
-    private void breadthFirstIteratorHelper(
-        List<AbstractNode> list, LinkedList<AbstractNode> queue, Set<AbstractNode> visited, Comparator<AbstractNode> comp
-    ) {
-        AbstractNode node = queue.removeFirst();
-        list.add(node);
-
-        // handle successors
-        List<AbstractNode> successors = this.getSuccessors(node);
-        if (!(node instanceof BuiltinFunctionNode)) {
-            // only sort for non-operation nodes; for operation nodes,
-            // we want to preserve the order of the parameters
-            Collections.sort(successors, comp);
-        }
-        for (AbstractNode succ : successors) {
-            // for all successors that have not been visited yet...
-            if (!visited.contains(succ)) {
-                // add it to the queue
-                queue.add(succ);
-                // mark it as visited
-                visited.add(succ);
+        while (!queue.isEmpty()) {
+            AbstractNode node = queue.removeFirst();
+            list.add(node);
+
+            // handle successors
+            List<AbstractNode> successors = this.getSuccessors(node);
+            if (!(node instanceof BuiltinFunctionNode)) {
+                // only sort for non-operation nodes; for operation nodes,
+                // we want to preserve the order of the parameters
+                Collections.sort(successors, comp);
+            }
+            for (AbstractNode succ : successors) {
+                // for all successors that have not been visited yet...
+                if (!visited.contains(succ)) {
+                    // add it to the queue
+                    queue.add(succ);
+                    // mark it as visited
+                    visited.add(succ);
+                }
             }
         }
 
-        // if the queue is non-empty: recurse
-        if (queue.size() > 0) {
-            breadthFirstIteratorHelper(list, queue, visited, comp);
-        }
+        return list;
     }
 
     /**
@@ -1582,27 +1778,30 @@ public class DependencyGraph {
         }
     }
 
-    private void reduceWithLeavesHelper(AbstractNode node, Set<AbstractNode> reachable, Set<NormalNode> retVars) {
-        // stop recursion if we were already there
-        if (reachable.contains(node)) {
-            return;
-        }
+    private void reduceWithLeavesHelper(AbstractNode leaf, Set<AbstractNode> reachable, Set<NormalNode> retVars) {
+        // walks upwards with an explicit stack instead of recursion
+        Deque<AbstractNode> stack = new ArrayDeque<>();
+        stack.push(leaf);
+        while (!stack.isEmpty()) {
+            AbstractNode node = stack.pop();
 
-        // add to reachable set
-        reachable.add(node);
+            // skip the node if we were already there
+            if (!reachable.add(node)) {
+                continue;
+            }
 
-        // detect function return variables
-        if (node instanceof NormalNode) {
-            NormalNode normalNode = (NormalNode) node;
-            AbstractTacPlace place = normalNode.getPlace();
-            if (place.isVariable() && place.getVariable().isReturnVariable()) {
-                retVars.add(normalNode);
+            // detect function return variables
+            if (node instanceof NormalNode) {
+                NormalNode normalNode = (NormalNode) node;
+                AbstractTacPlace place = normalNode.getPlace();
+                if (place.isVariable() && place.getVariable().isReturnVariable()) {
+                    retVars.add(normalNode);
+                }
             }
-        }
 
-        // recurse
-        for (AbstractNode pre : this.getPredecessors(node)) {
-            reduceWithLeavesHelper(pre, reachable, retVars);
+            for (AbstractNode pre : this.getPredecessors(node)) {
+                stack.push(pre);
+            }
         }
     }
 
@@ -1707,22 +1906,30 @@ public class DependencyGraph {
         return ineffectiveBorder.size();
     }
 
-    private void getCustomSanitationBorder(AbstractNode node, Set<AbstractNode> visited, List<AbstractNode> border) {
-        // stop if we were already there
-        if (visited.contains(node)) {
-            return;
-        }
-        visited.add(node);
+    private void getCustomSanitationBorder(AbstractNode start, Set<AbstractNode> visited, List<AbstractNode> border) {
+        // depth-first with an explicit stack; successors are pushed in reverse
+        // so that the border is collected from left to right
+        Deque<AbstractNode> stack = new ArrayDeque<>();
+        stack.push(start);
+        while (!stack.isEmpty()) {
+            AbstractNode node = stack.pop();
 
-        // reached the border?
-        if (AbstractSanitationAnalysis.isCustomSanit(node)) {
-            border.add(node);
-            return;
-        }
+            // skip the node if we were already there
+            if (!visited.add(node)) {
+                continue;
+            }
 
-        // recurse downwards
-        for (AbstractNode succ : this.getSuccessors(node)) {
-            getCustomSanitationBorder(succ, visited, border);
+            // reached the border?
+            if (AbstractSanitationAnalysis.isCustomSanit(node)) {
+                border.add(node);
+                continue;
+            }
+
+            // continue downwards
+            List<AbstractNode> successors = this.getSuccessors(node);
+            for (ListIterator<AbstractNode> iter = successors.listIterator(successors.size()); iter.hasPrevious(); ) {
+                stack.push(iter.previous());
+            }
         }
     }
 
@@ -1766,44 +1973,37 @@ public class DependencyGraph {
     }
 
     private void reduceToInnerHelper(AbstractNode node, Set<AbstractNode> reachable) {
-        // recurse upwards
-        for (AbstractNode pre : this.getPredecessors(node)) {
-            reduceToInnerHelperUp(pre, reachable);
-        }
+        // upwards
+        reduceToInnerHelperUp(this.getPredecessors(node), reachable);
 
-        // recurse downwards
+        // downwards
         reduceToSanitationInnerDown(node, reachable);
     }
 
     // upwards reachability
-    private void reduceToInnerHelperUp(AbstractNode node, Set<AbstractNode> reachable) {
-        // stop recursion if we were already there
-        if (reachable.contains(node)) {
-            return;
-        }
-
-        // add to reachable set
-        reachable.add(node);
-
-        // recurse
-        for (AbstractNode pre : this.getPredecessors(node)) {
-            reduceToInnerHelperUp(pre, reachable);
+    private void reduceToInnerHelperUp(Collection<AbstractNode> nodes, Set<AbstractNode> reachable) {
+        Deque<AbstractNode> stack = new ArrayDeque<>(nodes);
+        while (!stack.isEmpty()) {
+            AbstractNode node = stack.pop();
+
+            // add to reachable set, unless we were already there
+            if (reachable.add(node)) {
+                stack.addAll(this.getPredecessors(node));
+            }
         }
     }
 
     // downwards reachability
-    private void reduceToSanitationInnerDown(AbstractNode node, Set<AbstractNode> reachable) {
-        // stop recursion if we were already there
-        if (reachable.contains(node)) {
-            return;
-        }
-
-        // add to reachable set
-        reachable.add(node);
-
-        // recurse
-        for (AbstractNode succ : this.getSuccessors(node)) {
-            reduceToSanitationInnerDown(succ, reachable);
+    private void reduceToSanitationInnerDown(AbstractNode start, Set<AbstractNode> reachable) {
+        Deque<AbstractNode> stack = new ArrayDeque<>();
+        stack.push(start);
+        while (!stack.isEmpty()) {
+            AbstractNode node = stack.pop();
+
+            // add to reachable set, unless we were already there
+            if (reachable.add(node)) {
+                stack.addAll(this.getSuccessors(node));
+            }
         }
     }
 
@@ -1821,25 +2021,41 @@ public class DependencyGraph {
         return node2p.get(rootNode);
     }
 
-    private void pathCounterHelper(AbstractNode node, Map<AbstractNode, Integer> node2p, Set<AbstractNode> visited) {
-        visited.add(node);
-
-        List<AbstractNode> successors = this.getSuccessors(node);
-        if (successors != null && !successors.isEmpty()) {
-            // if this node has successors, decorate them first (if not done yet)
-            for (AbstractNode succ : successors) {
+    // decorates the successors of a node before the node itself, with an
+    // explicit stack instead of recursion
+    private void pathCounterHelper(AbstractNode start, Map<AbstractNode, Integer> node2p, Set<AbstractNode> visited) {
+        Deque<AbstractNode> nodeStack = new ArrayDeque<>();
+        Deque<Iterator<AbstractNode>> successorStack = new ArrayDeque<>();
+        visited.add(start);
+        nodeStack.push(start);
+        successorStack.push(this.getSuccessors(start).iterator());
+
+        while (!nodeStack.isEmpty()) {
+            Iterator<AbstractNode> successors = successorStack.peek();
+            if (successors.hasNext()) {
+                // if this node has successors, decorate them first (if not done yet)
+                AbstractNode succ = successors.next();
                 if (!visited.contains(succ) && node2p.get(succ) == null) {
-                    pathCounterHelper(succ, node2p, visited);
+                    visited.add(succ);
+                    nodeStack.push(succ);
+                    successorStack.push(this.getSuccessors(succ).iterator());
                 }
+                continue;
             }
-            int p = 0;
-            for (AbstractNode succ : successors) {
-                p += node2p.get(succ);
+
+            AbstractNode node = nodeStack.pop();
+            successorStack.pop();
+            List<AbstractNode> nodeSuccessors = this.getSuccessors(node);
+            if (!nodeSuccessors.isEmpty()) {
+                int p = 0;
+                for (AbstractNode succ : nodeSuccessors) {
+                    p += node2p.get(succ);
+                }
+                node2p.put(node, p);
+            } else {
+                // no successors
+                node2p.put(node, 1);
             }
-            node2p.put(node, p);
-        } else {
-            // no successors
-            node2p.put(node, 1);
         }
     }
 
@@ -1866,4 +2082,45 @@ public class DependencyGraph {
         TacFunction targetFunction;
         Set<AbstractContext> targetContexts;
     }
+
+    // state of a single makeDependencyGraph() "invocation": the node under
+    // construction, the parameters, and how far its dependencies have been visited
+    private static class Frame {
+        final AbstractNode dgn;
+        final AbstractTacPlace place;
+        final AbstractCfgNode current;
+        final TacFunction function;
+        final List<AbstractTacPlace> indices;
+        final Set<AbstractContext> contexts;
+        final DependencyGraphCache.Key key;
+
+        // memoization bookkeeping (see leave())
+        int start;
+        int outerLowestReused;
+
+        // the dependencies that remain to be visited
+        Iterator<DependencyLabel> dependencyLabels;
+
+        // the dependency that is currently visited: its cfg node, the node that
+        // the used places are connected with, and the used places that remain
+        AbstractCfgNode targetNode;
+        TacFunction targetFunction;
+        Set<AbstractContext> targetContexts;
+        AbstractNode connectWith;
+        List<AbstractTacPlace> newIndices;
+        Iterator<AbstractTacPlace> usedPlaces;
+
+        Frame(
+            AbstractNode dgn, AbstractTacPlace place, AbstractCfgNode current, TacFunction function,
+            List<AbstractTacPlace> indices, Set<AbstractContext> contexts, DependencyGraphCache.Key key
+        ) {
+            this.dgn = dgn;
+            this.place = place;
+            this.current = current;
+            this.function = function;
+            this.indices = indices;
+            this.contexts = contexts;
+            this.key = key;
+        }
+    }
 }
\ No newline at end of file
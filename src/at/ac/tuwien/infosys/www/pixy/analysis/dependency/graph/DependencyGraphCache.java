@@ -0,0 +1,177 @@
+package at.ac.tuwien.infosys.www.pixy.analysis.dependency.graph;
+
+import at.ac.tuwien.infosys.www.pixy.analysis.interprocedural.AbstractContext;
+import at.ac.tuwien.infosys.www.pixy.conversion.AbstractTacPlace;
+import at.ac.tuwien.infosys.www.pixy.conversion.TacFunction;
+import at.ac.tuwien.infosys.www.pixy.conversion.cfgnodes.AbstractCfgNode;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Memoizes subgraphs that have already been built during dependency graph construction.
+ *
+ * The subgraph for a (place, cfg node, function, indices, contexts) combination is recorded as the sequence of
+ * addNode / addEdge steps that DependencyGraph.makeDependencyGraph() performed for it. Only subgraphs that did not
+ * reuse any node created before their own root are recorded; replaying such a subgraph into a graph that does not
+ * contain any of its nodes yet yields exactly what a fresh construction would have produced, while sharing the
+ * (immutable) node objects.
+ *
+ * A recorded subgraph refers to the log of the whole graph construction it was recorded in, so the memory that the
+ * cache holds on to is given by the logs of its subgraphs. The capacity of the cache limits the total length of
+ * these logs, plus one per subgraph; when it is exceeded, the least recently used subgraphs are evicted, and a log is
+ * released together with the last subgraph that refers to it. Logs that are longer than the capacity on their own are
+ * not cached at all.
+ *
+ * There is one cache per DependencyAnalysis, shared by all sinks and all vulnerability analyses of a run. It can be
+ * used by several threads at the same time.
+ */
+public class DependencyGraphCache {
+    public static final int DEFAULT_CAPACITY = 1000000;
+
+    // in access order, i.e., the least recently used subgraph comes first
+    private final Map<Key, Subgraph> subgraphs = new LinkedHashMap<>(16, 0.75f, true);
+
+    // the logs referred to by the memoized subgraphs -> number of these subgraphs
+    private final Map<AbstractNode[], Integer> logs = new IdentityHashMap<>();
+
+    private final int capacity;
+
+    // the total length of the referenced logs, plus one per subgraph
+    private int size;
+
+    public DependencyGraphCache() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public DependencyGraphCache(int capacity) {
+        this.capacity = capacity;
+    }
+
+    synchronized Subgraph get(Key key) {
+        return this.subgraphs.get(key);
+    }
+
+    synchronized void put(Key key, Subgraph subgraph) {
+        if (this.subgraphs.containsKey(key) || subgraph.log.length + 1 > this.capacity) {
+            return;
+        }
+        this.subgraphs.put(key, subgraph);
+        this.size++;
+        Integer references = this.logs.get(subgraph.log);
+        if (references == null) {
+            this.logs.put(subgraph.log, 1);
+            this.size += subgraph.log.length;
+        } else {
+            this.logs.put(subgraph.log, references + 1);
+        }
+
+        // evict the least recently used subgraphs; the new subgraph comes last, and
+        // its log fits
+        Iterator<Subgraph> iterator = this.subgraphs.values().iterator();
+        while (this.size > this.capacity) {
+            Subgraph eldest = iterator.next();
+            iterator.remove();
+            this.size--;
+            references = this.logs.remove(eldest.log);
+            if (references == 1) {
+                this.size -= eldest.log.length;
+            } else {
+                this.logs.put(eldest.log, references - 1);
+            }
+        }
+    }
+
+    // returns the number of memoized subgraphs
+    public synchronized int size() {
+        return this.subgraphs.size();
+    }
+
+    // returns the total length of the logs held by the cache, plus one per subgraph
+    public synchronized int getSize() {
+        return this.size;
+    }
+
+//  ********************************************************************************
+
+    /**
+     * The parameters of a makeDependencyGraph() call.
+     */
+    static final class Key {
+        private final AbstractTacPlace place;
+        private final AbstractCfgNode cfgNode;
+        private final TacFunction function;
+        private final List<AbstractTacPlace> indices;
+        private final Set<AbstractContext> contexts;
+        private final int hashCode;
+
+        Key(
+            AbstractTacPlace place, AbstractCfgNode cfgNode, TacFunction function, List<AbstractTacPlace> indices,
+            Set<AbstractContext> contexts
+        ) {
+            this.place = place;
+            this.cfgNode = cfgNode;
+            this.function = function;
+            this.indices = indices.isEmpty() ? Collections.<AbstractTacPlace>emptyList() : new ArrayList<>(indices);
+            this.contexts = contexts;
+
+            int hashCode = 17;
+            hashCode = 37 * hashCode + place.hashCode();
+            hashCode = 37 * hashCode + cfgNode.hashCode();
+            hashCode = 37 * hashCode + function.hashCode();
+            hashCode = 37 * hashCode + this.indices.hashCode();
+            hashCode = 37 * hashCode + contexts.hashCode();
+            this.hashCode = hashCode;
+        }
+
+        public boolean equals(Object compX) {
+            if (compX == this) {
+                return true;
+            }
+            if (!(compX instanceof Key)) {
+                return false;
+            }
+            Key comp = (Key) compX;
+            return this.hashCode == comp.hashCode &&
+                this.place.equals(comp.place) &&
+                this.cfgNode.equals(comp.cfgNode) &&
+                this.function.equals(comp.function) &&
+                this.indices.equals(comp.indices) &&
+                this.contexts.equals(comp.contexts);
+        }
+
+        public int hashCode() {
+            return this.hashCode;
+        }
+    }
+
+//  ********************************************************************************
+
+    /**
+     * A recorded subgraph: the steps log[start] ... log[end - 1] of a finished graph construction.
+     *
+     * Each step is a pair of entries: (node, null) for adding a node, (from, to) for adding an edge. The first step
+     * always adds the root of the subgraph.
+     */
+    static final class Subgraph {
+        final AbstractNode[] log;
+        final int start;
+        final int end;
+
+        Subgraph(AbstractNode[] log, int start, int end) {
+            this.log = log;
+            this.start = start;
+            this.end = end;
+        }
+
+        AbstractNode getRoot() {
+            return this.log[this.start];
+        }
+    }
+}
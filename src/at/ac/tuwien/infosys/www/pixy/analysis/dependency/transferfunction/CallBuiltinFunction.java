@@ -35,7 +35,7 @@ public class CallBuiltinFunction extends AbstractTransferFunction {
         // create an appropariate taint value (holding the function's name);
         // the array label is identic to the taint value
         Set<DependencyLabel> ets = new HashSet<>();
-        ets.add(DependencyLabel.create(this.cfgNode));
+        ets.add(DependencyLabel.create(in.getDependencyTable(), this.cfgNode));
         DependencySet retDependencySet = DependencySet.create(ets);
         DependencySet retArrayLabel = retDependencySet;
 
@@ -28,6 +28,11 @@ public class CallReturn extends AbstractTransferFunction {
     // contains the set of global-likes that have been modified by the callee
     private Set<AbstractTacPlace> calleeMod;
 
+    // if not null: the callee was analyzed without the global variables and
+    // return variables that are not contained in this set (see
+    // DependencyAnalysis.projectOnCallee)
+    private Set<Variable> calleeAccessible;
+
     // call-by-reference parameter pairs
     private List<List<Variable>> cbrParams;
 
@@ -45,7 +50,8 @@ public class CallReturn extends AbstractTransferFunction {
         CallPreparation prepNode,
         at.ac.tuwien.infosys.www.pixy.conversion.cfgnodes.CallReturn retNode,
         AliasAnalysis aliasAnalysis,
-        Set<AbstractTacPlace> calleeMod) {
+        Set<AbstractTacPlace> calleeMod,
+        Set<Variable> calleeAccessible) {
 
         this.analysisNodeAtCallPrep = analysisNodeAtCallPrep;
         this.caller = caller;
@@ -59,6 +65,7 @@ public class CallReturn extends AbstractTransferFunction {
 
         this.aliasAnalysis = aliasAnalysis;
         this.calleeMod = calleeMod;
+        this.calleeAccessible = calleeAccessible;
 
         this.prepNode = prepNode;
         this.retNode = retNode;
@@ -75,12 +82,16 @@ public class CallReturn extends AbstractTransferFunction {
         DependencyLatticeElement origInfo =
             (DependencyLatticeElement) this.analysisNodeAtCallPrep.getPhiValue(context);
 
-        // lattice element coming in from the callee (= base for interprocedural info);
-        // still contains the callee's locals
-        DependencyLatticeElement calleeIn = (DependencyLatticeElement) inX;
+        return this.transfer((DependencyLatticeElement) inX, origInfo);
+    }
+
+    // calleeIn: lattice element coming in from the callee (= base for interprocedural
+    // info), still contains the callee's locals;
+    // origInfo: lattice element entering the call prep node
+    public AbstractLatticeElement transfer(DependencyLatticeElement calleeIn, DependencyLatticeElement origInfo) {
 
         // start only with default mappings
-        DependencyLatticeElement outInfo = new DependencyLatticeElement();
+        DependencyLatticeElement outInfo = calleeIn.createBlank();
 
         // contains variables that have been tagged as visited
         Set<Variable> visitedVars = new HashSet<>();
@@ -94,6 +105,11 @@ public class CallReturn extends AbstractTransferFunction {
             outInfo.copyGlobalLike(calleeIn, origInfo, this.calleeMod);
         }
 
+        // the callee can't have changed the places it didn't get
+        if (this.calleeAccessible != null) {
+            outInfo.copyInaccessibleGlobals(origInfo, this.calleeAccessible);
+        }
+
         // LOCAL VARIABLES *************
 
         // no need to do the steps below if the caller is main:
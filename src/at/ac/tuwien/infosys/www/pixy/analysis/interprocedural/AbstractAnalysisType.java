@@ -1,5 +1,6 @@
 package at.ac.tuwien.infosys.www.pixy.analysis.interprocedural;
 
+import at.ac.tuwien.infosys.www.pixy.analysis.AbstractLatticeElement;
 import at.ac.tuwien.infosys.www.pixy.analysis.AbstractTransferFunction;
 import at.ac.tuwien.infosys.www.pixy.conversion.TacFunction;
 import at.ac.tuwien.infosys.www.pixy.conversion.cfgnodes.AbstractCfgNode;
@@ -19,6 +20,12 @@ public abstract class AbstractAnalysisType {
     // be conducted (used at call nodes)
     public abstract AbstractContext getPropagationContext(Call callNode, AbstractContext context);
 
+    // returns the value that shall be propagated to the callee's entry under
+    // the given propagation context, given the incoming value at the call node
+    public AbstractLatticeElement getEntryValue(AbstractContext propagationContext, AbstractLatticeElement inValue) {
+        return inValue;
+    }
+
     // returns a set of ReverseTarget objects to which interprocedural
     // propagation shall be conducted (used at exit nodes)
     public abstract List<ReverseTarget> getReverseTargets(TacFunction exitedFunction, AbstractContext contextX);
@@ -14,6 +14,7 @@ import at.ac.tuwien.infosys.www.pixy.conversion.TacFunction;
 import at.ac.tuwien.infosys.www.pixy.conversion.cfgnodes.*;
 
 import java.util.List;
+import java.util.Set;
 
 /**
  * Vase class for interprocedural analyses (Sharir and Pnueli). Can be used for the functional and the call-string
@@ -53,6 +54,9 @@ public abstract class AbstractInterproceduralAnalysis extends AbstractAnalysis {
     // worklist consisting of pairs (ControlFlowGraph node, lattice element)
     InterproceduralWorklist workList;
 
+    // if not null: the only nodes to which values are propagated
+    private Set<AbstractCfgNode> relevantNodes;
+
 // *********************************************************************************
 // CONSTRUCTORS ********************************************************************
 // *********************************************************************************
@@ -145,6 +149,18 @@ public abstract class AbstractInterproceduralAnalysis extends AbstractAnalysis {
         return this.analysisType.getReverseTargets(exitedFunction, context);
     }
 
+//  projectOnCallee ****************************************************************
+
+    // returns the part of the given value (incoming at the given call node) that
+    // the callee can depend on; the functional approach uses it as the callee's
+    // context, such that calls with values that only differ in places the
+    // callee can't access share the callee's summary; an analysis that removes
+    // something here has to restore it at the call return node; default: the
+    // whole value
+    public AbstractLatticeElement projectOnCallee(Call callNode, AbstractLatticeElement value) {
+        return value;
+    }
+
 //  getTransferFunction ************************************************************
 
     public AbstractTransferFunction getTransferFunction(AbstractCfgNode cfgNode) {
@@ -190,11 +206,50 @@ public abstract class AbstractInterproceduralAnalysis extends AbstractAnalysis {
         return this.analysisType.useSummaries();
     }
 
+//  setRelevantNodes ***************************************************************
+
+    // restricts the analysis to the given nodes; this results in the same values
+    // as an unrestricted analysis for the given nodes if they contain all nodes
+    // that they can be reached from (see Supergraph.getReaching()), but leaves
+    // the values of all other nodes incomplete; call before analyze()
+    public void setRelevantNodes(Set<AbstractCfgNode> relevantNodes) {
+        this.relevantNodes = relevantNodes;
+    }
+
+//  summarizeCall ******************************************************************
+
+    // returns the value at the callee's exit node for the given call (with the
+    // given context and entry value for the callee) if the concrete analysis can
+    // compute it without entering the callee, or null if the callee has to be
+    // analyzed as usual; default: null
+    protected AbstractLatticeElement summarizeCall(
+        Call callNode, AbstractContext propagationContext, AbstractLatticeElement entryValue) {
+        return null;
+    }
+
 //  analyze ************************************************************************
 
     // this method applies the worklist algorithm
     public void analyze() {
 
+        int steps = this.processWorklist();
+
+        if (!MyOptions.optionB && MyOptions.optionV) {
+            System.out.println("Steps total: " + steps);
+            String repositoryStatistics = this.getRepositoryStatistics();
+            if (repositoryStatistics != null) {
+                System.out.println("Lattice elements " + repositoryStatistics);
+            }
+        }
+        // worklist algorithm finished!
+    }
+
+//  processWorklist ****************************************************************
+
+    // processes the elements of the worklist until it is empty; returns the
+    // number of steps
+    protected int processWorklist() {
+
         int steps = 0;
 
         // for each element in the worklist...
@@ -256,6 +311,15 @@ public abstract class AbstractInterproceduralAnalysis extends AbstractAnalysis {
 
                     AbstractContext propagationContext = this.getPropagationContext(callNode, context);
 
+                    // the concrete analysis might know the callee's effect without
+                    // entering it
+                    AbstractLatticeElement summarized = this.summarizeCall(callNode, propagationContext,
+                        this.analysisType.getEntryValue(propagationContext, inValue));
+                    if (summarized != null) {
+                        propagate(context, summarized, callRet);
+                        continue;
+                    }
+
                     // look if the exit node's PHI map has an entry under the context
                     // resulting from this call
                     AbstractInterproceduralAnalysisNode exitAnalysisNode = this.interproceduralAnalysisInformation.getAnalysisNode(exitNode);
@@ -267,7 +331,7 @@ public abstract class AbstractInterproceduralAnalysis extends AbstractAnalysis {
                         // redundant computations, but it is simpler than a
                         // special, more efficient treatment of this rare case
                         AbstractCfgNode entryNode = functionControlFlowGraph.getHead();
-                        propagate(propagationContext, inValue, entryNode);
+                        propagate(propagationContext, this.analysisType.getEntryValue(propagationContext, inValue), entryNode);
                         continue;
                     }
 
@@ -294,7 +358,7 @@ public abstract class AbstractInterproceduralAnalysis extends AbstractAnalysis {
                         // there is no function summary yet (or we don't want to
                         // use summaries), so compute it now by entering the function
                         AbstractCfgNode entryNode = functionControlFlowGraph.getHead();
-                        propagate(propagationContext, inValue, entryNode);
+                        propagate(propagationContext, this.analysisType.getEntryValue(propagationContext, inValue), entryNode);
                     }
 
                     // calls to a builtin function are simply treated by invoking
@@ -394,6 +458,19 @@ public abstract class AbstractInterproceduralAnalysis extends AbstractAnalysis {
                     }
                 } else {
 
+                    if (node instanceof CallPreparation) {
+                        // the call return node doesn't only depend on the value coming
+                        // back from the callee, but also on the value at the call
+                        // preparation node (e.g., for the caller's local variables,
+                        // which are not passed to the callee); if it has already been
+                        // evaluated, it has to be evaluated again, since the value coming
+                        // back from the callee need not change
+                        CallReturn callRet = (CallReturn) node.getSuccessor(0).getSuccessor(0);
+                        if (this.interproceduralAnalysisInformation.getAnalysisNode(callRet).getPhiValue(context) != null) {
+                            this.workList.add(callRet, context);
+                        }
+                    }
+
                     // apply transfer function to incoming value
                     AbstractLatticeElement outValue;
                     outValue = this.interproceduralAnalysisInformation.getAnalysisNode(node).transfer(inValue);
@@ -418,17 +495,18 @@ public abstract class AbstractInterproceduralAnalysis extends AbstractAnalysis {
             }
         }
 
-        if (!MyOptions.optionB && MyOptions.optionV) {
-            System.out.println("Steps total: " + steps);
-        }
-        // worklist algorithm finished!
+        return steps;
     }
 
 // propagate ***********************************************************************
 
     // helper method for analyze();
     // propagates a value under the given context to the target node
-    void propagate(AbstractContext context, AbstractLatticeElement value, AbstractCfgNode target) {
+    protected void propagate(AbstractContext context, AbstractLatticeElement value, AbstractCfgNode target) {
+        if (this.relevantNodes != null && !this.relevantNodes.contains(target)) {
+            return;
+        }
+
         // analysis information for the target node
         AbstractInterproceduralAnalysisNode analysisNode = this.interproceduralAnalysisInformation.getAnalysisNode(target);
 
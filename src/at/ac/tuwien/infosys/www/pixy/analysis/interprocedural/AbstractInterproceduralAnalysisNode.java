@@ -28,8 +28,14 @@ public abstract class AbstractInterproceduralAnalysisNode extends AbstractAnalys
 // *********************************************************************************
 
     protected AbstractInterproceduralAnalysisNode(AbstractTransferFunction tf) {
+        this(tf, new HashMap<AbstractContext, AbstractLatticeElement>());
+    }
+
+    // for subclasses that know a more compact representation of the PHI map
+    protected AbstractInterproceduralAnalysisNode(
+        AbstractTransferFunction tf, Map<AbstractContext, AbstractLatticeElement> phi) {
         super(tf);
-        this.phi = new HashMap<>();
+        this.phi = phi;
         this.foldedValue = null;
     }
 
@@ -93,6 +93,10 @@ public class CallGraph {
         return this.nodes.get(f).getPredecessors();
     }
 
+    public Collection<CallGraphNode> getCallees(TacFunction f) {
+        return this.nodes.get(f).getSuccessors();
+    }
+
     public Set<Call> getCallsTo(TacFunction f) {
         return this.nodes.get(f).getCallsTo();
     }
@@ -0,0 +1,103 @@
+package at.ac.tuwien.infosys.www.pixy.analysis.interprocedural;
+
+import at.ac.tuwien.infosys.www.pixy.conversion.TacFunction;
+
+import java.util.*;
+
+/**
+ * The maximum call-string length (k) for each function of a call-string analysis.
+ *
+ * Without adaptation, every function gets the same length. With adaptation, the length of each function is chosen
+ * from call graph statistics:
+ * - functions called from many call sites (e.g., escaping wrappers, getters) and functions with large bodies are
+ *   analyzed context-insensitively (k = 0), since each context multiplies their costs
+ * - small leaf functions get one more call in their call strings, since their contexts are cheap
+ * - all other functions keep the given length
+ *
+ * Note that the call strings of a function can only be one call longer than those of its callers.
+ */
+public class CallStringLengths {
+    /** functions called from at least this many call sites are analyzed context-insensitively */
+    public static final int MAX_CALL_SITES = 16;
+
+    /** functions with at least this many cfg nodes are analyzed context-insensitively */
+    public static final int MAX_SIZE = 1000;
+
+    /** leaf functions with at most this many cfg nodes get longer call strings */
+    public static final int MAX_LEAF_SIZE = 50;
+
+    // the length for functions that are not adapted
+    private final int kSize;
+
+    // TacFunction -> adapted length
+    private final Map<TacFunction, Integer> lengths;
+
+    // TacFunction -> why its length was adapted
+    private final Map<TacFunction, String> reasons;
+
+    // the same length for all functions
+    CallStringLengths(int kSize) {
+        this.kSize = kSize;
+        this.lengths = Collections.emptyMap();
+        this.reasons = Collections.emptyMap();
+    }
+
+    // lengths adapted to the given call graph
+    CallStringLengths(CallGraph callGraph, int kSize) {
+        this.kSize = kSize;
+        this.lengths = new HashMap<>();
+        this.reasons = new HashMap<>();
+
+        for (TacFunction function : callGraph.getFunctions()) {
+            if (function.isMain()) {
+                // the main function only has the empty call string
+                continue;
+            }
+            int callSites = callGraph.getCallsTo(function).size();
+            if (callSites >= MAX_CALL_SITES) {
+                this.adapt(function, 0, callSites + " call sites");
+            } else if (function.size() >= MAX_SIZE) {
+                this.adapt(function, 0, function.size() + " cfg nodes");
+            } else if (callGraph.getCallees(function).isEmpty() && function.size() <= MAX_LEAF_SIZE) {
+                this.adapt(function, kSize + 1, "small leaf function");
+            }
+        }
+    }
+
+    private void adapt(TacFunction function, int length, String reason) {
+        if (length != this.kSize) {
+            this.lengths.put(function, length);
+            this.reasons.put(function, reason);
+        }
+    }
+
+    // returns the maximum call-string length for the given function
+    public int get(TacFunction function) {
+        Integer length = this.lengths.get(function);
+        return length == null ? this.kSize : length;
+    }
+
+    // one line for each function whose length was adapted, sorted by name
+    public String report() {
+        List<TacFunction> functions = new ArrayList<>(this.lengths.keySet());
+        Collections.sort(functions, new Comparator<TacFunction>() {
+            public int compare(TacFunction f1, TacFunction f2) {
+                return f1.getName().compareTo(f2.getName());
+            }
+        });
+
+        StringBuilder b = new StringBuilder();
+        b.append("default: k = ");
+        b.append(this.kSize);
+        b.append("\n");
+        for (TacFunction function : functions) {
+            b.append(function.getName());
+            b.append(": k = ");
+            b.append(this.lengths.get(function));
+            b.append(" (");
+            b.append(this.reasons.get(function));
+            b.append(")\n");
+        }
+        return b.toString();
+    }
+}
\ No newline at end of file
@@ -49,8 +49,23 @@ public class ConnectorComputation {
     // call-string length
     int kSize;
 
+    // adapt the call-string length to each function? (see CallStringLengths)
+    private boolean adaptive;
+
+    // the call-string length of each function; available after compute()
+    private CallStringLengths callStringLengths;
+
+    // interned call strings: every call string occurs only once, no matter
+    // how many functions it reaches
+    private Map<CallString, CallString> callStrings;
+
     public ConnectorComputation(List<TacFunction> functions, TacFunction mainFunction, int kSize) {
+        this(functions, mainFunction, kSize, false);
+    }
+
+    public ConnectorComputation(List<TacFunction> functions, TacFunction mainFunction, int kSize, boolean adaptive) {
         this.kSize = kSize;
+        this.adaptive = adaptive;
         this.mainFunction = mainFunction;
 
         // start with empty EncodedCallStrings for each function;
@@ -71,7 +86,8 @@ public class ConnectorComputation {
         }
 
         // initialize EncodedCallStrings for main function with empty call string
-        CallString emptyCallString = new CallString();
+        this.callStrings = new HashMap<>();
+        CallString emptyCallString = this.intern(new CallString());
         this.function2ECS.put(mainFunction, new EncodedCallStrings(emptyCallString));
 
         // initialize worklist
@@ -105,7 +121,7 @@ public class ConnectorComputation {
         //   - if the callee has not been visited yet:
         //     - add the callee's contained call nodes to the queue
         //     - mark the callee as visited
-        List<Call> processUs = this.containedCalls.get(this.mainFunction);
+        List<Call> processUs = new LinkedList<>(this.containedCalls.get(this.mainFunction));
         Set<TacFunction> visited = new HashSet<>();
         visited.add(this.mainFunction);
         while (!processUs.isEmpty()) {
@@ -124,6 +140,14 @@ public class ConnectorComputation {
 
     public void compute() {
 
+        // generate the call graph, and choose the call-string lengths
+        this.makeCallGraph();
+        if (this.adaptive) {
+            this.callStringLengths = new CallStringLengths(this.callGraph, this.kSize);
+        } else {
+            this.callStringLengths = new CallStringLengths(this.kSize);
+        }
+
         while (this.workList.hasNext()) {
 
             // extract element
@@ -145,7 +169,7 @@ public class ConnectorComputation {
                     // callee is still unknown
                     continue;
                 }
-                CallString gamma_2 = gamma.append(callNode, this.kSize);
+                CallString gamma_2 = this.intern(gamma.append(callNode, this.callStringLengths.get(q)));
                 EncodedCallStrings encodedCallStrings_q = this.function2ECS.get(q);
                 int pos_2 = encodedCallStrings_q.getPosition(gamma_2);
                 if (pos_2 == -1) {
@@ -162,9 +186,16 @@ public class ConnectorComputation {
                 conFunc.add(pos, pos_2);
             }
         }
+    }
 
-        // generate the call graph
-        this.makeCallGraph();
+    // returns the interned call string that is equal to the given one
+    private CallString intern(CallString callString) {
+        CallString interned = this.callStrings.get(callString);
+        if (interned == null) {
+            this.callStrings.put(callString, callString);
+            interned = callString;
+        }
+        return interned;
     }
 
     public CallStringContext getTargetContext(Call callNode, int sourcePosition) {
@@ -191,22 +222,21 @@ public class ConnectorComputation {
         List<ReverseTarget> reverseTargets = new LinkedList<>();
 
         // determine call nodes to which we have to return
-        if (this.kSize == 0) {
+        if (this.callStringLengths.get(exitedFunction) == 0) {
 
-            // in this case, we are performing a context-insensitive analysis
-            // and have to return to all calls to this function;
-            // note that context call strings are always the empty call string
-            // here, so there is only one position for each function;
-            // i.e., |EncodedCallStrings| = 1 for each function
-
-            // prepare one-element context set
-            Set<AbstractContext> contextSet = new HashSet<>();
-            contextSet.add(new CallStringContext(0));
+            // in this case, the exited function is analyzed context-insensitively
+            // and we have to return to all calls to this function;
+            // note that its only call string is the empty call string, so
+            // it has only one position; we return to all contexts of the
+            // callers that are mapped to this position
 
             // for each call to this function...
             Set<Call> callNodes = this.callGraph.getCallsTo(exitedFunction);
             for (Call callNode : callNodes) {
-                reverseTargets.add(new ReverseTarget(callNode, contextSet));
+                Set<CallStringContext> contextSet = this.getConFunc(callNode).reverseApply(sourcePosition);
+                if (contextSet != null) {
+                    reverseTargets.add(new ReverseTarget(callNode, contextSet));
+                }
             }
         } else {
 
@@ -232,6 +262,16 @@ public class ConnectorComputation {
         return this.function2ECS;
     }
 
+    // returns the maximum call-string length for the given function
+    public int getCallStringLength(TacFunction f) {
+        return this.callStringLengths.get(f);
+    }
+
+    // returns a report of the functions whose call-string length was adapted
+    public String dumpCallStringLengths() {
+        return this.callStringLengths.report();
+    }
+
     // returns the number of contexts for the given function
     public int getNumContexts(TacFunction f) {
         return this.function2ECS.get(f).size();
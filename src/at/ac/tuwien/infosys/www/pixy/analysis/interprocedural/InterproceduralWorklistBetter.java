@@ -2,17 +2,22 @@ package at.ac.tuwien.infosys.www.pixy.analysis.interprocedural;
 
 import at.ac.tuwien.infosys.www.pixy.conversion.cfgnodes.AbstractCfgNode;
 
-import java.util.SortedMap;
-import java.util.TreeMap;
+import java.util.BitSet;
 
 /**
  * This interprocedural worklist uses a better order (interprocedural reverse post-order).
  *
+ * Since the orders are dense, the worklist is simply a bitset over them; neither
+ * adding nor removing allocates anything.
+ *
  * @author Nenad Jovanovic <enji@seclab.tuwien.ac.at>
  */
 public final class InterproceduralWorklistBetter implements InterproceduralWorklist {
     private InterproceduralWorklistOrder order;
-    private SortedMap<Integer, InterproceduralWorklistElement> sortedWorkList;
+    private BitSet sortedWorkList;
+
+    // no order below this one is contained in the worklist
+    private int lowest;
 
 // *********************************************************************************
 // CONSTRUCTORS ********************************************************************
@@ -20,7 +25,8 @@ public final class InterproceduralWorklistBetter implements InterproceduralWorkl
 
     public InterproceduralWorklistBetter(InterproceduralWorklistOrder order) {
         this.order = order;
-        this.sortedWorkList = new TreeMap<>();
+        this.sortedWorkList = new BitSet(order.size());
+        this.lowest = 0;
     }
 
 // *********************************************************************************
@@ -32,18 +38,22 @@ public final class InterproceduralWorklistBetter implements InterproceduralWorkl
         if (context == null) {
             throw new RuntimeException("SNH");
         }
-        InterproceduralWorklistElement element = new InterproceduralWorklistElement(cfgNode, context);
 
-        Integer rpo = this.order.getReversePostOrder(element);
-        if (rpo == null) {
+        int rpo = this.order.getReversePostOrder(cfgNode, context);
+        if (rpo == -1) {
             throw new RuntimeException("SNH");
         }
-        this.sortedWorkList.put(rpo, element);
+        this.sortedWorkList.set(rpo);
+        if (rpo < this.lowest) {
+            this.lowest = rpo;
+        }
     }
 
     public InterproceduralWorklistElement removeNext() {
-        Integer key = this.sortedWorkList.firstKey();
-        return this.sortedWorkList.remove(key);
+        int rpo = this.sortedWorkList.nextSetBit(this.lowest);
+        this.sortedWorkList.clear(rpo);
+        this.lowest = rpo + 1;
+        return this.order.getElement(rpo);
     }
 
     public boolean hasNext() {
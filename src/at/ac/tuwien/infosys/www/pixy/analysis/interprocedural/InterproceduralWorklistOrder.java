@@ -21,8 +21,13 @@ import java.util.*;
  */
 public class InterproceduralWorklistOrder {
     // this is what we want to compute: a mapping of interprocedural
-    // worklist elements to some number (order)
-    private Map<InterproceduralWorklistElement, Integer> order;
+    // worklist elements to some number (order);
+    // cfg node -> (context position -> order, or -1)
+    private Map<AbstractCfgNode, int[]> order;
+
+    // order -> worklist element; the orders are dense, so they can be
+    // used as indices by the worklist
+    private InterproceduralWorklistElement[] elements;
 
 //  ********************************************************************************
 
@@ -42,11 +47,21 @@ public class InterproceduralWorklistOrder {
         LinkedList<InterproceduralWorklistElement> postorder = this.getPostorder(start, cc);
 
         // get *reverse* postorder
+        this.elements = new InterproceduralWorklistElement[postorder.size()];
         ListIterator<InterproceduralWorklistElement> iter = postorder.listIterator(postorder.size());
         int i = 0;
         while (iter.hasPrevious()) {
             InterproceduralWorklistElement iwle = iter.previous();
-            this.order.put(iwle, i);
+            int position = ((CallStringContext) iwle.getContext()).getPosition();
+            int[] orders = this.order.get(iwle.getCfgNode());
+            if (orders == null || orders.length <= position) {
+                int oldLength = (orders == null) ? 0 : orders.length;
+                orders = (orders == null) ? new int[position + 1] : Arrays.copyOf(orders, position + 1);
+                Arrays.fill(orders, oldLength, orders.length, -1);
+                this.order.put(iwle.getCfgNode(), orders);
+            }
+            orders[position] = i;
+            this.elements[i] = iwle;
             i++;
         }
     }
@@ -182,7 +197,28 @@ public class InterproceduralWorklistOrder {
 
 //  ********************************************************************************
 
-    public Integer getReversePostOrder(InterproceduralWorklistElement element) {
-        return this.order.get(element);
+    // returns the reverse postorder of the given node under the given context,
+    // or -1 if it is not reachable
+    public int getReversePostOrder(AbstractCfgNode cfgNode, AbstractContext context) {
+        int[] orders = this.order.get(cfgNode);
+        int position = ((CallStringContext) context).getPosition();
+        if (orders == null || orders.length <= position) {
+            return -1;
+        }
+        return orders[position];
+    }
+
+//  ********************************************************************************
+
+    // returns the worklist element with the given reverse postorder
+    InterproceduralWorklistElement getElement(int reversePostOrder) {
+        return this.elements[reversePostOrder];
+    }
+
+//  ********************************************************************************
+
+    // returns the number of worklist elements that have an order
+    public int size() {
+        return this.elements.length;
     }
 }
\ No newline at end of file
@@ -0,0 +1,140 @@
+package at.ac.tuwien.infosys.www.pixy.analysis.interprocedural;
+
+import at.ac.tuwien.infosys.www.pixy.conversion.ControlFlowGraph;
+import at.ac.tuwien.infosys.www.pixy.conversion.TacFunction;
+import at.ac.tuwien.infosys.www.pixy.conversion.cfgnodes.AbstractCfgNode;
+import at.ac.tuwien.infosys.www.pixy.conversion.cfgnodes.Call;
+import at.ac.tuwien.infosys.www.pixy.conversion.cfgnodes.CallReturn;
+
+import java.util.*;
+
+/**
+ * The interprocedural flow graph of a program: the CFGs of all functions, plus edges from call nodes to the entries
+ * of their callees and from the exits of the callees to the corresponding call return nodes.
+ *
+ * Used for determining which parts of the program can influence (or be influenced by) certain nodes. Reflects the
+ * callees at the time of construction, so it has to be recreated after backpatching.
+ */
+public class Supergraph {
+    // all nodes, in the order in which they were found
+    private final List<AbstractCfgNode> nodes;
+
+    // all call nodes
+    private final List<Call> callNodes;
+
+    // function entry node -> calls to this function
+    private final Map<AbstractCfgNode, List<Call>> entryToCalls;
+
+    // function exit node -> call return nodes of the calls to this function
+    private final Map<AbstractCfgNode, List<AbstractCfgNode>> exitToCallReturns;
+
+    public Supergraph(List<TacFunction> functions) {
+        this.nodes = new ArrayList<>();
+        this.callNodes = new ArrayList<>();
+        this.entryToCalls = new HashMap<>();
+        this.exitToCallReturns = new HashMap<>();
+
+        for (TacFunction function : functions) {
+            for (AbstractCfgNode cfgNode : function.getControlFlowGraph().dfPreOrder()) {
+                this.nodes.add(cfgNode);
+                if (cfgNode instanceof Call) {
+                    this.callNodes.add((Call) cfgNode);
+                }
+            }
+        }
+
+        for (Call callNode : this.callNodes) {
+            TacFunction callee = callNode.getCallee();
+            if (callee == null) {
+                continue;
+            }
+            ControlFlowGraph calleeControlFlowGraph = callee.getControlFlowGraph();
+            AbstractCfgNode entry = calleeControlFlowGraph.getHead();
+            AbstractCfgNode exit = calleeControlFlowGraph.getTail();
+
+            List<Call> calls = this.entryToCalls.get(entry);
+            if (calls == null) {
+                calls = new ArrayList<>();
+                this.entryToCalls.put(entry, calls);
+            }
+            calls.add(callNode);
+
+            List<AbstractCfgNode> callReturns = this.exitToCallReturns.get(exit);
+            if (callReturns == null) {
+                callReturns = new ArrayList<>();
+                this.exitToCallReturns.put(exit, callReturns);
+            }
+            callReturns.add(callNode.getOutEdge(0).getDestination());
+        }
+    }
+
+//  ********************************************************************************
+
+    public List<AbstractCfgNode> getNodes() {
+        return this.nodes;
+    }
+
+    public List<Call> getCallNodes() {
+        return this.callNodes;
+    }
+
+//  ********************************************************************************
+
+    // returns the given nodes together with all nodes reachable from them
+    public Set<AbstractCfgNode> getReachableFrom(Collection<? extends AbstractCfgNode> startNodes) {
+        Set<AbstractCfgNode> visited = new HashSet<>(startNodes);
+        Deque<AbstractCfgNode> stack = new ArrayDeque<>(visited);
+        while (!stack.isEmpty()) {
+            AbstractCfgNode cfgNode = stack.pop();
+            for (AbstractCfgNode succ : cfgNode.getSuccessors()) {
+                if (visited.add(succ)) {
+                    stack.push(succ);
+                }
+            }
+            if (cfgNode instanceof Call) {
+                TacFunction callee = ((Call) cfgNode).getCallee();
+                if (callee != null && visited.add(callee.getControlFlowGraph().getHead())) {
+                    stack.push(callee.getControlFlowGraph().getHead());
+                }
+            }
+            List<AbstractCfgNode> callReturns = this.exitToCallReturns.get(cfgNode);
+            if (callReturns != null) {
+                for (AbstractCfgNode callReturn : callReturns) {
+                    if (visited.add(callReturn)) {
+                        stack.push(callReturn);
+                    }
+                }
+            }
+        }
+        return visited;
+    }
+
+    // returns the given nodes together with all nodes from which they can be reached
+    public Set<AbstractCfgNode> getReaching(Collection<? extends AbstractCfgNode> targetNodes) {
+        Set<AbstractCfgNode> visited = new HashSet<>(targetNodes);
+        Deque<AbstractCfgNode> stack = new ArrayDeque<>(visited);
+        while (!stack.isEmpty()) {
+            AbstractCfgNode cfgNode = stack.pop();
+            for (AbstractCfgNode pred : cfgNode.getPredecessors()) {
+                if (visited.add(pred)) {
+                    stack.push(pred);
+                }
+            }
+            List<Call> calls = this.entryToCalls.get(cfgNode);
+            if (calls != null) {
+                for (Call callNode : calls) {
+                    if (visited.add(callNode)) {
+                        stack.push(callNode);
+                    }
+                }
+            }
+            if (cfgNode instanceof CallReturn) {
+                TacFunction callee = ((CallReturn) cfgNode).getCallNode().getCallee();
+                if (callee != null && visited.add(callee.getControlFlowGraph().getTail())) {
+                    stack.push(callee.getControlFlowGraph().getTail());
+                }
+            }
+        }
+        return visited;
+    }
+}
\ No newline at end of file
@@ -2,45 +2,62 @@ package at.ac.tuwien.infosys.www.pixy.analysis.interprocedural.callstring;
 
 import at.ac.tuwien.infosys.www.pixy.conversion.cfgnodes.Call;
 
-import java.util.LinkedList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 
 /**
+ * An immutable sequence of call nodes (oldest first), backed by an array; the hash code is computed once.
+ *
  * @author Nenad Jovanovic <enji@seclab.tuwien.ac.at>
  */
 public class CallString {
-    // a list of Call's; never longer than the k-size of the analysis
-    private LinkedList<Call> callNodeList;
+    private static final Call[] EMPTY = new Call[0];
+
+    // the call nodes; never longer than the k-size of the analysis
+    private final Call[] calls;
+
+    private final int hashCode;
 
     // creates the empty call string
     public CallString() {
-        this.callNodeList = new LinkedList<>();
+        this(EMPTY);
     }
 
     // shall only be used by CallString.append
-    private CallString(LinkedList<Call> callNodeList) {
-        this.callNodeList = callNodeList;
+    private CallString(Call[] calls) {
+        this.calls = calls;
+        this.hashCode = Arrays.hashCode(calls);
     }
 
+    // returns the call string that results from appending the given call node,
+    // cut down to the given k-size by dropping the oldest call nodes
     public CallString append(Call callNode, int kSize) {
-        LinkedList<Call> newList = new LinkedList<>(this.callNodeList);
-        newList.add(callNode);
-        if (newList.size() > kSize) {
-            newList.remove(0);
+        if (kSize <= 0) {
+            return this.calls.length == 0 ? this : new CallString();
         }
-        return new CallString(newList);
+        int keep = Math.min(this.calls.length, kSize - 1);
+        Call[] newCalls = new Call[keep + 1];
+        System.arraycopy(this.calls, this.calls.length - keep, newCalls, 0, keep);
+        newCalls[keep] = callNode;
+        return new CallString(newCalls);
     }
 
     // returns the last (rightmost) call node
     public Call getLast() {
-        return this.callNodeList.getLast();
+        return this.calls[this.calls.length - 1];
+    }
+
+    public List<Call> getCallNodeList() {
+        return Collections.unmodifiableList(Arrays.asList(this.calls));
     }
 
-    public LinkedList<Call> getCallNodeList() {
-        return this.callNodeList;
+    public int size() {
+        return this.calls.length;
     }
 
     public int hashCode() {
-        return this.callNodeList.hashCode();
+        return this.hashCode;
     }
 
     public boolean equals(Object obj) {
@@ -54,12 +71,12 @@ public class CallString {
         }
         CallString comp = (CallString) obj;
 
-        return this.callNodeList.equals(comp.getCallNodeList());
+        return this.hashCode == comp.hashCode && Arrays.equals(this.calls, comp.calls);
     }
 
     public String dump() {
         StringBuilder b = new StringBuilder();
-        for (Call callNode : this.callNodeList) {
+        for (Call callNode : this.calls) {
             b.append(callNode.getFileName());
             b.append(":");
             b.append(callNode.getOriginalLineNumber());
@@ -1,14 +1,107 @@
 package at.ac.tuwien.infosys.www.pixy.analysis.interprocedural.callstring;
 
+import at.ac.tuwien.infosys.www.pixy.analysis.AbstractLatticeElement;
 import at.ac.tuwien.infosys.www.pixy.analysis.AbstractTransferFunction;
+import at.ac.tuwien.infosys.www.pixy.analysis.interprocedural.AbstractContext;
 import at.ac.tuwien.infosys.www.pixy.analysis.interprocedural.AbstractInterproceduralAnalysisNode;
 import at.ac.tuwien.infosys.www.pixy.conversion.cfgnodes.AbstractCfgNode;
 
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
 /**
  * @author Nenad Jovanovic <enji@seclab.tuwien.ac.at>
  */
 public class CallStringAnalysisNode extends AbstractInterproceduralAnalysisNode {
     public CallStringAnalysisNode(AbstractCfgNode node, AbstractTransferFunction tf) {
-        super(tf);
+        super(tf, new PhiArray());
+    }
+
+//  ********************************************************************************
+
+    /**
+     * PHI map for call-string contexts: since these are just small positions, the
+     * values are stored in an array indexed by the position.
+     */
+    private static final class PhiArray extends AbstractMap<AbstractContext, AbstractLatticeElement> {
+        private static final AbstractLatticeElement[] EMPTY = new AbstractLatticeElement[0];
+
+        // position -> value (or null)
+        private AbstractLatticeElement[] values = EMPTY;
+        private int size = 0;
+
+        public AbstractLatticeElement get(Object context) {
+            int position = ((CallStringContext) context).getPosition();
+            return (position < this.values.length) ? this.values[position] : null;
+        }
+
+        public boolean containsKey(Object context) {
+            return this.get(context) != null;
+        }
+
+        public AbstractLatticeElement put(AbstractContext context, AbstractLatticeElement value) {
+            if (value == null) {
+                throw new RuntimeException("SNH");
+            }
+            int position = ((CallStringContext) context).getPosition();
+            if (position >= this.values.length) {
+                this.values = Arrays.copyOf(this.values, position + 1);
+            }
+            AbstractLatticeElement oldValue = this.values[position];
+            if (oldValue == null) {
+                this.size++;
+            }
+            this.values[position] = value;
+            return oldValue;
+        }
+
+        public int size() {
+            return this.size;
+        }
+
+        public Set<Map.Entry<AbstractContext, AbstractLatticeElement>> entrySet() {
+            return new AbstractSet<Map.Entry<AbstractContext, AbstractLatticeElement>>() {
+                public Iterator<Map.Entry<AbstractContext, AbstractLatticeElement>> iterator() {
+                    return new Iterator<Map.Entry<AbstractContext, AbstractLatticeElement>>() {
+                        private int position = this.skip(0);
+
+                        private int skip(int position) {
+                            while (position < values.length && values[position] == null) {
+                                position++;
+                            }
+                            return position;
+                        }
+
+                        public boolean hasNext() {
+                            return this.position < values.length;
+                        }
+
+                        public Map.Entry<AbstractContext, AbstractLatticeElement> next() {
+                            if (!this.hasNext()) {
+                                throw new NoSuchElementException();
+                            }
+                            Map.Entry<AbstractContext, AbstractLatticeElement> entry =
+                                new SimpleImmutableEntry<AbstractContext, AbstractLatticeElement>(
+                                    new CallStringContext(this.position), values[this.position]);
+                            this.position = this.skip(this.position + 1);
+                            return entry;
+                        }
+
+                        public void remove() {
+                            throw new UnsupportedOperationException();
+                        }
+                    };
+                }
+
+                public int size() {
+                    return PhiArray.this.size;
+                }
+            };
+        }
     }
 }
\ No newline at end of file
@@ -1,37 +1,40 @@
 package at.ac.tuwien.infosys.www.pixy.analysis.interprocedural.callstring;
 
-import java.util.LinkedList;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
+ * The call strings of a function, numbered in the order in which they were added; positions and call strings can be
+ * looked up in constant time.
+ *
  * @author Nenad Jovanovic <enji@seclab.tuwien.ac.at>
  */
 public class EncodedCallStrings {
     // a list of CallString objects
     List<CallString> callStrings;
 
+    // CallString -> position in callStrings
+    private Map<CallString, Integer> positions;
+
     // creates empty EncodedCallStrings
     public EncodedCallStrings() {
-        this.callStrings = new LinkedList<>();
+        this.callStrings = new ArrayList<>();
+        this.positions = new HashMap<>();
     }
 
     // creates one-element EncodedCallStrings
     public EncodedCallStrings(CallString firstCallString) {
-        this.callStrings = new LinkedList<>();
-        this.callStrings.add(firstCallString);
+        this();
+        this.append(firstCallString);
     }
 
     // returns the position of the given call string ( >= 0), or -1 if
     // it's not in here
     public int getPosition(CallString findMe) {
-        int index = 0;
-        for (CallString callString : this.callStrings) {
-            if (callString.equals(findMe)) {
-                return index;
-            }
-            index++;
-        }
-        return -1;
+        Integer position = this.positions.get(findMe);
+        return position == null ? -1 : position;
     }
 
     // returns the call string at the given position (null if
@@ -43,10 +46,12 @@ public class EncodedCallStrings {
         return this.callStrings.get(position);
     }
 
-    // appends the given call string and returns its index
+    // appends the given call string (which must not be in here yet)
+    // and returns its index
     public int append(CallString appendMe) {
         int newIndex = this.callStrings.size();
         this.callStrings.add(appendMe);
+        this.positions.put(appendMe, newIndex);
         return newIndex;
     }
 
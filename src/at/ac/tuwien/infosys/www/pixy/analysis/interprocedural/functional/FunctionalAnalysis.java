@@ -26,9 +26,25 @@ public class FunctionalAnalysis extends AbstractAnalysisType {
 
     public AbstractContext getPropagationContext(Call callNode, AbstractContext context) {
         // propagation context = incoming value at the call node under the
-        // current context
-        AbstractLatticeElement inValue = this.enclosedAnalysis.getInterproceduralAnalysisInformation().getAnalysisNode(callNode).getPhiValue(context);
-        return new FunctionalContext(inValue);
+        // current context, restricted to the part that the callee can depend on
+        // (so that the callee's summary for this value can be reused by all
+        // caller contexts that only differ in the rest)
+        FunctionalAnalysisNode analysisNode = (FunctionalAnalysisNode)
+            this.enclosedAnalysis.getInterproceduralAnalysisInformation().getAnalysisNode(callNode);
+        AbstractLatticeElement inValue = analysisNode.getPhiValue(context);
+        AbstractLatticeElement calleeValue = this.enclosedAnalysis.projectOnCallee(callNode, inValue);
+
+        // maintain the reverse mapping needed for returning from the callee
+        analysisNode.addReversePhiContext(calleeValue, (FunctionalContext) context);
+
+        return new FunctionalContext(calleeValue);
+    }
+
+//  getEntryValue *******************************************************************
+
+    public AbstractLatticeElement getEntryValue(AbstractContext propagationContext, AbstractLatticeElement inValue) {
+        // the callee is entered with the value that its context stands for
+        return ((FunctionalContext) propagationContext).getLatticeElement();
     }
 
 //  getReverseTargets ***************************************************************
@@ -2,7 +2,6 @@ package at.ac.tuwien.infosys.www.pixy.analysis.interprocedural.functional;
 
 import at.ac.tuwien.infosys.www.pixy.analysis.AbstractLatticeElement;
 import at.ac.tuwien.infosys.www.pixy.analysis.AbstractTransferFunction;
-import at.ac.tuwien.infosys.www.pixy.analysis.interprocedural.AbstractContext;
 import at.ac.tuwien.infosys.www.pixy.analysis.interprocedural.AbstractInterproceduralAnalysisNode;
 import at.ac.tuwien.infosys.www.pixy.conversion.cfgnodes.AbstractCfgNode;
 import at.ac.tuwien.infosys.www.pixy.conversion.cfgnodes.Call;
@@ -18,7 +17,8 @@ import java.util.Set;
  * @author Nenad Jovanovic <enji@seclab.tuwien.ac.at>
  */
 public class FunctionalAnalysisNode extends AbstractInterproceduralAnalysisNode {
-    // mapping input AbstractLatticeElement -> Set of context LatticeElements;
+    // mapping callee value (i.e., the input AbstractLatticeElement, restricted
+    // to what the callee can depend on) -> Set of context LatticeElements;
     // only needed for call nodes
     Map<AbstractLatticeElement, Set<FunctionalContext>> reversePhi;
 
@@ -49,21 +49,14 @@ public class FunctionalAnalysisNode extends AbstractInterproceduralAnalysisNode
 // SET *****************************************************************************
 // *********************************************************************************
 
-    // sets the PHI value for the given context
-    protected void setPhiValue(AbstractContext contextX, AbstractLatticeElement value) {
-
-        FunctionalContext context = (FunctionalContext) contextX;
-
-        super.setPhiValue(context, value);
-
-        // maintain reverse mapping, if needed
-        if (this.reversePhi != null) {
-            Set<FunctionalContext> contextSet = this.reversePhi.get(value);
-            if (contextSet == null) {
-                contextSet = new HashSet<>();
-                this.reversePhi.put(value, contextSet);
-            }
-            contextSet.add(context);
+    // records that the given context is mapped to the given callee value
+    // (see FunctionalAnalysis.getPropagationContext)
+    void addReversePhiContext(AbstractLatticeElement value, FunctionalContext context) {
+        Set<FunctionalContext> contextSet = this.reversePhi.get(value);
+        if (contextSet == null) {
+            contextSet = new HashSet<>();
+            this.reversePhi.put(value, contextSet);
         }
+        contextSet.add(context);
     }
 }
\ No newline at end of file
@@ -28,9 +28,12 @@ public abstract class AbstractIntraproceduralAnalysis extends AbstractAnalysis {
 
     // OTHER ***********************************************************************
 
-    // worklist consisting of pairs (ControlFlowGraph node, lattice element)
+    // worklist of ControlFlowGraph nodes, ordered by reverse postorder
     IntraproceduralWorklist workList;
 
+    // number of transfer function applications performed by analyze()
+    private int transferCount;
+
 // *********************************************************************************
 // CONSTRUCTORS ********************************************************************
 // *********************************************************************************
@@ -51,7 +54,7 @@ public abstract class AbstractIntraproceduralAnalysis extends AbstractAnalysis {
         this.functions.add(function);
 
         // initialize worklist
-        this.workList = new IntraproceduralWorklist();
+        this.workList = new IntraproceduralWorklist(function.getControlFlowGraph());
         this.workList.add(function.getControlFlowGraph().getHead());
 
         // initialize analysis nodes
@@ -89,6 +92,14 @@ public abstract class AbstractIntraproceduralAnalysis extends AbstractAnalysis {
         return this.analysisInfo.getAnalysisNode(cfgNode);
     }
 
+//  getTransferCount ***************************************************************
+
+    // returns the number of transfer function applications so far (for
+    // measuring how quickly the analysis converges)
+    public int getTransferCount() {
+        return this.transferCount;
+    }
+
 // *********************************************************************************
 // OTHER ***************************************************************************
 // *********************************************************************************
@@ -127,6 +138,7 @@ public abstract class AbstractIntraproceduralAnalysis extends AbstractAnalysis {
                 // apply transfer function to incoming value
                 AbstractLatticeElement outValue;
                 outValue = this.analysisInfo.getAnalysisNode(node).transfer(inValue);
+                this.transferCount++;
 
                 // for each outgoing edge...
                 CfgEdge[] outEdges = node.getOutEdges();
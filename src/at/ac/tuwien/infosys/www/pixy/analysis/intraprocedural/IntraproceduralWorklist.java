@@ -1,39 +1,65 @@
 package at.ac.tuwien.infosys.www.pixy.analysis.intraprocedural;
 
+import at.ac.tuwien.infosys.www.pixy.conversion.ControlFlowGraph;
 import at.ac.tuwien.infosys.www.pixy.conversion.cfgnodes.AbstractCfgNode;
 
-import java.util.LinkedList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 /**
+ * Worklist that always returns the pending node that comes first in the reverse postorder of the analyzed
+ * ControlFlowGraph. This way, all branches of a conditional are analyzed before the code behind them, and loop
+ * bodies are iterated before the code after the loop. A node that is added while it is still pending is only
+ * contained once.
+ *
  * @author Nenad Jovanovic <enji@seclab.tuwien.ac.at>
  */
 public final class IntraproceduralWorklist {
-    private LinkedList<AbstractCfgNode> workList;
+    // the nodes of the ControlFlowGraph in reverse postorder
+    private final AbstractCfgNode[] nodes;
+
+    // node -> its index in the reverse postorder
+    private final Map<AbstractCfgNode, Integer> positions;
+
+    // the indices of the nodes that are currently in the worklist
+    private final BitSet pending;
 
 // *********************************************************************************
 // CONSTRUCTORS ********************************************************************
 // *********************************************************************************
 
-    IntraproceduralWorklist() {
-        this.workList = new LinkedList<>();
+    public IntraproceduralWorklist(ControlFlowGraph controlFlowGraph) {
+        List<AbstractCfgNode> reversePostOrder = controlFlowGraph.reversePostOrder();
+        this.nodes = reversePostOrder.toArray(new AbstractCfgNode[reversePostOrder.size()]);
+        this.positions = new HashMap<>();
+        for (int i = 0; i < this.nodes.length; i++) {
+            this.positions.put(this.nodes[i], i);
+        }
+        this.pending = new BitSet(this.nodes.length);
     }
 
 // *********************************************************************************
 // OTHER ***************************************************************************
 // *********************************************************************************
 
-    void add(AbstractCfgNode cfgNode) {
-        this.workList.add(cfgNode);
+    public void add(AbstractCfgNode cfgNode) {
+        Integer position = this.positions.get(cfgNode);
+        if (position == null) {
+            // all nodes of the ControlFlowGraph are reachable from its head
+            throw new RuntimeException("SNH");
+        }
+        this.pending.set(position);
     }
 
-    // actually implemented as FIFO
-    // EFF: it would be more efficient to analyze all conditional branches first
-    // before going on to the code behind the branches (reverse postorder)
-    AbstractCfgNode removeNext() {
-        return this.workList.removeFirst();
+    public AbstractCfgNode removeNext() {
+        int position = this.pending.nextSetBit(0);
+        this.pending.clear(position);
+        return this.nodes[position];
     }
 
-    boolean hasNext() {
-        return (this.workList.size() > 0);
+    public boolean hasNext() {
+        return !this.pending.isEmpty();
     }
 }
\ No newline at end of file
@@ -69,12 +69,13 @@ public class LiteralAnalysis extends AbstractInterproceduralAnalysis {
 //  initLattice ********************************************************************
 
     protected void initLattice() {
-        this.lattice = new LiteralLattice(
+        LiteralLattice literalLattice = new LiteralLattice(
             this.tac.getPlacesList(), this.tac.getConstantsTable(), this.functions,
             this.tac.getSuperglobalsSymbolTable());
+        this.lattice = literalLattice;
         // start value for literal analysis:
         // a lattice element that adds no information to the default lattice element
-        this.startValue = new LiteralLatticeElement();
+        this.startValue = literalLattice.getDefaultElement().createBlank();
         this.initialValue = this.lattice.getBottom();
     }
 
@@ -233,7 +234,7 @@ public class LiteralAnalysis extends AbstractInterproceduralAnalysis {
 
     protected AbstractTransferFunction callBuiltin(AbstractCfgNode cfgNodeX, TacFunction traversedFunction) {
         at.ac.tuwien.infosys.www.pixy.conversion.cfgnodes.CallBuiltinFunction cfgNode = (at.ac.tuwien.infosys.www.pixy.conversion.cfgnodes.CallBuiltinFunction) cfgNodeX;
-        return new CallBuiltinFunction(cfgNode);
+        return new CallBuiltinFunction(cfgNode, this.tac.getFile().getParentFile());
     }
 
     protected AbstractTransferFunction callUnknown(AbstractCfgNode cfgNodeX, TacFunction traversedFunction) {
@@ -367,6 +368,10 @@ public class LiteralAnalysis extends AbstractInterproceduralAnalysis {
         return this.repos.recycle(recycleMe);
     }
 
+    public String getRepositoryStatistics() {
+        return this.repos.getStatistics();
+    }
+
 //  clean **************************************************************************
 
     // performs post-analysis cleanup operations to save memory
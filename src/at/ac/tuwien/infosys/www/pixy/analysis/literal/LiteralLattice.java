@@ -13,10 +13,17 @@ import java.util.List;
  * @author Nenad Jovanovic <enji@seclab.tuwien.ac.at>
  */
 public class LiteralLattice extends AbstractLattice {
+    // the default lattice element of this lattice (see LiteralLatticeElement)
+    private final LiteralLatticeElement defaultElement;
+
     public LiteralLattice(
         List<AbstractTacPlace> places, ConstantsTable constantsTable, List<TacFunction> functions, SymbolTable superSymbolTable
     ) {
-        LiteralLatticeElement.initDefault(places, constantsTable, functions, superSymbolTable);
+        this.defaultElement = new LiteralLatticeElement(places, constantsTable, functions, superSymbolTable);
+    }
+
+    public LiteralLatticeElement getDefaultElement() {
+        return this.defaultElement;
     }
 
     public AbstractLatticeElement lub(
@@ -20,23 +20,33 @@ public class LiteralLatticeElement extends AbstractLatticeElement {
     // work (saves memory)
     private Map<AbstractTacPlace, Literal> origPlaceToLit;
 
-    // the default lattice element; IT MUST NOT BE USED DIRECTLY BY THE ANALYSIS!
+    // the default lattice element of the analysis that this element belongs to
+    // (for the default element itself: the element itself);
+    // IT MUST NOT BE USED DIRECTLY BY THE ANALYSIS!
     // can be seen as "grounding", "fall-back" for normal lattice elements
-    public static LiteralLatticeElement DEFAULT;
+    private final LiteralLatticeElement defaultElement;
 
 //  ********************************************************************************
 //  CONSTRUCTORS *******************************************************************
 //  ********************************************************************************
 
     // creates a lattice element that adds no information to the
-    // default lattice element
-    public LiteralLatticeElement() {
-        this.placeToLit = new HashMap<>();
+    // given default lattice element
+    private LiteralLatticeElement(LiteralLatticeElement defaultElement, Map<AbstractTacPlace, Literal> placeToLit) {
+        this.placeToLit = placeToLit;
+        this.defaultElement = defaultElement;
     }
 
     // clones the given element
     public LiteralLatticeElement(LiteralLatticeElement cloneMe) {
         this.placeToLit = new HashMap<>(cloneMe.getPlaceToLit());
+        this.defaultElement = cloneMe.defaultElement;
+    }
+
+    // returns a lattice element that adds no information to the default
+    // lattice element of this element's analysis
+    public LiteralLatticeElement createBlank() {
+        return new LiteralLatticeElement(this.defaultElement, new HashMap<AbstractTacPlace, Literal>());
     }
 
     public AbstractLatticeElement cloneMe() {
@@ -44,7 +54,7 @@ public class LiteralLatticeElement extends AbstractLatticeElement {
         return new LiteralLatticeElement(this);
     }
 
-    // constructor for default element (to be called by "initDefault"):
+    // constructor for default element (to be called by the lattice):
     // literal mappings:
     // - main function variables and superglobals (not including function return
     //   variables): top
@@ -55,12 +65,14 @@ public class LiteralLatticeElement extends AbstractLatticeElement {
     // - special constant _TAINTED: top
     // - special constant _UNTAINTED: top
     // - and a few other special constants (see below)
-    private LiteralLatticeElement(
+    LiteralLatticeElement(
         List<AbstractTacPlace> places,
         ConstantsTable constantsTable,
         List<TacFunction> functions,
         SymbolTable superSymbolTable) {
 
+        this.defaultElement = this;
+
         // initialize conservative base mapping for variables & constants: TOP
         this.placeToLit = new HashMap<>();
         for (AbstractTacPlace place : places) {
@@ -114,15 +126,6 @@ public class LiteralLatticeElement extends AbstractLatticeElement {
         }
     }
 
-// initDefault *********************************************************************
-
-    // initializes the default lattice element
-    static void initDefault(
-        List<AbstractTacPlace> places, ConstantsTable constantsTable, List<TacFunction> functions, SymbolTable superSymbolTable
-    ) {
-        LiteralLatticeElement.DEFAULT = new LiteralLatticeElement(places, constantsTable, functions, superSymbolTable);
-    }
-
 //  ********************************************************************************
 //  GET ****************************************************************************
 //  ********************************************************************************
@@ -161,7 +164,7 @@ public class LiteralLatticeElement extends AbstractLatticeElement {
         }
 
         // return the default mapping if there is no non-default one
-        Literal defaultLit = LiteralLatticeElement.getDefaultLiteral(place);
+        Literal defaultLit = this.getDefaultLiteral(place);
         if (defaultLit == null) {
             throw new RuntimeException("SNH: " + place);
         } else {
@@ -171,11 +174,11 @@ public class LiteralLatticeElement extends AbstractLatticeElement {
 
 // getDefaultLiteral ***************************************************************
 
-    private static Literal getDefaultLiteral(AbstractTacPlace place) {
+    private Literal getDefaultLiteral(AbstractTacPlace place) {
         if (place instanceof Literal) {
             throw new RuntimeException("SNH");
         }
-        return LiteralLatticeElement.DEFAULT.getPlaceToLit().get(place);
+        return this.defaultElement.getPlaceToLit().get(place);
     }
 
 // getNonDefaultLiteral ************************************************************
@@ -17,12 +17,17 @@ import java.util.List;
 public class CallBuiltinFunction extends AbstractTransferFunction {
     private at.ac.tuwien.infosys.www.pixy.conversion.cfgnodes.CallBuiltinFunction cfgNode;
 
+    // the directory of the entry file (the working directory of the simulation)
+    private File workingDirectory;
+
 // *********************************************************************************
 // CONSTRUCTORS ********************************************************************
 // *********************************************************************************
 
-    public CallBuiltinFunction(at.ac.tuwien.infosys.www.pixy.conversion.cfgnodes.CallBuiltinFunction cfgNode) {
+    public CallBuiltinFunction(
+        at.ac.tuwien.infosys.www.pixy.conversion.cfgnodes.CallBuiltinFunction cfgNode, File workingDirectory) {
         this.cfgNode = cfgNode;
+        this.workingDirectory = workingDirectory;
     }
 
 // *********************************************************************************
@@ -89,7 +94,7 @@ public class CallBuiltinFunction extends AbstractTransferFunction {
 
         // change working directory
         command.append("chdir('");
-        command.append(MyOptions.entryFile.getParent());
+        command.append(this.workingDirectory.getPath());
         command.append("');");
 
         // use "var_dump" to retrieve information about the output
@@ -79,7 +79,7 @@ public class CallReturn extends AbstractTransferFunction {
         LiteralLatticeElement calleeIn = (LiteralLatticeElement) inX;
 
         // start only with default mappings
-        LiteralLatticeElement outInfo = new LiteralLatticeElement();
+        LiteralLatticeElement outInfo = calleeIn.createBlank();
 
         // contains variables that have been tagged as visited
         Set<Variable> visitedVars = new HashSet<>();
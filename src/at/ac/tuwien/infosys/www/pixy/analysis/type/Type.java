@@ -1,19 +1,22 @@
 package at.ac.tuwien.infosys.www.pixy.analysis.type;
 
 import java.util.Collection;
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * @author Nenad Jovanovic <enji@seclab.tuwien.ac.at>
  */
 public class Type {
-    private static Map<String, Type> classTypes;
+    // class name -> type; shared by all analyses in this process (a type
+    // is nothing but its class name), so it only grows
+    private static final Map<String, Type> classTypes = new ConcurrentHashMap<>();
 
     public static void initTypes(Collection<String> classNames) {
-        classTypes = new HashMap<>();
         for (String className : classNames) {
-            classTypes.put(className, new Type(className));
+            if (!classTypes.containsKey(className)) {
+                classTypes.putIfAbsent(className, new Type(className));
+            }
         }
     }
 
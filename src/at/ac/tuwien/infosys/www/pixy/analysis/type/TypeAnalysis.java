@@ -86,6 +86,10 @@ public class TypeAnalysis extends AbstractInterproceduralAnalysis {
         return this.repos.recycle(recycleMe);
     }
 
+    public String getRepositoryStatistics() {
+        return this.repos.getStatistics();
+    }
+
 //  ********************************************************************************
 //  TRANSFER FUNCTION GENERATORS ***************************************************
 //  ********************************************************************************
@@ -29,8 +29,6 @@
 
 package at.ac.tuwien.infosys.www.pixy.automaton;
 
-import java.io.BufferedReader;
-import java.io.FileReader;
 import java.io.Serializable;
 import java.util.*;
 
@@ -503,7 +501,9 @@ public class Automaton
 
     /**
      * Reduces this automaton.
-     * An automaton is "reduced" by combining overlapping and adjacent edge intervals with same destination.
+     * An automaton is "reduced" by combining overlapping and adjacent edge intervals with same destination
+     * and same taint. If this leaves two transitions with the same interval and destination, they are combined
+     * into one with the least upper bound of their taints.
      */
     public void reduce() {
         if (isSingleton())
@@ -513,32 +513,38 @@ public class Automaton
         for (State s : states) {
             List<Transition> st = s.getSortedTransitions(true);
             s.resetTransitions();
+            Map<Transition, Transition> reduced = new HashMap<>();
             State p = null;
+            Transition.Taint taint = null;
             int min = -1, max = -1;
             for (Transition t : st) {
-                if (p == t.to) {
-                    if (t.min <= max + 1) {
-                        if (t.max > max)
-                            max = t.max;
-                    } else {
-                        if (p != null)
-                            s.transitions.add(new Transition((char) min, (char) max, p));
-                        min = t.min;
+                if (p == t.to && taint == t.taint && t.min <= max + 1) {
+                    if (t.max > max)
                         max = t.max;
-                    }
                 } else {
                     if (p != null)
-                        s.transitions.add(new Transition((char) min, (char) max, p));
+                        addReduced(reduced, new Transition((char) min, (char) max, p, taint));
                     p = t.to;
+                    taint = t.taint;
                     min = t.min;
                     max = t.max;
                 }
             }
             if (p != null)
-                s.transitions.add(new Transition((char) min, (char) max, p));
+                addReduced(reduced, new Transition((char) min, (char) max, p, taint));
+            s.transitions.addAll(reduced.values());
         }
     }
 
+    // adds the given transition to the given map; transitions are equal if their interval and
+    // destination are, so an equal transition that was added before is replaced, and its taint
+    // is joined into the taint of the given one
+    private static void addReduced(Map<Transition, Transition> reduced, Transition t) {
+        Transition previous = reduced.put(t, t);
+        if (previous != null && previous.taint.compareTo(t.taint) > 0)
+            t.taint = previous.taint;
+    }
+
     /**
      * Gets sorted array of all interval start points.
      */
@@ -974,16 +980,16 @@ public class Automaton
     }
 
     /**
-     * Determinizes this automaton.
+     * Determinizes this automaton (on its frozen form, see {@link FrozenAutomaton#determinize()}). A transition of
+     * the result carries the least upper bound of the taints of the transitions it stems from.
      * <p/>
      * Complexity: exponential in number of states.
      */
     public void determinize() {
         if (deterministic || isSingleton())
             return;
-        Set<State> initialset = new HashSet<>();
-        initialset.add(initial);
-        determinize(initialset);
+        initial = new FrozenAutomaton(this).determinize().toAutomaton().initial;
+        deterministic = true;
     }
 
     /**
@@ -1210,168 +1216,11 @@ public class Automaton
     }
 
     /**
-     * Minimize using Hopcroft's algorithm.
+     * Minimize using Hopcroft's algorithm (on the frozen form, see {@link FrozenAutomaton#minimize()}).
      */
     private void minimizeHopcroft() {
-        determinize();
-        Set<Transition> tr = initial.getTransitions();
-        if (tr.size() == 1) {
-            Transition t = tr.iterator().next();
-            if (t.to == initial && t.min == Character.MIN_VALUE && t.max == Character.MAX_VALUE)
-                return;
-        }
-        totalize();
-        // make arrays for numbered states and effective alphabet
-        Set<State> ss = getStates();
-        State[] states = new State[ss.size()];
-        int number = 0;
-        for (State q : ss) {
-            states[number] = q;
-            q.number = number++;
-        }
-        char[] sigma = getStartPoints();
-        // initialize data structures
-        ArrayList<ArrayList<LinkedList<State>>> reverse = new ArrayList<>();
-        for (State state : states) {
-            ArrayList<LinkedList<State>> v = new ArrayList<>();
-            initialize(v, sigma.length);
-            reverse.add(v);
-        }
-        boolean[][] reverse_nonempty = new boolean[states.length][sigma.length];
-        ArrayList<LinkedList<State>> partition = new ArrayList<>();
-        initialize(partition, states.length);
-        int[] block = new int[states.length];
-        StateList[][] active = new StateList[states.length][sigma.length];
-        StateListNode[][] active2 = new StateListNode[states.length][sigma.length];
-        LinkedList<IntPair> pending = new LinkedList<>();
-        boolean[][] pending2 = new boolean[sigma.length][states.length];
-        ArrayList<State> split = new ArrayList<>();
-        boolean[] split2 = new boolean[states.length];
-        ArrayList<Integer> refine = new ArrayList<>();
-        boolean[] refine2 = new boolean[states.length];
-        ArrayList<ArrayList<State>> splitblock = new ArrayList<>();
-        initialize(splitblock, states.length);
-        for (int q = 0; q < states.length; q++) {
-            splitblock.set(q, new ArrayList<State>());
-            partition.set(q, new LinkedList<State>());
-            for (int a = 0; a < sigma.length; a++) {
-                reverse.get(q).set(a, new LinkedList<State>());
-                active[q][a] = new StateList();
-            }
-        }
-        // find initial partition and reverse edges
-        for (State qq : states) {
-            int j;
-            if (qq.accept)
-                j = 0;
-            else
-                j = 1;
-            partition.get(j).add(qq);
-            block[qq.number] = j;
-            for (int a = 0; a < sigma.length; a++) {
-                char aa = sigma[a];
-                State p = qq.step(aa);
-                reverse.get(p.number).get(a).add(qq);
-                reverse_nonempty[p.number][a] = true;
-            }
-        }
-        // initialize active sets
-        for (int j = 0; j <= 1; j++)
-            for (int a = 0; a < sigma.length; a++)
-                for (State qq : partition.get(j))
-                    if (reverse_nonempty[qq.number][a])
-                        active2[qq.number][a] = active[j][a].add(qq);
-        // initialize pending
-        for (int a = 0; a < sigma.length; a++) {
-            int a0 = active[0][a].size;
-            int a1 = active[1][a].size;
-            int j;
-            if (a0 <= a1)
-                j = 0;
-            else
-                j = 1;
-            pending.add(new IntPair(j, a));
-            pending2[a][j] = true;
-        }
-        // process pending until fixed point
-        int k = 2;
-        while (!pending.isEmpty()) {
-            IntPair ip = pending.removeFirst();
-            int p = ip.n1;
-            int a = ip.n2;
-            pending2[a][p] = false;
-            // find states that need to be split off their blocks
-            for (StateListNode m = active[p][a].first; m != null; m = m.next)
-                for (State s : reverse.get(m.q.number).get(a))
-                    if (!split2[s.number]) {
-                        split2[s.number] = true;
-                        split.add(s);
-                        int j = block[s.number];
-                        splitblock.get(j).add(s);
-                        if (!refine2[j]) {
-                            refine2[j] = true;
-                            refine.add(j);
-                        }
-                    }
-            // refine blocks
-            for (int j : refine) {
-                if (splitblock.get(j).size() < partition.get(j).size()) {
-                    LinkedList<State> b1 = partition.get(j);
-                    LinkedList<State> b2 = partition.get(k);
-                    for (State s : splitblock.get(j)) {
-                        b1.remove(s);
-                        b2.add(s);
-                        block[s.number] = k;
-                        for (int c = 0; c < sigma.length; c++) {
-                            StateListNode sn = active2[s.number][c];
-                            if (sn != null && sn.sl == active[j][c]) {
-                                sn.remove();
-                                active2[s.number][c] = active[k][c].add(s);
-                            }
-                        }
-                    }
-                    // update pending
-                    for (int c = 0; c < sigma.length; c++) {
-                        int aj = active[j][c].size;
-                        int ak = active[k][c].size;
-                        if (!pending2[c][j] && 0 < aj && aj <= ak) {
-                            pending2[c][j] = true;
-                            pending.add(new IntPair(j, c));
-                        } else {
-                            pending2[c][k] = true;
-                            pending.add(new IntPair(k, c));
-                        }
-                    }
-                    k++;
-                }
-                for (State s : splitblock.get(j))
-                    split2[s.number] = false;
-                refine2[j] = false;
-                splitblock.get(j).clear();
-            }
-            split.clear();
-            refine.clear();
-        }
-        // make a new state for each equivalence class, set initial state
-        State[] newstates = new State[k];
-        for (int n = 0; n < newstates.length; n++) {
-            State s = new State();
-            newstates[n] = s;
-            for (State q : partition.get(n)) {
-                if (q == initial)
-                    initial = s;
-                s.accept = q.accept;
-                s.number = q.number; // select representative
-                q.number = n;
-            }
-        }
-        // build transitions and set acceptance
-        for (State s : newstates) {
-            s.accept = states[s.number].accept;
-            for (Transition t : states[s.number].transitions)
-                s.transitions.add(new Transition(t.min, t.max, newstates[t.to.number]));
-        }
-        removeDeadTransitions();
+        initial = new FrozenAutomaton(this).minimize().toAutomaton().initial;
+        deterministic = true;
     }
 
     /**
@@ -1539,11 +1388,29 @@ public class Automaton
      * language. If the language is not finite, null is returned.
      */
     public Set<String> getFiniteStrings() {
+        return getFiniteStrings(-1);
+    }
+
+    /**
+     * Returns set of accepted strings, assuming that at most <code>limit</code>
+     * strings are accepted. If more than <code>limit</code> strings are
+     * accepted, null is returned. If <code>limit</code>&lt;0, then this
+     * methods works like {@link #getFiniteStrings()}.
+     */
+    public Set<String> getFiniteStrings(int limit) {
         HashSet<String> strings = new HashSet<>();
-        if (isSingleton())
-            strings.add(singleton);
-        else if (!getFiniteStrings(initial, new HashSet<State>(), strings, new StringBuilder(), -1))
-            return null;
+        if (isSingleton()) {
+            if (limit != 0)
+                strings.add(singleton);
+            else
+                return null;
+        } else {
+            if (initial.accept)
+                strings.add("");
+            if ((limit >= 0 && strings.size() > limit) ||
+                !getFiniteStrings(initial, new HashSet<State>(), strings, new StringBuilder(), limit))
+                return null;
+        }
         return strings;
     }
 
@@ -1769,103 +1636,6 @@ public class Automaton
         return b.append("}\n").toString();
     }
 
-    // returns the textual input representation used by fsmtools (AT&T)
-    public String toFsmTools() {
-
-        StringBuilder b = new StringBuilder();
-        Set<State> states = getStates();
-        setStateNumbers(states);
-        states.remove(this.initial);
-        List<State> stateList = new LinkedList<>(states);
-        stateList.add(0, this.initial);     // we want to print the initial state first
-        Set<State> acceptStates = new HashSet<>();
-        for (State s : stateList) {
-            if (s.accept) {
-                acceptStates.add(s);
-            }
-            for (Transition t : s.transitions) {
-                if (t.min != t.max) {
-                    throw new RuntimeException("not supported yet");
-                }
-                b.append(s.number).append(" ").append(t.to.number);
-                StringBuilder temp = new StringBuilder();
-                Transition.appendCharString(t.min, temp);
-                b.append(" ").append(temp.toString()).append("\n");
-            }
-        }
-        for (State s : acceptStates) {
-            b.append(s.number).append("\n");
-        }
-
-        return b.toString();
-    }
-
-    // constructs an Automaton from the given fsmtools file (textual representation)
-    public static Automaton fromFsmTools(String filename) {
-
-        Automaton retMe = new Automaton();
-        try {
-
-            BufferedReader reader = new BufferedReader(new FileReader(filename));
-            String line;
-
-            Map<String, State> string2State = new HashMap<>();
-            State initial = null;
-
-            Set<String> acceptStates = new HashSet<>();
-
-            while ((line = reader.readLine()) != null) {
-
-                StringTokenizer tokenizer = new StringTokenizer(line);
-                if (tokenizer.countTokens() == 3) {
-                    String sourceString = tokenizer.nextToken();
-                    String destString = tokenizer.nextToken();
-                    String transString = tokenizer.nextToken();
-
-                    State sourceState = string2State.get(sourceString);
-                    if (sourceState == null) {
-                        sourceState = new State();
-                        string2State.put(sourceString, sourceState);
-                    }
-
-                    State destState = string2State.get(destString);
-                    if (destState == null) {
-                        destState = new State();
-                        string2State.put(destString, destState);
-                    }
-
-                    char transChar = Transition.reverseCharString(transString);
-
-                    sourceState.addTransition(new Transition(transChar, destState));
-
-                    if (initial == null) {
-                        initial = sourceState;
-                        retMe.initial = initial;
-                    }
-                } else if (tokenizer.countTokens() == 1) {
-
-                    // collect accept states
-                    String accept = tokenizer.nextToken();
-                    acceptStates.add(accept);
-                }
-            }
-
-            // set accept flag for accept states
-            for (String acceptString : acceptStates) {
-                State acceptState = string2State.get(acceptString);
-                if (acceptState == null) {
-                    throw new RuntimeException("SNH");
-                }
-                acceptState.accept = true;
-            }
-        } catch (Exception e) {
-            e.printStackTrace();
-            throw new RuntimeException();
-        }
-
-        return retMe;
-    }
-
     /**
      * Returns a clone of this automaton, expands if singleton.
      */
@@ -1914,50 +1684,6 @@ class IntPair {
     }
 }
 
-class StateList {
-
-    int size;
-
-    StateListNode first, last;
-
-    StateListNode add(State q) {
-        return new StateListNode(q, this);
-    }
-}
-
-class StateListNode {
-
-    State q;
-
-    StateListNode next, prev;
-
-    StateList sl;
-
-    StateListNode(State q, StateList sl) {
-        this.q = q;
-        this.sl = sl;
-        if (sl.size++ == 0)
-            sl.first = sl.last = this;
-        else {
-            sl.last.next = this;
-            prev = sl.last;
-            sl.last = this;
-        }
-    }
-
-    void remove() {
-        sl.size--;
-        if (sl.first == this)
-            sl.first = next;
-        else
-            prev.next = next;
-        if (sl.last == this)
-            sl.last = prev;
-        else
-            next.prev = prev;
-    }
-}
-
 class ShuffleConfiguration {
 
     ShuffleConfiguration prev;
@@ -0,0 +1,661 @@
+package at.ac.tuwien.infosys.www.pixy.automaton;
+
+import java.util.*;
+
+/**
+ * Frozen, array-based form of an {@link Automaton}.
+ * <p/>
+ * States are numbered in breadth-first order, starting with 0 for the initial state. The transitions are stored in
+ * compressed sparse row form: the transitions of state <code>s</code> are those from <code>offsets[s]</code>
+ * (inclusive) to <code>offsets[s + 1]</code> (exclusive), sorted by their character intervals, and each of them keeps
+ * its taint. Frozen automata are immutable; determinization and minimization return new frozen automata.
+ * <p/>
+ * Used for the operations that traverse whole automata many times: determinization (subset construction with bit
+ * sets as keys), minimization (Hopcroft-style partition refinement, following Valmari's algorithm for partial
+ * automata), and the taint checks of the SQL analysis.
+ */
+public final class FrozenAutomaton {
+    private static final Transition.Taint[] TAINTS = Transition.Taint.values();
+
+    private final boolean[] accept;
+    private final int[] offsets;
+    private final char[] mins;
+    private final char[] maxs;
+    private final int[] dests;
+
+    // ordinals of the transitions' taints
+    private final byte[] taints;
+
+    private final boolean deterministic;
+
+//  ********************************************************************************
+//  CONSTRUCTORS *******************************************************************
+//  ********************************************************************************
+
+    /**
+     * Freezes the states of the given automaton that are reachable from its initial state.
+     *
+     * @param automaton the automaton to freeze (remains unchanged)
+     */
+    public FrozenAutomaton(Automaton automaton) {
+        Automaton a = automaton.isSingleton() ? automaton.cloneExpanded() : automaton;
+
+        // number the states in breadth-first order
+        Map<State, Integer> numbers = new HashMap<>();
+        List<State> states = new ArrayList<>();
+        numbers.put(a.initial, 0);
+        states.add(a.initial);
+        int transitionCount = 0;
+        for (int i = 0; i < states.size(); i++) {
+            for (Transition t : states.get(i).transitions) {
+                if (!numbers.containsKey(t.to)) {
+                    numbers.put(t.to, states.size());
+                    states.add(t.to);
+                }
+                transitionCount++;
+            }
+        }
+
+        this.accept = new boolean[states.size()];
+        this.offsets = new int[states.size() + 1];
+        this.mins = new char[transitionCount];
+        this.maxs = new char[transitionCount];
+        this.dests = new int[transitionCount];
+        this.taints = new byte[transitionCount];
+        int k = 0;
+        for (int i = 0; i < states.size(); i++) {
+            State state = states.get(i);
+            this.accept[i] = state.accept;
+            this.offsets[i] = k;
+            for (Transition t : state.getSortedTransitionArray(false)) {
+                this.mins[k] = t.min;
+                this.maxs[k] = t.max;
+                this.dests[k] = numbers.get(t.to);
+                this.taints[k] = (byte) t.taint.ordinal();
+                k++;
+            }
+        }
+        this.offsets[states.size()] = k;
+        this.deterministic = a.deterministic;
+    }
+
+    private FrozenAutomaton(boolean[] accept, int[] offsets, char[] mins, char[] maxs, int[] dests, byte[] taints,
+                            boolean deterministic) {
+        this.accept = accept;
+        this.offsets = offsets;
+        this.mins = mins;
+        this.maxs = maxs;
+        this.dests = dests;
+        this.taints = taints;
+        this.deterministic = deterministic;
+    }
+
+//  ********************************************************************************
+//  GET ****************************************************************************
+//  ********************************************************************************
+
+    public int getNumberOfStates() {
+        return this.accept.length;
+    }
+
+    public int getNumberOfTransitions() {
+        return this.dests.length;
+    }
+
+    public boolean isDeterministic() {
+        return this.deterministic;
+    }
+
+    /**
+     * Returns a new (modifiable) automaton with the same states and transitions.
+     */
+    public Automaton toAutomaton() {
+        State[] states = new State[this.accept.length];
+        for (int s = 0; s < states.length; s++) {
+            states[s] = new State();
+            states[s].accept = this.accept[s];
+        }
+        for (int s = 0; s < states.length; s++) {
+            for (int k = this.offsets[s]; k < this.offsets[s + 1]; k++) {
+                states[s].transitions.add(
+                    new Transition(this.mins[k], this.maxs[k], states[this.dests[k]], TAINTS[this.taints[k]]));
+            }
+        }
+        Automaton a = new Automaton();
+        a.initial = states[0];
+        a.deterministic = this.deterministic;
+        return a;
+    }
+
+//  ********************************************************************************
+//  TAINT **************************************************************************
+//  ********************************************************************************
+
+    // see Automaton.hasDirectlyTaintedTransitions()
+    public boolean hasDirectlyTaintedTransitions() {
+        return this.hasTransitionsWith(Transition.Taint.Directly);
+    }
+
+    // see Automaton.hasIndirectlyTaintedTransitions()
+    public boolean hasIndirectlyTaintedTransitions() {
+        return this.hasTransitionsWith(Transition.Taint.Indirectly);
+    }
+
+    private boolean hasTransitionsWith(Transition.Taint taint) {
+        for (byte t : this.taints) {
+            if (t == taint.ordinal()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // see Automaton.hasDangerousIndirectTaint(): true if there is an indirectly
+    // tainted transition that starts outside of quotes
+    public boolean hasDangerousIndirectTaint() {
+        final byte unvisited = -1;
+        final byte open = 0;
+        final byte closed = 1;
+
+        int n = this.accept.length;
+        byte[] info = new byte[n];
+        Arrays.fill(info, unvisited);
+        info[0] = closed;
+
+        // the information of a state can only change twice, so each state
+        // is added at most twice
+        int[] worklist = new int[2 * n];
+        int head = 0;
+        int tail = 0;
+        worklist[tail++] = 0;
+        while (head < tail) {
+            int source = worklist[head++];
+            for (int k = this.offsets[source]; k < this.offsets[source + 1]; k++) {
+                byte propagate = info[source];
+                if (this.mins[k] == '"' || this.mins[k] == '\'') {
+                    propagate = propagate == open ? closed : open;
+                }
+                int target = this.dests[k];
+                if (info[target] == unvisited) {
+                    info[target] = propagate;
+                    worklist[tail++] = target;
+                } else if (propagate == closed && info[target] == open) {
+                    info[target] = closed;
+                    worklist[tail++] = target;
+                }
+            }
+        }
+
+        for (int s = 0; s < n; s++) {
+            if (info[s] != closed) {
+                continue;
+            }
+            for (int k = this.offsets[s]; k < this.offsets[s + 1]; k++) {
+                if (this.taints[k] == Transition.Taint.Indirectly.ordinal()) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+//  ********************************************************************************
+//  DETERMINIZE ********************************************************************
+//  ********************************************************************************
+
+    /**
+     * Returns an equivalent deterministic automaton without dead states. A transition of the result carries the
+     * least upper bound of the taints of the transitions it stems from.
+     */
+    public FrozenAutomaton determinize() {
+        if (this.deterministic) {
+            return this.trim();
+        }
+
+        char[] points = this.getStartPoints();
+        int[] first = new int[this.dests.length];
+        int[] past = new int[this.dests.length];
+        this.locateIntervals(points, first, past);
+
+        Map<BitSet, Integer> numbers = new HashMap<>();
+        List<BitSet> sets = new ArrayList<>();
+        BitSet initialSet = new BitSet();
+        initialSet.set(0);
+        numbers.put(initialSet, 0);
+        sets.add(initialSet);
+
+        BitSet[] targets = new BitSet[points.length];
+        byte[] targetTaints = new byte[points.length];
+        BitSet touched = new BitSet(points.length);
+        Builder builder = new Builder();
+        for (int i = 0; i < sets.size(); i++) {
+            BitSet set = sets.get(i);
+            boolean isAccept = false;
+            for (int q = set.nextSetBit(0); q >= 0; q = set.nextSetBit(q + 1)) {
+                isAccept |= this.accept[q];
+                for (int k = this.offsets[q]; k < this.offsets[q + 1]; k++) {
+                    for (int interval = first[k]; interval < past[k]; interval++) {
+                        if (!touched.get(interval)) {
+                            touched.set(interval);
+                            targets[interval] = new BitSet();
+                            targetTaints[interval] = 0;
+                        }
+                        targets[interval].set(this.dests[k]);
+                        targetTaints[interval] = (byte) Math.max(targetTaints[interval], this.taints[k]);
+                    }
+                }
+            }
+
+            builder.addState(isAccept);
+            for (int interval = touched.nextSetBit(0); interval >= 0; interval = touched.nextSetBit(interval + 1)) {
+                Integer target = numbers.get(targets[interval]);
+                if (target == null) {
+                    target = sets.size();
+                    numbers.put(targets[interval], target);
+                    sets.add(targets[interval]);
+                }
+                builder.addTransition(points[interval], intervalMax(points, interval), target, targetTaints[interval]);
+                targets[interval] = null;
+            }
+            touched.clear();
+        }
+
+        return builder.build(true).trim();
+    }
+
+//  ********************************************************************************
+//  MINIMIZE ***********************************************************************
+//  ********************************************************************************
+
+    /**
+     * Returns an equivalent minimal deterministic automaton (determinizing first if necessary). Transitions with
+     * different taints are treated like transitions with different characters, so the taints are preserved exactly.
+     */
+    public FrozenAutomaton minimize() {
+        FrozenAutomaton d = this.determinize();
+        int n = d.accept.length;
+
+        // split the transitions at the start points of all intervals, so that
+        // two (split) transitions have the same label iff they have the same
+        // interval and the same taint
+        char[] points = d.getStartPoints();
+        int[] first = new int[d.dests.length];
+        int[] past = new int[d.dests.length];
+        d.locateIntervals(points, first, past);
+        int m = 0;
+        for (int k = 0; k < d.dests.length; k++) {
+            m += past[k] - first[k];
+        }
+        int[] tails = new int[m];
+        int[] heads = new int[m];
+        int[] labels = new int[m];
+        int labelCount = points.length * TAINTS.length;
+        int t = 0;
+        for (int s = 0; s < n; s++) {
+            for (int k = d.offsets[s]; k < d.offsets[s + 1]; k++) {
+                for (int interval = first[k]; interval < past[k]; interval++) {
+                    tails[t] = s;
+                    heads[t] = d.dests[k];
+                    labels[t] = interval * TAINTS.length + d.taints[k];
+                    t++;
+                }
+            }
+        }
+
+        // blocks of states, initially split into accepting and other states
+        Partition blocks = new Partition(n);
+        for (int s = 0; s < n; s++) {
+            if (d.accept[s]) {
+                blocks.mark(s);
+            }
+        }
+        blocks.split();
+
+        // cords of transitions, initially split by label
+        Partition cords = new Partition(m);
+        cords.initSorted(labels, labelCount);
+
+        // incoming transitions of each state
+        int[] incomingOffsets = new int[n + 1];
+        for (int i = 0; i < m; i++) {
+            incomingOffsets[heads[i] + 1]++;
+        }
+        for (int s = 0; s < n; s++) {
+            incomingOffsets[s + 1] += incomingOffsets[s];
+        }
+        int[] incoming = new int[m];
+        int[] fill = Arrays.copyOf(incomingOffsets, n);
+        for (int i = 0; i < m; i++) {
+            incoming[fill[heads[i]]++] = i;
+        }
+
+        // refine until the blocks are compatible with the cords and vice versa
+        int b = 1;
+        int c = 0;
+        while (c < cords.count) {
+            for (int i = cords.first[c]; i < cords.past[c]; i++) {
+                blocks.mark(tails[cords.elements[i]]);
+            }
+            blocks.split();
+            c++;
+            while (b < blocks.count) {
+                for (int i = blocks.first[b]; i < blocks.past[b]; i++) {
+                    int s = blocks.elements[i];
+                    for (int j = incomingOffsets[s]; j < incomingOffsets[s + 1]; j++) {
+                        cords.mark(incoming[j]);
+                    }
+                }
+                cords.split();
+                b++;
+            }
+        }
+
+        // one state per block, numbered in breadth-first order; the transitions
+        // are taken from a representative of each block
+        int[] numbers = new int[blocks.count];
+        Arrays.fill(numbers, -1);
+        int[] order = new int[blocks.count];
+        int count = 0;
+        numbers[blocks.sets[0]] = count;
+        order[count++] = blocks.sets[0];
+        Builder builder = new Builder();
+        for (int i = 0; i < count; i++) {
+            int representative = blocks.elements[blocks.first[order[i]]];
+            builder.addState(d.accept[representative]);
+            for (int k = d.offsets[representative]; k < d.offsets[representative + 1]; k++) {
+                int block = blocks.sets[d.dests[k]];
+                if (numbers[block] < 0) {
+                    numbers[block] = count;
+                    order[count++] = block;
+                }
+                builder.addTransition(d.mins[k], d.maxs[k], numbers[block], d.taints[k]);
+            }
+        }
+        return builder.build(true);
+    }
+
+//  ********************************************************************************
+//  HELPERS ************************************************************************
+//  ********************************************************************************
+
+    // returns an equivalent automaton that only contains the states from which
+    // an accepting state can be reached (and the initial state)
+    private FrozenAutomaton trim() {
+        int n = this.accept.length;
+
+        // predecessors of each state
+        int[] predecessorOffsets = new int[n + 1];
+        for (int dest : this.dests) {
+            predecessorOffsets[dest + 1]++;
+        }
+        for (int s = 0; s < n; s++) {
+            predecessorOffsets[s + 1] += predecessorOffsets[s];
+        }
+        int[] predecessors = new int[this.dests.length];
+        int[] fill = Arrays.copyOf(predecessorOffsets, n);
+        for (int s = 0; s < n; s++) {
+            for (int k = this.offsets[s]; k < this.offsets[s + 1]; k++) {
+                predecessors[fill[this.dests[k]]++] = s;
+            }
+        }
+
+        // backward search from the accepting states
+        boolean[] live = new boolean[n];
+        int[] worklist = new int[n];
+        int tail = 0;
+        for (int s = 0; s < n; s++) {
+            if (this.accept[s]) {
+                live[s] = true;
+                worklist[tail++] = s;
+            }
+        }
+        for (int head = 0; head < tail; head++) {
+            int s = worklist[head];
+            for (int j = predecessorOffsets[s]; j < predecessorOffsets[s + 1]; j++) {
+                if (!live[predecessors[j]]) {
+                    live[predecessors[j]] = true;
+                    worklist[tail++] = predecessors[j];
+                }
+            }
+        }
+        if (tail == n) {
+            return this;
+        }
+
+        // forward search from the initial state, renumbering the states
+        int[] numbers = new int[n];
+        Arrays.fill(numbers, -1);
+        int[] order = new int[n];
+        int count = 0;
+        numbers[0] = count;
+        order[count++] = 0;
+        Builder builder = new Builder();
+        for (int i = 0; i < count; i++) {
+            int s = order[i];
+            builder.addState(this.accept[s]);
+            for (int k = this.offsets[s]; k < this.offsets[s + 1]; k++) {
+                int dest = this.dests[k];
+                if (!live[dest]) {
+                    continue;
+                }
+                if (numbers[dest] < 0) {
+                    numbers[dest] = count;
+                    order[count++] = dest;
+                }
+                builder.addTransition(this.mins[k], this.maxs[k], numbers[dest], this.taints[k]);
+            }
+        }
+        return builder.build(this.deterministic);
+    }
+
+    // returns the sorted start points of the maximal intervals in which all
+    // characters behave the same in all transitions
+    private char[] getStartPoints() {
+        int[] points = new int[2 * this.dests.length];
+        int count = 0;
+        for (int k = 0; k < this.dests.length; k++) {
+            points[count++] = this.mins[k];
+            if (this.maxs[k] < Character.MAX_VALUE) {
+                points[count++] = this.maxs[k] + 1;
+            }
+        }
+        Arrays.sort(points, 0, count);
+        char[] retMe = new char[count];
+        int distinct = 0;
+        for (int i = 0; i < count; i++) {
+            if (distinct == 0 || retMe[distinct - 1] != points[i]) {
+                retMe[distinct++] = (char) points[i];
+            }
+        }
+        return Arrays.copyOf(retMe, distinct);
+    }
+
+    // computes the range of intervals (given by their start points) that each
+    // transition covers: from first[k] (inclusive) to past[k] (exclusive)
+    private void locateIntervals(char[] points, int[] first, int[] past) {
+        for (int k = 0; k < this.dests.length; k++) {
+            first[k] = Arrays.binarySearch(points, this.mins[k]);
+            if (this.maxs[k] == Character.MAX_VALUE) {
+                past[k] = points.length;
+            } else {
+                past[k] = Arrays.binarySearch(points, (char) (this.maxs[k] + 1));
+            }
+        }
+    }
+
+    private static char intervalMax(char[] points, int interval) {
+        if (interval + 1 < points.length) {
+            return (char) (points[interval + 1] - 1);
+        }
+        return Character.MAX_VALUE;
+    }
+
+//  ********************************************************************************
+
+    // collects the states (in the order of their numbers) and transitions of a
+    // new frozen automaton; the transitions of each state have to be added in
+    // ascending order, adjacent intervals with the same target and taint are merged
+    private static final class Builder {
+        private boolean[] accept = new boolean[16];
+        private int[] offsets = new int[17];
+        private char[] mins = new char[16];
+        private char[] maxs = new char[16];
+        private int[] dests = new int[16];
+        private byte[] taints = new byte[16];
+        private int stateCount = 0;
+        private int transitionCount = 0;
+
+        void addState(boolean isAccept) {
+            if (this.stateCount == this.accept.length) {
+                this.accept = Arrays.copyOf(this.accept, 2 * this.stateCount);
+                this.offsets = Arrays.copyOf(this.offsets, 2 * this.stateCount + 1);
+            }
+            this.accept[this.stateCount] = isAccept;
+            this.offsets[this.stateCount] = this.transitionCount;
+            this.stateCount++;
+        }
+
+        void addTransition(char min, char max, int dest, byte taint) {
+            int last = this.transitionCount - 1;
+            if (last >= this.offsets[this.stateCount - 1] && this.dests[last] == dest &&
+                this.taints[last] == taint && this.maxs[last] + 1 == min) {
+                this.maxs[last] = max;
+                return;
+            }
+            if (this.transitionCount == this.dests.length) {
+                int capacity = 2 * this.transitionCount;
+                this.mins = Arrays.copyOf(this.mins, capacity);
+                this.maxs = Arrays.copyOf(this.maxs, capacity);
+                this.dests = Arrays.copyOf(this.dests, capacity);
+                this.taints = Arrays.copyOf(this.taints, capacity);
+            }
+            this.mins[this.transitionCount] = min;
+            this.maxs[this.transitionCount] = max;
+            this.dests[this.transitionCount] = dest;
+            this.taints[this.transitionCount] = taint;
+            this.transitionCount++;
+        }
+
+        FrozenAutomaton build(boolean deterministic) {
+            this.offsets[this.stateCount] = this.transitionCount;
+            return new FrozenAutomaton(
+                Arrays.copyOf(this.accept, this.stateCount),
+                Arrays.copyOf(this.offsets, this.stateCount + 1),
+                Arrays.copyOf(this.mins, this.transitionCount),
+                Arrays.copyOf(this.maxs, this.transitionCount),
+                Arrays.copyOf(this.dests, this.transitionCount),
+                Arrays.copyOf(this.taints, this.transitionCount),
+                deterministic);
+        }
+    }
+
+//  ********************************************************************************
+
+    // refinable partition of the integers 0..size-1: the elements of set s are
+    // elements[first[s]..past[s]), and the marked ones come first
+    private static final class Partition {
+        int count;
+        final int[] elements;
+        final int[] locations;
+        final int[] sets;
+        final int[] first;
+        final int[] past;
+        private final int[] marked;
+        private final int[] touched;
+        private int touchedCount;
+
+        Partition(int size) {
+            this.elements = new int[size];
+            this.locations = new int[size];
+            this.sets = new int[size];
+            this.first = new int[size];
+            this.past = new int[size];
+            this.marked = new int[size];
+            this.touched = new int[size];
+            for (int e = 0; e < size; e++) {
+                this.elements[e] = e;
+                this.locations[e] = e;
+            }
+            if (size > 0) {
+                this.count = 1;
+                this.past[0] = size;
+            }
+        }
+
+        // replaces the initial partition by one set per key (in ascending
+        // order of keys, empty sets are skipped)
+        void initSorted(int[] keys, int keyCount) {
+            if (this.elements.length == 0) {
+                return;
+            }
+            int[] keyOffsets = new int[keyCount + 1];
+            for (int key : keys) {
+                keyOffsets[key + 1]++;
+            }
+            for (int key = 0; key < keyCount; key++) {
+                keyOffsets[key + 1] += keyOffsets[key];
+            }
+            int[] fill = Arrays.copyOf(keyOffsets, keyCount);
+            for (int e = 0; e < keys.length; e++) {
+                int location = fill[keys[e]]++;
+                this.elements[location] = e;
+                this.locations[e] = location;
+            }
+            this.count = 0;
+            for (int key = 0; key < keyCount; key++) {
+                if (keyOffsets[key] == keyOffsets[key + 1]) {
+                    continue;
+                }
+                this.first[this.count] = keyOffsets[key];
+                this.past[this.count] = keyOffsets[key + 1];
+                for (int i = keyOffsets[key]; i < keyOffsets[key + 1]; i++) {
+                    this.sets[this.elements[i]] = this.count;
+                }
+                this.count++;
+            }
+        }
+
+        // marks the given element (which must not be marked yet)
+        void mark(int e) {
+            int s = this.sets[e];
+            int i = this.locations[e];
+            int j = this.first[s] + this.marked[s];
+            this.elements[i] = this.elements[j];
+            this.locations[this.elements[i]] = i;
+            this.elements[j] = e;
+            this.locations[e] = j;
+            if (this.marked[s]++ == 0) {
+                this.touched[this.touchedCount++] = s;
+            }
+        }
+
+        // splits each set with marked elements into its marked and its unmarked
+        // elements (unless all of them are marked); the smaller part becomes the
+        // new set, and all marks are removed
+        void split() {
+            while (this.touchedCount > 0) {
+                int s = this.touched[--this.touchedCount];
+                int j = this.first[s] + this.marked[s];
+                if (j == this.past[s]) {
+                    this.marked[s] = 0;
+                    continue;
+                }
+                if (this.marked[s] <= this.past[s] - j) {
+                    this.first[this.count] = this.first[s];
+                    this.past[this.count] = j;
+                    this.first[s] = j;
+                } else {
+                    this.past[this.count] = this.past[s];
+                    this.first[this.count] = j;
+                    this.past[s] = j;
+                }
+                for (int i = this.first[this.count]; i < this.past[this.count]; i++) {
+                    this.sets[this.elements[i]] = this.count;
+                }
+                this.marked[s] = 0;
+                this.marked[this.count] = 0;
+                this.count++;
+            }
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,375 @@
+package at.ac.tuwien.infosys.www.pixy.automaton;
+
+import java.util.*;
+
+/**
+ * Replacement operations on automata.
+ * <p/>
+ * Each operation returns an automaton for the image of the subject language under a replacement (as performed by
+ * PHP's str_replace and preg_replace). The image is computed in memory as the product of the subject automaton with
+ * the (implicit) replacement transducer; characters that are copied from the subject keep the taint of the subject
+ * transition they stem from, while inserted replacements keep the taint of the replacement automaton.
+ */
+public final class ReplaceOperations {
+    private ReplaceOperations() {
+    }
+
+    /**
+     * Replaces all occurrences of the given search string (leftmost first, non-overlapping, just like PHP's
+     * str_replace) by the strings of the given replacement automaton.
+     *
+     * @param subject     the automaton whose strings are transformed
+     * @param search      the (non-empty) string that is to be replaced
+     * @param replacement the automaton providing the replacement strings
+     *
+     * @return the resulting automaton
+     */
+    public static Automaton replace(Automaton subject, String search, Automaton replacement) {
+        if (search.isEmpty()) {
+            // PHP leaves the subject untouched in this case
+            return subject.clone();
+        }
+
+        char[] searchChars = search.toCharArray();
+        int[] failure = computeFailure(searchChars);
+
+        // the distinct characters of the search string, in ascending order
+        SortedSet<Character> pointSet = new TreeSet<>();
+        for (char c : searchChars) {
+            pointSet.add(c);
+        }
+
+        Automaton s = subject.cloneExpanded();
+        Automaton r = replacement.cloneExpanded();
+
+        Automaton result = new Automaton();
+        Set<StatePair> epsilons = new HashSet<>();
+        Map<State, State> replacementEntries = new HashMap<>();
+        Map<Configuration, State> newStates = new HashMap<>();
+        LinkedList<Configuration> worklist = new LinkedList<>();
+
+        Configuration start = new Configuration(s.initial, 0, Transition.Taint.Untainted);
+        result.initial = new State();
+        newStates.put(start, result.initial);
+        worklist.add(start);
+
+        while (!worklist.isEmpty()) {
+            Configuration conf = worklist.removeFirst();
+            State from = newStates.get(conf);
+
+            // the characters that have been matched so far, but not emitted yet
+            String buffered = search.substring(0, conf.matched);
+
+            if (conf.state.accept) {
+                // flush the buffer at the end of the input
+                chain(from, buffered, conf.taint).accept = true;
+            }
+
+            for (Transition t : conf.state.transitions) {
+                int lo = t.min;
+                for (char c : pointSet) {
+                    if (c < t.min || c > t.max) {
+                        continue;
+                    }
+                    if (lo < c) {
+                        State to = getState(new Configuration(t.to, 0, Transition.Taint.Untainted), newStates, worklist);
+                        chain(from, buffered, conf.taint).transitions.add(new Transition((char) lo, (char) (c - 1), to, t.taint));
+                    }
+                    lo = c + 1;
+
+                    Transition.Taint joined = lub(conf.taint, t.taint);
+                    if (searchChars[conf.matched] == c) {
+                        if (conf.matched + 1 == searchChars.length) {
+                            // complete match: emit the replacement
+                            State to = getState(new Configuration(t.to, 0, Transition.Taint.Untainted), newStates, worklist);
+                            epsilons.add(new StatePair(from, getReplacementEntry(r, to, replacementEntries, epsilons)));
+                        } else {
+                            // partial match: continue buffering
+                            State to = getState(new Configuration(t.to, conf.matched + 1, joined), newStates, worklist);
+                            epsilons.add(new StatePair(from, to));
+                        }
+                    } else {
+                        // mismatch: emit the part of the buffer that can no longer be part of a match
+                        int keep = fallBack(searchChars, failure, conf.matched, c);
+                        if (keep == 0) {
+                            State to = getState(new Configuration(t.to, 0, Transition.Taint.Untainted), newStates, worklist);
+                            chain(from, buffered, conf.taint).transitions.add(new Transition(c, to, t.taint));
+                        } else {
+                            State to = getState(new Configuration(t.to, keep, joined), newStates, worklist);
+                            emit(from, search.substring(0, conf.matched + 1 - keep), conf.taint, to, epsilons);
+                        }
+                    }
+                }
+                if (lo <= t.max) {
+                    State to = getState(new Configuration(t.to, 0, Transition.Taint.Untainted), newStates, worklist);
+                    chain(from, buffered, conf.taint).transitions.add(new Transition((char) lo, t.max, to, t.taint));
+                }
+            }
+        }
+
+        return finish(result, epsilons);
+    }
+
+    /**
+     * Replaces all matches of the given pattern automaton by the strings of the given replacement automaton.
+     * <p/>
+     * Supported patterns are single strings, character classes (such as <code>[^a-z]</code>) and repeated character
+     * classes (such as <code>[^a-z]+</code>), where the latter are replaced greedily (i.e., each maximal run of
+     * matching characters is replaced once).
+     *
+     * @param subject     the automaton whose strings are transformed
+     * @param pattern     the automaton that describes the matches
+     * @param replacement the automaton providing the replacement strings
+     *
+     * @return the resulting automaton, or <code>null</code> if the pattern is not supported
+     */
+    public static Automaton replace(Automaton subject, Automaton pattern, Automaton replacement) {
+        Automaton p = pattern.clone();
+        p.minimize();
+        Set<String> strings = p.getFiniteStrings(1);
+        if (strings != null && strings.size() == 1) {
+            String search = strings.iterator().next();
+            return search.isEmpty() ? null : replace(subject, search, replacement);
+        }
+        if (p.isSingleton()) {
+            return null;
+        }
+
+        // the initial state must lead to one single accepting state
+        State initial = p.initial;
+        if (initial.accept || initial.transitions.isEmpty()) {
+            return null;
+        }
+        State target = null;
+        for (Transition t : initial.transitions) {
+            if (target == null) {
+                target = t.to;
+            } else if (target != t.to) {
+                return null;
+            }
+        }
+        if (target == initial || !target.accept) {
+            return null;
+        }
+
+        Transition[] classTransitions = initial.getSortedTransitionArray(false);
+        boolean runs;
+        if (target.transitions.isEmpty()) {
+            runs = false;
+        } else {
+            // the accepting state must loop on the same character class
+            Transition[] loopTransitions = target.getSortedTransitionArray(false);
+            if (loopTransitions.length != classTransitions.length) {
+                return null;
+            }
+            for (int i = 0; i < loopTransitions.length; i++) {
+                if (loopTransitions[i].to != target ||
+                    loopTransitions[i].min != classTransitions[i].min ||
+                    loopTransitions[i].max != classTransitions[i].max) {
+                    return null;
+                }
+            }
+            runs = true;
+        }
+
+        return replaceCharClass(subject, classTransitions, replacement, runs);
+    }
+
+    /**
+     * Replaces each character of the given class (or each maximal run of such characters, if "runs" is set) by the
+     * strings of the given replacement automaton.
+     *
+     * @param classTransitions the character class, as transitions sorted by their (disjoint) intervals
+     */
+    private static Automaton replaceCharClass(
+        Automaton subject, Transition[] classTransitions, Automaton replacement, boolean runs
+    ) {
+        Automaton s = subject.cloneExpanded();
+        Automaton r = replacement.cloneExpanded();
+
+        Automaton result = new Automaton();
+        Set<StatePair> epsilons = new HashSet<>();
+        Map<State, State> replacementEntries = new HashMap<>();
+        Map<Configuration, State> newStates = new HashMap<>();
+        LinkedList<Configuration> worklist = new LinkedList<>();
+
+        // "matched" is used as flag here: 1 if we are inside a run of replaced characters, 0 otherwise
+        Configuration start = new Configuration(s.initial, 0, Transition.Taint.Untainted);
+        result.initial = new State();
+        newStates.put(start, result.initial);
+        worklist.add(start);
+
+        while (!worklist.isEmpty()) {
+            Configuration conf = worklist.removeFirst();
+            State from = newStates.get(conf);
+
+            if (conf.state.accept) {
+                from.accept = true;
+            }
+
+            for (Transition t : conf.state.transitions) {
+                int lo = t.min;
+                for (Transition classTransition : classTransitions) {
+                    int min = Math.max(lo, classTransition.min);
+                    int max = Math.min(t.max, classTransition.max);
+                    if (min > max) {
+                        continue;
+                    }
+                    if (lo < min) {
+                        State to = getState(new Configuration(t.to, 0, Transition.Taint.Untainted), newStates, worklist);
+                        from.transitions.add(new Transition((char) lo, (char) (min - 1), to, t.taint));
+                    }
+                    lo = max + 1;
+
+                    State to = getState(new Configuration(t.to, runs ? 1 : 0, Transition.Taint.Untainted), newStates, worklist);
+                    if (conf.matched == 1) {
+                        // continuing a run that has already been replaced
+                        epsilons.add(new StatePair(from, to));
+                    } else {
+                        epsilons.add(new StatePair(from, getReplacementEntry(r, to, replacementEntries, epsilons)));
+                    }
+                }
+                if (lo <= t.max) {
+                    State to = getState(new Configuration(t.to, 0, Transition.Taint.Untainted), newStates, worklist);
+                    from.transitions.add(new Transition((char) lo, t.max, to, t.taint));
+                }
+            }
+        }
+
+        return finish(result, epsilons);
+    }
+
+    // resolves the collected epsilon transitions and cleans up the given automaton
+    private static Automaton finish(Automaton result, Set<StatePair> epsilons) {
+        result.deterministic = false;
+        result.addEpsilons(epsilons);
+        result.removeDeadTransitions();
+        return result;
+    }
+
+    // returns the result state for the given configuration, creating (and scheduling) it if necessary
+    private static State getState(
+        Configuration conf, Map<Configuration, State> newStates, LinkedList<Configuration> worklist
+    ) {
+        State state = newStates.get(conf);
+        if (state == null) {
+            state = new State();
+            newStates.put(conf, state);
+            worklist.add(conf);
+        }
+        return state;
+    }
+
+    // returns the initial state of a copy of the replacement automaton whose accepting states
+    // lead (via epsilon) to the given state; one copy is shared by all replacements ending in the same state
+    private static State getReplacementEntry(
+        Automaton replacement, State to, Map<State, State> replacementEntries, Set<StatePair> epsilons
+    ) {
+        State entry = replacementEntries.get(to);
+        if (entry == null) {
+            Map<State, State> copies = new HashMap<>();
+            Set<State> states = replacement.getStates();
+            for (State state : states) {
+                copies.put(state, new State());
+            }
+            for (State state : states) {
+                State copy = copies.get(state);
+                for (Transition t : state.transitions) {
+                    copy.transitions.add(new Transition(t.min, t.max, copies.get(t.to), t.taint));
+                }
+                if (state.accept) {
+                    epsilons.add(new StatePair(copy, to));
+                }
+            }
+            entry = copies.get(replacement.initial);
+            replacementEntries.put(to, entry);
+        }
+        return entry;
+    }
+
+    // appends a chain of transitions spelling the given string to the given state;
+    // returns the last state of this chain
+    private static State chain(State from, String chars, Transition.Taint taint) {
+        State current = from;
+        for (int i = 0; i < chars.length(); i++) {
+            State next = new State();
+            current.transitions.add(new Transition(chars.charAt(i), next, taint));
+            current = next;
+        }
+        return current;
+    }
+
+    // connects the given states with a chain of transitions spelling the given string
+    private static void emit(State from, String chars, Transition.Taint taint, State to, Set<StatePair> epsilons) {
+        if (chars.isEmpty()) {
+            epsilons.add(new StatePair(from, to));
+        } else {
+            State last = chain(from, chars.substring(0, chars.length() - 1), taint);
+            last.transitions.add(new Transition(chars.charAt(chars.length() - 1), to, taint));
+        }
+    }
+
+    // Knuth-Morris-Pratt failure function: failure[i] is the length of the longest proper
+    // prefix of search[0..i] that is also a suffix of it
+    private static int[] computeFailure(char[] search) {
+        int[] failure = new int[search.length];
+        int k = 0;
+        for (int i = 1; i < search.length; i++) {
+            while (k > 0 && search[k] != search[i]) {
+                k = failure[k - 1];
+            }
+            if (search[k] == search[i]) {
+                k++;
+            }
+            failure[i] = k;
+        }
+        return failure;
+    }
+
+    // returns the length of the longest suffix of search[0..matched) + c that is a prefix of
+    // the search string (where c != search[matched])
+    private static int fallBack(char[] search, int[] failure, int matched, char c) {
+        int k = matched;
+        while (k > 0 && search[k] != c) {
+            k = failure[k - 1];
+        }
+        if (search[k] == c) {
+            k++;
+        }
+        return k;
+    }
+
+    private static Transition.Taint lub(Transition.Taint a, Transition.Taint b) {
+        return a.compareTo(b) >= 0 ? a : b;
+    }
+
+    /**
+     * A state of the product construction: a subject state, the length of the (buffered) match so far, and the
+     * taint of the buffered characters.
+     */
+    private static final class Configuration {
+        private final State state;
+        private final int matched;
+        private final Transition.Taint taint;
+
+        Configuration(State state, int matched, Transition.Taint taint) {
+            this.state = state;
+            this.matched = matched;
+            this.taint = taint;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof Configuration)) {
+                return false;
+            }
+            Configuration other = (Configuration) obj;
+            return this.state == other.state && this.matched == other.matched && this.taint == other.taint;
+        }
+
+        @Override
+        public int hashCode() {
+            return (this.state.hashCode() * 31 + this.matched) * 31 + this.taint.ordinal();
+        }
+    }
+}
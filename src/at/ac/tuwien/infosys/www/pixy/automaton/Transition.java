@@ -166,22 +166,6 @@ public class Transition implements Serializable, Cloneable {
         }
     }
 
-    // reverses the transformation that is performed in appendCharString()
-    public static char reverseCharString(String s) {
-        if (s.length() == 1) {
-            return s.charAt(0);
-        }
-        if (!s.startsWith("\\u")) {
-            throw new RuntimeException("SNH");
-        }
-        if (!(s.length() == 6)) {
-            throw new RuntimeException("SNH");
-        }
-        String hexString = s.substring(2, 6);
-        String dec = new java.math.BigInteger(hexString, 16).toString();
-        return (char) Integer.valueOf(dec).intValue();
-    }
-
     /**
      * Returns string describing this state. Normally invoked via
      * {@link Automaton#toString()}.
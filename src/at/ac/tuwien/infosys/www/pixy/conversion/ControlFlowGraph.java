@@ -87,16 +87,25 @@ public final class ControlFlowGraph {
     }
 
     public void assignReversePostOrder() {
-        LinkedList<AbstractCfgNode> postorder = this.dfPostOrder();
-        ListIterator<AbstractCfgNode> iter = postorder.listIterator(postorder.size());
         int i = 0;
-        while (iter.hasPrevious()) {
-            AbstractCfgNode cfgNode = iter.previous();
+        for (AbstractCfgNode cfgNode : this.reversePostOrder()) {
             cfgNode.setReversePostOrder(i);
             i++;
         }
     }
 
+    // returns the nodes of this ControlFlowGraph in reverse postorder
+    // (without assigning the numbers to the nodes)
+    public List<AbstractCfgNode> reversePostOrder() {
+        LinkedList<AbstractCfgNode> postorder = this.dfPostOrder();
+        List<AbstractCfgNode> reversePostOrder = new ArrayList<>(postorder.size());
+        ListIterator<AbstractCfgNode> iter = postorder.listIterator(postorder.size());
+        while (iter.hasPrevious()) {
+            reversePostOrder.add(iter.previous());
+        }
+        return reversePostOrder;
+    }
+
     // returns the number of nodes in this ControlFlowGraph
     public int size() {
         Set<AbstractCfgNode> visited = new HashSet<>();
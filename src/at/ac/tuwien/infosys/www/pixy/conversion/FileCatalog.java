@@ -0,0 +1,175 @@
+package at.ac.tuwien.infosys.www.pixy.conversion;
+
+import at.ac.tuwien.infosys.www.pixy.Utils;
+
+import java.io.File;
+import java.util.*;
+
+/**
+ * Index over all files below a directory, for resolving includes whose names are only partially known.
+ *
+ * The directory is walked only once (when the catalog is created). Candidates for an include pattern are then
+ * looked up by the literal fragments of the pattern instead of by scanning all files: a trailing literal fragment
+ * is looked up in the sorted array of reversed paths (all paths ending with the fragment form a contiguous range),
+ * any other fragment in an index from trigrams to the paths containing them.
+ */
+public class FileCatalog {
+    // the (canonical) paths of all files below the directory, in the order
+    // in which they were found
+    private final String[] paths;
+
+    // the reversed paths, sorted
+    private final String[] reversedPaths;
+
+    // trigram -> indices (into paths) of the paths containing the trigram,
+    // in ascending order; built on demand
+    private Map<String, int[]> trigrams;
+
+    public FileCatalog(File directory) {
+        List<File> files = Utils.fileListFromDir(directory.getPath());
+        this.paths = new String[files.size()];
+        this.reversedPaths = new String[files.size()];
+        int i = 0;
+        for (File file : files) {
+            this.paths[i] = file.getPath();
+            this.reversedPaths[i] = reverse(this.paths[i]);
+            i++;
+        }
+        Arrays.sort(this.reversedPaths);
+    }
+
+//  ********************************************************************************
+
+    public int size() {
+        return this.paths.length;
+    }
+
+    // is the given path contained in this catalog?
+    public boolean contains(String path) {
+        return Arrays.binarySearch(this.reversedPaths, reverse(path)) >= 0;
+    }
+
+//  ********************************************************************************
+
+    // returns the paths that contain all the given literal fragments (a superset
+    // of the paths matching a pattern built from these fragments); if "anchored"
+    // is true, the paths must also end with the last fragment
+    public List<String> getCandidates(List<String> fragments, boolean anchored) {
+        List<String> candidates = new ArrayList<>();
+
+        if (anchored && !fragments.isEmpty()) {
+            // all paths ending with the last fragment
+            String reversedSuffix = reverse(fragments.get(fragments.size() - 1));
+            int from = lowerBound(reversedSuffix);
+            int to = lowerBound(reversedSuffix + Character.MAX_VALUE);
+            for (int i = from; i < to; i++) {
+                if (this.reversedPaths[i].startsWith(reversedSuffix)) {
+                    candidates.add(reverse(this.reversedPaths[i]));
+                }
+            }
+            return candidates;
+        }
+
+        // use the longest fragment that is long enough for the trigram index
+        String longest = "";
+        for (String fragment : fragments) {
+            if (fragment.length() > longest.length()) {
+                longest = fragment;
+            }
+        }
+        if (longest.length() < 3) {
+            candidates.addAll(Arrays.asList(this.paths));
+            return candidates;
+        }
+
+        int[] indices = null;
+        Map<String, int[]> trigrams = this.getTrigrams();
+        for (int i = 0; i + 3 <= longest.length(); i++) {
+            int[] postings = trigrams.get(longest.substring(i, i + 3));
+            if (postings == null) {
+                return candidates;
+            }
+            indices = (indices == null) ? postings : intersect(indices, postings);
+        }
+        for (int index : indices) {
+            candidates.add(this.paths[index]);
+        }
+        return candidates;
+    }
+
+//  ********************************************************************************
+
+    private Map<String, int[]> getTrigrams() {
+        if (this.trigrams != null) {
+            return this.trigrams;
+        }
+
+        Map<String, int[]> postings = new HashMap<>();
+        Map<String, Integer> sizes = new HashMap<>();
+        for (int index = 0; index < this.paths.length; index++) {
+            String path = this.paths[index];
+            for (int i = 0; i + 3 <= path.length(); i++) {
+                String trigram = path.substring(i, i + 3);
+                int[] list = postings.get(trigram);
+                Integer size = sizes.get(trigram);
+                if (list == null) {
+                    list = new int[4];
+                    size = 0;
+                } else if (list[size - 1] == index) {
+                    // trigram occurs several times in this path
+                    continue;
+                } else if (size == list.length) {
+                    list = Arrays.copyOf(list, 2 * size);
+                }
+                list[size] = index;
+                postings.put(trigram, list);
+                sizes.put(trigram, size + 1);
+            }
+        }
+
+        this.trigrams = new HashMap<>();
+        for (Map.Entry<String, int[]> entry : postings.entrySet()) {
+            this.trigrams.put(entry.getKey(), Arrays.copyOf(entry.getValue(), sizes.get(entry.getKey())));
+        }
+        return this.trigrams;
+    }
+
+    // intersection of two ascending lists of indices
+    private static int[] intersect(int[] a, int[] b) {
+        int[] result = new int[Math.min(a.length, b.length)];
+        int size = 0;
+        int i = 0;
+        int j = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] < b[j]) {
+                i++;
+            } else if (a[i] > b[j]) {
+                j++;
+            } else {
+                result[size++] = a[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(result, size);
+    }
+
+    // index of the first reversed path that is not smaller than the given string
+    private int lowerBound(String string) {
+        int low = 0;
+        int high = this.reversedPaths.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (this.reversedPaths[middle].compareTo(string) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private static String reverse(String string) {
+        return new StringBuilder(string).reverse().toString();
+    }
+}
\ No newline at end of file
@@ -37,5 +37,4 @@ public class InternalStrings {
     // CONFIG.TXT ****************************
     public static final String INCLUDE_PATH = "includePath";
     public static final String PHP_BIN = "phpBin";
-    public static final String FSA_HOME = "fsaHome";
 }
\ No newline at end of file
@@ -2,11 +2,11 @@ package at.ac.tuwien.infosys.www.pixy.conversion;
 
 import at.ac.tuwien.infosys.www.phpparser.ParseNode;
 import at.ac.tuwien.infosys.www.phpparser.PhpSymbols;
-import at.ac.tuwien.infosys.www.pixy.Utils;
 import at.ac.tuwien.infosys.www.pixy.analysis.literal.LiteralAnalysis;
 import at.ac.tuwien.infosys.www.pixy.conversion.cfgnodes.Include;
 
 import java.io.File;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.LinkedList;
 import java.util.List;
@@ -18,8 +18,15 @@ import java.util.regex.Pattern;
  * @author Nenad Jovanovic <enji@seclab.tuwien.ac.at>
  */
 public class ParseNodeHeuristics {
-    private static LiteralAnalysis literalAnalysis;
-    private static Include includeNode;
+    // the include node whose target is to be found, and the literal analysis
+    // for resolving the variables in its file name
+    private final Include includeNode;
+    private final LiteralAnalysis literalAnalysis;
+
+    private ParseNodeHeuristics(Include includeNode, LiteralAnalysis literalAnalysis) {
+        this.includeNode = includeNode;
+        this.literalAnalysis = literalAnalysis;
+    }
 
     // tries to find the name of an included file even if literal analysis
     // computed "top" by matching the known parts of the file name against
@@ -30,10 +37,7 @@ public class ParseNodeHeuristics {
     public static List<String> getPossibleIncludeTargets(
         Include includeNode, LiteralAnalysis literalAnalysis,
         Map<Include, String> include2String,
-        String workingDirectory) {
-
-        ParseNodeHeuristics.literalAnalysis = literalAnalysis;
-        ParseNodeHeuristics.includeNode = includeNode;
+        File workingDirectory, Map<File, FileCatalog> fileCatalogs) {
 
         ParseNode parseNode = includeNode.getParseNode();
 
@@ -60,7 +64,17 @@ public class ParseNodeHeuristics {
 
         // results in a list of strings and null references;
         // null references represent ".*"
-        LinkedList<String> stringList = expr(secondChild);
+        LinkedList<String> stringList = new ParseNodeHeuristics(includeNode, literalAnalysis).expr(secondChild);
+
+        return getPossibleIncludeTargets(
+            stringList, parseNode.getFileName(), includeNode, include2String, workingDirectory, fileCatalogs);
+    }
+
+    // like the above, for the given list of strings and null references
+    // (representing ".*") computed for the include node in the given script file
+    static List<String> getPossibleIncludeTargets(
+        List<String> stringList, String scriptFileName, Include includeNode, Map<Include, String> include2String,
+        File workingDirectory, Map<File, FileCatalog> fileCatalogs) {
 
         // transform the list into a pattern...
 
@@ -72,6 +86,10 @@ public class ParseNodeHeuristics {
         // dot-stars in a row, matching is VERY slow
         boolean precedingDotStar = false;
 
+        // the literal parts between the dot-stars, for looking up candidates
+        List<String> fragments = new ArrayList<>();
+        StringBuilder fragment = new StringBuilder();
+
         StringBuilder pattern = new StringBuilder();
         for (String s : stringList) {
 
@@ -82,13 +100,24 @@ public class ParseNodeHeuristics {
                     pattern.append(".*");
                     precedingDotStar = true;
                 }
+                if (fragment.length() > 0) {
+                    fragments.add(fragment.toString());
+                    fragment.setLength(0);
+                }
             } else {
                 // quote special characters (most notably: the dot .)
                 pattern.append(Pattern.quote(s));
                 somethingLiteral = true;
                 precedingDotStar = false;
+                fragment.append(s);
             }
         }
+        // the pattern is anchored at the end; if it also ends with a literal part,
+        // matching files must end with that part
+        boolean anchored = fragment.length() > 0;
+        if (anchored) {
+            fragments.add(fragment.toString());
+        }
         pattern.append("$");
 
         normalizePath(pattern);
@@ -101,7 +130,7 @@ public class ParseNodeHeuristics {
         Pattern patternObj = Pattern.compile(pattern.toString());
 
         // here is what we do now:
-        // - collect all files below the current working directory
+        // - look up the candidates among all files below the current working directory
         // - try to find a match
         // - if we already have ambiguity (more than one match): return null
         // - if we have exactly one match: be happy and return it
@@ -111,7 +140,8 @@ public class ParseNodeHeuristics {
         //   (but don't retry those files that you have tried before,
         //   since this would be a waste of time)
 
-        List<File> candidates1 = Utils.fileListFromDir(workingDirectory);
+        FileCatalog workingCatalog = getFileCatalog(workingDirectory, fileCatalogs);
+        List<String> candidates1 = workingCatalog.getCandidates(fragments, anchored);
         System.out.println("inclusion matching against " + candidates1.size() + " candidates");
         List<String> winners = matchCandidates(patternObj, candidates1);
         if (winners == null) {
@@ -125,8 +155,13 @@ public class ParseNodeHeuristics {
 
         // no match, so try relative to script directory
         // (but don't retry previous candidates)
-        List<File> candidates2 = Utils.fileListFromFile(parseNode.getFileName());
-        candidates2.removeAll(candidates1);
+        File scriptDirectory = new File(scriptFileName).getParentFile();
+        List<String> candidates2 = new ArrayList<>();
+        for (String candidate : getFileCatalog(scriptDirectory, fileCatalogs).getCandidates(fragments, anchored)) {
+            if (!workingCatalog.contains(candidate)) {
+                candidates2.add(candidate);
+            }
+        }
         winners = matchCandidates(patternObj, candidates2);
         if (winners == null) {
             return null;
@@ -144,23 +179,32 @@ public class ParseNodeHeuristics {
     // - null if more than one candidate matches the pattern
     // - an empty list of no candidates match
     // - a one-element list if exactly one candidate matches
-    private static List<String> matchCandidates(Pattern patternObj, Collection<File> candidates) {
+    private static List<String> matchCandidates(Pattern patternObj, Collection<String> candidates) {
         List<String> winners = new LinkedList<>();
-        for (File candidate : candidates) {
+        for (String candidatePath : candidates) {
             // no need to go on if we already have ambiguity
             if (winners.size() > 1) {
                 return null;
             }
 
-            String candidatePath = candidate.getPath();
-
-            // EFF: the matching step is rather slow
             Matcher matcher = patternObj.matcher(candidatePath);
             if (matcher.find()) {
                 winners.add(candidatePath);
             }
         }
-        return winners;
+        // the last candidate might have been the second match; the result must
+        // not depend on the order of the candidates
+        return (winners.size() > 1) ? null : winners;
+    }
+
+    // returns the catalog for the given directory, creating it if necessary
+    private static FileCatalog getFileCatalog(File directory, Map<File, FileCatalog> fileCatalogs) {
+        FileCatalog catalog = fileCatalogs.get(directory);
+        if (catalog == null) {
+            catalog = new FileCatalog(directory);
+            fileCatalogs.put(directory, catalog);
+        }
+        return catalog;
     }
 
     private static void normalizePath(StringBuilder pattern) {
@@ -172,7 +216,7 @@ public class ParseNodeHeuristics {
 //  MINI-PARSER ********************************************************************
 //  ********************************************************************************
 
-    private static LinkedList<String> expr(ParseNode node) {
+    private LinkedList<String> expr(ParseNode node) {
 
         LinkedList<String> myList = null;
 
@@ -195,7 +239,7 @@ public class ParseNodeHeuristics {
         return myList;
     }
 
-    private static LinkedList<String> expr_without_variable(ParseNode node) {
+    private LinkedList<String> expr_without_variable(ParseNode node) {
 
         LinkedList<String> myList = null;
 
@@ -244,7 +288,7 @@ public class ParseNodeHeuristics {
         return myList;
     }
 
-    private static LinkedList<String> scalar(ParseNode node) {
+    private LinkedList<String> scalar(ParseNode node) {
         LinkedList<String> myList = null;
 
         ParseNode firstChild = node.getChild(0);
@@ -271,7 +315,7 @@ public class ParseNodeHeuristics {
         return myList;
     }
 
-    private static LinkedList<String> common_scalar(ParseNode node) {
+    private LinkedList<String> common_scalar(ParseNode node) {
         LinkedList<String> myList = null;
 
         ParseNode firstChild = node.getChild(0);
@@ -294,11 +338,11 @@ public class ParseNodeHeuristics {
         return myList;
     }
 
-    private static LinkedList<String> r_cvar(ParseNode node) {
+    private LinkedList<String> r_cvar(ParseNode node) {
         return cvar(node.getChild(0));
     }
 
-    private static LinkedList<String> cvar(ParseNode node) {
+    private LinkedList<String> cvar(ParseNode node) {
         LinkedList<String> myList = null;
 
         if (node.getNumChildren() == 1) {
@@ -313,7 +357,7 @@ public class ParseNodeHeuristics {
         return myList;
     }
 
-    private static LinkedList<String> cvar_without_objects(ParseNode node) {
+    private LinkedList<String> cvar_without_objects(ParseNode node) {
         LinkedList<String> myList = null;
 
         ParseNode firstChild = node.getChild(0);
@@ -340,7 +384,7 @@ public class ParseNodeHeuristics {
         return myList;
     }
 
-    private static LinkedList<String> reference_variable(ParseNode node) {
+    private LinkedList<String> reference_variable(ParseNode node) {
         LinkedList<String> myList = null;
 
         ParseNode firstChild = node.getChild(0);
@@ -367,7 +411,7 @@ public class ParseNodeHeuristics {
         return myList;
     }
 
-    private static LinkedList<String> compound_variable(ParseNode node) {
+    private LinkedList<String> compound_variable(ParseNode node) {
         LinkedList<String> myList = null;
 
         ParseNode firstChild = node.getChild(0);
@@ -378,7 +422,7 @@ public class ParseNodeHeuristics {
                 myList = new LinkedList<>();
 
                 // try to resolve with literal analysis!
-                Literal lit = literalAnalysis.getLiteral(firstChild.getLexeme(), includeNode);
+                Literal lit = this.literalAnalysis.getLiteral(firstChild.getLexeme(), this.includeNode);
                 if (lit == Literal.TOP) {
                     myList.add(null);
                 } else {
@@ -403,7 +447,7 @@ public class ParseNodeHeuristics {
         return myList;
     }
 
-    private static LinkedList<String> encaps_list(ParseNode node) {
+    private LinkedList<String> encaps_list(ParseNode node) {
         LinkedList<String> myList = null;
 
         ParseNode firstChild = node.getChild(0);
@@ -491,13 +535,13 @@ public class ParseNodeHeuristics {
     }
 
     // encaps_list -> encaps_list, <some token>
-    private static LinkedList<String> encapsListHelper(ParseNode node) {
+    private LinkedList<String> encapsListHelper(ParseNode node) {
         LinkedList<String> myList = encaps_list(node.getChild(0));
         myList.add(node.getChild(1).getLexeme());
         return myList;
     }
 
-    private static LinkedList<String> encaps_var(ParseNode node) {
+    private LinkedList<String> encaps_var(ParseNode node) {
         LinkedList<String> myList = null;
 
         if (node.getNumChildren() == 1) {
@@ -506,7 +550,7 @@ public class ParseNodeHeuristics {
             myList = new LinkedList<>();
 
             // try to resolve with literal analysis!
-            Literal lit = literalAnalysis.getLiteral(node.getChild(0).getLexeme(), includeNode);
+            Literal lit = this.literalAnalysis.getLiteral(node.getChild(0).getLexeme(), this.includeNode);
             if (lit == Literal.TOP) {
                 myList.add(null);
             } else {
@@ -0,0 +1,273 @@
+package at.ac.tuwien.infosys.www.pixy.conversion;
+
+import at.ac.tuwien.infosys.www.phpparser.ParseNode;
+import at.ac.tuwien.infosys.www.phpparser.ParseTree;
+
+import java.io.*;
+import java.lang.ref.SoftReference;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.CRC32;
+
+/**
+ * Cache for the parse trees of PHP files: on disk, shared by all runs that use the same cache directory, and / or in
+ * memory, shared by all entry files analyzed in the same process (batch mode).
+ *
+ * There is one cache file per canonical file name. It holds the hash of the file's content together with the
+ * parse tree; a cached tree is only used if the file's content still has the same hash, so files that
+ * have changed since they were cached are parsed again (and their cache entry is replaced). The tree is
+ * protected by a checksum, so damaged cache files are detected and replaced as well. Parse trees are
+ * not modified during conversion, so the same tree can be converted any number of times.
+ */
+public class ParseTreeCache {
+    // to be increased whenever the format of the cache files or the parser changes
+    private static final int FORMAT_VERSION = 1;
+
+    // the cache directory (null: no caching on disk)
+    private final File directory;
+
+    // canonical file name -> (content hash, parse tree); soft references, since
+    // the trees of a large code base might not fit into memory (null: no caching
+    // in memory)
+    private final Map<String, SoftReference<CachedTree>> memory;
+
+    public ParseTreeCache(File directory, boolean inMemory) {
+        this.directory = directory;
+        this.memory = inMemory ? new ConcurrentHashMap<String, SoftReference<CachedTree>>() : null;
+    }
+
+//  ********************************************************************************
+
+    // returns the parse tree for the given (canonical) file, either from the cache
+    // or by parsing the file
+    public ParseTree parse(String canonicalFileName) throws Exception {
+        byte[] content = Files.readAllBytes(new File(canonicalFileName).toPath());
+        String contentHash = hash(content);
+
+        if (this.memory != null) {
+            SoftReference<CachedTree> reference = this.memory.get(canonicalFileName);
+            CachedTree cachedTree = (reference == null) ? null : reference.get();
+            if (cachedTree != null && cachedTree.contentHash.equals(contentHash)) {
+                return cachedTree.parseTree;
+            }
+        }
+
+        ParseTree parseTree = null;
+        File cacheFile = null;
+        if (this.directory != null) {
+            cacheFile = new File(this.directory, hash(canonicalFileName.getBytes("UTF-8")) + ".tree");
+            parseTree = this.read(cacheFile, contentHash);
+        }
+        if (parseTree == null) {
+            parseTree = ProgramConverter.parse(
+                new InputStreamReader(new ByteArrayInputStream(content)), canonicalFileName);
+            if (cacheFile != null) {
+                this.write(cacheFile, contentHash, parseTree);
+            }
+        }
+
+        if (this.memory != null) {
+            this.memory.put(canonicalFileName, new SoftReference<>(new CachedTree(contentHash, parseTree)));
+        }
+        return parseTree;
+    }
+
+//  ********************************************************************************
+
+    // returns the cached tree if the cache file is valid for the given content hash, null otherwise
+    private ParseTree read(File cacheFile, String contentHash) {
+        if (!cacheFile.isFile()) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(cacheFile)))) {
+            if (in.readInt() != FORMAT_VERSION || !contentHash.equals(in.readUTF())) {
+                return null;
+            }
+            long checksum = in.readLong();
+            int length = in.readInt();
+            if (length < 0 || length > cacheFile.length()) {
+                return null;
+            }
+            byte[] tree = new byte[length];
+            in.readFully(tree);
+            if (checksum(tree) != checksum) {
+                return null;
+            }
+            return readTree(new DataInputStream(new ByteArrayInputStream(tree)));
+        } catch (IOException | RuntimeException e) {
+            // a broken cache file is no reason to fail
+            return null;
+        }
+    }
+
+    // writes the given tree to the cache; errors are ignored (the tree just won't be cached)
+    private void write(File cacheFile, String contentHash, ParseTree parseTree) {
+        File tempFile = null;
+        try {
+            // write to a temporary file first, so that concurrent runs never see
+            // half-written cache files
+            ByteArrayOutputStream tree = new ByteArrayOutputStream();
+            writeTree(new DataOutputStream(tree), parseTree);
+            byte[] treeBytes = tree.toByteArray();
+
+            tempFile = File.createTempFile("tree", ".tmp", this.directory);
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tempFile)))) {
+                out.writeInt(FORMAT_VERSION);
+                out.writeUTF(contentHash);
+                out.writeLong(checksum(treeBytes));
+                out.writeInt(treeBytes.length);
+                out.write(treeBytes);
+            }
+            Files.move(tempFile.toPath(), cacheFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            tempFile = null;
+        } catch (IOException e) {
+            System.err.println("Warning: could not cache the parse tree in " + cacheFile + ": " + e.getMessage());
+        } finally {
+            if (tempFile != null) {
+                tempFile.delete();
+            }
+        }
+    }
+
+//  ********************************************************************************
+
+    // parse trees are written in preorder, without recursion (statement lists
+    // make them far too deep for java serialization); strings are written once
+    // and referenced by their index afterwards
+    private static void writeTree(DataOutputStream out, ParseTree parseTree) throws IOException {
+        Map<String, Integer> strings = new HashMap<>();
+        Deque<ParseNode> stack = new ArrayDeque<>();
+        stack.push(parseTree.getRoot());
+        while (!stack.isEmpty()) {
+            ParseNode node = stack.pop();
+            out.writeBoolean(node.isToken());
+            out.writeInt(node.getSymbol());
+            writeString(out, node.getName(), strings);
+            writeString(out, node.getFileName(), strings);
+            if (node.isToken()) {
+                writeString(out, node.getLexeme(), strings);
+                out.writeInt(node.getLineno());
+            } else {
+                List<ParseNode> children = node.getChildren();
+                out.writeInt(children.size());
+                for (int i = children.size() - 1; i >= 0; i--) {
+                    stack.push(children.get(i));
+                }
+            }
+        }
+    }
+
+    private static ParseTree readTree(DataInputStream in) throws IOException {
+        List<String> strings = new ArrayList<>();
+
+        // the nonterminals whose children are still being read, and the number
+        // of children they are still missing
+        Deque<ParseNode> parents = new ArrayDeque<>();
+        Deque<Integer> missing = new ArrayDeque<>();
+
+        ParseNode root = null;
+        do {
+            boolean isToken = in.readBoolean();
+            int symbol = in.readInt();
+            String name = readString(in, strings);
+            String fileName = readString(in, strings);
+            ParseNode node;
+            int numChildren = 0;
+            if (isToken) {
+                String lexeme = readString(in, strings);
+                node = new ParseNode(symbol, name, fileName, lexeme, in.readInt());
+            } else {
+                node = new ParseNode(symbol, name, fileName);
+                numChildren = in.readInt();
+            }
+
+            if (root == null) {
+                root = node;
+            } else {
+                parents.peek().addChild(node);
+                missing.push(missing.pop() - 1);
+            }
+            if (numChildren > 0) {
+                parents.push(node);
+                missing.push(numChildren);
+            }
+            while (!missing.isEmpty() && missing.peek() == 0) {
+                parents.pop();
+                missing.pop();
+            }
+        } while (!parents.isEmpty());
+
+        return new ParseTree(root);
+    }
+
+    private static void writeString(DataOutputStream out, String string, Map<String, Integer> strings)
+        throws IOException {
+        if (string == null) {
+            out.writeInt(-1);
+            return;
+        }
+        Integer index = strings.get(string);
+        if (index != null) {
+            out.writeInt(index);
+            return;
+        }
+        strings.put(string, strings.size());
+        byte[] bytes = string.getBytes("UTF-8");
+        out.writeInt(-2);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in, List<String> strings) throws IOException {
+        int index = in.readInt();
+        if (index == -1) {
+            return null;
+        }
+        if (index != -2) {
+            return strings.get(index);
+        }
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        String string = new String(bytes, "UTF-8");
+        strings.add(string);
+        return string;
+    }
+
+//  ********************************************************************************
+
+    private static String hash(byte[] bytes) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-1");
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException(e);
+        }
+        StringBuilder hex = new StringBuilder();
+        for (byte b : digest.digest(bytes)) {
+            hex.append(String.format("%02x", b));
+        }
+        return hex.toString();
+    }
+
+    private static long checksum(byte[] bytes) {
+        CRC32 crc = new CRC32();
+        crc.update(bytes);
+        return crc.getValue();
+    }
+
+//  ********************************************************************************
+
+    private static final class CachedTree {
+        private final String contentHash;
+        private final ParseTree parseTree;
+
+        CachedTree(String contentHash, ParseTree parseTree) {
+            this.contentHash = contentHash;
+            this.parseTree = parseTree;
+        }
+    }
+}
@@ -5,6 +5,7 @@ import at.ac.tuwien.infosys.www.phpparser.ParseTree;
 import at.ac.tuwien.infosys.www.phpparser.PhpLexer;
 import at.ac.tuwien.infosys.www.phpparser.PhpParser;
 import at.ac.tuwien.infosys.www.pixy.MyOptions;
+import at.ac.tuwien.infosys.www.pixy.RunContext;
 import at.ac.tuwien.infosys.www.pixy.Utils;
 import at.ac.tuwien.infosys.www.pixy.analysis.alias.AliasAnalysis;
 import at.ac.tuwien.infosys.www.pixy.analysis.alias.DummyAliasAnalysis;
@@ -12,16 +13,23 @@ import at.ac.tuwien.infosys.www.pixy.analysis.interprocedural.*;
 import at.ac.tuwien.infosys.www.pixy.analysis.interprocedural.callstring.CallStringAnalysis;
 import at.ac.tuwien.infosys.www.pixy.analysis.literal.LiteralAnalysis;
 import at.ac.tuwien.infosys.www.pixy.analysis.type.TypeAnalysis;
+import at.ac.tuwien.infosys.www.pixy.conversion.cfgnodes.AbstractCfgNode;
+import at.ac.tuwien.infosys.www.pixy.conversion.cfgnodes.Call;
 import at.ac.tuwien.infosys.www.pixy.conversion.cfgnodes.Include;
 import at.ac.tuwien.infosys.www.pixy.conversion.includes.IncludeGraph;
 
 import java.io.*;
+import java.nio.file.NoSuchFileException;
 import java.util.*;
+import java.util.concurrent.*;
 
 /**
  * @author Nenad Jovanovic <enji@seclab.tuwien.ac.at>
  */
 public class ProgramConverter {
+    // the run that this converter belongs to (entry file, parse tree cache)
+    private RunContext runContext;
+
     // = the directory in which the given entry file is located
     private File workingDirectoryFile;
 
@@ -55,8 +63,38 @@ public class ProgramConverter {
 
     private SymbolTable superSymbolTable;
 
+    // catalogs of the files below the directories searched for the targets
+    // of dynamic includes, built only once per run
+    private Map<File, FileCatalog> fileCatalogs = new HashMap<>();
+
+    // incremental resolution of non-literal includes:
+    // - the nodes at which the program has been changed since the last literal
+    //   analysis (predecessors of included files)
+    // - the callees of all call nodes at the last literal analysis
+    // - the unresolved include nodes at the last literal analysis
+    // - the include nodes that the analysis has not reached
+    private Set<AbstractCfgNode> changedNodes = new HashSet<>();
+    private Map<Call, TacFunction> analyzedCallees = new HashMap<>();
+    private Set<Include> analyzedIncludes = new HashSet<>();
+    private Set<Include> unreachableIncludes = new HashSet<>();
+
+    // for tests: if true, every iteration also runs an unrestricted literal analysis, which
+    // has to agree with the restricted one at the affected includes, and with the outcome
+    // of an earlier iteration at all others (outcomes are kept in "checkedOutcomes")
+    private boolean checkAffectedIncludes = false;
+    private Map<Include, String> checkedOutcomes = new HashMap<>();
+    private int checkedAffected = 0;
+    private int checkedUnaffected = 0;
+
     private enum InclusionStatus {NOT_FOUND, INCLUDED, CYCLIC}
 
+    // canonical file name -> parse tree of a file included by the current
+    // frontier of literal include nodes, parsed in advance (see prefetch)
+    private Map<String, Future<ParseTree>> prefetchedTrees = new HashMap<>();
+
+    // the threads for parsing in advance (null until needed)
+    private ExecutorService parseExecutor;
+
     // type analysis (for resolving ambiguous method calls)
     private TypeAnalysis typeAnalysis;
 
@@ -64,16 +102,18 @@ public class ProgramConverter {
 //  CONSTRUCTOR ********************************************************************
 //  ********************************************************************************
 
-    public ProgramConverter(boolean specialNodes, boolean useAliasAnalysis) {
+    public ProgramConverter(RunContext runContext, boolean specialNodes, boolean useAliasAnalysis) {
+        this.runContext = runContext;
+
         // determine working directory (= directory of the entry file)
-        this.workingDirectoryFile = MyOptions.entryFile.getParentFile();
+        this.workingDirectoryFile = runContext.getEntryFile().getParentFile();
 
-        this.includeGraph = new IncludeGraph(MyOptions.entryFile);
+        this.includeGraph = new IncludeGraph(runContext.getEntryFile());
 
         this.specialNodes = specialNodes;
         this.useAliasAnalysis = useAliasAnalysis;
 
-        this.allFiles.add(MyOptions.entryFile);
+        this.allFiles.add(runContext.getEntryFile());
 
         initializeSuperglobalsSymbolTable();
     }
@@ -115,6 +155,33 @@ public class ProgramConverter {
         return this.superSymbolTable;
     }
 
+//  getCheckedAffectedIncludes *****************************************************
+
+    // number of checks of affected includes (see setCheckAffectedIncludes())
+    public int getCheckedAffectedIncludes() {
+        return this.checkedAffected;
+    }
+
+//  getCheckedUnaffectedIncludes ***************************************************
+
+    // number of checks of includes that kept their outcome (see setCheckAffectedIncludes())
+    public int getCheckedUnaffectedIncludes() {
+        return this.checkedUnaffected;
+    }
+
+//  ********************************************************************************
+//  SET ****************************************************************************
+//  ********************************************************************************
+
+//  setCheckAffectedIncludes *******************************************************
+
+    // for tests: compares the resolution of non-literal includes in each iteration
+    // with an unrestricted literal analysis; throws a RuntimeException if an include
+    // would have been resolved differently
+    public void setCheckAffectedIncludes(boolean checkAffectedIncludes) {
+        this.checkAffectedIncludes = checkAffectedIncludes;
+    }
+
 //  ********************************************************************************
 //  OTHER **************************************************************************
 //  ********************************************************************************
@@ -122,6 +189,18 @@ public class ProgramConverter {
 //  convert ************************************************************************
 
     public void convert() {
+        try {
+            this.convertProgram();
+        } finally {
+            // also if the run is aborted
+            if (this.parseExecutor != null) {
+                this.parseExecutor.shutdownNow();
+                this.parseExecutor = null;
+            }
+        }
+    }
+
+    private void convertProgram() {
         convertEntryFile();
 
         List<Include> processUs = baseTac.getIncludeNodes();
@@ -171,6 +250,8 @@ public class ProgramConverter {
                 // contained in included files
                 weComeAfterwards = new LinkedList<>();
 
+                this.prefetch(processUs);
+
                 // process all literal include nodes in "processUs"
                 for (Include includeNode : processUs) {
                     if (this.skipUs.contains(includeNode)) {
@@ -226,29 +307,66 @@ public class ProgramConverter {
             // requires literal analysis and hence, preliminary backpatching
             this.baseTac.backpatch();
 
-            int kSize = 1;
-            ConnectorComputation connectorComp = new ConnectorComputation(
-                baseTac.getAllFunctions(), baseTac.getMainFunction(), kSize);
-            connectorComp.compute();
-            InterproceduralWorklist workList = new InterproceduralWorklistBetter(new InterproceduralWorklistOrder(baseTac, connectorComp));
-            connectorComp.stats(false);
-
-            AliasAnalysis aliasAnalysis = new DummyAliasAnalysis();
-
-            literalAnalysis = new LiteralAnalysis(
-                baseTac, aliasAnalysis, new CallStringAnalysis(connectorComp), workList);
-            literalAnalysis.analyze();
+            // only those includes that are new or that can be reached from the changes to
+            // the program since the last literal analysis can have a different outcome now;
+            // all other includes keep their previous outcome
+            Supergraph supergraph = new Supergraph(this.baseTac.getAllFunctions());
+            Set<Include> pendingIncludes = new HashSet<>();
+            Set<Include> affectedIncludes = this.getAffectedIncludes(supergraph, pendingIncludes);
 
-            processUs = literalAnalysis.getIncludeNodes();
             weComeAfterwards = new LinkedList<>();
+            Set<Include> previousTopIncludes = topIncludes;
+            SortedMap<Include, String> previousNotFoundDynamicIncludes = notFoundDynamicIncludes;
             notFoundDynamicIncludes = new TreeMap<>();
             topIncludes = new HashSet<>();
+            for (Include includeNode : previousTopIncludes) {
+                if (pendingIncludes.contains(includeNode) && !affectedIncludes.contains(includeNode)) {
+                    topIncludes.add(includeNode);
+                }
+            }
+            for (Map.Entry<Include, String> entry : previousNotFoundDynamicIncludes.entrySet()) {
+                Include includeNode = entry.getKey();
+                if (pendingIncludes.contains(includeNode) && !affectedIncludes.contains(includeNode)) {
+                    notFoundDynamicIncludes.put(includeNode, entry.getValue());
+                }
+            }
+
+            if (affectedIncludes.isEmpty()) {
+                // nothing can change, so there is no need to analyze the program again
+                processUs = Collections.emptyList();
+            } else {
+                // the connectors, the worklist order and the literal analysis can't be
+                // carried over from the previous iteration: the files included since then
+                // have been spliced into the control flow graphs and may have added
+                // functions and calls, so contexts, orders and analysis nodes would be
+                // stale; what is saved is analyzing only the part of the program that
+                // reaches the affected includes
+                literalAnalysis = this.newLiteralAnalysis();
+
+                // it is sufficient to analyze the part of the program that the
+                // affected includes depend on
+                literalAnalysis.setRelevantNodes(supergraph.getReaching(affectedIncludes));
+                literalAnalysis.analyze();
+
+                processUs = literalAnalysis.getIncludeNodes();
+            }
+
+            if (this.checkAffectedIncludes) {
+                this.checkAffectedIncludes(pendingIncludes, affectedIncludes, literalAnalysis);
+            }
 
             for (Include includeNode : processUs) {
-                if (this.skipUs.contains(includeNode)) {
+                if (this.skipUs.contains(includeNode) || !affectedIncludes.contains(includeNode)) {
                     continue;
                 }
 
+                // remember whether the analysis has reached this include node
+                if (literalAnalysis.getAnalysisNode(includeNode).getPhi().isEmpty()) {
+                    this.unreachableIncludes.add(includeNode);
+                } else {
+                    this.unreachableIncludes.remove(includeNode);
+                }
+
                 Literal includedLit = literalAnalysis.getLiteral(includeNode.getIncludeMe(), includeNode);
                 String includedString = null;
 
@@ -257,7 +375,7 @@ public class ProgramConverter {
                     // try heuristics
                     List<String> includeTargets = ParseNodeHeuristics.getPossibleIncludeTargets(
                         includeNode, literalAnalysis, notFoundDynamicIncludes,
-                        this.workingDirectoryFile.getPath());
+                        this.workingDirectoryFile, this.fileCatalogs);
 
                     if (includeTargets == null) {
                         // more than one possibility
@@ -309,6 +427,8 @@ public class ProgramConverter {
             processUs.addAll(notFoundDynamicIncludes.keySet()); // _,,_
         }
 
+        this.prefetchedTrees = new HashMap<>();
+
         // don't generate warnings for unreachables
         this.removeUnreachables(topIncludes, notFoundDynamicIncludes);
 
@@ -390,7 +510,7 @@ public class ProgramConverter {
 
             // dump include relationships
             Utils.writeToFile(this.includeGraph.dump(),
-                MyOptions.graphPath + "/includes_" + MyOptions.entryFile.getName() + ".txt");
+                this.runContext.getOutputPath() + "/includes_" + this.runContext.getEntryFile().getName() + ".txt");
         }
 
         // we don't need these any more
@@ -410,13 +530,93 @@ public class ProgramConverter {
         baseTac.assignReversePostOrder();
     }
 
+    // returns the unresolved include nodes that can be resolved differently than at the
+    // time of the last literal analysis: those that are new, and those that can be
+    // reached from some change to the program (an included file, or a call node
+    // with a different callee); all unresolved include nodes are added to
+    // "pendingIncludes"
+    private Set<Include> getAffectedIncludes(Supergraph supergraph, Set<Include> pendingIncludes) {
+        Map<Call, TacFunction> callees = new HashMap<>();
+        for (Call callNode : supergraph.getCallNodes()) {
+            callees.put(callNode, callNode.getCallee());
+            if (this.analyzedCallees.get(callNode) != callNode.getCallee()) {
+                this.changedNodes.add(callNode);
+            }
+        }
+        Set<AbstractCfgNode> changedRegion = supergraph.getReachableFrom(this.changedNodes);
+
+        Set<Include> affectedIncludes = new HashSet<>();
+        for (AbstractCfgNode cfgNode : supergraph.getNodes()) {
+            if (!(cfgNode instanceof Include) || this.skipUs.contains(cfgNode)) {
+                continue;
+            }
+            Include includeNode = (Include) cfgNode;
+            pendingIncludes.add(includeNode);
+            if (!this.analyzedIncludes.contains(includeNode) || changedRegion.contains(includeNode)) {
+                affectedIncludes.add(includeNode);
+            }
+        }
+
+        this.changedNodes = new HashSet<>();
+        this.analyzedCallees = callees;
+        this.analyzedIncludes = pendingIncludes;
+        return affectedIncludes;
+    }
+
+    // returns a new literal analysis of the whole program (with a dummy alias analysis)
+    private LiteralAnalysis newLiteralAnalysis() {
+        int kSize = 1;
+        ConnectorComputation connectorComp = new ConnectorComputation(
+            baseTac.getAllFunctions(), baseTac.getMainFunction(), kSize);
+        connectorComp.compute();
+        InterproceduralWorklist workList = new InterproceduralWorklistBetter(new InterproceduralWorklistOrder(baseTac, connectorComp));
+        connectorComp.stats(false);
+
+        AliasAnalysis aliasAnalysis = new DummyAliasAnalysis();
+
+        return new LiteralAnalysis(baseTac, aliasAnalysis, new CallStringAnalysis(connectorComp), workList);
+    }
+
+    // see setCheckAffectedIncludes()
+    private void checkAffectedIncludes(
+        Set<Include> pendingIncludes, Set<Include> affectedIncludes, LiteralAnalysis restrictedAnalysis
+    ) {
+        LiteralAnalysis fullAnalysis = this.newLiteralAnalysis();
+        fullAnalysis.analyze();
+
+        for (Include includeNode : pendingIncludes) {
+            String outcome = outcome(fullAnalysis, includeNode);
+            String expected;
+            if (affectedIncludes.contains(includeNode)) {
+                expected = outcome(restrictedAnalysis, includeNode);
+                this.checkedOutcomes.put(includeNode, expected);
+                this.checkedAffected++;
+            } else {
+                expected = this.checkedOutcomes.get(includeNode);
+                this.checkedUnaffected++;
+            }
+            if (!outcome.equals(expected)) {
+                throw new RuntimeException("Include " + includeNode.getLoc() + " resolved to " + expected
+                    + " instead of " + outcome);
+            }
+        }
+    }
+
+    // the value of the included expression at the given include node, or "<unreachable>"
+    private static String outcome(LiteralAnalysis literalAnalysis, Include includeNode) {
+        if (literalAnalysis.getAnalysisNode(includeNode).getPhi().isEmpty()) {
+            return "<unreachable>";
+        }
+        return literalAnalysis.getLiteral(includeNode.getIncludeMe(), includeNode).toString();
+    }
+
     /**
      * Converts the entry file and sets baseTac.
      */
     private void convertEntryFile() {
-        ParseTree parseTree = this.parse(MyOptions.entryFile.getPath());
+        ParseTree parseTree = this.parse(this.runContext.getEntryFile().getPath());
         baseTac = new TacConverter(
-            parseTree, this.specialNodes, this.numberOfConvertedFiles++, MyOptions.entryFile, this
+            parseTree, this.specialNodes, this.numberOfConvertedFiles++, this.runContext.getEntryFile(), this
         );
         baseTac.convert();
     }
@@ -427,20 +627,44 @@ public class ProgramConverter {
     // - output: the same set, but without those that are inside functions
     //   that are never called
     private void removeUnreachables(Set<Include> includeSet, Map<Include, String> includeMap) {
-        for (Iterator<Include> iter = includeSet.iterator(); iter.hasNext(); ) {
-            Include includeNode = iter.next();
-            AbstractInterproceduralAnalysisNode incAnNode = literalAnalysis.getAnalysisNode(includeNode);
-            if (incAnNode.getPhi().isEmpty()) {
-                iter.remove();
-            }
+        includeSet.removeAll(this.unreachableIncludes);
+        includeMap.keySet().removeAll(this.unreachableIncludes);
+    }
+
+    // starts parsing the files included by the given literal include nodes on a
+    // thread pool, so that their trees are ready when the nodes are processed;
+    // only parsing is done in advance: converting a file adds variables to the
+    // program-wide superglobals symbol table, so the conversion (and the splicing)
+    // stays sequential, in the order of the include nodes;
+    // limitation: the parser (lib, not part of this source tree) numbers the parse
+    // nodes with an unsynchronized static counter, so parse nodes created on
+    // different threads (here, or by concurrent batch runs) can get the same id;
+    // nothing in Pixy relies on these ids (the parse tree dump numbers its nodes
+    // itself), and node identity is never based on them
+    private void prefetch(List<Include> includeNodes) {
+        this.prefetchedTrees = new HashMap<>();
+        if (MyOptions.parseThreads <= 1) {
+            return;
+        }
+        if (this.parseExecutor == null) {
+            this.parseExecutor = Executors.newFixedThreadPool(MyOptions.parseThreads);
         }
 
-        for (Iterator<Map.Entry<Include, String>> iter = includeMap.entrySet().iterator(); iter.hasNext(); ) {
-            Map.Entry<Include, String> entry = iter.next();
-            Include includeNode = entry.getKey();
-            AbstractInterproceduralAnalysisNode incAnNode = literalAnalysis.getAnalysisNode(includeNode);
-            if (incAnNode.getPhi().isEmpty()) {
-                iter.remove();
+        for (Include includeNode : includeNodes) {
+            if (this.skipUs.contains(includeNode) || !includeNode.isLiteral()) {
+                continue;
+            }
+            File includedFile = this.makeFile(includeNode.getIncludeMe().toString(), includeNode.getFile());
+            if (includedFile == null) {
+                continue;
+            }
+            final String canonicalFileName = this.createUniqueFileName(includedFile.getPath());
+            if (!this.prefetchedTrees.containsKey(canonicalFileName)) {
+                this.prefetchedTrees.put(canonicalFileName, this.parseExecutor.submit(new Callable<ParseTree>() {
+                    public ParseTree call() throws Exception {
+                        return parseFile(canonicalFileName);
+                    }
+                }));
             }
         }
     }
@@ -450,18 +674,28 @@ public class ProgramConverter {
 
         ParseTree parseTree = null;
         try {
-            PhpLexer lexer = new PhpLexer(new FileReader(canonicalFileName));
-            lexer.setFileName(canonicalFileName);
-            PhpParser parser = new PhpParser(lexer);
-            ParseNode rootNode = (ParseNode) parser.parse().value;
-            parseTree = new ParseTree(rootNode);
-        } catch (FileNotFoundException e) {
-            Utils.bail("File not found: " + canonicalFileName);
+            Future<ParseTree> prefetchedTree = this.prefetchedTrees.get(canonicalFileName);
+            if (prefetchedTree == null) {
+                parseTree = this.parseFile(canonicalFileName);
+            } else {
+                try {
+                    parseTree = prefetchedTree.get();
+                } catch (ExecutionException e) {
+                    // handle what went wrong while parsing in advance just like
+                    // errors during normal parsing
+                    if (e.getCause() instanceof Error) {
+                        throw (Error) e.getCause();
+                    }
+                    throw (Exception) e.getCause();
+                }
+            }
+        } catch (FileNotFoundException | NoSuchFileException e) {
+            Utils.abortRun("File not found: " + canonicalFileName);
         } catch (Exception e) {
             if (!MyOptions.optionW) {
-                Utils.bail("Error parsing " + canonicalFileName);
+                Utils.abortRun("Error parsing " + canonicalFileName);
             } else {
-                Utils.bail();
+                Utils.abortRun();
             }
         }
 
@@ -472,6 +706,25 @@ public class ProgramConverter {
         return parseTree;
     }
 
+    // parses the given (canonical) file, or takes its tree from the cache
+    private ParseTree parseFile(String canonicalFileName) throws Exception {
+        ParseTreeCache parseTreeCache = this.runContext.getParseTreeCache();
+        if (parseTreeCache != null) {
+            return parseTreeCache.parse(canonicalFileName);
+        } else {
+            return parse(new FileReader(canonicalFileName), canonicalFileName);
+        }
+    }
+
+    // parses the PHP code read from the given reader
+    static ParseTree parse(Reader reader, String canonicalFileName) throws Exception {
+        PhpLexer lexer = new PhpLexer(reader);
+        lexer.setFileName(canonicalFileName);
+        PhpParser parser = new PhpParser(lexer);
+        ParseNode rootNode = (ParseNode) parser.parse().value;
+        return new ParseTree(rootNode);
+    }
+
     private String createUniqueFileName(String fileName) {
         try {
             fileName = (new File(fileName)).getCanonicalPath();
@@ -577,6 +830,7 @@ public class ProgramConverter {
             TacConverter tac = new TacConverter(
                 parseTree, this.specialNodes, this.numberOfConvertedFiles++, includedFile, this);
             tac.convert();
+            this.changedNodes.addAll(includeNode.getPredecessors());
             this.baseTac.include(tac, includeNode, function);
             includeNodes.addAll(tac.getIncludeNodes());
             return InclusionStatus.INCLUDED;
@@ -714,6 +714,11 @@ public class TacConverter {
         return this.mainFunction;
     }
 
+    // the converted file (for the resulting converter: the entry file)
+    public File getFile() {
+        return this.file;
+    }
+
     // returns null if the given hotspot doesn't exist
     public Hotspot getHotspot(int hotspotId) {
         return this.hotspots.get(hotspotId);
@@ -2783,7 +2788,7 @@ public class TacConverter {
                     attsList = this.non_empty_static_array_pair_list(firstChild, arrayPlace);
                 } catch (StackOverflowError e) {
                     System.out.println(node.getLoc());
-                    Utils.bail();
+                    Utils.abortRun();
                 }
                 TacAttributes attsScalar1 = this.static_scalar(node.getChild(2));
                 TacAttributes attsScalar2 = this.static_scalar(node.getChild(4));
@@ -3383,7 +3388,7 @@ public class TacConverter {
             }
 
             default: {
-                Utils.bail("unticked_statement: bad default");
+                Utils.abortRun("unticked_statement: bad default");
                 break;
             }
         }
@@ -4312,7 +4317,7 @@ public class TacConverter {
             }
 
             default: {
-                Utils.bail("expr_without_variable: default: " + firstChild.getName());
+                Utils.abortRun("expr_without_variable: default: " + firstChild.getName());
             }
         }
 
@@ -5480,7 +5485,7 @@ public class TacConverter {
             // -> encaps_list T_BAD_CHARACTER
             case PhpSymbols.T_BAD_CHARACTER: {
                 // the token T_BAD_CHARACTER is never returned by the scanner
-                Utils.bail("encaps_list: unreachable position?");
+                Utils.abortRun("encaps_list: unreachable position?");
                 break;
             }
 
@@ -1,10 +1,7 @@
 package at.ac.tuwien.infosys.www.pixy.conversion.includes;
 
 import java.io.File;
-import java.util.HashMap;
-import java.util.HashSet;
-import java.util.Map;
-import java.util.Set;
+import java.util.*;
 
 /**
  * An include graph consists of vertices corresponding to files and directed edges corresponding to include relationships.
@@ -16,13 +13,16 @@ import java.util.Set;
 public class IncludeGraph {
     private IncludeNode root;
 
-    private Set<IncludeNode> nodes;
-
     // IncludeNode -> Set of IncludeNodes (successors)
     private HashMap<IncludeNode, Set<IncludeNode>> adjSets;
 
-    // IncludeNode -> Integer
-    private HashMap<IncludeNode, Integer> inDegrees;
+    // IncludeNode -> Set of IncludeNodes (predecessors)
+    private HashMap<IncludeNode, Set<IncludeNode>> predSets;
+
+    // IncludeNode -> position in a topological order of the graph
+    // (maintained incrementally, see addAcyclicEdge)
+    private HashMap<IncludeNode, Integer> order;
+    private int nextOrder;
 
 //  ********************************************************************************
 //  CONSTRUCTORS *******************************************************************
@@ -31,21 +31,12 @@ public class IncludeGraph {
     public IncludeGraph(File rootFile) {
         this.root = new IncludeNode(rootFile);
 
-        this.nodes = new HashSet<>();
-        this.nodes.add(root);
-
         this.adjSets = new HashMap<>();
-        this.adjSets.put(root, new HashSet<IncludeNode>());
-
-        this.inDegrees = new HashMap<>();
-        this.inDegrees.put(root, 0);
-    }
+        this.predSets = new HashMap<>();
+        this.order = new HashMap<>();
+        this.nextOrder = 0;
 
-    private IncludeGraph(IncludeGraph cloneMe) {
-        this.root = cloneMe.root;
-        this.nodes = new HashSet<>(cloneMe.nodes);
-        this.adjSets = new HashMap<>(cloneMe.adjSets);
-        this.inDegrees = new HashMap<>(cloneMe.inDegrees);
+        this.addNode(this.root);
     }
 
 //  ********************************************************************************
@@ -81,7 +72,7 @@ public class IncludeGraph {
 
         // System.out.println("addAcyclicEdge: " + from + " -> " + to);
 
-        if (!this.nodes.contains(from)) {
+        if (!this.order.containsKey(from)) {
             throw new RuntimeException("SNH: " + from);
         }
 
@@ -93,164 +84,135 @@ public class IncludeGraph {
 
         // speed-up: if the "to" node doesn't exist yet,
         // there can't appear a cycle through this addition
-        if (!this.nodes.contains(to)) {
+        // (and appending it to the order keeps the order topological)
+        if (!this.order.containsKey(to)) {
             this.addNode(to);
             this.addEdge(from, to);
             return true;
         }
 
-        this.addNode(to);
-        this.addEdge(from, to);
-
-        if (isCyclic()) {
-            // if this made the graph cyclic: undo
-            this.removeEdge(from, to);
-            this.clean(from);
-            this.clean(to);
+        // a file including itself
+        if (from.equals(to)) {
             return false;
-        } else {
-            return true;
         }
-    }
-
-//  edgeExists *********************************************************************
 
-    // tests whether the indicated edge already exists in this graph
-    private boolean edgeExists(IncludeNode from, IncludeNode to) {
-        Set<IncludeNode> adjSet = this.adjSets.get(from);
-        return adjSet != null && adjSet.contains(to);
-    }
-
-//  addEdge ************************************************************************
-
-    // simply adds the indicated edge without asking questions
-    private void addEdge(IncludeNode from, IncludeNode to) {
-        Set<IncludeNode> adjSet = this.adjSets.get(from);
-        adjSet.add(to);
-        this.increaseInDegree(to);
-    }
-
-//  removeEdge *********************************************************************
-
-    private void removeEdge(IncludeNode from, IncludeNode to) {
-        this.decreaseInDegree(to);
-        Set<IncludeNode> adjSet = this.adjSets.get(from);
-        adjSet.remove(to);
-    }
-
-//  increaseInDegree ***************************************************************
-
-    private void increaseInDegree(IncludeNode node) {
-        Integer inDegree = this.inDegrees.get(node);
-        this.inDegrees.put(node, inDegree + 1);
-    }
+        // the order stays topological if "to" already comes after "from"
+        int lowerBound = this.order.get(to);
+        int upperBound = this.order.get(from);
+        if (lowerBound > upperBound) {
+            this.addEdge(from, to);
+            return true;
+        }
 
-//  decreaseInDegree ***************************************************************
+        // otherwise, only the nodes between "to" and "from" in the order are
+        // affected (Pearce & Kelly): the new edge closes a cycle iff "from"
+        // can be reached from "to"; since all nodes reachable from "to" come
+        // after "to", and all nodes from which "from" can be reached come
+        // before "from", both searches can stop at the bounds
+        List<IncludeNode> forward = new ArrayList<>();
+        if (!this.searchForward(to, from, upperBound, forward)) {
+            return false;
+        }
+        List<IncludeNode> backward = new ArrayList<>();
+        this.searchBackward(from, lowerBound, backward);
 
-    private void decreaseInDegree(IncludeNode node) {
-        Integer inDegree = this.inDegrees.get(node);
-        this.inDegrees.put(node, inDegree - 1);
+        this.reorder(backward, forward);
+        this.addEdge(from, to);
+        return true;
     }
 
-//  addNode ************************************************************************
-
-    private void addNode(IncludeNode node) {
-        this.nodes.add(node);
-
-        Set<IncludeNode> adjSet = this.adjSets.get(node);
-        if (adjSet == null) {
-            this.adjSets.put(node, new HashSet<IncludeNode>());
-        }
-
-        Integer inDegree = this.inDegrees.get(node);
-        if (inDegree == null) {
-            this.inDegrees.put(node, 0);
+//  searchForward ******************************************************************
+
+    // collects the nodes reachable from "start" that do not come after
+    // the given bound in the order; returns false if "target" is among them
+    private boolean searchForward(IncludeNode start, IncludeNode target, int upperBound, List<IncludeNode> visited) {
+        Set<IncludeNode> seen = new HashSet<>();
+        Deque<IncludeNode> stack = new ArrayDeque<>();
+        seen.add(start);
+        stack.push(start);
+        while (!stack.isEmpty()) {
+            IncludeNode node = stack.pop();
+            visited.add(node);
+            for (IncludeNode succ : this.adjSets.get(node)) {
+                if (succ.equals(target)) {
+                    return false;
+                }
+                if (this.order.get(succ) < upperBound && seen.add(succ)) {
+                    stack.push(succ);
+                }
+            }
         }
+        return true;
     }
 
-//  isCyclic ***********************************************************************
-
-    // tests whether this graph is actually cyclic
-    private boolean isCyclic() {
-        // - clone this graph
-        // - continue = true
-        // - while "continue"
-        //   - find all nodes with inDegree == 0
-        //   - if there are such nodes:
-        //     - remove them together with their outgoing edges
-        //   - else: continue = false
-        // - if the cloned graph is empty: return false
-        // - else: return true
-
-        IncludeGraph clone = new IncludeGraph(this);
-        boolean goOn = true;
-        while (goOn) {
-
-            // nodes with in-degree == 0
-            Set<IncludeNode> inDegreeZeros = clone.getInDegreeZeros();
-
-            if (inDegreeZeros.isEmpty()) {
-                goOn = false;
-            } else {
-                // remove these nodes (together with their outgoing edges)
-                for (IncludeNode node : inDegreeZeros) {
-                    clone.removeZero(node);
+//  searchBackward *****************************************************************
+
+    // collects the nodes from which "start" can be reached that do not
+    // come before the given bound in the order
+    private void searchBackward(IncludeNode start, int lowerBound, List<IncludeNode> visited) {
+        Set<IncludeNode> seen = new HashSet<>();
+        Deque<IncludeNode> stack = new ArrayDeque<>();
+        seen.add(start);
+        stack.push(start);
+        while (!stack.isEmpty()) {
+            IncludeNode node = stack.pop();
+            visited.add(node);
+            for (IncludeNode pred : this.predSets.get(node)) {
+                if (this.order.get(pred) > lowerBound && seen.add(pred)) {
+                    stack.push(pred);
                 }
             }
         }
-        return !clone.isEmpty();
     }
 
-//  getInDegreeZeros **************************************************************
-
-    // returns a set of IncludeNode's with in-degree zero
-    private Set<IncludeNode> getInDegreeZeros() {
-        Set<IncludeNode> retMe = new HashSet<>();
+//  reorder ************************************************************************
 
-        // EFF: this is a linear search
-        for (Map.Entry<IncludeNode, Integer> entry : this.inDegrees.entrySet()) {
-            int inDegree = entry.getValue();
-            if (inDegree == 0) {
-                retMe.add(entry.getKey());
+    // reassigns the positions occupied by the given nodes such that all nodes
+    // in "backward" come before all nodes in "forward" (keeping the relative
+    // order within these two groups)
+    private void reorder(List<IncludeNode> backward, List<IncludeNode> forward) {
+        Comparator<IncludeNode> byOrder = new Comparator<IncludeNode>() {
+            public int compare(IncludeNode n1, IncludeNode n2) {
+                return order.get(n1).compareTo(order.get(n2));
             }
+        };
+        Collections.sort(backward, byOrder);
+        Collections.sort(forward, byOrder);
+
+        List<IncludeNode> nodes = new ArrayList<>(backward);
+        nodes.addAll(forward);
+        int[] positions = new int[nodes.size()];
+        for (int i = 0; i < positions.length; i++) {
+            positions[i] = this.order.get(nodes.get(i));
+        }
+        Arrays.sort(positions);
+        for (int i = 0; i < positions.length; i++) {
+            this.order.put(nodes.get(i), positions[i]);
         }
-
-        return retMe;
     }
 
-//  removeZero *********************************************************************
+//  edgeExists *********************************************************************
 
-    // removes the given node from the graph (and hence, decreases the in-degree
-    // for all its successors); assumes that the given node has no incoming edges
-    private void removeZero(IncludeNode node) {
-        Set<IncludeNode> adjSet = this.adjSets.get(node);
-        for (IncludeNode successor : adjSet) {
-//            IncludeNode successor = (IncludeNode) anAdjSet;
-            this.decreaseInDegree(successor);
-        }
-        this.adjSets.remove(node);
-        this.inDegrees.remove(node);
-        this.nodes.remove(node);
+    // tests whether the indicated edge already exists in this graph
+    private boolean edgeExists(IncludeNode from, IncludeNode to) {
+        Set<IncludeNode> adjSet = this.adjSets.get(from);
+        return adjSet != null && adjSet.contains(to);
     }
 
-//  isEmpty ************************************************************************
+//  addEdge ************************************************************************
 
-    private boolean isEmpty() {
-        return this.nodes.isEmpty();
+    // simply adds the indicated edge without asking questions
+    private void addEdge(IncludeNode from, IncludeNode to) {
+        this.adjSets.get(from).add(to);
+        this.predSets.get(to).add(from);
     }
 
-//  clean **************************************************************************
-
-    // removes the given node if it has neither in- nor outgoing edges and
-    // if it is not the root node
-    private void clean(IncludeNode node) {
+//  addNode ************************************************************************
 
-        boolean hasNoSucc = ((Set) this.adjSets.get(node)).isEmpty();
-        boolean hasNoPred = this.inDegrees.get(node) == 0;
-        if (hasNoSucc && hasNoPred && !node.equals(this.root)) {
-            this.nodes.remove(node);
-            this.adjSets.remove(node);
-            this.inDegrees.remove(node);
-        }
+    // adds the given (new) node at the end of the order
+    private void addNode(IncludeNode node) {
+        this.adjSets.put(node, new HashSet<IncludeNode>());
+        this.predSets.put(node, new HashSet<IncludeNode>());
+        this.order.put(node, this.nextOrder++);
     }
 }
\ No newline at end of file
@@ -32,6 +32,9 @@ public abstract class AbstractSanitationAnalysis extends AbstractVulnerabilityAn
     /** "xss", "sql", ... */
     protected String name;
 
+    /** automata of dependency graph nodes, shared by all graphs of this run */
+    private final DecorationCache<FSAAutomaton> decorationCache = new DecorationCache<>();
+
     protected AbstractSanitationAnalysis(String name, DependencyAnalysis dependencyAnalysis, FSAAutomaton undesired) {
         super(dependencyAnalysis);
         this.name = name;
@@ -70,7 +73,7 @@ public abstract class AbstractSanitationAnalysis extends AbstractVulnerabilityAn
         System.out.println();
 
         // dump the automaton that represents the undesired stuff
-        this.dumpDotAuto(this.undesiredAutomaton, "undesired_" + name, MyOptions.graphPath);
+        this.dumpDotAuto(this.undesiredAutomaton, "undesired_" + name, this.getOutputPath());
 
         // info for dynamic analysis
         StringBuilder dynInfo = new StringBuilder();
@@ -85,8 +88,8 @@ public abstract class AbstractSanitationAnalysis extends AbstractVulnerabilityAn
             DependencyGraph minGraph = minIter.next();
 
             // in any case, dump the vulnerable depgraphs
-            dependencyGraph.dumpDot(name + "sanitation" + graphcount + "i", MyOptions.graphPath, dependencyGraph.getUninitializedNodes(), this.vulnerabilityAnalysisInformation);
-            minGraph.dumpDot(name + "sanitation" + graphcount + "m", MyOptions.graphPath, dependencyGraph.getUninitializedNodes(), this.vulnerabilityAnalysisInformation);
+            dependencyGraph.dumpDot(name + "sanitation" + graphcount + "i", this.getOutputPath(), dependencyGraph.getUninitializedNodes(), this.vulnerabilityAnalysisInformation);
+            minGraph.dumpDot(name + "sanitation" + graphcount + "m", this.getOutputPath(), dependencyGraph.getUninitializedNodes(), this.vulnerabilityAnalysisInformation);
 
             AbstractCfgNode cfgNode = dependencyGraph.getRootNode().getCfgNode();
 
@@ -117,7 +120,7 @@ public abstract class AbstractSanitationAnalysis extends AbstractVulnerabilityAn
 
                 // dump the intersection automaton:
                 // represents counterexamples!
-                this.dumpDotAuto(intersection, name + "sanitation" + graphcount + "intersect", MyOptions.graphPath);
+                this.dumpDotAuto(intersection, name + "sanitation" + graphcount + "intersect", this.getOutputPath());
 
                 // create a graph that is further minimized to the sanitization routines
                 // (regardless of the effectiveness of the applied sanitization)
@@ -135,7 +138,7 @@ public abstract class AbstractSanitationAnalysis extends AbstractVulnerabilityAn
                     possible_vuln++;
 
                     // dump the minimized graph
-                    sanitMinGraph.dumpDot(name + "sanitation" + graphcount + "mm", MyOptions.graphPath, dependencyGraph.getUninitializedNodes(), this.vulnerabilityAnalysisInformation);
+                    sanitMinGraph.dumpDot(name + "sanitation" + graphcount + "mm", this.getOutputPath(), dependencyGraph.getUninitializedNodes(), this.vulnerabilityAnalysisInformation);
 
                     dynInfo.append("SINK:\n");
                     dynInfo.append(sanitMinGraph.getRootNode().toString());
@@ -166,10 +169,10 @@ public abstract class AbstractSanitationAnalysis extends AbstractVulnerabilityAn
                 eliminated++;
             }
 
-            this.dumpDotAuto(auto, name + "sanitation" + graphcount + "auto", MyOptions.graphPath);
+            this.dumpDotAuto(auto, name + "sanitation" + graphcount + "auto", this.getOutputPath());
         }
 
-        Utils.writeToFile(dynInfo.toString(), MyOptions.graphPath + "/" + name + "info.txt");
+        Utils.writeToFile(dynInfo.toString(), this.getOutputPath() + "/" + name + "info.txt");
 
         System.out.println();
         System.out.println("Scanned depgraphs: " + scanned);
@@ -218,8 +221,9 @@ public abstract class AbstractSanitationAnalysis extends AbstractVulnerabilityAn
     ) {
         dependencyGraph.eliminateCycles();
         AbstractNode root = dependencyGraph.getRootNode();
+        Map<AbstractNode, DecorationCache.Key> keys = new HashMap<>();
         Set<AbstractNode> visited = new HashSet<>();
-        this.decorateSanit(root, deco, visited, dependencyGraph, origDependencyGraph, true);
+        this.decorateSanit(root, deco, keys, visited, dependencyGraph, origDependencyGraph, true);
         FSAAutomaton rootDeco = deco.get(root).clone();
 
         return rootDeco;
@@ -230,14 +234,16 @@ public abstract class AbstractSanitationAnalysis extends AbstractVulnerabilityAn
      *
      * @param node
      * @param deco
+     * @param keys                the keys of the decorated nodes in the decoration cache (null if not cacheable)
      * @param visited
      * @param dependencyGraph
      * @param origDependencyGraph
      * @param trimAllowed
      */
     private void decorateSanit(
-        AbstractNode node, Map<AbstractNode, FSAAutomaton> deco, Set<AbstractNode> visited,
-        DependencyGraph dependencyGraph, DependencyGraph origDependencyGraph, boolean trimAllowed
+        AbstractNode node, Map<AbstractNode, FSAAutomaton> deco, Map<AbstractNode, DecorationCache.Key> keys,
+        Set<AbstractNode> visited, DependencyGraph dependencyGraph, DependencyGraph origDependencyGraph,
+        boolean trimAllowed
     ) {
         visited.add(node);
 
@@ -255,12 +261,25 @@ public abstract class AbstractSanitationAnalysis extends AbstractVulnerabilityAn
             int i = 0;
             for (AbstractNode succ : successors) {
                 if (!visited.contains(succ) && deco.get(succ) == null) {
-                    decorateSanit(succ, deco, visited, dependencyGraph, origDependencyGraph, trimInfo.mayTrim(i));
+                    decorateSanit(
+                        succ, deco, keys, visited, dependencyGraph, origDependencyGraph, trimInfo.mayTrim(i)
+                    );
                 }
                 i++;
             }
         }
 
+        // the same subgraph might already have been decorated for another graph
+        DecorationCache.Key key = this.makeDecorationKey(node, successors, keys, dependencyGraph, trimAllowed);
+        if (key != null) {
+            DecorationCache.Decoration<FSAAutomaton> decoration = this.decorationCache.get(key);
+            if (decoration != null) {
+                keys.put(node, decoration.getKey());
+                deco.put(node, decoration.getAutomaton());
+                return;
+            }
+        }
+
         // now that all successors are decorated, we can decorate this node
         FSAAutomaton auto = null;
         if (node instanceof NormalNode) {
@@ -413,9 +432,59 @@ public abstract class AbstractSanitationAnalysis extends AbstractVulnerabilityAn
             throw new RuntimeException("SNH");
         }
 
+        if (key != null) {
+            DecorationCache.Decoration<FSAAutomaton> decoration = this.decorationCache.put(key, auto, auto.getSize());
+            key = decoration.getKey();
+            auto = decoration.getAutomaton();
+        }
+        keys.put(node, key);
         deco.put(node, auto);
     }
 
+    /**
+     * Returns the key of the given node in the decoration cache, or null if the node's automaton cannot be cached.
+     *
+     * @param node
+     * @param successors
+     * @param keys
+     * @param dependencyGraph
+     * @param trimAllowed
+     *
+     * @return
+     */
+    private DecorationCache.Key makeDecorationKey(
+        AbstractNode node, List<AbstractNode> successors, Map<AbstractNode, DecorationCache.Key> keys,
+        DependencyGraph dependencyGraph, boolean trimAllowed
+    ) {
+        if (node instanceof CompleteGraphNode) {
+            // depends on the original graph (see DecorationCache)
+            return null;
+        }
+        if (node instanceof UninitializedNode) {
+            Set<AbstractNode> predecessors = dependencyGraph.getPredecessors(node);
+            if (predecessors.size() != 1) {
+                return null;
+            }
+            AbstractNode predecessor = predecessors.iterator().next();
+            if (predecessor instanceof CompleteGraphNode) {
+                return null;
+            }
+            return DecorationCache.makeUninitializedKey(predecessor, trimAllowed);
+        }
+
+        List<DecorationCache.Key> successorKeys = new ArrayList<>();
+        if (successors != null) {
+            for (AbstractNode succ : successors) {
+                if (succ == node && node instanceof NormalNode) {
+                    // a simple loop, ignored by decorateSanit()
+                    continue;
+                }
+                successorKeys.add(keys.get(succ));
+            }
+        }
+        return DecorationCache.makeKey(node, trimAllowed, successorKeys);
+    }
+
     /**
      * Returns an automaton for the given operation node.
      *
@@ -1,25 +1,19 @@
 package at.ac.tuwien.infosys.www.pixy.sanitation;
 
-import at.ac.tuwien.infosys.www.pixy.MyOptions;
-import at.ac.tuwien.infosys.www.pixy.Utils;
 import at.ac.tuwien.infosys.www.pixy.conversion.cfgnodes.AbstractCfgNode;
 
-import java.util.List;
-
 /**
- * Helper class responsible for performing transductions using FSA Utilities.
+ * Helper class responsible for performing transductions on FSAAutomatons.
  *
  * @author Nenad Jovanovic <enji@seclab.tuwien.ac.at>
  */
 public class FSAUtils {
-    private static String mohri = MyOptions.fsaHome + "/Examples/MohriSproat96/ops.pl";
-
     public static FSAAutomaton reg_replace(FSAAutomaton phpPatternAuto,
                                            FSAAutomaton replaceAuto, FSAAutomaton subjectAuto, boolean preg,
                                            AbstractCfgNode cfgNode) {
 
         // get a finite string from the pattern
-        List<String> finitePattern = phpPatternAuto.getFiniteString();
+        String finitePattern = phpPatternAuto.getFiniteString();
         if (finitePattern == null) {
             // the pattern is not a finite string, not supported
             return FSAAutomaton.makeAnyString();
@@ -31,11 +25,11 @@ public class FSAUtils {
             return FSAAutomaton.makeAnyString();
         }
 
-        // convert the PHP pattern into a prolog regexp
+        // convert the PHP pattern into an automaton
         boolean approximate = false;
-        FSAAutomaton prologPatternAuto = null;
+        FSAAutomaton patternAuto = null;
         try {
-            prologPatternAuto = FSAAutomaton.convertPhpRegex(finitePattern, preg);
+            patternAuto = FSAAutomaton.convertPhpRegex(finitePattern, preg);
         } catch (UnsupportedRegexException e) {
             // if the regex is not supported yet: just return .*
             System.err.println("unsupported regex:");
@@ -52,21 +46,18 @@ public class FSAUtils {
             approximate = true;
         }
 
-        FSAAutomaton retMe;
-        if (approximate) {
+        FSAAutomaton retMe = null;
+        if (!approximate) {
+            retMe = subjectAuto.replace(patternAuto, replaceAuto);
+            if (retMe == null) {
+                // the regex can be converted, but we can't perform the replacement
+                // for this kind of pattern yet
+                System.err.println("unsupported regex:");
+                System.err.println("- " + cfgNode.getLoc());
+            }
+        }
+        if (retMe == null) {
             retMe = FSAAutomaton.makeAnyString();
-        } else {
-            String patternFile = prologPatternAuto.toFile("temp1.auto");
-            String replaceFile = replaceAuto.toFile("temp2.auto");
-            String subjectFile = subjectAuto.toFile("temp3.auto");
-
-            String c = MyOptions.fsaHome + "/" +
-                "fsa -aux " + mohri + " -r compose(file('" + subjectFile + "'),replace(file('" + patternFile + "'),file('" + replaceFile + "'))) ";
-            String autoString = Utils.exec(c);
-            retMe = new FSAAutomaton(autoString);
-
-            // projection to the output side (turning a transducer into a recognizer)
-            retMe = retMe.projectOut();
         }
 
         return retMe;
@@ -83,25 +74,17 @@ public class FSAUtils {
         // replace = union(replace, search)
         // which covers the possibility that something that matches the search does
         // not have to be replaced in every case
-        if (searchAuto.getFiniteString() == null) {
-            System.out.println("Warning: search automaton is not finite!");
-            System.out.println("- " + cfgNode.getLoc());
-            replaceAuto = FSAAutomaton.makeAnyString();
+        String search = searchAuto.getFiniteString();
+        if (search != null) {
+            return subjectAuto.replace(search, replaceAuto);
         }
 
-        String searchFile = searchAuto.toFile("temp1.auto");
-        String replaceFile = replaceAuto.toFile("temp2.auto");
-        String subjectFile = subjectAuto.toFile("temp3.auto");
-
-        String c = MyOptions.fsaHome + "/" +
-            "fsa -aux " + mohri + " -r compose(file('" + subjectFile + "'),replace(file('" + searchFile + "'),file('" + replaceFile + "'))) ";
-
-        String autoString = Utils.exec(c);
-
-        FSAAutomaton retMe = new FSAAutomaton(autoString);
-
-        // projection to the output side (turning a transducer into a recognizer)
-        retMe = retMe.projectOut();
+        System.out.println("Warning: search automaton is not finite!");
+        System.out.println("- " + cfgNode.getLoc());
+        FSAAutomaton retMe = subjectAuto.replace(searchAuto, FSAAutomaton.makeAnyString());
+        if (retMe == null) {
+            retMe = FSAAutomaton.makeAnyString();
+        }
 
         return retMe;
     }
@@ -124,4 +107,4 @@ public class FSAUtils {
 
         return subjectAuto;
     }
-}
\ No newline at end of file
+}
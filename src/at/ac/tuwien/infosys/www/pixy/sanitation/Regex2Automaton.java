@@ -0,0 +1,224 @@
+package at.ac.tuwien.infosys.www.pixy.sanitation;
+
+import at.ac.tuwien.infosys.www.pixy.automaton.Automaton;
+
+import java.util.LinkedList;
+import java.util.List;
+
+/**
+ * Responsible for converting a PHP regex into an automaton.
+ */
+public class Regex2Automaton {
+    // the regex that is being converted (without delimiters)
+    private final String regex;
+
+    // current position inside the regex
+    private int pos;
+
+    private Regex2Automaton(String regex) {
+        this.regex = regex;
+        this.pos = 0;
+    }
+
+    // converts a PHP regex into an automaton;
+    // throws UnsupportedRegexException for unsupported regexes, and a RuntimeException
+    // for faulty ones (e.g., with unbalanced brackets);
+    // preg: true if this regex is perl-compatible, false if it is posix (ereg)
+    static Automaton convertPhpRegex(String phpRegex, boolean preg) {
+
+        // we don't like empty regexes
+        if (phpRegex.isEmpty()) {
+            throw new RuntimeException("Empty regex");
+        }
+
+        if (preg) {
+            // if the preg regex is not delimited...
+            if (phpRegex.length() < 2 || phpRegex.charAt(0) != '/' || phpRegex.charAt(phpRegex.length() - 1) != '/') {
+                throw new UnsupportedRegexException();
+            }
+            // peel off delimiter
+            phpRegex = phpRegex.substring(1, phpRegex.length() - 1);
+        }
+
+        return new Regex2Automaton(phpRegex).parseSub(false);
+    }
+
+//  ********************************************************************************
+
+    // parses a subsequence (up to the end of the regex or up to a closing bracket);
+    // nested: true if this subsequence is a subpattern, which has to end with a closing bracket
+    private Automaton parseSub(boolean nested) {
+
+        List<Automaton> sequence = new LinkedList<>();
+
+        while (this.hasNext()) {
+
+            // the current symbol
+            char sym = this.next();
+
+            if (sym == '*' || sym == '+' || sym == '?') {
+                // repetition of the previous element
+                if (sequence.isEmpty()) {
+                    throw new UnsupportedRegexException();
+                }
+                Automaton previous = sequence.remove(sequence.size() - 1);
+                if (sym == '*') {
+                    sequence.add(previous.repeat());
+                } else if (sym == '+') {
+                    sequence.add(previous.concatenate(previous.repeat()));
+                } else {
+                    sequence.add(previous.union(Automaton.makeEmptyString()));
+                }
+            } else if (sym == '(') {
+                // start of subpattern
+                sequence.add(this.parseSub(true));
+            } else if (sym == ')') {
+                // end of subpattern
+                if (!nested) {
+                    throw new RuntimeException("faulty regex: unbalanced closing bracket");
+                }
+                return Automaton.concatenate(sequence);
+            } else if (sym == '[') {
+                // start of character class
+                sequence.add(this.parseCharClass());
+            } else if (sym == '|') {
+                // <from_start_of_sub> | <to_end_of_sub>;
+                // the recursive call also consumes the end of the subpattern
+                Automaton toEnd = this.parseSub(nested);
+                return Automaton.concatenate(sequence).union(toEnd);
+            } else if (sym == '.') {
+                // any character
+                sequence.add(Automaton.makeCharRange(Character.MIN_VALUE, Character.MAX_VALUE));
+            } else if (sym == '\\') {
+                // an escape
+                sequence.add(Automaton.makeChar(this.escape()));
+            } else if (sym == '{') {
+                // repetition;
+                // automaton could become quite large;
+                // here is how it would work:
+                // - determine the number of repetitions
+                // - determine the regex that is to be repeated
+                //   (easy: from start of the current subsequence to here)
+                // - if the number of repetitions is a constant {x}:
+                //   - concat the regex this number of times
+                // - else if the number of repetitions is {x,} (i.e., unbounded):
+                //   - repeat x times, and add a star-repetition
+                // - else if the number of repetitions is a range a{2,4}
+                //   - [a,a,a^,a^] (where ^ is option, i.e, ? in usual regex syntax)
+                throw new UnsupportedRegexException();
+            } else if (sym == '^') {
+                // "start of line"
+                throw new UnsupportedRegexException();
+            } else if (sym == '$') {
+                // "end of line"
+                throw new UnsupportedRegexException();
+            } else {
+                // not a meta-character
+                sequence.add(Automaton.makeChar(sym));
+            }
+        }
+
+        if (nested) {
+            throw new RuntimeException("faulty regex: unbalanced opening bracket");
+        }
+
+        return Automaton.concatenate(sequence);
+    }
+
+//  ********************************************************************************
+
+    // parses a character class: [...]
+    private Automaton parseCharClass() {
+
+        Automaton retMe = Automaton.makeEmpty();
+
+        // check whether the first symbol in the character class is a ^;
+        // in this case, we have a negated character class
+        boolean negated = this.hasNext() && this.peek() == '^';
+        if (negated) {
+            this.next();
+        }
+
+        boolean closed = false;
+        while (this.hasNext()) {
+
+            // the current symbol
+            char sym = this.next();
+
+            if (sym == ']') {
+                // end of character class
+                closed = true;
+                break;
+            }
+
+            char start = sym == '\\' ? this.escape() : sym;
+
+            // character range lying ahead (but only if the minus is not the last
+            // character in this character class)
+            if (sym != '\\' && this.hasNext() && this.peek() == '-' &&
+                this.pos + 1 < this.regex.length() && this.regex.charAt(this.pos + 1) != ']') {
+
+                this.next();
+                char end = this.next();
+                retMe = retMe.union(makeRange(start, end));
+            } else {
+                retMe = retMe.union(Automaton.makeChar(start));
+            }
+        }
+
+        if (!closed) {
+            throw new UnsupportedRegexException();
+        }
+
+        if (negated) {
+            Automaton anyChar = Automaton.makeCharRange(Character.MIN_VALUE, Character.MAX_VALUE);
+            retMe = anyChar.intersection(retMe.complement());
+        }
+
+        return retMe;
+    }
+
+//  ********************************************************************************
+
+    // converts a character range: a-z
+    private static Automaton makeRange(char start, char end) {
+        if (start > end) {
+            throw new RuntimeException("faulty regex: " + start + "-" + end);
+        }
+        return Automaton.makeCharRange(start, end);
+    }
+
+//  ********************************************************************************
+
+    // handles backslash escaping;
+    // expects the position to be right after the backslash
+    private char escape() {
+
+        if (!this.hasNext()) {
+            throw new UnsupportedRegexException();
+        }
+
+        char escaped = this.next();
+        if (Character.isLetterOrDigit(escaped)) {
+            // has a special meaning, not supported yet
+            throw new UnsupportedRegexException();
+        }
+
+        // a simple escape of a metacharacter
+        return escaped;
+    }
+
+//  ********************************************************************************
+
+    private boolean hasNext() {
+        return this.pos < this.regex.length();
+    }
+
+    private char next() {
+        return this.regex.charAt(this.pos++);
+    }
+
+    private char peek() {
+        return this.regex.charAt(this.pos);
+    }
+}
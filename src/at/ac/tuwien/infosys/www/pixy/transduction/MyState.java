@@ -1,51 +0,0 @@
-package at.ac.tuwien.infosys.www.pixy.transduction;
-
-/**
- * @author Nenad Jovanovic <enji@seclab.tuwien.ac.at>
- */
-public class MyState {
-    public final int i;
-
-    boolean initial;
-
-    boolean terminal;
-
-    MyState(int i, boolean initial, boolean terminal) {
-        this.i = i;
-        this.initial = initial;
-        this.terminal = terminal;
-    }
-
-    public void setInitial(boolean initial) {
-        this.initial = initial;
-    }
-
-    public void setTerminal(boolean terminal) {
-        this.terminal = terminal;
-    }
-
-    public boolean isInitial() {
-        return this.initial;
-    }
-
-    public boolean isTerminal() {
-        return this.terminal;
-    }
-
-    public String toString() {
-        return Integer.toString(i);
-    }
-
-    public boolean equals(Object o) {
-        try {
-            MyState ds = (MyState) o;
-            return (ds.i == i);
-        } catch (ClassCastException e) {
-            return false;
-        }
-    }
-
-    public int hashCode() {
-        return i;
-    }
-}
\ No newline at end of file
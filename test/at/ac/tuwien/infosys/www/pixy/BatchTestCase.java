@@ -0,0 +1,105 @@
+package at.ac.tuwien.infosys.www.pixy;
+
+import junit.framework.Assert;
+import junit.framework.TestCase;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Test case for batch mode: each entry file has an output directory of its own, and
+ * an entry file that can't be analyzed doesn't abort the others.
+ */
+public class BatchTestCase extends TestCase {
+    private String path;    // complete path to the testfile directory (with trailing slash)
+    private File outputDirectory;
+
+//  ********************************************************************************
+//  SETUP **************************************************************************
+//  ********************************************************************************
+
+    // called automatically
+    protected void setUp() throws IOException {
+        this.path = MyOptions.pixyHome + "/testfiles/batch/";
+        MyOptions.graphPath = MyOptions.pixyHome + "/graphs";
+        MyOptions.setAnalyses("xss");
+        this.outputDirectory = Files.createTempDirectory("pixybatch").toFile();
+    }
+
+    // called automatically
+    protected void tearDown() {
+        MyOptions.batchMode = false;
+        delete(this.outputDirectory);
+    }
+
+    private static void delete(File file) {
+        File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                delete(child);
+            }
+        }
+        file.delete();
+    }
+
+//  ********************************************************************************
+//  TESTS **************************************************************************
+//  ********************************************************************************
+
+    // entry files with the same name get different output directories
+    public void testOutputPaths() {
+        List<String> fileNames = Arrays.asList(
+            this.path + "a/index.php", this.path + "c/index.php", this.path + "c/broken.php");
+        Map<String, String> outputPaths = Checker.batchOutputPaths(fileNames, "/out");
+        Assert.assertEquals(new File("/out/a/index.php").getPath(), outputPaths.get(fileNames.get(0)));
+        Assert.assertEquals(new File("/out/c/index.php").getPath(), outputPaths.get(fileNames.get(1)));
+        Assert.assertEquals(new File("/out/c/broken.php").getPath(), outputPaths.get(fileNames.get(2)));
+
+        // files in the same directory, and a single file
+        outputPaths = Checker.batchOutputPaths(fileNames.subList(1, 3), "/out");
+        Assert.assertEquals(new HashSet<>(Arrays.asList(new File("/out/index.php").getPath(),
+            new File("/out/broken.php").getPath())), new HashSet<>(outputPaths.values()));
+        outputPaths = Checker.batchOutputPaths(fileNames.subList(0, 1), "/out");
+        Assert.assertEquals(new File("/out/index.php").getPath(), outputPaths.get(fileNames.get(0)));
+    }
+
+    // the output of each entry file goes to its own directory
+    public void testSeparateOutput() {
+        MyOptions.batchMode = true;
+        for (String entry : new String[]{"a", "c"}) {
+            File entryOutput = new File(this.outputDirectory, entry);
+            List<Integer> vulnerabilities = Checker.check(
+                this.path + entry + "/index.php", entryOutput.getPath(), null, null);
+            Assert.assertEquals(1, vulnerabilities.size());
+            List<String> outputFiles = Arrays.asList(entryOutput.list());
+            Assert.assertTrue(outputFiles.contains("includes_index.php.txt"));
+            int minGraphs = 0;
+            for (String outputFile : outputFiles) {
+                if (outputFile.startsWith("xss_index.php_") && outputFile.endsWith("_min.dot")) {
+                    minGraphs++;
+                }
+            }
+            Assert.assertEquals(1, minGraphs);
+        }
+        Assert.assertEquals(Arrays.asList(2), Checker.check(
+            this.path + "a/index.php", new File(this.outputDirectory, "a").getPath(), null, null));
+    }
+
+    // an entry file that can't be parsed is recorded as failed
+    public void testFailedEntry() {
+        MyOptions.batchMode = true;
+        Assert.assertNull(Checker.check(
+            this.path + "c/broken.php", new File(this.outputDirectory, "broken").getPath(), null, null));
+        Assert.assertNull(Checker.check(
+            this.path + "c/missing.php", new File(this.outputDirectory, "missing").getPath(), null, null));
+
+        // later entry files are analyzed as usual
+        Assert.assertEquals(Arrays.asList(4), Checker.check(
+            this.path + "c/index.php", new File(this.outputDirectory, "c").getPath(), null, null));
+    }
+}
\ No newline at end of file
@@ -8,9 +8,12 @@ import at.ac.tuwien.infosys.www.pixy.conversion.TacConverter;
 import junit.framework.Assert;
 import junit.framework.TestCase;
 
+import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.FileReader;
+import java.io.FileWriter;
 import java.io.IOException;
+import java.io.Writer;
 import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
@@ -41,8 +44,13 @@ public class DepGraphTestCase extends TestCase {
     // a functional analysis instead of call-string ("functional" param),
     // and uses a dummy literal analysis
     private void mySetUp(String testFile, boolean functional) {
+        this.analyze(this.path + testFile, functional);
+    }
+
+    // analyzes the given file and collects its sinks
+    private void analyze(String fileName, boolean functional) {
 
-        Checker checker = new Checker(this.path + testFile);
+        Checker checker = new Checker(fileName);
         MyOptions.option_A = true;    // perform alias analysis!
         MyOptions.setAnalyses("xss");
 
@@ -102,6 +110,18 @@ public class DepGraphTestCase extends TestCase {
         Assert.assertTrue("Graphs real: " + dependencyGraphs.size() + ", expected: "
             + graphNum, dependencyGraphs.size() == graphNum);
 
+        // building the graphs once more replays the memoized subgraphs;
+        // this must not make any difference
+        List<DependencyGraph> memoizedGraphs = new LinkedList<>();
+        for (Sink sink : sinks) {
+            memoizedGraphs.addAll(dependencyAnalysis.getDependencyGraphsForSink(sink));
+        }
+        Assert.assertEquals(dependencyGraphs.size(), memoizedGraphs.size());
+        for (int i = 0; i < dependencyGraphs.size(); i++) {
+            Assert.assertEquals(dependencyGraphs.get(i).makeDotUnique("memoized"),
+                memoizedGraphs.get(i).makeDotUnique("memoized"));
+        }
+
         int graphCount = 0;
         int vulnCount = 0;
         for (DependencyGraph dependencyGraph : dependencyGraphs) {
@@ -776,6 +796,46 @@ public class DepGraphTestCase extends TestCase {
         this.performTest(testNum, sinkNum, graphNum, false, vulnNum);
     }
 
+    // a chain of several thousand assignments gives a dependency graph that is
+    // just as deep; building and reducing it must not depend on the size of
+    // the Java stack, so this runs on the default one
+    public void testDeepChain() throws IOException {
+        int length = 3000;
+        File testFile = File.createTempFile("chain", ".php");
+        testFile.deleteOnExit();
+        try (Writer writer = new FileWriter(testFile)) {
+            writer.write("<?php\n$x = $_GET['x'];\n");
+            for (int i = 0; i < length; i++) {
+                writer.write("$x = $x . 'a';\n");
+            }
+            writer.write("echo $x;\n");
+        }
+
+        this.analyze(testFile.getPath(), false);
+        Assert.assertEquals(1, this.sinks.size());
+        List<DependencyGraph> dependencyGraphs = dependencyAnalysis.getDependencyGraphsForSink(this.sinks.get(0));
+        Assert.assertEquals(1, dependencyGraphs.size());
+        DependencyGraph dependencyGraph = dependencyGraphs.get(0);
+        Assert.assertTrue(dependencyGraph.getNodes().size() > length);
+        Assert.assertFalse(dependencyGraph.hasCycles());
+        Assert.assertEquals(dependencyGraph.getNodes().size(), dependencyGraph.getSccs().size());
+        Assert.assertEquals(dependencyGraph.getNodes().size(), dependencyGraph.breadthFirstIterator().size());
+        Assert.assertEquals(length + 1, dependencyGraph.countPaths());
+
+        DependencyGraph relevant = this.xssAnalysis.getRelevantSubgraph(dependencyGraph);
+        Map<UninitializedNode, AbstractVulnerabilityAnalysis.InitialTaint> dangerousUninit =
+            this.xssAnalysis.findDangerousUninitializedNodes(relevant);
+        Assert.assertEquals(1, dangerousUninit.size());
+        int relevantSize = relevant.getNodes().size();
+        relevant.reduceWithLeaves(dangerousUninit.keySet());
+        Assert.assertTrue(relevant.getNodes().size() > length);
+        Assert.assertTrue(relevant.getNodes().size() < relevantSize);
+
+        // the uninitialized node is on every path from the root
+        relevant.reduceToInnerNodes(dangerousUninit.keySet());
+        Assert.assertEquals(1, relevant.getLeafNodes().size());
+    }
+
     /*
      * HOW TO ADD NEW TESTS
      *
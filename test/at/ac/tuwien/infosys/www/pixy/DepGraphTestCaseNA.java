@@ -5,6 +5,8 @@ import at.ac.tuwien.infosys.www.pixy.analysis.dependency.Sink;
 import at.ac.tuwien.infosys.www.pixy.analysis.dependency.graph.DependencyGraph;
 import at.ac.tuwien.infosys.www.pixy.analysis.dependency.graph.UninitializedNode;
 import at.ac.tuwien.infosys.www.pixy.conversion.TacConverter;
+import at.ac.tuwien.infosys.www.pixy.conversion.TacFunction;
+import at.ac.tuwien.infosys.www.pixy.conversion.cfgnodes.AbstractCfgNode;
 import junit.framework.Assert;
 import junit.framework.TestCase;
 
@@ -1235,6 +1237,23 @@ public class DepGraphTestCaseNA extends TestCase {
         this.performTestWithCallStringAnalysis(testNumber, expectedNumberOfSinks, expectedNumberOfGraphs, false, expectedNumberOfVulnerabilities);
     }
 
+    // the callee contexts of the functional analysis are restricted to the
+    // globals that the callee can access, so show() has only one context
+    public void test137() {
+        String testNumber = "137";
+        int expectedNumberOfSinks = 2;
+        int expectedNumberOfGraphs = 2;
+        int expectedNumberOfVulnerabilities = 1;
+        this.performTestWithFunctionalAnalysis(testNumber, expectedNumberOfSinks, expectedNumberOfGraphs, false, expectedNumberOfVulnerabilities);
+
+        for (TacFunction function : this.dependencyAnalysis.getFunctions()) {
+            if (function.getName().equals("show")) {
+                AbstractCfgNode entry = function.getControlFlowGraph().getHead();
+                Assert.assertEquals(1, this.dependencyAnalysis.getAnalysisNode(entry).getPhi().size());
+            }
+        }
+    }
+
     /*
      * HOW TO ADD NEW TESTS
      *
@@ -0,0 +1,58 @@
+package at.ac.tuwien.infosys.www.pixy;
+
+import at.ac.tuwien.infosys.www.phpparser.ParseNode;
+import at.ac.tuwien.infosys.www.phpparser.ParseTree;
+import junit.framework.Assert;
+import junit.framework.TestCase;
+
+import java.io.StringWriter;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Test case for the dot dump of parse trees.
+ */
+public class DumperTestCase extends TestCase {
+
+    // returns a tree with a root, two children and a grandchild
+    private static ParseTree makeTree() {
+        ParseNode root = new ParseNode(1, "root", "test.php");
+        ParseNode left = new ParseNode(2, "left", "test.php");
+        left.addChild(new ParseNode(3, "token", "test.php", "echo", 1));
+        root.addChild(left);
+        root.addChild(new ParseNode(4, "right", "test.php", "x", 2));
+        return new ParseTree(root);
+    }
+
+    private static String dump(ParseTree parseTree) {
+        StringWriter writer = new StringWriter();
+        Dumper.dumpDot(parseTree, writer);
+        return writer.toString();
+    }
+
+//  ********************************************************************************
+//  TESTS **************************************************************************
+//  ********************************************************************************
+
+    // the dot nodes don't depend on the ids of the parse nodes, which are not unique
+    // if files are parsed concurrently
+    public void testNumbering() {
+        String dot = dump(makeTree());
+        Assert.assertEquals(dot, dump(makeTree()));
+
+        Set<String> nodes = new HashSet<>();
+        Matcher nodeMatcher = Pattern.compile("(n\\d+) \\[label").matcher(dot);
+        while (nodeMatcher.find()) {
+            Assert.assertTrue(nodes.add(nodeMatcher.group(1)));
+        }
+        Assert.assertEquals(4, nodes.size());
+
+        Assert.assertTrue(dot.contains("n0 [label=\"root\"]"));
+        Assert.assertTrue(dot.contains("n0 -> n1;"));
+        Assert.assertTrue(dot.contains("n1 -> n2;"));
+        Assert.assertTrue(dot.contains("n0 -> n3;"));
+        Assert.assertEquals(3, dot.split(" -> ").length - 1);
+    }
+}
\ No newline at end of file
@@ -3,10 +3,12 @@ package at.ac.tuwien.infosys.www.pixy;
 import at.ac.tuwien.infosys.www.pixy.analysis.dependency.DependencyAnalysis;
 import at.ac.tuwien.infosys.www.pixy.analysis.dependency.Sink;
 import at.ac.tuwien.infosys.www.pixy.analysis.dependency.graph.DependencyGraph;
+import at.ac.tuwien.infosys.www.pixy.conversion.ProgramConverter;
 import at.ac.tuwien.infosys.www.pixy.conversion.TacConverter;
 import junit.framework.Assert;
 import junit.framework.TestCase;
 
+import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.FileReader;
 import java.io.IOException;
@@ -227,6 +229,24 @@ public class IncludeTestCase extends TestCase {
         this.performTest(testNum, sinkNum, graphNum, false);
     }
 
+    public void test16() {
+        String testNum = "16";
+        int sinkNum = 1;
+        int graphNum = 1;
+        this.performTest(testNum, sinkNum, graphNum, false);
+    }
+
+    // later iterations only analyze the part of the program that the affected includes
+    // depend on; this has to resolve the includes just like a full literal analysis
+    public void test16Affected() throws IOException {
+        File entryFile = new File(this.path + "test16.php").getCanonicalFile();
+        ProgramConverter programConverter = new ProgramConverter(new RunContext(entryFile, null, null), false, false);
+        programConverter.setCheckAffectedIncludes(true);
+        programConverter.convert();
+        Assert.assertTrue(programConverter.getCheckedAffectedIncludes() > 0);
+        Assert.assertTrue(programConverter.getCheckedUnaffectedIncludes() > 0);
+    }
+
     /*
      * HOW TO ADD NEW TESTS
      *
@@ -400,6 +400,59 @@ public class SQLTestCase extends TestCase {
         this.performTest(testNum, sinkNum, graphNum, false);
     }
 
+    // the graphs share subgraphs, so most of their automata come from the
+    // analysis' decoration cache
+    public void test41() {
+        String testNum = "41";
+        int sinkNum = 3;
+        int graphNum = 3;
+        this.performTest(testNum, sinkNum, graphNum, false);
+    }
+
+    // checking the sinks concurrently must report the same vulnerabilities
+    // (the checks build automata, whose states draw ids from a shared counter)
+    public void testParallel() {
+        String[] testNums = {"01", "16", "18", "23", "41"};
+        for (String testNum : testNums) {
+            this.mySetUp("test" + testNum + ".php", false);
+            List<Integer> expected = this.sqlAnalysis.detectVulnerabilities();
+
+            MyOptions.detectionThreads = 4;
+            try {
+                this.mySetUp("test" + testNum + ".php", false);
+                Assert.assertEquals(testNum, expected, this.sqlAnalysis.detectVulnerabilities());
+            } finally {
+                MyOptions.detectionThreads = 1;
+            }
+        }
+    }
+
+    // str_replace with transducers: the automaton contains exactly the replaced
+    // strings, and they keep the taint of the subject
+    public void testStrReplace() {
+        this.mySetUp("test42.php", false);
+        Assert.assertEquals(1, this.sinks.size());
+        List<DependencyGraph> dependencyGraphs = this.dependencyAnalysis.getDependencyGraphsForSink(this.sinks.get(0));
+        Assert.assertEquals(1, dependencyGraphs.size());
+        DependencyGraph dependencyGraph = dependencyGraphs.get(0);
+
+        // without transducers, str_replace is modeled as a multi-dependency operation
+        Automaton auto = this.sqlAnalysis.toAutomaton(new DependencyGraph(dependencyGraph), dependencyGraph);
+        Assert.assertTrue(auto.run("SELECT x FROM t WHERE y='a'b'"));
+
+        this.mySetUp("test42.php", false);
+        this.sqlAnalysis.setUseTransducers(true);
+        dependencyGraph = this.dependencyAnalysis.getDependencyGraphsForSink(this.sinks.get(0)).get(0);
+        auto = this.sqlAnalysis.toAutomaton(new DependencyGraph(dependencyGraph), dependencyGraph);
+        Assert.assertTrue(auto.run("SELECT x FROM t WHERE y=''"));
+        Assert.assertTrue(auto.run("SELECT x FROM t WHERE y='a\\'b'"));
+        Assert.assertTrue(auto.run("SELECT x FROM t WHERE y='\\\\''"));
+        Assert.assertFalse(auto.run("SELECT x FROM t WHERE y='a'b'"));
+        Assert.assertFalse(auto.run("SELECT x FROM t WHERE y='''"));
+        Assert.assertTrue(auto.hasDirectlyTaintedTransitions());
+        Assert.assertEquals(Collections.singletonList(5), this.sqlAnalysis.detectVulnerabilities());
+    }
+
     /*
      * HOW TO ADD NEW TESTS
      *
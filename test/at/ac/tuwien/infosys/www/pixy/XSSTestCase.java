@@ -1,9 +1,13 @@
 package at.ac.tuwien.infosys.www.pixy;
 
+import at.ac.tuwien.infosys.www.pixy.analysis.dependency.FunctionSummaryStore;
 import at.ac.tuwien.infosys.www.pixy.conversion.TacConverter;
 import junit.framework.Assert;
 import junit.framework.TestCase;
 
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
 import java.util.LinkedList;
 import java.util.List;
 
@@ -32,10 +36,19 @@ public class XSSTestCase extends TestCase {
     // a functional analysis instead of call-string ("functional" param),
     // and uses a dummy literal analysis
     private void mySetUp(String testFile, boolean functional) {
+        this.mySetUp(testFile, functional, null);
+    }
+
+    // the summary directory can be null
+    private void mySetUp(String testFile, boolean functional, File summaryDirectory) {
 
-        Checker checker = new Checker(this.path + testFile);
         MyOptions.option_A = false;   // don't perform alias analysis
         MyOptions.setAnalyses("xss");
+        FunctionSummaryStore store = null;
+        if (summaryDirectory != null) {
+            store = new FunctionSummaryStore(summaryDirectory, false);
+        }
+        Checker checker = new Checker(this.path + testFile, null, store);
 
         // initialize & analyze
         TacConverter tac = checker.initialize().getTac();
@@ -78,6 +91,81 @@ public class XSSTestCase extends TestCase {
         this.performTest(testNum, exp);
     }
 
+    // functional analysis: the value at a call return node also depends on the
+    // value at the call, not only on the callee's summary
+    public void test04() {
+        List<Integer> exp = new LinkedList<>();
+        exp.add(13);
+        exp.add(21);
+        mySetUp("test04.php", true);
+        Assert.assertEquals(exp, this.vulnList);
+    }
+
+    // same as test02, but checks the sinks concurrently;
+    // the reported line numbers must not change
+    public void test02Parallel() {
+        String testNum = "02";
+        List<Integer> exp = new LinkedList<>();
+        exp.add(10);
+        exp.add(11);
+        exp.add(12);
+        exp.add(14);
+        MyOptions.detectionThreads = 4;
+        try {
+            this.performTest(testNum, exp);
+        } finally {
+            MyOptions.detectionThreads = 1;
+        }
+    }
+
+    // functional analysis with function summaries: without a store, with a new
+    // store (summaries are computed), and with the same store again (summaries
+    // are read from disk); the reported line numbers must not change
+    public void test05() throws IOException {
+        List<Integer> exp = new LinkedList<>();
+        exp.add(24);
+        exp.add(28);
+        exp.add(32);
+        mySetUp("test05.php", true);
+        Assert.assertEquals(exp, this.vulnList);
+
+        File summaryDirectory = Files.createTempDirectory("pixy-summaries").toFile();
+        try {
+            mySetUp("test05.php", true, summaryDirectory);
+            Assert.assertEquals(exp, this.vulnList);
+            Assert.assertTrue(summaryDirectory.list().length > 0);
+
+            mySetUp("test05.php", true, summaryDirectory);
+            Assert.assertEquals(exp, this.vulnList);
+        } finally {
+            for (File file : summaryDirectory.listFiles()) {
+                file.delete();
+            }
+            summaryDirectory.delete();
+        }
+    }
+
+    // call-string analysis with k = 0, without and with adapted call-string lengths
+    public void test06() {
+        List<Integer> exp = new LinkedList<>();
+        exp.add(13);
+        exp.add(14);
+        List<Integer> expAdaptive = new LinkedList<>();
+        expAdaptive.add(13);
+        MyOptions.kSize = 0;
+        try {
+            mySetUp("test06.php", false);
+            Assert.assertEquals(exp, this.vulnList);
+
+            MyOptions.adaptiveKSize = true;
+            mySetUp("test06.php", false);
+            Assert.assertEquals(expAdaptive, this.vulnList);
+        } finally {
+            MyOptions.kSize = 1;
+            MyOptions.adaptiveKSize = false;
+        }
+    }
+
     /*
      * HOW TO ADD NEW TESTS
      *
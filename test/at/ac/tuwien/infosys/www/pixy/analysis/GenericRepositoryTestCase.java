@@ -0,0 +1,162 @@
+package at.ac.tuwien.infosys.www.pixy.analysis;
+
+import junit.framework.Assert;
+import junit.framework.TestCase;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Test case for the segmented weak intern table.
+ */
+public class GenericRepositoryTestCase extends TestCase {
+
+    // a recyclable value with a configurable structure hash code, for provoking collisions
+    private static class Value implements Recyclable {
+        private final int value;
+        private final int hashCode;
+
+        Value(int value, int hashCode) {
+            this.value = value;
+            this.hashCode = hashCode;
+        }
+
+        Value(int value) {
+            this(value, value);
+        }
+
+        public boolean structureEquals(Object compX) {
+            return compX instanceof Value && ((Value) compX).value == this.value;
+        }
+
+        public int structureHashCode() {
+            return this.hashCode;
+        }
+    }
+
+    // runs the garbage collector until the given reference is cleared (or gives up)
+    private static void collect(WeakReference<?> reference) {
+        for (int i = 0; i < 50 && reference.get() != null; i++) {
+            System.gc();
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+//  ********************************************************************************
+//  TESTS **************************************************************************
+//  ********************************************************************************
+
+    public void testIdentity() {
+        GenericRepository<Value> repository = new GenericRepository<>();
+        List<Value> values = new ArrayList<>();
+        for (int i = 0; i < 10000; i++) {
+            Value value = new Value(i);
+            Assert.assertSame(value, repository.recycle(value));
+            values.add(value);
+        }
+        for (int i = 0; i < 10000; i++) {
+            Assert.assertSame(values.get(i), repository.recycle(new Value(i)));
+        }
+        Assert.assertNull(repository.recycle(null));
+    }
+
+    public void testCollisions() {
+        GenericRepository<Value> repository = new GenericRepository<>();
+        List<Value> values = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            values.add(repository.recycle(new Value(i, 42)));
+        }
+        for (int i = 0; i < 500; i++) {
+            Assert.assertSame(values.get(i), repository.recycle(new Value(i, 42)));
+        }
+    }
+
+    public void testConcurrent() throws Exception {
+        final GenericRepository<Value> repository = new GenericRepository<>();
+        final int count = 20000;
+        List<Callable<List<Value>>> tasks = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            final int offset = 7919 * t;
+            tasks.add(new Callable<List<Value>>() {
+                public List<Value> call() {
+                    List<Value> recycled = new ArrayList<>(count);
+                    for (int i = 0; i < count; i++) {
+                        recycled.add(null);
+                    }
+                    // each thread interns the same values, in a different order
+                    for (int i = 0; i < count; i++) {
+                        int value = (i + offset) % count;
+                        recycled.set(value, repository.recycle(new Value(value)));
+                    }
+                    return recycled;
+                }
+            });
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<List<Value>>> futures = executor.invokeAll(tasks);
+            List<Value> first = futures.get(0).get();
+            Map<Value, Boolean> distinct = new IdentityHashMap<>();
+            for (Future<List<Value>> future : futures) {
+                List<Value> recycled = future.get();
+                for (int i = 0; i < count; i++) {
+                    Assert.assertSame(first.get(i), recycled.get(i));
+                    distinct.put(recycled.get(i), true);
+                }
+            }
+            Assert.assertEquals(count, distinct.size());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    public void testReclaimed() {
+        GenericRepository<Value> repository = new GenericRepository<>();
+        Value value = repository.recycle(new Value(1));
+        WeakReference<Value> reference = new WeakReference<>(value);
+        value = null;
+
+        collect(reference);
+        Assert.assertNull(reference.get());
+
+        // an equal value is not matched with the reclaimed one
+        Value fresh = new Value(1);
+        Assert.assertSame(fresh, repository.recycle(fresh));
+        Assert.assertSame(fresh, repository.recycle(new Value(1)));
+    }
+
+    public void testStaleSlotsReused() {
+        GenericRepository<Value> repository = new GenericRepository<>();
+        List<Value> survivors = new ArrayList<>();
+        for (int round = 0; round < 20; round++) {
+            List<Value> values = new ArrayList<>();
+            for (int i = 0; i < 1000; i++) {
+                values.add(repository.recycle(new Value(1000 * round + i)));
+            }
+            survivors.add(values.get(0));
+            WeakReference<Value> reference = new WeakReference<>(values.get(1));
+            values = null;
+            collect(reference);
+        }
+
+        // the survivors are still found, and the table did not keep the dropped values
+        for (int round = 0; round < 20; round++) {
+            Assert.assertSame(survivors.get(round), repository.recycle(new Value(1000 * round)));
+        }
+        String statistics = repository.getStatistics();
+        int entries = Integer.parseInt(statistics.replaceAll(".*, (\\d+) entries$", "$1"));
+        Assert.assertTrue(statistics, entries < 20 * 1000);
+    }
+}
\ No newline at end of file
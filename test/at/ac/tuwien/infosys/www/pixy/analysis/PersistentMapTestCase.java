@@ -0,0 +1,121 @@
+package at.ac.tuwien.infosys.www.pixy.analysis;
+
+import junit.framework.Assert;
+import junit.framework.TestCase;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Test case for the persistent map used by the lattice elements.
+ */
+public class PersistentMapTestCase extends TestCase {
+
+    // a key with a configurable hash code, for provoking collisions
+    private static class Key {
+        private final int id;
+        private final int hashCode;
+
+        Key(int id, int hashCode) {
+            this.id = id;
+            this.hashCode = hashCode;
+        }
+
+        public boolean equals(Object obj) {
+            return obj instanceof Key && ((Key) obj).id == this.id;
+        }
+
+        public int hashCode() {
+            return this.hashCode;
+        }
+
+        public String toString() {
+            return "k" + this.id;
+        }
+    }
+
+//  ********************************************************************************
+//  TESTS **************************************************************************
+//  ********************************************************************************
+
+    public void testAgainstHashMap() {
+        this.compareWithHashMap(new Random(1), 1000);
+    }
+
+    public void testAgainstHashMapWithCollisions() {
+        this.compareWithHashMap(new Random(2), 8);
+    }
+
+    public void testSharing() {
+        PersistentMap<Key, Integer> map = PersistentMap.empty();
+        Key key = new Key(1, 1);
+        map = map.plus(key, 1);
+        Assert.assertSame(map, map.plus(key, 1));
+        Assert.assertSame(map, map.minus(new Key(2, 2)));
+
+        PersistentMap<Key, Integer> changed = map.plus(key, 2);
+        Assert.assertEquals(Integer.valueOf(1), map.get(key));
+        Assert.assertEquals(Integer.valueOf(2), changed.get(key));
+        Assert.assertSame(PersistentMap.empty(), changed.minus(key));
+    }
+
+//  ********************************************************************************
+
+    // performs random updates on a persistent map and a HashMap, and compares
+    // the two (and the differences to older versions of the persistent map)
+    private void compareWithHashMap(Random random, int hashCodes) {
+        List<Key> keys = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            keys.add(new Key(i, random.nextInt(hashCodes)));
+        }
+
+        PersistentMap<Key, Integer> map = PersistentMap.empty();
+        Map<Key, Integer> expected = new HashMap<>();
+        List<PersistentMap<Key, Integer>> versions = new ArrayList<>();
+        List<Map<Key, Integer>> expectedVersions = new ArrayList<>();
+
+        for (int i = 0; i < 3000; i++) {
+            Key key = keys.get(random.nextInt(keys.size()));
+            if (random.nextInt(3) == 0) {
+                map = map.minus(key);
+                expected.remove(key);
+            } else {
+                Integer value = random.nextInt(4);
+                map = map.plus(key, value);
+                expected.put(key, value);
+            }
+
+            if (i % 100 == 0) {
+                versions.add(map);
+                expectedVersions.add(new HashMap<>(expected));
+            }
+        }
+
+        Assert.assertEquals(expected, map);
+        Assert.assertEquals(map, expected);
+        Assert.assertEquals(expected.hashCode(), map.hashCode());
+
+        for (int i = 0; i < versions.size(); i++) {
+            PersistentMap<Key, Integer> version = versions.get(i);
+            Map<Key, Integer> expectedVersion = expectedVersions.get(i);
+            Assert.assertEquals(expectedVersion, version);
+
+            Set<Key> differing = new HashSet<>();
+            for (Key key : keys) {
+                Integer value = expectedVersion.get(key);
+                if (value == null ? expected.get(key) != null : !value.equals(expected.get(key))) {
+                    differing.add(key);
+                }
+            }
+            List<Key> differingKeys = version.differingKeys(map);
+            Assert.assertEquals(differing, new HashSet<>(differingKeys));
+            Assert.assertEquals(differing.size(), differingKeys.size());
+            Assert.assertEquals(differing.isEmpty(), version.equals(map));
+        }
+    }
+}
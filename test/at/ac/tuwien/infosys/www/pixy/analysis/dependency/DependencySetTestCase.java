@@ -0,0 +1,145 @@
+package at.ac.tuwien.infosys.www.pixy.analysis.dependency;
+
+import at.ac.tuwien.infosys.www.pixy.conversion.cfgnodes.AbstractCfgNode;
+import at.ac.tuwien.infosys.www.pixy.conversion.cfgnodes.Empty;
+import junit.framework.Assert;
+import junit.framework.TestCase;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Test case for the interned bitset representation of dependency sets.
+ */
+public class DependencySetTestCase extends TestCase {
+    private DependencyTable table;
+
+    // labels with the ids 1 to 300 (spanning several words)
+    private List<DependencyLabel> labels;
+
+//  ********************************************************************************
+//  SETUP **************************************************************************
+//  ********************************************************************************
+
+    // called automatically
+    protected void setUp() {
+        this.table = new DependencyTable();
+        this.labels = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            this.labels.add(DependencyLabel.create(this.table, new Empty()));
+        }
+    }
+
+    private Set<DependencyLabel> randomLabels(Random random) {
+        Set<DependencyLabel> retMe = new HashSet<>();
+        int count = 1 + random.nextInt(8);
+        for (int i = 0; i < count; i++) {
+            retMe.add(this.labels.get(random.nextInt(this.labels.size())));
+        }
+        if (random.nextInt(4) == 0) {
+            retMe.add(DependencyLabel.UNINIT);
+        }
+        return retMe;
+    }
+
+//  ********************************************************************************
+//  TESTS **************************************************************************
+//  ********************************************************************************
+
+    public void testLabels() {
+        AbstractCfgNode cfgNode = this.labels.get(5).getCfgNode();
+        Assert.assertSame(this.labels.get(5), DependencyLabel.create(this.table, cfgNode));
+        Assert.assertEquals(301, this.table.getLabelCount());
+
+        // another run has labels of its own
+        DependencyTable other = new DependencyTable();
+        DependencyLabel otherLabel = DependencyLabel.create(other, cfgNode);
+        Assert.assertNotSame(this.labels.get(5), otherLabel);
+        Assert.assertEquals(2, other.getLabelCount());
+    }
+
+    public void testRoundTrip() {
+        Random random = new Random(1);
+        for (int i = 0; i < 1000; i++) {
+            Set<DependencyLabel> labelSet = this.randomLabels(random);
+            DependencySet set = DependencySet.create(labelSet);
+            Assert.assertEquals(labelSet, set.getDependencyLabelSet());
+
+            // iteration is in the order of the ids
+            int lastId = -1;
+            for (DependencyLabel label : set) {
+                Assert.assertTrue(label.getId() > lastId);
+                lastId = label.getId();
+            }
+        }
+    }
+
+    public void testInterning() {
+        Set<DependencyLabel> labelSet = new HashSet<>();
+        labelSet.add(this.labels.get(3));
+        labelSet.add(this.labels.get(200));
+        DependencySet set = DependencySet.create(labelSet);
+        Assert.assertSame(set, DependencySet.create(new HashSet<>(labelSet)));
+        Assert.assertSame(DependencySet.create(this.labels.get(7)), DependencySet.create(this.labels.get(7)));
+
+        int setCount = this.table.getSetCount();
+        DependencySet.create(new HashSet<>(labelSet));
+        Assert.assertEquals(setCount, this.table.getSetCount());
+
+        Assert.assertSame(DependencySet.UNINIT, DependencySet.create(DependencyLabel.UNINIT));
+        Set<DependencyLabel> uninit = new HashSet<>();
+        uninit.add(DependencyLabel.UNINIT);
+        Assert.assertSame(DependencySet.UNINIT, DependencySet.create(uninit));
+    }
+
+    public void testLub() {
+        Random random = new Random(2);
+        for (int i = 0; i < 1000; i++) {
+            Set<DependencyLabel> labelsA = this.randomLabels(random);
+            Set<DependencyLabel> labelsB = this.randomLabels(random);
+            DependencySet a = DependencySet.create(labelsA);
+            DependencySet b = DependencySet.create(labelsB);
+
+            Set<DependencyLabel> union = new HashSet<>(labelsA);
+            union.addAll(labelsB);
+            DependencySet lub = DependencySet.lub(a, b);
+            Assert.assertEquals(union, lub.getDependencyLabelSet());
+            Assert.assertSame(DependencySet.create(union), lub);
+            Assert.assertSame(lub, DependencySet.lub(b, a));
+
+            Assert.assertSame(a, DependencySet.lub(a, a));
+            Assert.assertSame(lub, DependencySet.lub(lub, a));
+            Assert.assertSame(lub, DependencySet.lub(b, lub));
+        }
+
+        DependencySet set = DependencySet.create(this.labels.get(100));
+        DependencySet withUninit = DependencySet.lub(DependencySet.UNINIT, set);
+        Assert.assertTrue(withUninit.getDependencyLabelSet().contains(DependencyLabel.UNINIT));
+        Assert.assertSame(withUninit, DependencySet.lub(set, DependencySet.UNINIT));
+    }
+
+    // the labels and sets of a run must not keep its cfg nodes alive
+    // after the run is over
+    public void testNotRetained() {
+        DependencyTable other = new DependencyTable();
+        AbstractCfgNode cfgNode = new Empty();
+        DependencySet.lub(DependencySet.create(DependencyLabel.create(other, cfgNode)), DependencySet.UNINIT);
+        WeakReference<AbstractCfgNode> reference = new WeakReference<>(cfgNode);
+        other = null;
+        cfgNode = null;
+
+        for (int i = 0; i < 50 && reference.get() != null; i++) {
+            System.gc();
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        Assert.assertNull(reference.get());
+    }
+}
\ No newline at end of file
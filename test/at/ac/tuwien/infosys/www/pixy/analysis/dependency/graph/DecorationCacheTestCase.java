@@ -0,0 +1,109 @@
+package at.ac.tuwien.infosys.www.pixy.analysis.dependency.graph;
+
+import at.ac.tuwien.infosys.www.pixy.conversion.cfgnodes.Empty;
+import junit.framework.Assert;
+import junit.framework.TestCase;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Test case for the cache of the automata of dependency graph nodes.
+ */
+public class DecorationCacheTestCase extends TestCase {
+    private List<DecorationCache.Key> keys;
+
+//  ********************************************************************************
+//  SETUP **************************************************************************
+//  ********************************************************************************
+
+    // called automatically
+    protected void setUp() {
+        this.keys = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            AbstractNode node = new BuiltinFunctionNode(new Empty(), "f" + i, true);
+            this.keys.add(DecorationCache.makeKey(node, null, Collections.<DecorationCache.Key>emptyList()));
+        }
+    }
+
+//  ********************************************************************************
+//  TESTS **************************************************************************
+//  ********************************************************************************
+
+    // the first key that is put becomes canonical, and identifies the subgraphs above it
+    public void testCanonical() {
+        DecorationCache<String> cache = new DecorationCache<>();
+        AbstractNode leaf = new BuiltinFunctionNode(new Empty(), "leaf", true);
+        AbstractNode parent = new BuiltinFunctionNode(new Empty(), "parent", true);
+        DecorationCache.Key first = DecorationCache.makeKey(leaf, null, Collections.<DecorationCache.Key>emptyList());
+        DecorationCache.Key second = DecorationCache.makeKey(leaf, null, Collections.<DecorationCache.Key>emptyList());
+        Assert.assertNotSame(first, second);
+
+        Assert.assertSame(first, cache.put(first, "a", 1).getKey());
+        DecorationCache.Decoration<String> decoration = cache.get(second);
+        Assert.assertSame(first, decoration.getKey());
+        Assert.assertEquals("a", decoration.getAutomaton());
+        Assert.assertSame(first, cache.put(second, "b", 1).getKey());
+        Assert.assertEquals("a", cache.get(second).getAutomaton());
+
+        cache.put(DecorationCache.makeKey(parent, null, Collections.singletonList(first)), "c", 1);
+        Assert.assertEquals("c", cache.get(DecorationCache.makeKey(parent, null,
+            Collections.singletonList(decoration.getKey()))).getAutomaton());
+
+        // the details are part of the key
+        Assert.assertNull(cache.get(DecorationCache.makeKey(leaf, true, Collections.<DecorationCache.Key>emptyList())));
+    }
+
+    // a node above a node that can't be cached can't be cached either
+    public void testUncachedSuccessor() {
+        AbstractNode node = new BuiltinFunctionNode(new Empty(), "f", true);
+        List<DecorationCache.Key> successors = new ArrayList<>();
+        successors.add(this.keys.get(0));
+        successors.add(null);
+        Assert.assertNull(DecorationCache.makeKey(node, null, successors));
+    }
+
+    // the capacity bounds the total size of the automata; the least recently used ones are evicted
+    public void testEvictionBySize() {
+        DecorationCache<String> cache = new DecorationCache<>(100);
+        for (int i = 0; i < 5; i++) {
+            cache.put(this.keys.get(i), "a" + i, 19);
+        }
+        Assert.assertEquals(5, cache.size());
+        Assert.assertEquals(100, cache.getSize());
+
+        // makes key 0 the most recently used one
+        Assert.assertNotNull(cache.get(this.keys.get(0)));
+
+        cache.put(this.keys.get(5), "a5", 39);
+        Assert.assertEquals(4, cache.size());
+        Assert.assertEquals(100, cache.getSize());
+        Assert.assertNotNull(cache.get(this.keys.get(0)));
+        Assert.assertNull(cache.get(this.keys.get(1)));
+        Assert.assertNull(cache.get(this.keys.get(2)));
+        Assert.assertNotNull(cache.get(this.keys.get(3)));
+        Assert.assertNotNull(cache.get(this.keys.get(5)));
+
+        // small automata only evict as much as they need: key 4 is the least recently used one
+        for (int i = 6; i < 10; i++) {
+            cache.put(this.keys.get(i), "a" + i, 0);
+        }
+        Assert.assertEquals(7, cache.size());
+        Assert.assertEquals(84, cache.getSize());
+        Assert.assertNull(cache.get(this.keys.get(4)));
+        Assert.assertNotNull(cache.get(this.keys.get(5)));
+    }
+
+    // an automaton that is larger than the capacity is returned, but not cached
+    public void testTooLarge() {
+        DecorationCache<String> cache = new DecorationCache<>(100);
+        cache.put(this.keys.get(0), "a0", 10);
+        DecorationCache.Decoration<String> decoration = cache.put(this.keys.get(1), "a1", 100);
+        Assert.assertSame(this.keys.get(1), decoration.getKey());
+        Assert.assertEquals("a1", decoration.getAutomaton());
+        Assert.assertNull(cache.get(this.keys.get(1)));
+        Assert.assertNotNull(cache.get(this.keys.get(0)));
+        Assert.assertEquals(11, cache.getSize());
+    }
+}
\ No newline at end of file
@@ -0,0 +1,108 @@
+package at.ac.tuwien.infosys.www.pixy.analysis.dependency.graph;
+
+import at.ac.tuwien.infosys.www.pixy.MyOptions;
+import at.ac.tuwien.infosys.www.pixy.RunContext;
+import at.ac.tuwien.infosys.www.pixy.analysis.interprocedural.AbstractContext;
+import at.ac.tuwien.infosys.www.pixy.conversion.AbstractTacPlace;
+import at.ac.tuwien.infosys.www.pixy.conversion.ProgramConverter;
+import at.ac.tuwien.infosys.www.pixy.conversion.TacFunction;
+import at.ac.tuwien.infosys.www.pixy.conversion.Variable;
+import junit.framework.Assert;
+import junit.framework.TestCase;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Test case for the cache of the subgraphs recorded during dependency graph construction.
+ */
+public class DependencyGraphCacheTestCase extends TestCase {
+    private List<DependencyGraphCache.Key> keys;
+
+//  ********************************************************************************
+//  SETUP **************************************************************************
+//  ********************************************************************************
+
+    // called automatically
+    protected void setUp() throws IOException {
+        MyOptions.graphPath = MyOptions.pixyHome + "/graphs";
+        File entryFile = new File(MyOptions.pixyHome + "/testfiles/depgraph/test001.php").getCanonicalFile();
+        ProgramConverter programConverter = new ProgramConverter(new RunContext(entryFile, null, null), false, false);
+        programConverter.convert();
+        TacFunction mainFunction = programConverter.getTac().getMainFunction();
+
+        this.keys = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            this.keys.add(new DependencyGraphCache.Key(
+                new Variable("$v" + i, mainFunction.getSymbolTable()),
+                mainFunction.getControlFlowGraph().getHead(), mainFunction,
+                Collections.<AbstractTacPlace>emptyList(), Collections.<AbstractContext>emptySet()));
+        }
+    }
+
+    // returns a subgraph that covers the whole given log
+    private static DependencyGraphCache.Subgraph subgraph(AbstractNode[] log) {
+        return new DependencyGraphCache.Subgraph(log, 0, log.length);
+    }
+
+//  ********************************************************************************
+//  TESTS **************************************************************************
+//  ********************************************************************************
+
+    // subgraphs of the same log count the log only once; a log is released with the
+    // last subgraph that refers to it
+    public void testSharedLog() {
+        DependencyGraphCache cache = new DependencyGraphCache(100);
+        AbstractNode[] log = new AbstractNode[30];
+        cache.put(this.keys.get(0), new DependencyGraphCache.Subgraph(log, 0, 30));
+        cache.put(this.keys.get(1), new DependencyGraphCache.Subgraph(log, 10, 20));
+        Assert.assertEquals(2, cache.size());
+        Assert.assertEquals(32, cache.getSize());
+
+        // the first subgraph stays
+        cache.put(this.keys.get(0), subgraph(new AbstractNode[10]));
+        Assert.assertEquals(30, cache.get(this.keys.get(0)).end);
+        Assert.assertEquals(32, cache.getSize());
+    }
+
+    // the capacity bounds the total length of the logs; the least recently used subgraphs are evicted
+    public void testEvictionBySize() {
+        DependencyGraphCache cache = new DependencyGraphCache(100);
+        AbstractNode[] firstLog = new AbstractNode[30];
+        cache.put(this.keys.get(0), subgraph(firstLog));
+        cache.put(this.keys.get(1), new DependencyGraphCache.Subgraph(firstLog, 2, 30));
+        cache.put(this.keys.get(2), subgraph(new AbstractNode[30]));
+        Assert.assertEquals(63, cache.getSize());
+
+        // makes key 0 the most recently used one
+        Assert.assertNotNull(cache.get(this.keys.get(0)));
+
+        // evicting key 1 doesn't release the first log, so key 2 has to go as well
+        cache.put(this.keys.get(3), subgraph(new AbstractNode[40]));
+        Assert.assertEquals(2, cache.size());
+        Assert.assertEquals(72, cache.getSize());
+        Assert.assertNotNull(cache.get(this.keys.get(0)));
+        Assert.assertNull(cache.get(this.keys.get(1)));
+        Assert.assertNull(cache.get(this.keys.get(2)));
+        Assert.assertNotNull(cache.get(this.keys.get(3)));
+
+        // evicting key 0 releases the first log
+        cache.put(this.keys.get(4), subgraph(new AbstractNode[50]));
+        Assert.assertEquals(2, cache.size());
+        Assert.assertEquals(92, cache.getSize());
+        Assert.assertNull(cache.get(this.keys.get(0)));
+    }
+
+    // a log that is longer than the capacity is not cached
+    public void testTooLarge() {
+        DependencyGraphCache cache = new DependencyGraphCache(100);
+        cache.put(this.keys.get(0), subgraph(new AbstractNode[10]));
+        cache.put(this.keys.get(1), subgraph(new AbstractNode[100]));
+        Assert.assertNull(cache.get(this.keys.get(1)));
+        Assert.assertNotNull(cache.get(this.keys.get(0)));
+        Assert.assertEquals(11, cache.getSize());
+    }
+}
\ No newline at end of file
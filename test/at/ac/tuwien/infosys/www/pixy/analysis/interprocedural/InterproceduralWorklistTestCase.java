@@ -0,0 +1,170 @@
+package at.ac.tuwien.infosys.www.pixy.analysis.interprocedural;
+
+import at.ac.tuwien.infosys.www.pixy.MyOptions;
+import at.ac.tuwien.infosys.www.pixy.RunContext;
+import at.ac.tuwien.infosys.www.pixy.analysis.interprocedural.callstring.CallStringContext;
+import at.ac.tuwien.infosys.www.pixy.conversion.CfgEdge;
+import at.ac.tuwien.infosys.www.pixy.conversion.ProgramConverter;
+import at.ac.tuwien.infosys.www.pixy.conversion.TacConverter;
+import at.ac.tuwien.infosys.www.pixy.conversion.TacFunction;
+import at.ac.tuwien.infosys.www.pixy.conversion.cfgnodes.AbstractCfgNode;
+import at.ac.tuwien.infosys.www.pixy.conversion.cfgnodes.Call;
+import at.ac.tuwien.infosys.www.pixy.conversion.cfgnodes.CfgExit;
+import junit.framework.Assert;
+import junit.framework.TestCase;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Test case for the reverse postorder of the interprocedural worklist.
+ */
+public class InterproceduralWorklistTestCase extends TestCase {
+    private InterproceduralWorklistOrder order;
+
+//  ********************************************************************************
+//  SETUP **************************************************************************
+//  ********************************************************************************
+
+    // called automatically
+    protected void setUp() throws IOException {
+        MyOptions.graphPath = MyOptions.pixyHome + "/graphs";
+        File entryFile = new File(MyOptions.pixyHome + "/testfiles/worklist/test01.php").getCanonicalFile();
+        ProgramConverter programConverter = new ProgramConverter(new RunContext(entryFile, null, null), false, false);
+        programConverter.convert();
+        TacConverter tac = programConverter.getTac();
+
+        // two calls of f() lead to two contexts of f()
+        ConnectorComputation connectorComputation =
+            new ConnectorComputation(tac.getAllFunctions(), tac.getMainFunction(), 1);
+        connectorComputation.compute();
+        this.order = new InterproceduralWorklistOrder(tac, connectorComputation);
+    }
+
+    // returns true if the target node can be reached from the source node
+    // inside their function
+    private static boolean reaches(AbstractCfgNode source, AbstractCfgNode target) {
+        Set<AbstractCfgNode> visited = new HashSet<>();
+        LinkedList<AbstractCfgNode> queue = new LinkedList<>();
+        queue.add(source);
+        while (!queue.isEmpty()) {
+            AbstractCfgNode node = queue.removeFirst();
+            if (node == target) {
+                return true;
+            }
+            if (!visited.add(node)) {
+                continue;
+            }
+            for (CfgEdge outEdge : node.getOutEdges()) {
+                if (outEdge != null) {
+                    queue.add(outEdge.getDestination());
+                }
+            }
+        }
+        return false;
+    }
+
+//  ********************************************************************************
+//  TESTS **************************************************************************
+//  ********************************************************************************
+
+    // the orders are dense and each element has exactly one
+    public void testDense() {
+        Set<InterproceduralWorklistElement> elements = new HashSet<>();
+        Set<TacFunction> functions = new HashSet<>();
+        Set<AbstractContext> contextsOfF = new HashSet<>();
+        for (int i = 0; i < this.order.size(); i++) {
+            InterproceduralWorklistElement element = this.order.getElement(i);
+            Assert.assertTrue(elements.add(element));
+            Assert.assertEquals(i, this.order.getReversePostOrder(element.getCfgNode(), element.getContext()));
+
+            TacFunction function = element.getCfgNode().getEnclosingFunction();
+            functions.add(function);
+            if (!function.isMain()) {
+                contextsOfF.add(element.getContext());
+            }
+        }
+        Assert.assertEquals(2, functions.size());
+        Assert.assertEquals(2, contextsOfF.size());
+        Assert.assertEquals(-1, this.order.getReversePostOrder(this.order.getElement(0).getCfgNode(),
+            new CallStringContext(5)));
+    }
+
+    // an edge inside a function only leads to a lower order if it closes a loop
+    public void testReversePostorder() {
+        int backEdges = 0;
+        for (int i = 0; i < this.order.size(); i++) {
+            InterproceduralWorklistElement element = this.order.getElement(i);
+            AbstractCfgNode cfgNode = element.getCfgNode();
+            if (cfgNode instanceof Call || cfgNode instanceof CfgExit) {
+                continue;
+            }
+            for (CfgEdge outEdge : cfgNode.getOutEdges()) {
+                if (outEdge == null) {
+                    continue;
+                }
+                AbstractCfgNode successor = outEdge.getDestination();
+                int successorOrder = this.order.getReversePostOrder(successor, element.getContext());
+                Assert.assertTrue(successorOrder >= 0);
+                if (successorOrder <= i) {
+                    Assert.assertTrue(reaches(successor, cfgNode));
+                    backEdges++;
+                }
+            }
+        }
+        // the while loop
+        Assert.assertEquals(1, backEdges);
+    }
+
+    // elements are removed in the order of their orders, and only once
+    public void testProcessingOrder() {
+        InterproceduralWorklistBetter workList = new InterproceduralWorklistBetter(this.order);
+        Assert.assertFalse(workList.hasNext());
+
+        List<Integer> orders = new ArrayList<>();
+        for (int i = 0; i < this.order.size(); i++) {
+            orders.add(i);
+            orders.add(i);
+        }
+        Collections.shuffle(orders, new Random(1));
+        for (int rpo : orders) {
+            InterproceduralWorklistElement element = this.order.getElement(rpo);
+            workList.add(element.getCfgNode(), element.getContext());
+        }
+
+        for (int i = 0; i < this.order.size(); i++) {
+            Assert.assertTrue(workList.hasNext());
+            Assert.assertSame(this.order.getElement(i), workList.removeNext());
+        }
+        Assert.assertFalse(workList.hasNext());
+    }
+
+    // an element that is added while the worklist is processed is removed next
+    // if it comes first
+    public void testAddWhileProcessing() {
+        InterproceduralWorklistBetter workList = new InterproceduralWorklistBetter(this.order);
+        int last = this.order.size() - 1;
+        for (int rpo : new int[]{last, 3, 7}) {
+            InterproceduralWorklistElement element = this.order.getElement(rpo);
+            workList.add(element.getCfgNode(), element.getContext());
+        }
+
+        Assert.assertSame(this.order.getElement(3), workList.removeNext());
+        for (int rpo : new int[]{1, 7, 5}) {
+            InterproceduralWorklistElement element = this.order.getElement(rpo);
+            workList.add(element.getCfgNode(), element.getContext());
+        }
+        Assert.assertSame(this.order.getElement(1), workList.removeNext());
+        Assert.assertSame(this.order.getElement(5), workList.removeNext());
+        Assert.assertSame(this.order.getElement(7), workList.removeNext());
+        Assert.assertSame(this.order.getElement(last), workList.removeNext());
+        Assert.assertFalse(workList.hasNext());
+    }
+}
\ No newline at end of file
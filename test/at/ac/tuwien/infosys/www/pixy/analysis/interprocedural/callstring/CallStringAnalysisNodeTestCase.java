@@ -0,0 +1,131 @@
+package at.ac.tuwien.infosys.www.pixy.analysis.interprocedural.callstring;
+
+import at.ac.tuwien.infosys.www.pixy.analysis.AbstractLatticeElement;
+import at.ac.tuwien.infosys.www.pixy.analysis.LatticeElementBottom;
+import at.ac.tuwien.infosys.www.pixy.analysis.interprocedural.AbstractContext;
+import junit.framework.Assert;
+import junit.framework.TestCase;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.TreeMap;
+
+/**
+ * Test case for the array-based PHI map of call-string analysis nodes.
+ */
+public class CallStringAnalysisNodeTestCase extends TestCase {
+
+    // a lattice element that is only compared by identity
+    private static class Value extends AbstractLatticeElement {
+        public void lub(AbstractLatticeElement element) {
+            throw new RuntimeException("SNH");
+        }
+
+        public AbstractLatticeElement cloneMe() {
+            throw new RuntimeException("SNH");
+        }
+
+        public boolean structureEquals(Object compX) {
+            return compX == this;
+        }
+
+        public int structureHashCode() {
+            return System.identityHashCode(this);
+        }
+
+        public void dump() {
+        }
+    }
+
+    private static Map<AbstractContext, AbstractLatticeElement> newPhi() {
+        return new CallStringAnalysisNode(null, null).getPhi();
+    }
+
+//  ********************************************************************************
+//  TESTS **************************************************************************
+//  ********************************************************************************
+
+    public void testGetPut() {
+        Map<AbstractContext, AbstractLatticeElement> phi = newPhi();
+        Assert.assertTrue(phi.isEmpty());
+        Assert.assertNull(phi.get(new CallStringContext(0)));
+        Assert.assertNull(phi.get(new CallStringContext(1000)));
+
+        Value value = new Value();
+        Assert.assertNull(phi.put(new CallStringContext(3), value));
+        Assert.assertSame(value, phi.get(new CallStringContext(3)));
+        Assert.assertTrue(phi.containsKey(new CallStringContext(3)));
+        Assert.assertFalse(phi.containsKey(new CallStringContext(2)));
+        Assert.assertNull(phi.get(new CallStringContext(4)));
+        Assert.assertEquals(1, phi.size());
+
+        try {
+            phi.put(new CallStringContext(5), null);
+            Assert.fail();
+        } catch (RuntimeException e) {
+            // expected
+        }
+        Assert.assertEquals(1, phi.size());
+    }
+
+    public void testOverwrite() {
+        Map<AbstractContext, AbstractLatticeElement> phi = newPhi();
+        Value first = new Value();
+        Value second = new Value();
+        phi.put(new CallStringContext(0), first);
+        Assert.assertSame(first, phi.put(new CallStringContext(0), second));
+        Assert.assertSame(second, phi.get(new CallStringContext(0)));
+        Assert.assertEquals(1, phi.size());
+        Assert.assertEquals(1, phi.entrySet().size());
+    }
+
+    // entries are iterated in ascending position order, skipping gaps
+    public void testIterationOrder() {
+        Map<AbstractContext, AbstractLatticeElement> phi = newPhi();
+        int[] positions = new int[]{9, 2, 0, 17, 5};
+        for (int position : positions) {
+            phi.put(new CallStringContext(position), new Value());
+        }
+
+        List<Integer> iterated = new ArrayList<>();
+        for (Map.Entry<AbstractContext, AbstractLatticeElement> entry : phi.entrySet()) {
+            Assert.assertSame(phi.get(entry.getKey()), entry.getValue());
+            iterated.add(((CallStringContext) entry.getKey()).getPosition());
+        }
+        Assert.assertEquals("[0, 2, 5, 9, 17]", iterated.toString());
+        Assert.assertEquals("[0, 2, 5, 9, 17]", phi.keySet().toString());
+
+        Iterator<Map.Entry<AbstractContext, AbstractLatticeElement>> iterator = newPhi().entrySet().iterator();
+        Assert.assertFalse(iterator.hasNext());
+        try {
+            iterator.next();
+            Assert.fail();
+        } catch (NoSuchElementException e) {
+            // expected
+        }
+    }
+
+    // random operations give the same results as a sorted map
+    public void testRandom() {
+        Random random = new Random(1);
+        for (int round = 0; round < 100; round++) {
+            Map<AbstractContext, AbstractLatticeElement> phi = newPhi();
+            TreeMap<Integer, AbstractLatticeElement> expected = new TreeMap<>();
+            for (int i = 0; i < 50; i++) {
+                int position = random.nextInt(40);
+                AbstractLatticeElement value = random.nextInt(5) == 0 ? LatticeElementBottom.INSTANCE : new Value();
+                Assert.assertSame(expected.put(position, value), phi.put(new CallStringContext(position), value));
+                Assert.assertEquals(expected.size(), phi.size());
+            }
+            for (int position = 0; position < 50; position++) {
+                Assert.assertSame(expected.get(position), phi.get(new CallStringContext(position)));
+            }
+            Assert.assertEquals(expected.keySet().toString(), phi.keySet().toString());
+            Assert.assertEquals(new ArrayList<>(expected.values()), new ArrayList<>(phi.values()));
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,251 @@
+package at.ac.tuwien.infosys.www.pixy.analysis.interprocedural.callstring;
+
+import at.ac.tuwien.infosys.www.pixy.MyOptions;
+import at.ac.tuwien.infosys.www.pixy.RunContext;
+import at.ac.tuwien.infosys.www.pixy.analysis.interprocedural.ConnectorComputation;
+import at.ac.tuwien.infosys.www.pixy.conversion.ProgramConverter;
+import at.ac.tuwien.infosys.www.pixy.conversion.TacConverter;
+import at.ac.tuwien.infosys.www.pixy.conversion.TacFunction;
+import at.ac.tuwien.infosys.www.pixy.conversion.cfgnodes.Call;
+import junit.framework.Assert;
+import junit.framework.TestCase;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Test case for call strings and their encoding, compared with the list-based implementation they replaced.
+ */
+public class CallStringTestCase extends TestCase {
+    private List<Call> calls;
+
+//  ********************************************************************************
+//  SETUP **************************************************************************
+//  ********************************************************************************
+
+    // called automatically
+    protected void setUp() {
+        this.calls = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            this.calls.add(new Call(null, null, null, null, null, null, null, null));
+        }
+    }
+
+    // appends the given call node to the given list of call nodes, the way
+    // the list-based call strings did
+    private static LinkedList<Call> append(LinkedList<Call> callNodeList, Call callNode, int kSize) {
+        LinkedList<Call> newList = new LinkedList<>(callNodeList);
+        newList.add(callNode);
+        if (newList.size() > kSize) {
+            newList.remove(0);
+        }
+        return newList;
+    }
+
+    // returns a random call string with at most kSize call nodes, built by appending,
+    // together with its call nodes as built by the list-based implementation
+    private CallString randomCallString(Random random, int kSize, List<LinkedList<Call>> expected) {
+        CallString callString = new CallString();
+        LinkedList<Call> callNodeList = new LinkedList<>();
+        int length = random.nextInt(6);
+        for (int i = 0; i < length; i++) {
+            Call callNode = this.calls.get(random.nextInt(this.calls.size()));
+            callString = callString.append(callNode, kSize);
+            callNodeList = append(callNodeList, callNode, kSize);
+        }
+        expected.add(callNodeList);
+        return callString;
+    }
+
+    // returns the position of the first call string with the given call nodes, the way
+    // the list-based encoding did (-1 if there is none)
+    private static int linearSearch(List<CallString> callStrings, List<Call> findMe) {
+        int index = 0;
+        for (CallString callString : callStrings) {
+            if (callString.getCallNodeList().equals(findMe)) {
+                return index;
+            }
+            index++;
+        }
+        return -1;
+    }
+
+    // returns the connector computation for the given test file
+    private static ConnectorComputation compute(String fileName, int kSize, boolean adaptive) throws IOException {
+        MyOptions.graphPath = MyOptions.pixyHome + "/graphs";
+        File file = new File(MyOptions.pixyHome + "/testfiles/callstring/" + fileName).getCanonicalFile();
+        ProgramConverter programConverter = new ProgramConverter(new RunContext(file, null, null), false, false);
+        programConverter.convert();
+        TacConverter tac = programConverter.getTac();
+        ConnectorComputation connectorComputation =
+            new ConnectorComputation(tac.getAllFunctions(), tac.getMainFunction(), kSize, adaptive);
+        connectorComputation.compute();
+        return connectorComputation;
+    }
+
+    // returns the call strings of the functions, by function name
+    private static Map<String, EncodedCallStrings> byName(ConnectorComputation connectorComputation) {
+        Map<String, EncodedCallStrings> retMe = new HashMap<>();
+        for (Map.Entry<TacFunction, EncodedCallStrings> entry : connectorComputation.getFunction2ECS().entrySet()) {
+            retMe.put(entry.getKey().getName(), entry.getValue());
+        }
+        return retMe;
+    }
+
+    // returns the function with the given name
+    private static TacFunction findFunction(ConnectorComputation connectorComputation, String name) {
+        for (TacFunction function : connectorComputation.getFunction2ECS().keySet()) {
+            if (function.getName().equals(name)) {
+                return function;
+            }
+        }
+        return null;
+    }
+
+    // returns the call strings of the main function
+    private static EncodedCallStrings findMainECS(ConnectorComputation connectorComputation) {
+        for (Map.Entry<TacFunction, EncodedCallStrings> entry : connectorComputation.getFunction2ECS().entrySet()) {
+            if (entry.getKey().isMain()) {
+                return entry.getValue();
+            }
+        }
+        return null;
+    }
+
+//  ********************************************************************************
+//  TESTS **************************************************************************
+//  ********************************************************************************
+
+    // appending keeps the last kSize call nodes, like the list-based implementation
+    public void testAppend() {
+        Random random = new Random(1);
+        for (int kSize = 0; kSize <= 4; kSize++) {
+            for (int i = 0; i < 500; i++) {
+                List<LinkedList<Call>> expected = new ArrayList<>();
+                CallString callString = this.randomCallString(random, kSize, expected);
+                LinkedList<Call> callNodeList = expected.get(0);
+                Assert.assertEquals(callNodeList, callString.getCallNodeList());
+                Assert.assertEquals(callNodeList.size(), callString.size());
+                Assert.assertTrue(callString.size() <= kSize);
+                if (!callNodeList.isEmpty()) {
+                    Assert.assertSame(callNodeList.getLast(), callString.getLast());
+                }
+            }
+        }
+
+        // the call string that is appended to is not changed
+        CallString callString = new CallString().append(this.calls.get(0), 2);
+        CallString appended = callString.append(this.calls.get(1), 2).append(this.calls.get(2), 2);
+        Assert.assertEquals(1, callString.size());
+        Assert.assertEquals(this.calls.subList(1, 3), appended.getCallNodeList());
+    }
+
+    // call strings are equal (with equal hash codes) iff their call nodes are
+    public void testEquals() {
+        Random random = new Random(2);
+        for (int i = 0; i < 2000; i++) {
+            List<LinkedList<Call>> expected = new ArrayList<>();
+            CallString first = this.randomCallString(random, 3, expected);
+            CallString second = this.randomCallString(random, 3, expected);
+            Assert.assertEquals(expected.get(0).equals(expected.get(1)), first.equals(second));
+            if (first.equals(second)) {
+                Assert.assertEquals(first.hashCode(), second.hashCode());
+            }
+        }
+    }
+
+    // the hash index finds the same positions as a linear search over the call strings
+    public void testEncodedLookup() {
+        Random random = new Random(3);
+        for (int kSize = 0; kSize <= 3; kSize++) {
+            EncodedCallStrings encodedCallStrings = new EncodedCallStrings();
+            List<CallString> callStrings = new ArrayList<>();
+            for (int i = 0; i < 300; i++) {
+                List<LinkedList<Call>> expected = new ArrayList<>();
+                CallString callString = this.randomCallString(random, kSize, expected);
+                int position = encodedCallStrings.getPosition(callString);
+                Assert.assertEquals(linearSearch(callStrings, expected.get(0)), position);
+                if (position == -1) {
+                    Assert.assertEquals(callStrings.size(), encodedCallStrings.append(callString));
+                    callStrings.add(callString);
+                } else {
+                    Assert.assertEquals(callString, encodedCallStrings.getCallString(position));
+                }
+            }
+            Assert.assertEquals(callStrings.size(), encodedCallStrings.size());
+            for (int i = 0; i < callStrings.size(); i++) {
+                Assert.assertSame(callStrings.get(i), encodedCallStrings.getCallString(i));
+                Assert.assertEquals(i, encodedCallStrings.getPosition(callStrings.get(i)));
+            }
+            Assert.assertNull(encodedCallStrings.getCallString(callStrings.size()));
+        }
+    }
+
+    // the contexts of the functions are cut down to k calls; h is reached through
+    // f() - g() - h() from two call sites of f()
+    public void testTruncation() throws IOException {
+        int[][] expectedSizes = {
+            // f, g, h
+            {1, 1, 1},
+            {2, 1, 1},
+            {2, 2, 1},
+            {2, 2, 2},
+        };
+        for (int kSize = 0; kSize <= 3; kSize++) {
+            Map<String, EncodedCallStrings> function2ECS = byName(compute("test01.php", kSize, false));
+            String[] names = {"f", "g", "h"};
+            for (int i = 0; i < names.length; i++) {
+                EncodedCallStrings encodedCallStrings = function2ECS.get(names[i]);
+                Assert.assertEquals(names[i] + ", k = " + kSize, expectedSizes[kSize][i], encodedCallStrings.size());
+                List<CallString> callStrings = new ArrayList<>();
+                for (int j = 0; j < encodedCallStrings.size(); j++) {
+                    CallString callString = encodedCallStrings.getCallString(j);
+                    Assert.assertTrue(callString.size() <= kSize);
+                    if (kSize > 0) {
+                        Assert.assertEquals(names[i], callString.getLast().getCallee().getName());
+                    }
+
+                    // each context occurs once
+                    Assert.assertEquals(-1, linearSearch(callStrings, callString.getCallNodeList()));
+                    callStrings.add(callString);
+                    Assert.assertEquals(j, encodedCallStrings.getPosition(callString));
+                }
+            }
+        }
+    }
+
+    // the call strings of a function are interned, so each of them occurs once,
+    // and functions don't share call strings for k > 0, since the last call
+    // node of a call string calls the function
+    public void testUnique() throws IOException {
+        for (int kSize = 1; kSize <= 3; kSize++) {
+            Map<CallString, CallString> seen = new HashMap<>();
+            for (EncodedCallStrings encodedCallStrings : compute("test01.php", kSize, false).getFunction2ECS().values()) {
+                for (int j = 0; j < encodedCallStrings.size(); j++) {
+                    CallString callString = encodedCallStrings.getCallString(j);
+                    Assert.assertNull(seen.put(callString, callString));
+                }
+            }
+        }
+    }
+
+    // equal call strings of different functions are the same object
+    public void testInterned() throws IOException {
+        // with adaptive lengths, w() gets the empty call string, which is created
+        // anew when a call of w() is appended to the context of f()
+        ConnectorComputation connectorComputation = compute("test02.php", 1, true);
+        Map<String, EncodedCallStrings> function2ECS = byName(connectorComputation);
+        Assert.assertEquals(0, connectorComputation.getCallStringLength(findFunction(connectorComputation, "w")));
+        Assert.assertEquals(1, function2ECS.get("f").size());
+        Assert.assertEquals(1, function2ECS.get("f").getCallString(0).size());
+        EncodedCallStrings contextsOfW = function2ECS.get("w");
+        Assert.assertEquals(1, contextsOfW.size());
+        Assert.assertSame(findMainECS(connectorComputation).getCallString(0), contextsOfW.getCallString(0));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,103 @@
+package at.ac.tuwien.infosys.www.pixy.automaton;
+
+import junit.framework.Assert;
+import junit.framework.TestCase;
+
+import java.util.Random;
+
+/**
+ * Test case for operations on automata that have to keep the taint of transitions.
+ */
+public class AutomatonTestCase extends TestCase {
+
+    // returns the least upper bound of the taints of the transitions from the given state
+    // to the given target (any target if null) that contain the given character; null if
+    // there is no such transition
+    private static Transition.Taint taint(State state, char c, State target) {
+        Transition.Taint taint = null;
+        for (Transition t : state.getTransitions()) {
+            if ((target == null || t.to == target) && t.min <= c && c <= t.max) {
+                if (taint == null || t.taint.compareTo(taint) > 0) {
+                    taint = t.taint;
+                }
+            }
+        }
+        return taint;
+    }
+
+//  ********************************************************************************
+//  TESTS **************************************************************************
+//  ********************************************************************************
+
+    // adjacent intervals are only merged if their taint is the same
+    public void testReduceKeepsTaint() {
+        Automaton automaton = new Automaton();
+        State from = automaton.getInitialState();
+        State to = new State();
+        to.setAccept(true);
+        from.addTransition(new Transition('a', to, Transition.Taint.Directly));
+        from.addTransition(new Transition('b', to, Transition.Taint.Untainted));
+        from.addTransition(new Transition('c', 'd', to, Transition.Taint.Indirectly));
+        from.addTransition(new Transition('e', 'f', to, Transition.Taint.Indirectly));
+        from.addTransition(new Transition('g', to, Transition.Taint.Directly));
+
+        automaton.reduce();
+
+        Assert.assertEquals(4, from.getTransitions().size());
+        Assert.assertEquals(Transition.Taint.Directly, taint(from, 'a', null));
+        Assert.assertEquals(Transition.Taint.Untainted, taint(from, 'b', null));
+        for (char c = 'c'; c <= 'f'; c++) {
+            Assert.assertEquals(Transition.Taint.Indirectly, taint(from, c, null));
+        }
+        Assert.assertEquals(Transition.Taint.Directly, taint(from, 'g', null));
+        Assert.assertNull(taint(from, 'h', null));
+        Assert.assertTrue(automaton.hasDirectlyTaintedTransitions());
+        Assert.assertTrue(automaton.hasIndirectlyTaintedTransitions());
+    }
+
+    // intervals that only become equal by reducing keep the higher taint
+    public void testReduceEqualIntervals() {
+        Automaton automaton = new Automaton();
+        State from = automaton.getInitialState();
+        State to = new State();
+        from.addTransition(new Transition('a', 'b', to, Transition.Taint.Untainted));
+        from.addTransition(new Transition('a', to, Transition.Taint.Directly));
+        from.addTransition(new Transition('b', to, Transition.Taint.Directly));
+
+        automaton.reduce();
+
+        Assert.assertEquals(1, from.getTransitions().size());
+        Assert.assertEquals(Transition.Taint.Directly, taint(from, 'a', to));
+        Assert.assertEquals(Transition.Taint.Directly, taint(from, 'b', to));
+    }
+
+    // on random transitions, reducing doesn't change the taint of any character
+    public void testReduceRandom() {
+        Random random = new Random(1);
+        for (int i = 0; i < 500; i++) {
+            Automaton automaton = new Automaton();
+            State from = automaton.getInitialState();
+            State[] targets = {new State(), new State()};
+            for (int j = 0; j < 12; j++) {
+                char min = (char) ('a' + random.nextInt(16));
+                char max = (char) (min + random.nextInt(3));
+                Transition.Taint taint = Transition.Taint.values()[random.nextInt(3)];
+                from.addTransition(new Transition(min, max, targets[random.nextInt(2)], taint));
+            }
+
+            State expected = new State();
+            for (Transition t : from.getTransitions()) {
+                expected.addTransition(t.clone());
+            }
+
+            automaton.reduce();
+
+            Assert.assertTrue(from.getTransitions().size() <= expected.getTransitions().size());
+            for (State target : targets) {
+                for (char c = 'a'; c <= 'z'; c++) {
+                    Assert.assertEquals(taint(expected, c, target), taint(from, c, target));
+                }
+            }
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,275 @@
+package at.ac.tuwien.infosys.www.pixy.automaton;
+
+import junit.framework.Assert;
+import junit.framework.TestCase;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Test case for determinization and minimization on the frozen form of automata, compared with a direct
+ * simulation and with the minimization algorithms that work on the State/Transition graph.
+ */
+public class FrozenAutomatonTestCase extends TestCase {
+    private static final String ALPHABET = "abcdef";
+    private static final int MAX_LENGTH = 4;
+
+    // all strings over the alphabet up to the maximal length
+    private List<String> strings;
+
+//  ********************************************************************************
+//  SETUP **************************************************************************
+//  ********************************************************************************
+
+    // called automatically
+    protected void setUp() {
+        this.strings = new ArrayList<>();
+        this.strings.add("");
+        for (int i = 0; i < this.strings.size(); i++) {
+            String prefix = this.strings.get(i);
+            if (prefix.length() < MAX_LENGTH) {
+                for (char c : ALPHABET.toCharArray()) {
+                    this.strings.add(prefix + c);
+                }
+            }
+        }
+    }
+
+    // returns a random, usually nondeterministic automaton over the characters a-e;
+    // all transitions are untainted unless "tainted" is set
+    private static Automaton randomAutomaton(Random random, boolean tainted) {
+        int n = 1 + random.nextInt(6);
+        State[] states = new State[n];
+        for (int i = 0; i < n; i++) {
+            states[i] = new State();
+            states[i].setAccept(random.nextInt(3) == 0);
+        }
+        int transitions = random.nextInt(3 * n + 1);
+        for (int i = 0; i < transitions; i++) {
+            char min = (char) ('a' + random.nextInt(4));
+            char max = (char) (min + random.nextInt(2));
+            Transition.Taint taint = tainted
+                ? Transition.Taint.values()[random.nextInt(3)]
+                : Transition.Taint.Untainted;
+            states[random.nextInt(n)].addTransition(new Transition(min, max, states[random.nextInt(n)], taint));
+        }
+        Automaton a = new Automaton();
+        a.initial = states[0];
+        a.deterministic = false;
+        return a;
+    }
+
+    // simulates the given (possibly nondeterministic) automaton on the given string, without
+    // determinizing it; returns null if the string is not accepted, and otherwise, for each
+    // position, the least upper bound of the taints of all transitions that can be taken there
+    private static Transition.Taint[] run(Automaton a, String s) {
+        Set<State> current = new HashSet<>();
+        current.add(a.initial);
+        Transition.Taint[] taints = new Transition.Taint[s.length()];
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            Set<State> next = new HashSet<>();
+            Transition.Taint taint = null;
+            for (State q : current) {
+                for (Transition t : q.transitions) {
+                    if (t.min <= c && c <= t.max) {
+                        next.add(t.to);
+                        if (taint == null || t.taint.compareTo(taint) > 0) {
+                            taint = t.taint;
+                        }
+                    }
+                }
+            }
+            if (next.isEmpty()) {
+                return null;
+            }
+            taints[i] = taint;
+            current = next;
+        }
+        for (State q : current) {
+            if (q.accept) {
+                return taints;
+            }
+        }
+        return null;
+    }
+
+    // returns true if no two transitions of a state overlap
+    private static boolean isDeterministic(Automaton a) {
+        for (State state : a.getStates()) {
+            Transition[] transitions = state.getSortedTransitionArray(false);
+            for (int i = 1; i < transitions.length; i++) {
+                if (transitions[i].min <= transitions[i - 1].max) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    // minimizes a copy of the given automaton with the given algorithm of the Automaton class
+    private static Automaton minimizeWith(Automaton a, int algorithm) {
+        Automaton b = a.clone();
+        int minimization = Automaton.minimization;
+        Automaton.minimization = algorithm;
+        try {
+            b.minimize();
+        } finally {
+            Automaton.minimization = minimization;
+        }
+        return b;
+    }
+
+    private void assertSameLanguage(Automaton expected, Automaton encountered) {
+        for (String s : this.strings) {
+            Assert.assertEquals(s, run(expected, s) != null, run(encountered, s) != null);
+        }
+    }
+
+    private void assertSameTaints(Automaton expected, Automaton encountered) {
+        for (String s : this.strings) {
+            Assert.assertTrue(s, Arrays.equals(run(expected, s), run(encountered, s)));
+        }
+    }
+
+//  ********************************************************************************
+//  TESTS **************************************************************************
+//  ********************************************************************************
+
+    // freezing and thawing keeps the states, the transitions and their taints
+    public void testFreeze() {
+        Random random = new Random(1);
+        for (int i = 0; i < 200; i++) {
+            Automaton a = randomAutomaton(random, true);
+            FrozenAutomaton frozen = new FrozenAutomaton(a);
+            Assert.assertEquals(a.getNumberOfStates(), frozen.getNumberOfStates());
+            Assert.assertEquals(a.getNumberOfTransitions(), frozen.getNumberOfTransitions());
+            Assert.assertEquals(a.hasDirectlyTaintedTransitions(), frozen.hasDirectlyTaintedTransitions());
+            Assert.assertEquals(a.hasIndirectlyTaintedTransitions(), frozen.hasIndirectlyTaintedTransitions());
+            Assert.assertEquals(a.hasDangerousIndirectTaint(), frozen.hasDangerousIndirectTaint());
+            this.assertSameTaints(a, frozen.toAutomaton());
+        }
+    }
+
+    // determinization accepts the same language as the nondeterministic automaton and as the
+    // subset construction of the Automaton class (used by Brzozowski's algorithm); each
+    // transition carries the least upper bound of the taints of the transitions it stems from
+    public void testDeterminize() {
+        Random random = new Random(2);
+        for (int i = 0; i < 300; i++) {
+            Automaton a = randomAutomaton(random, true);
+            FrozenAutomaton frozen = new FrozenAutomaton(a).determinize();
+            Automaton d = frozen.toAutomaton();
+            Assert.assertTrue(frozen.isDeterministic());
+            Assert.assertTrue(isDeterministic(d));
+            this.assertSameTaints(a, d);
+            this.assertSameLanguage(minimizeWith(a, Automaton.MINIMIZE_BRZOZOWSKI), d);
+
+            // the same through Automaton.determinize()
+            Automaton b = a.clone();
+            b.determinize();
+            Assert.assertTrue(isDeterministic(b));
+            this.assertSameTaints(a, b);
+        }
+    }
+
+    // the taint of a transition in the determinized automaton is the least upper bound of the
+    // taints of the transitions it stems from, also if some of them lead to dead states
+    public void testDeterminizeTaintLub() {
+        State initial = new State();
+        State s1 = new State();
+        State s2 = new State();
+        State s3 = new State();
+        State dead = new State();
+        s1.setAccept(true);
+        s2.setAccept(true);
+        s3.setAccept(true);
+        initial.addTransition(new Transition('a', s1, Transition.Taint.Untainted));
+        initial.addTransition(new Transition('a', 'c', s2, Transition.Taint.Indirectly));
+        initial.addTransition(new Transition('c', 'd', s3, Transition.Taint.Untainted));
+        initial.addTransition(new Transition('d', dead, Transition.Taint.Directly));
+        Automaton a = new Automaton();
+        a.initial = initial;
+        a.deterministic = false;
+
+        Automaton d = new FrozenAutomaton(a).determinize().toAutomaton();
+        Assert.assertTrue(isDeterministic(d));
+        Assert.assertEquals(Transition.Taint.Indirectly, run(d, "a")[0]);
+        Assert.assertEquals(Transition.Taint.Indirectly, run(d, "b")[0]);
+        Assert.assertEquals(Transition.Taint.Indirectly, run(d, "c")[0]);
+        Assert.assertEquals(Transition.Taint.Directly, run(d, "d")[0]);
+        Assert.assertNull(run(d, "e"));
+        Assert.assertNull(run(d, "da"));
+
+        // the initial state and {s1, s2}, {s2}, {s2, s3}, {s3, dead}
+        Assert.assertEquals(5, d.getNumberOfStates());
+    }
+
+    // on untainted automata, minimization yields the same language and the same number of
+    // states as Brzozowski's and Huffman's algorithms
+    public void testMinimize() {
+        Random random = new Random(3);
+        for (int i = 0; i < 300; i++) {
+            Automaton a = randomAutomaton(random, false);
+            FrozenAutomaton frozen = new FrozenAutomaton(a).minimize();
+            Automaton m = frozen.toAutomaton();
+            Assert.assertTrue(isDeterministic(m));
+            this.assertSameLanguage(a, m);
+
+            Automaton brzozowski = minimizeWith(a, Automaton.MINIMIZE_BRZOZOWSKI);
+            this.assertSameLanguage(brzozowski, m);
+            Assert.assertEquals(brzozowski.getNumberOfStates(), frozen.getNumberOfStates());
+
+            Automaton huffman = minimizeWith(a, Automaton.MINIMIZE_HUFFMAN);
+            this.assertSameLanguage(huffman, m);
+            Assert.assertEquals(huffman.getNumberOfStates(), frozen.getNumberOfStates());
+        }
+    }
+
+    // minimization keeps the taints of the determinized automaton, and only merges states
+    // whose transitions have the same taints
+    public void testMinimizeKeepsTaint() {
+        Random random = new Random(4);
+        for (int i = 0; i < 300; i++) {
+            Automaton a = randomAutomaton(random, true);
+            FrozenAutomaton determinized = new FrozenAutomaton(a).determinize();
+            FrozenAutomaton minimized = determinized.minimize();
+            Assert.assertTrue(minimized.getNumberOfStates() <= determinized.getNumberOfStates());
+            Assert.assertTrue(minimized.getNumberOfStates()
+                >= minimizeWith(a, Automaton.MINIMIZE_BRZOZOWSKI).getNumberOfStates());
+            this.assertSameTaints(a, minimized.toAutomaton());
+
+            // the same through Automaton.minimize()
+            Automaton b = a.clone();
+            b.minimize();
+            Assert.assertEquals(minimized.getNumberOfStates(), b.getNumberOfStates());
+            this.assertSameTaints(a, b);
+        }
+    }
+
+    // states that only differ in the taint of their transitions are not merged
+    public void testMinimizeDistinguishesTaint() {
+        Automaton a = new Automaton();
+        State s1 = new State();
+        State s2 = new State();
+        State s3 = new State();
+        s3.setAccept(true);
+        a.initial.addTransition(new Transition('a', s1, Transition.Taint.Untainted));
+        a.initial.addTransition(new Transition('b', s2, Transition.Taint.Untainted));
+        s1.addTransition(new Transition('x', s3, Transition.Taint.Untainted));
+        s2.addTransition(new Transition('x', s3, Transition.Taint.Directly));
+
+        // without taint, s1 and s2 are equivalent
+        Assert.assertEquals(3, minimizeWith(a, Automaton.MINIMIZE_BRZOZOWSKI).getNumberOfStates());
+
+        FrozenAutomaton minimized = new FrozenAutomaton(a).minimize();
+        Assert.assertEquals(4, minimized.getNumberOfStates());
+        Automaton m = minimized.toAutomaton();
+        Assert.assertEquals(Transition.Taint.Untainted, run(m, "ax")[1]);
+        Assert.assertEquals(Transition.Taint.Directly, run(m, "bx")[1]);
+    }
+}
\ No newline at end of file
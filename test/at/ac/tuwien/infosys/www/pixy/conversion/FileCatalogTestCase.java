@@ -0,0 +1,262 @@
+package at.ac.tuwien.infosys.www.pixy.conversion;
+
+import at.ac.tuwien.infosys.www.pixy.Utils;
+import at.ac.tuwien.infosys.www.pixy.conversion.cfgnodes.Include;
+import junit.framework.Assert;
+import junit.framework.TestCase;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Test case for the file catalog used for resolving dynamic includes: its lookups
+ * must give the same results as scanning all files.
+ */
+public class FileCatalogTestCase extends TestCase {
+    private static final String[] FILES = new String[]{
+        "index.php",
+        "lib/db.php",
+        "lib/db_mysql.php",
+        "lib/util.php",
+        "lib/sub/config.inc.php",
+        "lib/sub/db.php",
+        "modules/news/news.php",
+        "modules/news/admin.php",
+        "modules/forum/forum.php",
+        "modules/forum/admin.php",
+        "templates/header.tpl.php",
+        "templates/footer.tpl",
+        "app/main.php",
+        "app/inc/local.php",
+    };
+
+    // literal parts of include names, for building random patterns
+    private static final String[] PARTS = new String[]{
+        "/", ".php", "lib", "lib/", "db", "_mysql", "sub/config", ".inc", "admin", "news", "forum",
+        "modules/", "tpl", "templates/header", "local", "inc/", "a", "ph", "missing",
+    };
+
+    private File root;
+    private File workingDirectory;
+    private List<String> paths;
+
+//  ********************************************************************************
+//  SETUP **************************************************************************
+//  ********************************************************************************
+
+    // called automatically
+    protected void setUp() throws IOException {
+        this.root = Files.createTempDirectory("pixycatalog").toFile().getCanonicalFile();
+        this.workingDirectory = new File(this.root, "www");
+        this.paths = new ArrayList<>();
+        for (String file : FILES) {
+            File created = new File(this.workingDirectory, file);
+            created.getParentFile().mkdirs();
+            Assert.assertTrue(created.createNewFile());
+            this.paths.add(created.getPath());
+        }
+
+        // a script outside the working directory
+        for (String file : new String[]{"plugins/plugin.php", "plugins/lib/db_plugin.php", "plugins/news.php"}) {
+            File created = new File(this.root, file);
+            created.getParentFile().mkdirs();
+            Assert.assertTrue(created.createNewFile());
+        }
+    }
+
+    // called automatically
+    protected void tearDown() {
+        delete(this.root);
+    }
+
+    private static void delete(File file) {
+        File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                delete(child);
+            }
+        }
+        file.delete();
+    }
+
+    private static List<String> randomStringList(Random random) {
+        List<String> stringList = new ArrayList<>();
+        int length = 1 + random.nextInt(4);
+        for (int i = 0; i < length; i++) {
+            stringList.add(random.nextInt(3) == 0 ? null : PARTS[random.nextInt(PARTS.length)]);
+        }
+        return stringList;
+    }
+
+    // the include target lookup as done before the catalog: all files below the
+    // directories are matched against the pattern
+    private static List<String> linearIncludeTargets(
+        List<String> stringList, String scriptFileName, File workingDirectory) {
+
+        StringBuilder pattern = new StringBuilder();
+        boolean somethingLiteral = false;
+        boolean precedingDotStar = false;
+        for (String s : stringList) {
+            if (s == null) {
+                if (!precedingDotStar) {
+                    pattern.append(".*");
+                    precedingDotStar = true;
+                }
+            } else {
+                pattern.append(Pattern.quote(s));
+                somethingLiteral = true;
+                precedingDotStar = false;
+            }
+        }
+        pattern.append("$");
+        if (!somethingLiteral) {
+            return null;
+        }
+        Pattern patternObj = Pattern.compile(pattern.toString());
+
+        List<File> candidates1 = Utils.fileListFromDir(workingDirectory.getPath());
+        List<String> winners = linearMatch(patternObj, candidates1);
+        if (winners == null || winners.size() == 1) {
+            return winners;
+        }
+        List<File> candidates2 = Utils.fileListFromFile(scriptFileName);
+        candidates2.removeAll(candidates1);
+        return linearMatch(patternObj, candidates2);
+    }
+
+    private static List<String> linearMatch(Pattern patternObj, List<File> candidates) {
+        List<String> winners = new ArrayList<>();
+        for (File candidate : candidates) {
+            if (patternObj.matcher(candidate.getPath()).find()) {
+                winners.add(candidate.getPath());
+            }
+        }
+        return (winners.size() > 1) ? null : winners;
+    }
+
+//  ********************************************************************************
+//  TESTS **************************************************************************
+//  ********************************************************************************
+
+    public void testContains() {
+        FileCatalog catalog = new FileCatalog(this.workingDirectory);
+        Assert.assertEquals(FILES.length, catalog.size());
+        for (String path : this.paths) {
+            Assert.assertTrue(catalog.contains(path));
+        }
+        Assert.assertFalse(catalog.contains(new File(this.workingDirectory, "lib").getPath()));
+        Assert.assertFalse(catalog.contains(new File(this.root, "plugins/news.php").getPath()));
+        Assert.assertFalse(catalog.contains("db.php"));
+    }
+
+    // anchored lookups return exactly the paths ending with the last fragment
+    public void testSuffix() {
+        FileCatalog catalog = new FileCatalog(this.workingDirectory);
+        List<String> suffixes = new ArrayList<>(Arrays.asList(PARTS));
+        suffixes.addAll(Arrays.asList("p", "db.php", "/db.php", "admin.php", ".tpl", "www/index.php"));
+        suffixes.addAll(this.paths);
+        for (String suffix : suffixes) {
+            Set<String> expected = new HashSet<>();
+            for (String path : this.paths) {
+                if (path.endsWith(suffix)) {
+                    expected.add(path);
+                }
+            }
+            List<String> candidates = catalog.getCandidates(Arrays.asList("lib", suffix), true);
+            Assert.assertEquals(suffix, expected, new HashSet<>(candidates));
+            Assert.assertEquals(suffix, expected.size(), candidates.size());
+        }
+    }
+
+    // unanchored lookups return all paths containing the fragments (and maybe more)
+    public void testTrigrams() {
+        FileCatalog catalog = new FileCatalog(this.workingDirectory);
+        Random random = new Random(1);
+        for (int i = 0; i < 500; i++) {
+            List<String> fragments = new ArrayList<>();
+            int count = 1 + random.nextInt(3);
+            for (int j = 0; j < count; j++) {
+                fragments.add(PARTS[random.nextInt(PARTS.length)]);
+            }
+
+            Set<String> expected = new HashSet<>();
+            for (String path : this.paths) {
+                boolean containsAll = true;
+                for (String fragment : fragments) {
+                    containsAll &= path.contains(fragment);
+                }
+                if (containsAll) {
+                    expected.add(path);
+                }
+            }
+
+            List<String> candidates = catalog.getCandidates(fragments, false);
+            Set<String> candidateSet = new HashSet<>(candidates);
+            Assert.assertEquals(candidateSet.size(), candidates.size());
+            Assert.assertTrue(fragments.toString(), candidateSet.containsAll(expected));
+            Assert.assertTrue(this.paths.containsAll(candidateSet));
+
+            // with the longest fragment, candidates are narrowed down by it
+            String longest = "";
+            for (String fragment : fragments) {
+                if (fragment.length() > longest.length()) {
+                    longest = fragment;
+                }
+            }
+            for (String candidate : candidates) {
+                if (longest.length() >= 3) {
+                    for (int k = 0; k + 3 <= longest.length(); k++) {
+                        Assert.assertTrue(candidate.contains(longest.substring(k, k + 3)));
+                    }
+                }
+            }
+        }
+    }
+
+    // include targets found with the catalogs are the same as the ones found by
+    // scanning all files
+    public void testIncludeTargets() {
+        String[] scripts = new String[]{
+            new File(this.workingDirectory, "index.php").getPath(),
+            new File(this.workingDirectory, "app/main.php").getPath(),
+            new File(this.root, "plugins/plugin.php").getPath(),
+        };
+        Map<File, FileCatalog> fileCatalogs = new HashMap<>();
+        Random random = new Random(2);
+        int found = 0;
+        int ambiguous = 0;
+        for (int i = 0; i < 2000; i++) {
+            List<String> stringList = randomStringList(random);
+            String script = scripts[random.nextInt(scripts.length)];
+            Map<Include, String> include2String = new HashMap<>();
+            List<String> expected = linearIncludeTargets(stringList, script, this.workingDirectory);
+            List<String> actual = ParseNodeHeuristics.getPossibleIncludeTargets(
+                stringList, script, null, include2String, this.workingDirectory, fileCatalogs);
+            Assert.assertEquals(stringList + " in " + script, expected, actual);
+            if (actual == null) {
+                ambiguous++;
+            } else if (actual.isEmpty()) {
+                Assert.assertTrue(include2String.containsKey(null));
+            } else {
+                found++;
+            }
+        }
+        // the patterns cover all outcomes
+        Assert.assertTrue(found > 0);
+        Assert.assertTrue(ambiguous > 0);
+
+        // each directory is only walked once (the working directory is also the
+        // directory of index.php)
+        Assert.assertEquals(3, fileCatalogs.size());
+    }
+}
\ No newline at end of file
@@ -0,0 +1,169 @@
+package at.ac.tuwien.infosys.www.pixy.conversion;
+
+import at.ac.tuwien.infosys.www.phpparser.ParseNode;
+import at.ac.tuwien.infosys.www.phpparser.ParseTree;
+import junit.framework.Assert;
+import junit.framework.TestCase;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Test case for the on-disk and in-memory cache of parse trees.
+ */
+public class ParseTreeCacheTestCase extends TestCase {
+    private File directory;
+    private File phpFile;
+    private String phpFileName;
+
+//  ********************************************************************************
+//  SETUP **************************************************************************
+//  ********************************************************************************
+
+    // called automatically
+    protected void setUp() throws IOException {
+        this.directory = Files.createTempDirectory("pixycache").toFile();
+        this.phpFile = new File(Files.createTempDirectory("pixyphp").toFile(), "test.php").getCanonicalFile();
+        this.phpFileName = this.phpFile.getPath();
+        this.writePhp("<?php\n$x = $_GET['x'];\necho $x;\n?>");
+    }
+
+    // called automatically
+    protected void tearDown() {
+        delete(this.directory);
+        delete(this.phpFile.getParentFile());
+    }
+
+    private static void delete(File file) {
+        File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                delete(child);
+            }
+        }
+        file.delete();
+    }
+
+    private void writePhp(String content) throws IOException {
+        Files.write(this.phpFile.toPath(), content.getBytes("UTF-8"));
+    }
+
+    // returns the only cache file
+    private File getCacheFile() {
+        File[] files = this.directory.listFiles();
+        Assert.assertEquals(1, files.length);
+        return files[0];
+    }
+
+    // returns a string representation of the given tree, for comparing trees
+    private static String dump(ParseTree parseTree) {
+        StringBuilder builder = new StringBuilder();
+        dump(parseTree.getRoot(), builder);
+        return builder.toString();
+    }
+
+    private static void dump(ParseNode node, StringBuilder builder) {
+        builder.append('(').append(node.getSymbol()).append(' ').append(node.getName())
+            .append(' ').append(node.getFileName());
+        if (node.isToken()) {
+            builder.append(' ').append(node.getLexeme()).append(' ').append(node.getLineno());
+        } else {
+            for (ParseNode child : node.getChildren()) {
+                dump(child, builder);
+            }
+        }
+        builder.append(')');
+    }
+
+    // returns the tree of the current content, parsed without the cache
+    private String parseDirectly() throws Exception {
+        String content = new String(Files.readAllBytes(this.phpFile.toPath()), "UTF-8");
+        return dump(ProgramConverter.parse(new StringReader(content), this.phpFileName));
+    }
+
+//  ********************************************************************************
+//  TESTS **************************************************************************
+//  ********************************************************************************
+
+    // a second cache instance (i.e., a second run) takes the tree from the cache file
+    public void testHit() throws Exception {
+        String expected = this.parseDirectly();
+        Assert.assertEquals(expected, dump(new ParseTreeCache(this.directory, false).parse(this.phpFileName)));
+
+        File cacheFile = this.getCacheFile();
+        byte[] cached = Files.readAllBytes(cacheFile.toPath());
+        Assert.assertTrue(cacheFile.setLastModified(1000000000L));
+
+        Assert.assertEquals(expected, dump(new ParseTreeCache(this.directory, false).parse(this.phpFileName)));
+
+        // the cache file was read, not written again
+        Assert.assertEquals(1000000000L, this.getCacheFile().lastModified());
+        Assert.assertTrue(Arrays.equals(cached, Files.readAllBytes(cacheFile.toPath())));
+    }
+
+    // a file that has changed since it was cached is parsed again
+    public void testInvalidation() throws Exception {
+        new ParseTreeCache(this.directory, false).parse(this.phpFileName);
+        byte[] cached = Files.readAllBytes(this.getCacheFile().toPath());
+
+        this.writePhp("<?php\necho 'changed';\n?>");
+        String expected = this.parseDirectly();
+        Assert.assertEquals(expected, dump(new ParseTreeCache(this.directory, false).parse(this.phpFileName)));
+
+        // the cache entry was replaced, and is used from now on
+        byte[] recached = Files.readAllBytes(this.getCacheFile().toPath());
+        Assert.assertFalse(Arrays.equals(cached, recached));
+        Assert.assertEquals(expected, dump(new ParseTreeCache(this.directory, false).parse(this.phpFileName)));
+    }
+
+    // broken cache files are ignored and replaced
+    public void testCorruptCacheFile() throws Exception {
+        String expected = this.parseDirectly();
+        new ParseTreeCache(this.directory, false).parse(this.phpFileName);
+        File cacheFile = this.getCacheFile();
+        byte[] cached = Files.readAllBytes(cacheFile.toPath());
+
+        // truncated in the middle of the tree
+        Files.write(cacheFile.toPath(), Arrays.copyOf(cached, cached.length / 2));
+        Assert.assertEquals(expected, dump(new ParseTreeCache(this.directory, false).parse(this.phpFileName)));
+        Assert.assertTrue(Arrays.equals(cached, Files.readAllBytes(this.getCacheFile().toPath())));
+
+        // garbage
+        Files.write(cacheFile.toPath(), "not a parse tree".getBytes("UTF-8"));
+        Assert.assertEquals(expected, dump(new ParseTreeCache(this.directory, false).parse(this.phpFileName)));
+        Assert.assertTrue(Arrays.equals(cached, Files.readAllBytes(this.getCacheFile().toPath())));
+
+        // valid header (version and content hash), damaged tree
+        Random random = new Random(1);
+        int headerLength = 4 + 2 + 40;
+        for (int i = 0; i < 20; i++) {
+            byte[] damaged = cached.clone();
+            for (int j = headerLength; j < damaged.length; j += 1 + random.nextInt(8)) {
+                damaged[j] = (byte) random.nextInt();
+            }
+            Files.write(cacheFile.toPath(), damaged);
+            Assert.assertEquals(expected, dump(new ParseTreeCache(this.directory, false).parse(this.phpFileName)));
+        }
+
+        // empty
+        Files.write(cacheFile.toPath(), new byte[0]);
+        Assert.assertEquals(expected, dump(new ParseTreeCache(this.directory, false).parse(this.phpFileName)));
+    }
+
+    // the in-memory cache returns the same tree until the file changes
+    public void testInMemory() throws Exception {
+        ParseTreeCache parseTreeCache = new ParseTreeCache(null, true);
+        ParseTree parseTree = parseTreeCache.parse(this.phpFileName);
+        Assert.assertSame(parseTree, parseTreeCache.parse(this.phpFileName));
+
+        this.writePhp("<?php\necho 'changed';\n?>");
+        ParseTree changed = parseTreeCache.parse(this.phpFileName);
+        Assert.assertNotSame(parseTree, changed);
+        Assert.assertEquals(this.parseDirectly(), dump(changed));
+        Assert.assertSame(changed, parseTreeCache.parse(this.phpFileName));
+    }
+}
\ No newline at end of file
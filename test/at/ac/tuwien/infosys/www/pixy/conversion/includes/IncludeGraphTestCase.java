@@ -0,0 +1,82 @@
+package at.ac.tuwien.infosys.www.pixy.conversion.includes;
+
+import junit.framework.Assert;
+import junit.framework.TestCase;
+
+import java.io.File;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Test case for the cycle detection of the include graph.
+ */
+public class IncludeGraphTestCase extends TestCase {
+
+    public void testSelfInclude() {
+        IncludeGraph graph = new IncludeGraph(new File("a.php"));
+        Assert.assertFalse(graph.addAcyclicEdge(new File("a.php"), new File("a.php")));
+    }
+
+    public void testCycle() {
+        IncludeGraph graph = new IncludeGraph(new File("a.php"));
+        Assert.assertTrue(graph.addAcyclicEdge(new File("a.php"), new File("b.php")));
+        Assert.assertTrue(graph.addAcyclicEdge(new File("b.php"), new File("c.php")));
+        Assert.assertTrue(graph.addAcyclicEdge(new File("a.php"), new File("c.php")));
+        Assert.assertFalse(graph.addAcyclicEdge(new File("c.php"), new File("a.php")));
+        Assert.assertTrue(graph.addAcyclicEdge(new File("a.php"), new File("b.php")));
+    }
+
+    // adds random edges and compares the result with a naive reachability check
+    public void testAgainstReachability() {
+        Random random = new Random(1);
+        List<File> files = new ArrayList<>();
+        for (int i = 0; i < 60; i++) {
+            files.add(new File("file" + i + ".php"));
+        }
+
+        IncludeGraph graph = new IncludeGraph(files.get(0));
+        List<Integer> present = new ArrayList<>();
+        present.add(0);
+        List<Set<Integer>> successors = new ArrayList<>();
+        for (int i = 0; i < files.size(); i++) {
+            successors.add(new HashSet<Integer>());
+        }
+
+        for (int step = 0; step < 3000; step++) {
+            int from = present.get(random.nextInt(present.size()));
+            int to = random.nextInt(files.size());
+
+            boolean expected = successors.get(from).contains(to) || !this.reaches(successors, to, from);
+            Assert.assertEquals(expected, graph.addAcyclicEdge(files.get(from), files.get(to)));
+            if (expected) {
+                successors.get(from).add(to);
+                if (!present.contains(to)) {
+                    present.add(to);
+                }
+            }
+        }
+    }
+
+    private boolean reaches(List<Set<Integer>> successors, int start, int target) {
+        Set<Integer> visited = new HashSet<>();
+        Deque<Integer> stack = new ArrayDeque<>();
+        stack.push(start);
+        while (!stack.isEmpty()) {
+            int node = stack.pop();
+            if (node == target) {
+                return true;
+            }
+            if (visited.add(node)) {
+                for (int succ : successors.get(node)) {
+                    stack.push(succ);
+                }
+            }
+        }
+        return false;
+    }
+}
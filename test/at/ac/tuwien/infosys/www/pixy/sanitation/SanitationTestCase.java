@@ -0,0 +1,102 @@
+package at.ac.tuwien.infosys.www.pixy.sanitation;
+
+import junit.framework.Assert;
+import junit.framework.TestCase;
+
+/**
+ * Test case for the automaton operations used by the sanitation analyses.
+ */
+public class SanitationTestCase extends TestCase {
+    private FSAAutomaton undesiredXSS;
+    private FSAAutomaton undesiredSQL;
+
+//  ********************************************************************************
+//  SETUP **************************************************************************
+//  ********************************************************************************
+
+    // called automatically
+    protected void setUp() {
+        this.undesiredXSS = FSAAutomaton.getUndesiredXSSTest();
+        this.undesiredSQL = FSAAutomaton.getUndesiredSQLTest();
+    }
+
+    private String strReplace(String search, String replace, String subject) {
+        return FSAUtils.str_replace(FSAAutomaton.makeString(search), FSAAutomaton.makeString(replace),
+            FSAAutomaton.makeString(subject), null).getFiniteString();
+    }
+
+    private FSAAutomaton pregReplace(String pattern, String replace, FSAAutomaton subject) {
+        return FSAUtils.reg_replace(FSAAutomaton.makeString(pattern), FSAAutomaton.makeString(replace), subject,
+            true, null);
+    }
+
+//  ********************************************************************************
+//  TESTS **************************************************************************
+//  ********************************************************************************
+
+    public void testUndesired() {
+        Assert.assertTrue(FSAAutomaton.makeString("abc").intersect(this.undesiredXSS).isEmpty());
+        Assert.assertFalse(FSAAutomaton.makeString("a<b").intersect(this.undesiredXSS).isEmpty());
+        Assert.assertFalse(FSAAutomaton.makeAnyString().intersect(this.undesiredXSS).isEmpty());
+
+        Assert.assertTrue(FSAAutomaton.makeString("a\\'b").intersect(this.undesiredSQL).isEmpty());
+        Assert.assertFalse(FSAAutomaton.makeString("a\\\\'b").intersect(this.undesiredSQL).isEmpty());
+        Assert.assertFalse(FSAAutomaton.makeString("'").intersect(this.undesiredSQL).isEmpty());
+    }
+
+    public void testStrReplaceFinite() {
+        Assert.assertEquals("aybyy", this.strReplace("x", "y", "axbxx"));
+        Assert.assertEquals("ba", this.strReplace("aa", "b", "aaa"));
+        Assert.assertEquals("aX", this.strReplace("ab", "X", "aab"));
+        Assert.assertEquals("abX", this.strReplace("abc", "X", "ababc"));
+        Assert.assertEquals("ab", this.strReplace("abc", "X", "ab"));
+        Assert.assertEquals("", this.strReplace("a", "", "aaa"));
+    }
+
+    public void testStrReplaceSanitizes() {
+        FSAAutomaton replaced = FSAUtils.str_replace(FSAAutomaton.makeString("<"), FSAAutomaton.makeString("&lt;"),
+            FSAAutomaton.makeAnyString(), null);
+        Assert.assertTrue(replaced.intersect(this.undesiredXSS).isEmpty());
+
+        replaced = FSAUtils.str_replace(FSAAutomaton.makeString(">"), FSAAutomaton.makeString("&gt;"),
+            FSAAutomaton.makeAnyString(), null);
+        Assert.assertFalse(replaced.intersect(this.undesiredXSS).isEmpty());
+    }
+
+    public void testAddslashes() {
+        FSAAutomaton escaped = FSAUtils.addslashes(FSAAutomaton.makeAnyString(), null);
+        Assert.assertTrue(escaped.intersect(this.undesiredSQL).isEmpty());
+
+        // escaping the quotes alone is not enough
+        FSAAutomaton quotesOnly = FSAUtils.str_replace(FSAAutomaton.makeString("'"),
+            FSAAutomaton.makeString("\\'"), FSAAutomaton.makeAnyString(), null);
+        Assert.assertFalse(quotesOnly.intersect(this.undesiredSQL).isEmpty());
+    }
+
+    public void testPregReplace() {
+        FSAAutomaton any = FSAAutomaton.makeAnyString();
+        Assert.assertTrue(this.pregReplace("/[^a-z]/", "", any).intersect(this.undesiredXSS).isEmpty());
+        Assert.assertTrue(this.pregReplace("/[^a-z0-9_]+/", "-", any).intersect(this.undesiredXSS).isEmpty());
+        Assert.assertTrue(this.pregReplace("/(<|>)/", "", any).intersect(this.undesiredXSS).isEmpty());
+        Assert.assertFalse(this.pregReplace("/[a-z]/", "", any).intersect(this.undesiredXSS).isEmpty());
+
+        Assert.assertEquals("a-b-c", this.pregReplace("/[^a-z]+/", "-",
+            FSAAutomaton.makeString("a<>b!c")).getFiniteString());
+    }
+
+    public void testUnbalancedRegex() {
+        Assert.assertTrue(Regex2Automaton.convertPhpRegex("/(a|b)c/", true).run("bc"));
+
+        String[] faulty = {"/a)/", "/(a/", "/a|b)/", "/((a)/", "/(a))/"};
+        for (String regex : faulty) {
+            try {
+                Regex2Automaton.convertPhpRegex(regex, true);
+                Assert.fail(regex);
+            } catch (UnsupportedRegexException e) {
+                Assert.fail(regex);
+            } catch (RuntimeException e) {
+                // expected
+            }
+        }
+    }
+}
\ No newline at end of file
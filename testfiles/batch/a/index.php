@@ -0,0 +1,3 @@
+<?php
+echo $_GET["x"];
+?>
\ No newline at end of file
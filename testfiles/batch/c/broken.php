@@ -0,0 +1,3 @@
+<?php
+if ( {
+?>
\ No newline at end of file
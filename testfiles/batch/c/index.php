@@ -0,0 +1,5 @@
+<?php
+$y = $_GET["y"];
+echo "ok";
+echo $y;
+?>
\ No newline at end of file
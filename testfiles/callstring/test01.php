@@ -0,0 +1,14 @@
+<?php
+function h() {
+    return 1;
+}
+function g() {
+    return h();
+}
+function f() {
+    return g();
+}
+$a = f();
+$b = f();
+echo $a . $b;
+?>
\ No newline at end of file
@@ -0,0 +1,11 @@
+<?php
+// w() has so many call sites that it is analyzed context-insensitively with -K,
+// although its caller f() is not
+function w($x) {
+    return $x;
+}
+function f() {
+    return w(0) . w(1) . w(2) . w(3) . w(4) . w(5) . w(6) . w(7) . w(8) . w(9) . w(10) . w(11) . w(12) . w(13) . w(14) . w(15);
+}
+echo f();
+?>
\ No newline at end of file
@@ -0,0 +1,22 @@
+<?php
+
+// functional analysis: the two calls of wrap() lead to values that only
+// differ in globals that show() does not access, so show() is analyzed
+// under a single context
+
+function show($text) {
+    global $prefix;
+    echo $prefix . $text;
+}
+
+function wrap($text) {
+    show($text);
+}
+
+$prefix = "x";
+$a = $_GET["a"];
+wrap("one");
+$b = "b";
+wrap("two");
+echo $a . $b;
+?>
\ No newline at end of file
@@ -0,0 +1,16 @@
+<?php
+
+// non-literal includes whose outcome changes in later iterations:
+// the include in f() can only be reached once test16a.php has been
+// included, and the include of $_GET['page'] can't be affected by
+// anything that is included later
+
+function f($file) {
+    include $file;
+}
+
+include $_GET['page'];
+$ime = 'test16a.php';
+include $ime;
+
+?>
\ No newline at end of file
@@ -0,0 +1,5 @@
+<?php
+
+f('test16b.php');
+
+?>
\ No newline at end of file
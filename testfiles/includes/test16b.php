@@ -0,0 +1,5 @@
+<?php
+
+echo $_GET['x'];
+
+?>
\ No newline at end of file
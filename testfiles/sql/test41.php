@@ -0,0 +1,19 @@
+<? //
+
+// the same subgraphs (function return value, constant) feed several sinks;
+// their automata are shared across the graphs
+
+function q($x) {
+    return "SELECT * FROM t WHERE a='" . $x . "' AND b=" . CONSTX;
+}
+
+$a = q($evil);
+mysql_query($a);
+mysql_query($a . " LIMIT 1");
+mysql_query(q('lit'));
+
+
+
+
+
+?>
\ No newline at end of file
@@ -0,0 +1,7 @@
+<?php
+
+$a = $_GET['a'];
+$b = str_replace("'", "\\'", $a);
+mysql_query("SELECT x FROM t WHERE y='" . $b . "'");
+
+?>
@@ -0,0 +1,15 @@
+<?php
+function f($x) {
+    if ($x) {
+        $y = 1;
+    } else {
+        $y = 2;
+    }
+    return $y;
+}
+$a = f(1);
+while ($a) {
+    $a = f($a);
+}
+echo $a;
+?>
\ No newline at end of file
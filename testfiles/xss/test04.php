@@ -0,0 +1,24 @@
+<?php
+
+// the call to foo() has to be re-evaluated when $g and $l change at the
+// end of the loops, even though foo() accesses neither of them
+function foo() {
+    return 1;
+}
+
+function bar($x) {
+    $l = 1;
+    while ($x) {
+        foo();
+        echo $l;
+        $l = $_GET['x'];
+    }
+}
+
+$g = 1;
+while ($x) {
+    foo();
+    echo $g;
+    $g = $_GET['x'];
+}
+bar(1);
\ No newline at end of file
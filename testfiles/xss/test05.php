@@ -0,0 +1,34 @@
+<?php
+
+// library functions that can be summarized; the results must not depend
+// on whether the summaries are used (and on where they come from)
+function set_name() {
+    global $name;
+    $name = $_GET['name'];
+}
+
+function reset_name() {
+    global $name;
+    $name = 'anonymous';
+}
+
+function clean($s) {
+    return htmlentities($s);
+}
+
+function wrap($s) {
+    return '<b>' . $s . '</b>';
+}
+
+function show($s) {
+    echo wrap($s);
+}
+
+set_name();
+echo $name;
+reset_name();
+echo $name;
+echo clean($_GET['x']);
+echo wrap($_GET['y']);
+show($_GET['z']);
+show('static');
\ No newline at end of file
@@ -0,0 +1,14 @@
+<?php
+
+// context-insensitive analysis (k = 0) mixes up the two calls to the
+// small leaf function foo(); with adapted call-string lengths, foo()
+// gets a longer call string and only the first echo is reported
+function foo($p) {
+    return $p;
+}
+
+$a = foo($_GET['x']);
+$b = foo('good');
+
+echo $a;
+echo $b;
\ No newline at end of file